@@ -1,7 +1,10 @@
 package minesweeper;
 
+import minesweeper.model.BoardPool;
+import minesweeper.model.GameActor;
 import minesweeper.model.MinesweeperGame;
 import minesweeper.model.RelocatingSaboteur;
+import minesweeper.model.SnapshotPublisher;
 import minesweeper.view.MinesweeperPanel;
 
 import javax.swing.*;
@@ -20,13 +23,19 @@ public class Main {
 
         // Создаем модель игры
         MinesweeperGame game = new MinesweeperGame(rows, cols, mineCount, lives, saboteur);
+        // Пул заранее сгенерированных полей, чтобы "Новая игра" не ждала генерации
+        game.setBoardPool(new BoardPool(2));
+        // Ходы выполняются в отдельном потоке, а интерфейс рисует опубликованные снимки
+        SnapshotPublisher snapshots = new SnapshotPublisher(game);
+        GameActor actor = new GameActor(game);
+        actor.addBatchListener(snapshots);
 
         // Создаем UI
         SwingUtilities.invokeLater(() -> {
             JFrame frame = new JFrame("Сапёр (Расширенный)");
             frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
-            MinesweeperPanel panel = new MinesweeperPanel(game);
+            MinesweeperPanel panel = new MinesweeperPanel(actor, snapshots);
             frame.add(panel, BorderLayout.CENTER);
 
             // ----- ВКЛЮЧЕНИЕ РЕЖИМА ОТОБРАЖЕНИЯ МИН -----
@@ -40,8 +49,8 @@ public class Main {
             newGameItem.addActionListener(e -> {
                 // Здесь можно добавить диалог для ввода параметров новой игры
                 // Для простоты, перезапускаем с теми же параметрами
-                game.startGame();
-                // panel.repaint(); // repaint() будет вызван автоматически из-за GameEvent.GAME_STARTED
+                actor.startGame();
+                // panel.repaint(); // repaint() будет вызван автоматически после публикации снимка
             });
             gameMenu.add(newGameItem);
 
@@ -65,7 +74,7 @@ public class Main {
             frame.setVisible(true);
 
             // Начинаем игру после того, как UI готов
-            game.startGame();
+            actor.startGame();
         });
     }
 }
\ No newline at end of file
@@ -0,0 +1,229 @@
+package minesweeper.model;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пул заранее сгенерированных игровых полей ({@link MineField}).
+ * Поля готовятся в фоновых потоках с низким приоритетом отдельно для каждой комбинации
+ * (строки, столбцы, мины, режим генерации) и выдаются игре в {@link MinesweeperGame#startGame()}.
+ * После каждой выдачи пул асинхронно пополняется до заданного размера.
+ * <p>
+ * Если готового поля нет, оно генерируется синхронно в вызывающем потоке ("промах").
+ * Счетчики попаданий и промахов доступны через {@link #getHits()} и {@link #getMisses()}.
+ */
+public class BoardPool implements AutoCloseable {
+    /**
+     * Ключ пула: параметры, определяющие вид сгенерированного поля.
+     */
+    private record Key(int rows, int columns, int mines, MineField.GenerationMode mode) {
+    }
+
+    /**
+     * Очередь готовых полей одного ключа. {@code reserved} — сколько полей готово или генерируется:
+     * место под новое поле резервируется одной CAS-операцией, поэтому одновременные пополнения
+     * не превышают {@code targetSize}.
+     */
+    private static final class Slot {
+        private final Queue<MineField> ready = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger readyCount = new AtomicInteger();
+        private final AtomicInteger reserved = new AtomicInteger();
+    }
+
+    /**
+     * Сколько готовых полей держать для каждого ключа.
+     */
+    private final int targetSize;
+    /**
+     * Фоновый исполнитель, генерирующий поля.
+     */
+    private final ExecutorService executor;
+    /**
+     * Очереди готовых полей по ключам.
+     */
+    private final Map<Key, Slot> slots = new ConcurrentHashMap<>();
+    /**
+     * Количество выдач, обслуженных готовым полем.
+     */
+    private final AtomicLong hits = new AtomicLong();
+    /**
+     * Количество выдач, для которых поле пришлось генерировать синхронно.
+     */
+    private final AtomicLong misses = new AtomicLong();
+    /**
+     * Отработавшие поля, которые переиспользуются вместо выделения новых.
+     */
+    private final MineFieldRecycler recycler;
+
+    /**
+     * Создает пул с одним фоновым потоком генерации.
+     *
+     * @param targetSize Сколько готовых полей держать для каждого набора параметров. Должно быть положительным.
+     * @throws IllegalArgumentException если {@code targetSize} не положителен.
+     */
+    public BoardPool(int targetSize) {
+        this(targetSize, 1);
+    }
+
+    /**
+     * Создает пул с заданным числом фоновых потоков генерации.
+     * Потоки являются демонами и работают с минимальным приоритетом,
+     * чтобы не мешать игровому и UI потокам.
+     *
+     * @param targetSize Сколько готовых полей держать для каждого набора параметров. Должно быть положительным.
+     * @param threads    Количество фоновых потоков. Должно быть положительным.
+     * @throws IllegalArgumentException если параметры не положительны.
+     */
+    public BoardPool(int targetSize, int threads) {
+        if (targetSize <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("Размер пула и число потоков должны быть положительными.");
+        }
+        this.targetSize = targetSize;
+        this.recycler = new MineFieldRecycler(targetSize);
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "board-pool-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        };
+        this.executor = Executors.newFixedThreadPool(threads, factory);
+    }
+
+    /**
+     * Регистрирует набор параметров в пуле и запускает фоновое заполнение до {@code targetSize} полей.
+     *
+     * @param rows    Количество строк.
+     * @param columns Количество столбцов.
+     * @param mines   Количество мин.
+     * @param mode    Режим генерации.
+     */
+    public void prefill(int rows, int columns, int mines, MineField.GenerationMode mode) {
+        Key key = new Key(rows, columns, mines, mode);
+        refill(key, slotFor(key));
+    }
+
+    /**
+     * Выдает готовое поле с размещенными минами. Если готового поля нет, генерирует его синхронно.
+     * В обоих случаях запускает фоновое пополнение пула для этих параметров.
+     * Выданное поле не публикует глобальные диапазоны {@link minesweeper.model.navigation.CellPosition};
+     * это делает игра при установке поля.
+     *
+     * @param rows    Количество строк.
+     * @param columns Количество столбцов.
+     * @param mines   Количество мин.
+     * @param mode    Режим генерации.
+     * @return Новое поле с размещенными минами, еще не использовавшееся ни в одной игре.
+     */
+    public MineField take(int rows, int columns, int mines, MineField.GenerationMode mode) {
+        Key key = new Key(rows, columns, mines, mode);
+        Slot slot = slotFor(key);
+        MineField field = slot.ready.poll();
+        if (field != null) {
+            slot.readyCount.decrementAndGet();
+            slot.reserved.decrementAndGet();
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            field = generate(key);
+        }
+        refill(key, slot);
+        return field;
+    }
+
+    /**
+     * Возвращает количество готовых полей для указанных параметров.
+     *
+     * @param rows    Количество строк.
+     * @param columns Количество столбцов.
+     * @param mines   Количество мин.
+     * @param mode    Режим генерации.
+     * @return Количество полей, которые можно выдать без генерации.
+     */
+    public int available(int rows, int columns, int mines, MineField.GenerationMode mode) {
+        Slot slot = slots.get(new Key(rows, columns, mines, mode));
+        return slot == null ? 0 : slot.readyCount.get();
+    }
+
+    /**
+     * Возвращает отработавшее поле, чтобы фоновая генерация могла сбросить его на месте
+     * вместо выделения нового. Поле не должно больше использоваться вызывающей стороной.
+     *
+     * @param field Отработавшее поле. {@code null} игнорируется.
+     */
+    public void recycle(MineField field) {
+        recycler.release(field);
+    }
+
+    /**
+     * @return Количество выдач, обслуженных заранее сгенерированным полем.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return Количество выдач, для которых поле генерировалось синхронно.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Останавливает фоновую генерацию. Уже готовые поля остаются доступны через {@link #take}.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private Slot slotFor(Key key) {
+        return slots.computeIfAbsent(key, k -> new Slot());
+    }
+
+    /**
+     * Запускает фоновую генерацию недостающих полей для ключа.
+     */
+    private void refill(Key key, Slot slot) {
+        while (true) {
+            int current = slot.reserved.get();
+            if (current >= targetSize) {
+                return;
+            }
+            if (!slot.reserved.compareAndSet(current, current + 1)) {
+                continue; // Место заняло другое пополнение, проверяем заново
+            }
+            try {
+                executor.execute(() -> {
+                    boolean generated = false;
+                    try {
+                        slot.ready.add(generate(key));
+                        slot.readyCount.incrementAndGet();
+                        generated = true;
+                    } finally {
+                        if (!generated) {
+                            slot.reserved.decrementAndGet();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                slot.reserved.decrementAndGet(); // Пул закрыт, пополнять больше некому
+                return;
+            }
+        }
+    }
+
+    private MineField generate(Key key) {
+        MineField field = recycler.acquire(key.rows(), key.columns(), key.mines());
+        field.placeMinesOnNewField(key.mode());
+        return field;
+    }
+}
@@ -0,0 +1,547 @@
+package minesweeper.model;
+
+import minesweeper.model.events.CellChangeListener;
+import minesweeper.model.journal.JournalReader;
+import minesweeper.model.journal.JournalReplayer;
+import minesweeper.model.journal.MoveJournal;
+import minesweeper.model.storage.CellStorage;
+import minesweeper.model.storage.CellStorages;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32C;
+
+/**
+ * Инкрементальные контрольные точки долгой партии. Вместе с {@link MoveJournal журналом ходов}
+ * позволяет восстановить игру после сбоя, не воспроизводя журнал с начала: {@link #recover}
+ * загружает последнюю контрольную точку и воспроизводит только хвост журнала после нее.
+ * <p>
+ * В каталоге контрольных точек два файла:
+ * <ul>
+ *     <li>{@code pages.dat} — страницы блоков поля ({@link DirtyChunkSet}), по байту состояния
+ *     {@link CellChangeListener} на ячейку. У каждого блока два места (теневые страницы): новая версия
+ *     пишется в место, на которое не ссылается текущий манифест, так что прерванная запись
+ *     не портит последнюю целую контрольную точку;</li>
+ *     <li>{@code manifest} — параметры и состояние партии, смещение в журнале, и для каждого блока —
+ *     есть ли у него страница (пустые блоки не пишутся) и в каком месте она лежит. Манифест пишется
+ *     во временный файл и атомарно подменяет прежний, поэтому контрольная точка появляется целиком
+ *     или не появляется вовсе.</li>
+ * </ul>
+ * <p>
+ * {@link #checkpoint()} вызывается в потоке игры между ходами. Он забирает номера блоков, изменившихся
+ * с предыдущей точки, и сразу возвращается; страницы и манифест пишет один фоновый поток,
+ * ограничивая скорость записи, чтобы не отнимать диск у журнала. Пока предыдущая точка пишется,
+ * новая не снимается: измененные блоки просто копятся до следующего вызова.
+ * <p>
+ * Если хранилище поля копируется без копирования ячеек ({@link CellStorage#forksCheaply()},
+ * например {@link minesweeper.model.storage.ChunkedCellStorage}), в потоке игры снимается только
+ * {@link MineField#snapshot() снимок} поля, а страницы из него собирает фоновый поток. Иначе измененные
+ * блоки копируются в потоке игры; первая точка и первая точка после смены поля сохраняют все блоки,
+ * так что для очень больших полей стоит выбирать хранилище через {@link CellStorages#forDensity}.
+ * <p>
+ * Поле из пула ({@link BoardPool}) может вернуться в игру тем же объектом, но при возврате в пул
+ * его слушатели, в том числе набор измененных блоков, отключаются. Поэтому смена поля определяется
+ * по набору, который возвращает {@link MineField#getDirtyChunks()}: новый набор значит новую партию,
+ * и все ее блоки считаются измененными.
+ * <p>
+ * Контрольная точка не меняет игру, в том числе не трогает историю ходов. Восстановленная из точки игра
+ * начинает с пустой историей; если хвост журнала отменяет или повторяет ход, сделанный до точки,
+ * {@link #recover} воспроизводит журнал с начала партии.
+ */
+public final class Checkpointer implements Closeable {
+    /**
+     * Ограничение скорости записи страниц по умолчанию, байт в секунду.
+     */
+    public static final long DEFAULT_BYTES_PER_SECOND = 16L << 20;
+    /**
+     * Минимальный интервал между контрольными точками для {@link #maybeCheckpoint()} по умолчанию.
+     */
+    public static final long DEFAULT_INTERVAL_MILLIS = 5_000;
+
+    static final String PAGES_FILE = "pages.dat";
+    static final String MANIFEST_FILE = "manifest";
+    private static final String MANIFEST_TEMP_FILE = "manifest.tmp";
+
+    private static final long MAGIC = 0x4D535750_434B5054L;
+    private static final int VERSION = 1;
+    private static final int MANIFEST_HEADER_SIZE = 72;
+    private static final int FLAG_SEED_KNOWN = 1;
+    private static final int PAGE_SIZE = DirtyChunkSet.CHUNK_SIZE * DirtyChunkSet.CHUNK_SIZE;
+
+    private static final MinesweeperGame.GameState[] STATES = MinesweeperGame.GameState.values();
+    private static final MineField.GenerationMode[] MODES = MineField.GenerationMode.values();
+
+    private final MinesweeperGame game;
+    private final Path directory;
+    private final FileChannel pages;
+    private final long bytesPerSecond;
+    private final long intervalNanos;
+    private final ExecutorService writer;
+
+    private MineField field;
+    private DirtyChunkSet dirty;
+    private Future<?> pending;
+    private long lastCaptureNanos;
+
+    // Состояние последнего записанного манифеста; меняется только в фоновом потоке
+    // и только после того, как новый манифест атомарно подменил прежний
+    private long[] present;
+    private long[] slots;
+    private long sequence;
+    private volatile long completed;
+
+    private Checkpointer(MinesweeperGame game, Path directory, FileChannel pages, Manifest previous,
+                         long bytesPerSecond, long intervalMillis) {
+        this.game = game;
+        this.directory = directory;
+        this.pages = pages;
+        this.bytesPerSecond = bytesPerSecond;
+        this.intervalNanos = intervalMillis * 1_000_000;
+        this.field = game.getMineField();
+        this.dirty = field.getDirtyChunks();
+        this.dirty.markAll(); // Первая точка сохраняет поле целиком
+        int words = (dirty.chunkCount() + 63) >>> 6;
+        this.present = previous != null ? previous.present : new long[words];
+        this.slots = previous != null ? previous.slots : new long[words];
+        this.sequence = previous != null ? previous.sequence : 0;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkpoint-writer");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        this.lastCaptureNanos = System.nanoTime() - intervalNanos;
+    }
+
+    /**
+     * Создает контрольные точки игры в каталоге со скоростью и интервалом по умолчанию.
+     *
+     * @param game      Игра. Ее журнал ходов, если он подключен, используется при восстановлении.
+     * @param directory Каталог контрольных точек; создается при необходимости.
+     * @return Объект контрольных точек; первая точка еще не снята.
+     * @throws IOException при ошибке ввода-вывода.
+     */
+    public static Checkpointer create(MinesweeperGame game, Path directory) throws IOException {
+        return create(game, directory, DEFAULT_BYTES_PER_SECOND, DEFAULT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Создает контрольные точки игры в каталоге. Если в каталоге уже есть точка поля того же размера,
+     * она остается действительной, пока ее не заменит новая.
+     *
+     * @param game           Игра.
+     * @param directory      Каталог контрольных точек; создается при необходимости.
+     * @param bytesPerSecond Ограничение скорости записи страниц, байт в секунду.
+     * @param intervalMillis Минимальный интервал между точками для {@link #maybeCheckpoint()}.
+     * @return Объект контрольных точек.
+     * @throws IOException              при ошибке ввода-вывода.
+     * @throws IllegalArgumentException если скорость не положительна или интервал отрицателен.
+     */
+    public static Checkpointer create(MinesweeperGame game, Path directory, long bytesPerSecond,
+                                      long intervalMillis) throws IOException {
+        if (bytesPerSecond <= 0 || intervalMillis < 0) {
+            throw new IllegalArgumentException("Скорость записи должна быть положительной, а интервал — неотрицательным.");
+        }
+        Files.createDirectories(directory);
+        Manifest previous = null;
+        try {
+            previous = readManifest(directory);
+        } catch (IOException e) {
+            // Поврежденный или чужой манифест не мешает начать заново
+        }
+        MineField field = game.getMineField();
+        if (previous != null && (previous.rows != field.getRows() || previous.columns != field.getColumns())) {
+            // Страницы поля другого размера будут перезаписаны, поэтому прежняя точка больше недействительна
+            Files.delete(directory.resolve(MANIFEST_FILE));
+            previous = null;
+        }
+        FileChannel pages = FileChannel.open(directory.resolve(PAGES_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Checkpointer(game, directory, pages, previous, bytesPerSecond, intervalMillis);
+    }
+
+    /**
+     * Снимает контрольную точку, если предыдущая уже записана. Вызывается в потоке игры между ходами:
+     * копирует измененные блоки и состояние партии, а запись передает фоновому потоку.
+     *
+     * @return {@code true}, если точка снята и поставлена в очередь записи; {@code false}, если
+     * еще пишется предыдущая.
+     * @throws IOException если запись предыдущей точки завершилась ошибкой. Блоки при этом снова
+     *                     помечаются, так что следующая точка их сохранит.
+     */
+    public boolean checkpoint() throws IOException {
+        if (pending != null) {
+            if (!pending.isDone()) {
+                return false;
+            }
+            Future<?> finished = pending;
+            pending = null;
+            try {
+                finished.get();
+            } catch (ExecutionException e) {
+                dirty.markAll();
+                throw e.getCause() instanceof UncheckedIOException u ? u.getCause()
+                        : new IOException("Не удалось записать контрольную точку.", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        MineField current = game.getMineField();
+        DirtyChunkSet chunks = current.getDirtyChunks();
+        if (current != field || chunks != dirty) { // Новая партия: новый набор создается со всеми блоками
+            field = current;
+            dirty = chunks;
+        }
+        Snapshot snapshot = capture();
+        lastCaptureNanos = System.nanoTime();
+        pending = writer.submit(() -> {
+            try {
+                write(snapshot);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Снимает контрольную точку, если с предыдущей прошло не меньше заданного интервала.
+     * Удобно вызывать после каждого хода.
+     *
+     * @return {@code true}, если точка снята.
+     * @throws IOException если запись предыдущей точки завершилась ошибкой.
+     */
+    public boolean maybeCheckpoint() throws IOException {
+        if (System.nanoTime() - lastCaptureNanos < intervalNanos) {
+            return false;
+        }
+        return checkpoint();
+    }
+
+    /**
+     * Дожидается записи последней снятой контрольной точки.
+     *
+     * @throws IOException если запись завершилась ошибкой.
+     */
+    public void awaitWritten() throws IOException {
+        if (pending == null) {
+            return;
+        }
+        try {
+            pending.get();
+        } catch (ExecutionException e) {
+            pending = null;
+            dirty.markAll();
+            throw e.getCause() instanceof UncheckedIOException u ? u.getCause()
+                    : new IOException("Не удалось записать контрольную точку.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return Количество контрольных точек, записанных с момента создания.
+     */
+    public long completedCheckpoints() {
+        return completed;
+    }
+
+    /**
+     * Дожидается записи последней точки и закрывает файл страниц.
+     *
+     * @throws IOException при ошибке записи или закрытия.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            awaitWritten();
+        } finally {
+            writer.shutdown();
+            pages.close();
+        }
+    }
+
+    private Snapshot capture() {
+        int[] chunks = dirty.drain();
+        int rows = field.getRows();
+        int columns = field.getColumns();
+        MineField source = null;
+        byte[][] data = null;
+        if (field.getStorage().forksCheaply()) {
+            source = field.snapshot(); // Страницы соберет фоновый поток
+        } else {
+            data = new byte[chunks.length][];
+            for (int i = 0; i < chunks.length; i++) {
+                data[i] = copyChunk(field, chunks[i], dirty.chunkColumns());
+            }
+        }
+        MoveJournal journal = game.getMoveJournal();
+        OptionalLong seed = game.getSeed();
+        return new Snapshot(chunks, source, data, rows, columns, game.getInitialMineCount(), field.getMineCount(),
+                game.getInitialLives(), game.getPlayer().getLives(), game.getGameState(), game.getGenerationMode(),
+                game.getHistoryDepth(), seed, journal, journal != null ? journal.size() : 0);
+    }
+
+    /**
+     * Копирует состояния ячеек блока в страницу.
+     *
+     * @return Страница или {@code null}, если блок пуст: пустой блок восстанавливается без страницы.
+     */
+    private static byte[] copyChunk(MineField field, int chunk, int chunkColumns) {
+        int firstRow = chunk / chunkColumns << DirtyChunkSet.CHUNK_SHIFT;
+        int firstColumn = chunk % chunkColumns << DirtyChunkSet.CHUNK_SHIFT;
+        int lastRow = Math.min(field.getRows(), firstRow + DirtyChunkSet.CHUNK_SIZE);
+        int lastColumn = Math.min(field.getColumns(), firstColumn + DirtyChunkSet.CHUNK_SIZE);
+        byte[] page = new byte[PAGE_SIZE];
+        boolean empty = true;
+        for (int r = firstRow; r < lastRow; r++) {
+            int base = (r - firstRow) << DirtyChunkSet.CHUNK_SHIFT;
+            for (int c = firstColumn; c < lastColumn; c++) {
+                int state = field.cellState(r, c);
+                page[base + c - firstColumn] = (byte) state;
+                empty &= state == 0;
+            }
+        }
+        return empty ? null : page;
+    }
+
+    private void write(Snapshot snapshot) throws IOException {
+        long started = System.nanoTime();
+        long written = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+        // Новые карты строятся на копиях: пока манифест не подменен, действует прежний,
+        // и его места нельзя считать свободными даже после ошибки записи
+        long[] nextPresent = present.clone();
+        long[] nextSlots = slots.clone();
+        int chunkColumns = (snapshot.columns + DirtyChunkSet.CHUNK_SIZE - 1) >>> DirtyChunkSet.CHUNK_SHIFT;
+        for (int i = 0; i < snapshot.chunks.length; i++) {
+            int chunk = snapshot.chunks[i];
+            long bit = 1L << chunk;
+            byte[] page = snapshot.data != null ? snapshot.data[i] : copyChunk(snapshot.source, chunk, chunkColumns);
+            if (page == null) {
+                nextPresent[chunk >>> 6] &= ~bit;
+                continue;
+            }
+            long slot = (slots[chunk >>> 6] & bit) != 0 ? 0 : 1; // Место, на которое не ссылается манифест
+            buffer.clear();
+            buffer.put(page).flip();
+            long position = ((long) chunk * 2 + slot) * PAGE_SIZE;
+            while (buffer.hasRemaining()) {
+                position += pages.write(buffer, position);
+            }
+            nextPresent[chunk >>> 6] |= bit;
+            nextSlots[chunk >>> 6] ^= bit;
+            written += PAGE_SIZE;
+            long ahead = written * 1_000_000_000 / bytesPerSecond - (System.nanoTime() - started);
+            if (ahead > 0) {
+                LockSupport.parkNanos(ahead);
+            }
+        }
+        pages.force(false);
+        if (snapshot.journal != null) {
+            snapshot.journal.sync(); // Манифест не должен ссылаться на незафиксированную часть журнала
+        }
+        writeManifest(snapshot, nextPresent, nextSlots, sequence + 1);
+        present = nextPresent;
+        slots = nextSlots;
+        sequence++;
+        completed++;
+    }
+
+    private void writeManifest(Snapshot s, long[] present, long[] slots, long sequence) throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(MANIFEST_HEADER_SIZE + 2 * present.length * Long.BYTES + Integer.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        out.putLong(MAGIC).putInt(VERSION)
+                .putInt(s.seed.isPresent() ? FLAG_SEED_KNOWN : 0)
+                .putInt(s.rows).putInt(s.columns)
+                .putInt(s.initialMines).putInt(s.mineCount).putInt(s.initialLives).putInt(s.lives)
+                .put((byte) s.state.ordinal()).put((byte) s.mode.ordinal()).putShort((short) 0)
+                .putInt(s.historyDepth)
+                .putLong(s.seed.orElse(0)).putLong(s.journalOffset).putLong(sequence);
+        for (long word : present) {
+            out.putLong(word);
+        }
+        for (long word : slots) {
+            out.putLong(word);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(out.array(), 0, out.position());
+        out.putInt((int) crc.getValue()).flip();
+
+        Path temp = directory.resolve(MANIFEST_TEMP_FILE);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(MANIFEST_FILE), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Восстанавливает игру из последней контрольной точки и хвоста журнала ходов после нее.
+     * Если хвост отменяет или повторяет ход, сделанный до точки, партия воспроизводится по журналу
+     * с начала, вместе с историей ходов. Восстановленная игра журнал не ведет.
+     *
+     * @param directory Каталог контрольных точек.
+     * @param journal   Файл журнала ходов или {@code null}, если журнал не велся.
+     * @param saboteur  Диверсант восстановленной игры или {@code null}.
+     * @return Восстановленная игра.
+     * @throws IOException при ошибке чтения, если контрольной точки нет или она повреждена.
+     */
+    public static MinesweeperGame recover(Path directory, Path journal, Saboteur saboteur) throws IOException {
+        Manifest manifest = readManifest(directory);
+        if (manifest == null) {
+            throw new IOException("В каталоге нет контрольной точки: " + directory);
+        }
+        CellStorage storage;
+        MineField field;
+        MinesweeperGame game;
+        try {
+            storage = CellStorages.forDensity(manifest.rows, manifest.columns,
+                    Math.max(manifest.initialMines, manifest.mineCount));
+            field = new MineField(storage, manifest.mineCount);
+            game = new MinesweeperGame(field, manifest.initialMines, manifest.initialLives, saboteur);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Поврежден манифест контрольной точки: " + e.getMessage(), e);
+        }
+        int chunkColumns = (manifest.columns + DirtyChunkSet.CHUNK_SIZE - 1) >>> DirtyChunkSet.CHUNK_SHIFT;
+        int chunkCount = chunkColumns * ((manifest.rows + DirtyChunkSet.CHUNK_SIZE - 1) >>> DirtyChunkSet.CHUNK_SHIFT);
+        try (FileChannel pages = FileChannel.open(directory.resolve(PAGES_FILE), StandardOpenOption.READ)) {
+            ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE);
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                long bit = 1L << chunk;
+                if ((manifest.present[chunk >>> 6] & bit) == 0) {
+                    continue;
+                }
+                long slot = (manifest.slots[chunk >>> 6] & bit) != 0 ? 1 : 0;
+                long position = ((long) chunk * 2 + slot) * PAGE_SIZE;
+                page.clear();
+                while (page.hasRemaining() && pages.read(page, position + page.position()) > 0) {
+                    // Читаем страницу целиком
+                }
+                if (page.hasRemaining()) {
+                    throw new IOException("Файл страниц контрольной точки обрезан.");
+                }
+                loadPage(storage, page.array(), chunk / chunkColumns << DirtyChunkSet.CHUNK_SHIFT,
+                        chunk % chunkColumns << DirtyChunkSet.CHUNK_SHIFT);
+            }
+        }
+        field.calculateAllAdjacentMines();
+        game.setGenerationMode(manifest.mode);
+        game.setHistoryDepth(manifest.historyDepth);
+        game.restore(field, manifest.lives, manifest.state, manifest.seed);
+
+        if (journal != null && manifest.journalOffset > 0) {
+            try (JournalReader reader = JournalReader.open(journal)) {
+                reader.seek(manifest.journalOffset, manifest.columns);
+                game = JournalReplayer.resume(reader, game);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Журнал ходов короче, чем записано в контрольной точке.", e);
+            } catch (IllegalStateException e) {
+                // Истории ходов до точки в ней нет: восстанавливаем партию целиком по журналу
+                MinesweeperGame replayed = JournalReplayer.replay(journal);
+                if (replayed == null) {
+                    throw new IOException("В журнале ходов нет партии контрольной точки.", e);
+                }
+                replayed.setSaboteur(saboteur);
+                game = replayed;
+            }
+        }
+        return game;
+    }
+
+    private static void loadPage(CellStorage storage, byte[] page, int firstRow, int firstColumn) {
+        int rows = Math.min(storage.rows() - firstRow, DirtyChunkSet.CHUNK_SIZE);
+        int count = Math.min(storage.columns() - firstColumn, DirtyChunkSet.CHUNK_SIZE);
+        for (int r = 0; r < rows; r++) {
+            long mines = 0;
+            long open = 0;
+            long flagged = 0;
+            int base = r << DirtyChunkSet.CHUNK_SHIFT;
+            for (int c = 0; c < count; c++) {
+                int state = page[base + c];
+                mines |= (long) (state & CellChangeListener.MINE) << c;
+                open |= (long) ((state & CellChangeListener.OPEN) != 0 ? 1 : 0) << c;
+                flagged |= (long) ((state & CellChangeListener.FLAGGED) != 0 ? 1 : 0) << c;
+            }
+            if ((mines | open | flagged) != 0) {
+                storage.setCells((long) (firstRow + r) * storage.columns() + firstColumn, count, mines, open, flagged);
+            }
+        }
+    }
+
+    private static Manifest readManifest(Path directory) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(directory.resolve(MANIFEST_FILE));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        ByteBuffer in = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (bytes.length < MANIFEST_HEADER_SIZE + Integer.BYTES || in.getLong(0) != MAGIC || in.getInt(8) != VERSION) {
+            throw new IOException("Файл не является манифестом контрольной точки.");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, bytes.length - Integer.BYTES);
+        if ((int) crc.getValue() != in.getInt(bytes.length - Integer.BYTES)) {
+            throw new IOException("Манифест контрольной точки поврежден: не совпадает контрольная сумма.");
+        }
+        int flags = in.getInt(12);
+        int rows = in.getInt(16);
+        int columns = in.getInt(20);
+        int state = in.get(40);
+        int mode = in.get(41);
+        if (rows <= 0 || columns <= 0 || state < 0 || state >= STATES.length || mode < 0 || mode >= MODES.length) {
+            throw new IOException("Поврежден манифест контрольной точки.");
+        }
+        long chunks = (long) ((rows + DirtyChunkSet.CHUNK_SIZE - 1) >>> DirtyChunkSet.CHUNK_SHIFT)
+                * ((columns + DirtyChunkSet.CHUNK_SIZE - 1) >>> DirtyChunkSet.CHUNK_SHIFT);
+        int words = (int) ((chunks + 63) >>> 6);
+        if (bytes.length != MANIFEST_HEADER_SIZE + 2 * words * Long.BYTES + Integer.BYTES) {
+            throw new IOException("Поврежден манифест контрольной точки: неверный размер.");
+        }
+        long[] present = new long[words];
+        long[] slots = new long[words];
+        in.position(MANIFEST_HEADER_SIZE);
+        in.asLongBuffer().get(present).get(slots);
+        return new Manifest(rows, columns, in.getInt(24), in.getInt(28), in.getInt(32), in.getInt(36),
+                STATES[state], MODES[mode], in.getInt(44),
+                (flags & FLAG_SEED_KNOWN) != 0 ? OptionalLong.of(in.getLong(48)) : OptionalLong.empty(),
+                in.getLong(56), in.getLong(64), present, slots);
+    }
+
+    /**
+     * Измененные блоки и состояние партии, снятые в потоке игры. Блоки берутся либо из снимка поля
+     * {@code source}, либо из страниц {@code data}, скопированных в потоке игры; элемент {@code data}
+     * равен {@code null} для пустого блока.
+     */
+    private record Snapshot(int[] chunks, MineField source, byte[][] data, int rows, int columns, int initialMines, int mineCount,
+                            int initialLives, int lives, MinesweeperGame.GameState state,
+                            MineField.GenerationMode mode, int historyDepth, OptionalLong seed, MoveJournal journal,
+                            long journalOffset) {
+    }
+
+    private record Manifest(int rows, int columns, int initialMines, int mineCount, int initialLives, int lives,
+                            MinesweeperGame.GameState state, MineField.GenerationMode mode, int historyDepth,
+                            OptionalLong seed, long journalOffset, long sequence, long[] present, long[] slots) {
+    }
+}
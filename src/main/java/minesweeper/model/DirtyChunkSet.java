@@ -0,0 +1,124 @@
+package minesweeper.model;
+
+import minesweeper.model.events.CellChangeListener;
+
+/**
+ * Множество "грязных" блоков поля: квадратов {@value #CHUNK_SIZE}×{@value #CHUNK_SIZE} ячеек,
+ * изменившихся с момента последнего {@link #drain()}. Используется для инкрементальных контрольных
+ * точек ({@link Checkpointer}): сохранять нужно только блоки, которые менялись.
+ * <p>
+ * Множество подписано на изменения поля (см. {@link MineField#getDirtyChunks()}): точечное изменение
+ * помечает блок ячейки, а сброс или новая расстановка мин — все блоки. Хранится битовой маской
+ * по одному биту на блок. Как и поле, множество рассчитано на поток игры.
+ */
+public final class DirtyChunkSet implements CellChangeListener {
+    /**
+     * Двоичный логарифм стороны блока.
+     */
+    public static final int CHUNK_SHIFT = 6;
+    /**
+     * Сторона блока в ячейках.
+     */
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    private final int chunkRows;
+    private final int chunkColumns;
+    private final long[] bits;
+    private int dirtyCount;
+
+    /**
+     * Создает множество, в котором все блоки помечены: первая контрольная точка сохраняет поле целиком.
+     *
+     * @param rows    Количество строк поля.
+     * @param columns Количество столбцов поля.
+     */
+    DirtyChunkSet(int rows, int columns) {
+        this.chunkRows = (rows + CHUNK_SIZE - 1) >>> CHUNK_SHIFT;
+        this.chunkColumns = (columns + CHUNK_SIZE - 1) >>> CHUNK_SHIFT;
+        long count = (long) chunkRows * chunkColumns;
+        this.bits = new long[(int) ((count + 63) >>> 6)];
+        markAll();
+    }
+
+    /**
+     * @return Количество блоков по вертикали.
+     */
+    public int chunkRows() {
+        return chunkRows;
+    }
+
+    /**
+     * @return Количество блоков по горизонтали.
+     */
+    public int chunkColumns() {
+        return chunkColumns;
+    }
+
+    /**
+     * @return Общее количество блоков.
+     */
+    public int chunkCount() {
+        return chunkRows * chunkColumns;
+    }
+
+    /**
+     * @return Количество помеченных блоков.
+     */
+    public int dirtyCount() {
+        return dirtyCount;
+    }
+
+    /**
+     * @return {@code true}, если блок с указанным номером (в построчном порядке) помечен.
+     */
+    public boolean isDirty(int chunk) {
+        return (bits[chunk >>> 6] & (1L << chunk)) != 0;
+    }
+
+    /**
+     * Помечает все блоки.
+     */
+    public void markAll() {
+        int count = chunkCount();
+        for (int i = 0; i < bits.length; i++) {
+            int inWord = Math.min(64, count - (i << 6));
+            bits[i] = inWord == 64 ? -1L : (1L << inWord) - 1;
+        }
+        dirtyCount = count;
+    }
+
+    /**
+     * Возвращает номера помеченных блоков по возрастанию и снимает пометки.
+     *
+     * @return Номера блоков, изменившихся с предыдущего вызова.
+     */
+    public int[] drain() {
+        int[] result = new int[dirtyCount];
+        int n = 0;
+        for (int i = 0; i < bits.length; i++) {
+            long word = bits[i];
+            while (word != 0) {
+                result[n++] = (i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+            bits[i] = 0;
+        }
+        dirtyCount = 0;
+        return result;
+    }
+
+    @Override
+    public void cellChanged(int row, int column, int before, int after) {
+        int chunk = (row >>> CHUNK_SHIFT) * chunkColumns + (column >>> CHUNK_SHIFT);
+        long mask = 1L << chunk;
+        if ((bits[chunk >>> 6] & mask) == 0) {
+            bits[chunk >>> 6] |= mask;
+            dirtyCount++;
+        }
+    }
+
+    @Override
+    public void fieldChanged() {
+        markAll();
+    }
+}
@@ -0,0 +1,288 @@
+package minesweeper.model;
+
+import minesweeper.model.events.GameEvent;
+import minesweeper.model.events.GameEventBatch;
+import minesweeper.model.events.GameEventBatchListener;
+import minesweeper.model.navigation.CellPosition;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Однопоточный исполнитель команд одной игры ("актор"). {@link MinesweeperGame} не потокобезопасна;
+ * актор владеет игрой и применяет к ней команды (открытие, флаг, аккорд, новая партия) в своем
+ * потоке, так что вызывать его методы можно из любых потоков без внешних блокировок.
+ * <p>
+ * Команды попадают в ограниченную очередь без блокировок ({@link MpscMailbox}) и применяются в порядке
+ * поступления. Поток актора выбирает из очереди все накопившееся (до емкости очереди), применяет
+ * пачкой и затем рассылает слушателям одну сводку событий {@link GameEventBatch}, слитую из сводок
+ * отдельных команд (см. {@link MinesweeperGame#addGameEventBatchListener}). Под нагрузкой
+ * пачки растут сами собой, а перерисовка происходит раз на пачку, а не на ход. Исключение —
+ * открытие частями ({@link MinesweeperGame#setRevealSlice}): по {@link GameEvent.Type#REVEAL_PROGRESS}
+ * накопленное рассылается сразу, посреди команды, но не чаще раза в {@link #setProgressInterval интервал}
+ * (по умолчанию один кадр); части между рассылками сливаются в одну сводку.
+ * <p>
+ * Игрой после передачи актору можно пользоваться только из его команд ({@link #execute}).
+ * <p>
+ * Исключение (в том числе {@link Error}) в команде или в слушателе сводок передается обработчику
+ * необработанных исключений потока актора, и актор продолжает работу. Если поток все же завершился,
+ * актор считается закрытым и новые команды не принимает.
+ */
+public final class GameActor implements AutoCloseable {
+    /**
+     * Емкость очереди команд по умолчанию.
+     */
+    public static final int DEFAULT_MAILBOX_CAPACITY = 1024;
+    /**
+     * Наименьший промежуток между промежуточными рассылками по умолчанию, в микросекундах:
+     * один кадр при 60 Гц.
+     */
+    public static final long DEFAULT_PROGRESS_INTERVAL_MICROS = 16_667;
+
+    private enum Kind {OPEN, FLAG, CHORD, START, TASK}
+
+    /**
+     * Команда очереди. Для {@link Kind#TASK} позиция не используется.
+     */
+    private record Command(Kind kind, CellPosition position, Consumer<MinesweeperGame> task) {
+    }
+
+    private final MinesweeperGame game;
+    private final MpscMailbox<Command> mailbox;
+    private final List<GameEventBatchListener> listeners = new CopyOnWriteArrayList<>();
+    private final GameEventBatch.Builder batch = new GameEventBatch.Builder();
+    private final Thread thread;
+    private volatile long progressIntervalNanos = DEFAULT_PROGRESS_INTERVAL_MICROS * 1000;
+    /**
+     * Была ли промежуточная рассылка в текущей пачке и когда; используются только в потоке актора.
+     */
+    private boolean progressPublished;
+    private long progressPublishedNanos;
+    private volatile boolean waiting;
+    private volatile boolean closed;
+
+    /**
+     * Создает актор с очередью по умолчанию на виртуальном потоке.
+     *
+     * @param game Игра; дальше ею распоряжается актор.
+     */
+    public GameActor(MinesweeperGame game) {
+        this(game, DEFAULT_MAILBOX_CAPACITY, Thread.ofVirtual().name("game-actor").factory());
+    }
+
+    /**
+     * Создает актор и запускает его поток.
+     *
+     * @param game            Игра; дальше ею распоряжается актор.
+     * @param mailboxCapacity Емкость очереди команд (округляется вверх до степени двойки).
+     * @param threadFactory   Фабрика потока актора.
+     * @throws IllegalArgumentException если емкость не положительна.
+     */
+    public GameActor(MinesweeperGame game, int mailboxCapacity, ThreadFactory threadFactory) {
+        this.game = game;
+        this.mailbox = new MpscMailbox<>(mailboxCapacity);
+        // Сводки команд приходят только в потоке актора и сливаются в сводку пачки
+        GameEventBatchListener collector = commandBatch -> {
+            batch.merge(commandBatch);
+            if (commandBatch.contains(GameEvent.Type.REVEAL_PROGRESS)) {
+                publishProgress();
+            }
+        };
+        game.addGameEventBatchListener(collector);
+        this.thread = threadFactory.newThread(this::run);
+        thread.start();
+    }
+
+    /**
+     * Ставит в очередь открытие ячейки.
+     *
+     * @return {@code false}, если очередь заполнена или актор закрыт; команда тогда не принята.
+     */
+    public boolean open(CellPosition position) {
+        return send(new Command(Kind.OPEN, position, null));
+    }
+
+    /**
+     * Ставит в очередь переключение флага.
+     *
+     * @return {@code false}, если команда не принята.
+     */
+    public boolean toggleFlag(CellPosition position) {
+        return send(new Command(Kind.FLAG, position, null));
+    }
+
+    /**
+     * Ставит в очередь "аккорд" на открытой ячейке (см. {@link MinesweeperGame#chord}).
+     *
+     * @return {@code false}, если команда не принята.
+     */
+    public boolean chord(CellPosition position) {
+        return send(new Command(Kind.CHORD, position, null));
+    }
+
+    /**
+     * Ставит в очередь начало новой партии.
+     *
+     * @return {@code false}, если команда не принята.
+     */
+    public boolean startGame() {
+        return send(new Command(Kind.START, null, null));
+    }
+
+    /**
+     * Ставит в очередь произвольное действие над игрой (например, отмену хода или чтение состояния).
+     * Действие выполняется в потоке актора в общем порядке команд.
+     *
+     * @return {@code false}, если команда не принята.
+     */
+    public boolean execute(Consumer<MinesweeperGame> task) {
+        return send(new Command(Kind.TASK, null, task));
+    }
+
+    /**
+     * Регистрирует слушателя сводок. Слушатели вызываются в потоке актора.
+     */
+    public void addBatchListener(GameEventBatchListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Удаляет слушателя сводок.
+     */
+    public void removeBatchListener(GameEventBatchListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Задает наименьший промежуток между промежуточными рассылками при открытии частями.
+     * Первая часть пачки рассылается сразу, следующие — не раньше, чем через этот промежуток
+     * после предыдущей рассылки; сводка в конце пачки рассылается всегда.
+     *
+     * @param micros Промежуток в микросекундах или 0, чтобы рассылать каждую часть.
+     * @throws IllegalArgumentException если значение отрицательно.
+     */
+    public void setProgressInterval(long micros) {
+        if (micros < 0) {
+            throw new IllegalArgumentException("Промежуток между рассылками не может быть отрицательным: "
+                    + micros + " мкс.");
+        }
+        this.progressIntervalNanos = micros * 1000;
+    }
+
+    /**
+     * @return Емкость очереди команд.
+     */
+    public int mailboxCapacity() {
+        return mailbox.capacity();
+    }
+
+    /**
+     * Закрывает актор: новые команды не принимаются, уже принятые применяются,
+     * после чего поток актора завершается. Метод дожидается завершения. Команда, отправленная
+     * одновременно с закрытием, может быть отброшена.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(thread);
+        if (Thread.currentThread() != thread) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean send(Command command) {
+        if (closed || !mailbox.offer(command)) {
+            return false;
+        }
+        // Запись в очередь и чтение флага — обе volatile, поэтому пропустить засыпание получателя нельзя
+        if (waiting) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    private void run() {
+        try {
+            loop();
+        } finally {
+            closed = true; // Команды больше некому применять: отправители должны это видеть
+        }
+    }
+
+    private void loop() {
+        int capacity = mailbox.capacity();
+        while (true) {
+            int applied = mailbox.drain(this::apply, capacity);
+            if (applied > 0) {
+                publish();
+                progressPublished = false;
+                continue;
+            }
+            if (closed) {
+                if (mailbox.isEmpty()) {
+                    return;
+                }
+                continue; // Команда, принятая до закрытия
+            }
+            waiting = true;
+            if (mailbox.isEmpty() && !closed) {
+                LockSupport.park(this);
+            }
+            waiting = false;
+        }
+    }
+
+    private void apply(Command command) {
+        try {
+            switch (command.kind) {
+                case OPEN -> game.openCell(command.position);
+                case FLAG -> game.toggleFlag(command.position);
+                case CHORD -> game.chord(command.position);
+                case START -> game.startGame();
+                case TASK -> command.task.accept(game);
+            }
+        } catch (Throwable e) {
+            report(e); // Ошибка одной команды не должна останавливать актор
+        }
+        batch.commandApplied();
+    }
+
+    /**
+     * Передает исключение обработчику необработанных исключений потока актора.
+     */
+    private void report(Throwable e) {
+        Thread.UncaughtExceptionHandler handler = thread.getUncaughtExceptionHandler();
+        handler.uncaughtException(thread, e);
+    }
+
+    /**
+     * Рассылает промежуточный результат открытия, если с прошлой промежуточной рассылки прошел интервал.
+     */
+    private void publishProgress() {
+        long now = System.nanoTime();
+        if (progressPublished && now - progressPublishedNanos < progressIntervalNanos) {
+            return; // Часть сольется со следующими
+        }
+        progressPublished = true;
+        progressPublishedNanos = now;
+        publish();
+    }
+
+    private void publish() {
+        GameEventBatch events = batch.build(this);
+        for (GameEventBatchListener listener : listeners) {
+            try {
+                listener.batchApplied(events);
+            } catch (Throwable e) {
+                report(e); // Сбой одного слушателя не мешает остальным и не останавливает актор
+            }
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package minesweeper.model;
+
+import minesweeper.model.storage.CellStorage;
+import minesweeper.model.storage.CellStorages;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.OptionalLong;
+import java.util.zip.CRC32C;
+
+/**
+ * Двоичный формат сохранения игры {@link MinesweeperGame}.
+ * <p>
+ * Файл начинается с заголовка из {@value #HEADER_SIZE} байт (порядок байт little-endian):
+ * сигнатура, версия, флаги, размеры поля, начальное и текущее количество мин, начальное
+ * и текущее количество жизней, состояние игры, режим генерации и зерно расстановки мин.
+ * Затем идут ячейки группами по 64 в построчном порядке. Для каждой группы слои мин, открытых
+ * ячеек и флагов — это три 64-битных слова; группа кодируется байтом-маской (по два бита на слой:
+ * все нули, все единицы или слово целиком) и следующими за ним словами-литералами.
+ * Серии полностью пустых групп (закрытые ячейки без мин и флагов) сжимаются в одно число varint
+ * перед каждой непустой группой. Файл заканчивается контрольной суммой CRC32C всех предыдущих байт.
+ * <p>
+ * Так поле 1000×1000 с 15% мин занимает порядка 160 КБ: слой мин случаен и хранится литералами,
+ * а открытые области и флаги почти целиком сжимаются в маски и серии.
+ * <p>
+ * Запись ({@link #write(MinesweeperGame, OutputStream)}) идет потоком по строкам поля и держит
+ * в памяти только текущую группу. Чтение ({@link #read(ByteBuffer, Saboteur)}) разбирает данные прямо
+ * из буфера (при {@link #load(Path)} — отображенного в память файла) и пишет группы в хранилище поля
+ * через {@link CellStorage#setCells(long, int, long, long, long)} без промежуточных копий.
+ */
+public final class GameSaveFormat {
+    /**
+     * Сигнатура файла сохранения ("MSWPSAVE").
+     */
+    private static final long MAGIC = 0x4D535750_53415645L;
+    private static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    private static final int FLAG_SEED_KNOWN = 1;
+    private static final int GROUP_SIZE = Long.SIZE;
+
+    private static final int LAYER_ZERO = 0;
+    private static final int LAYER_ONES = 1;
+    private static final int LAYER_LITERAL = 2;
+
+    private static final MinesweeperGame.GameState[] STATES = MinesweeperGame.GameState.values();
+    private static final MineField.GenerationMode[] MODES = MineField.GenerationMode.values();
+
+    private GameSaveFormat() {
+    }
+
+    /**
+     * Сохраняет игру в файл.
+     *
+     * @param game Игра.
+     * @param file Путь к файлу; существующий файл перезаписывается.
+     * @throws IOException при ошибке записи.
+     */
+    public static void save(MinesweeperGame game, Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            write(game, out);
+        }
+    }
+
+    /**
+     * Записывает игру в поток, обходя поле по строкам. Поле целиком в памяти не копируется.
+     * Поток не закрывается.
+     *
+     * @param game Игра.
+     * @param out  Поток для записи.
+     * @throws IOException при ошибке записи.
+     */
+    public static void write(MinesweeperGame game, OutputStream out) throws IOException {
+        MineField field = game.getMineField();
+        Output output = new Output(out);
+        output.putLong(MAGIC);
+        output.putInt(VERSION);
+        output.putInt(game.getSeed().isPresent() ? FLAG_SEED_KNOWN : 0);
+        output.putInt(field.getRows());
+        output.putInt(field.getColumns());
+        output.putInt(game.getInitialMineCount());
+        output.putInt(field.getMineCount());
+        output.putInt(game.getInitialLives());
+        output.putInt(game.getPlayer().getLives());
+        output.put((byte) game.getGameState().ordinal());
+        output.put((byte) game.getGenerationMode().ordinal());
+        output.putLong(6, 0); // Резерв, выравнивание зерна по 8 байтам
+        output.putLong(game.getSeed().orElse(0));
+        output.putLong(8, 0);
+
+        long emptyGroups = 0;
+        long mines = 0;
+        long open = 0;
+        long flagged = 0;
+        int bit = 0;
+        for (int r = 0; r < field.getRows(); r++) {
+            for (int c = 0; c < field.getColumns(); c++) {
+                int state = field.cellState(r, c);
+                mines |= (long) (state & 1) << bit;
+                open |= (long) (state >> 1 & 1) << bit;
+                flagged |= (long) (state >> 2 & 1) << bit;
+                if (++bit == GROUP_SIZE) {
+                    emptyGroups = writeGroup(output, emptyGroups, bit, mines, open, flagged);
+                    mines = open = flagged = 0;
+                    bit = 0;
+                }
+            }
+        }
+        if (bit > 0) {
+            emptyGroups = writeGroup(output, emptyGroups, bit, mines, open, flagged);
+        }
+        if (emptyGroups > 0) {
+            output.putVarLong(emptyGroups);
+        }
+        output.finish();
+    }
+
+    /**
+     * Записывает группу ячеек. Пустая группа только увеличивает счетчик пропущенных групп.
+     *
+     * @return Количество пустых групп, еще не записанных перед следующей непустой.
+     */
+    private static long writeGroup(Output output, long emptyGroups, int count, long mines, long open, long flagged)
+            throws IOException {
+        if ((mines | open | flagged) == 0) {
+            return emptyGroups + 1;
+        }
+        output.putVarLong(emptyGroups);
+        long full = count == GROUP_SIZE ? -1L : (1L << count) - 1;
+        int mineKind = layerKind(mines, full);
+        int openKind = layerKind(open, full);
+        int flagKind = layerKind(flagged, full);
+        output.put((byte) (mineKind | openKind << 2 | flagKind << 4));
+        if (mineKind == LAYER_LITERAL) {
+            output.putLong(mines);
+        }
+        if (openKind == LAYER_LITERAL) {
+            output.putLong(open);
+        }
+        if (flagKind == LAYER_LITERAL) {
+            output.putLong(flagged);
+        }
+        return 0;
+    }
+
+    private static int layerKind(long word, long full) {
+        return word == 0 ? LAYER_ZERO : word == full ? LAYER_ONES : LAYER_LITERAL;
+    }
+
+    /**
+     * Загружает игру из файла без диверсанта. Файл отображается в память и разбирается на месте.
+     *
+     * @param file Путь к файлу сохранения.
+     * @return Восстановленная игра.
+     * @throws IOException при ошибке чтения или если файл не является корректным сохранением.
+     */
+    public static MinesweeperGame load(Path file) throws IOException {
+        return load(file, null);
+    }
+
+    /**
+     * Загружает игру из файла.
+     *
+     * @param file     Путь к файлу сохранения.
+     * @param saboteur Диверсант восстановленной игры или {@code null}.
+     * @return Восстановленная игра.
+     * @throws IOException при ошибке чтения или если файл не является корректным сохранением.
+     */
+    public static MinesweeperGame load(Path file, Saboteur saboteur) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Слишком большой файл сохранения: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer, saboteur);
+        }
+    }
+
+    /**
+     * Восстанавливает игру из буфера, содержащего сохранение целиком (от текущей позиции до предела).
+     * Позиция буфера не изменяется. Поле создается в хранилище, подобранном по размеру и плотности мин
+     * ({@link CellStorages#forDensity(int, int, long)}), и заполняется группами по 64 ячейки.
+     *
+     * @param buffer   Буфер с сохранением.
+     * @param saboteur Диверсант восстановленной игры или {@code null}.
+     * @return Восстановленная игра.
+     * @throws IOException если данные не являются корректным сохранением.
+     */
+    public static MinesweeperGame read(ByteBuffer buffer, Saboteur saboteur) throws IOException {
+        ByteBuffer in = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (in.remaining() < HEADER_SIZE + Integer.BYTES || in.getLong(0) != MAGIC) {
+            throw new IOException("Данные не являются сохранением игры.");
+        }
+        if (in.getInt(8) != VERSION) {
+            throw new IOException("Неподдерживаемая версия сохранения: " + in.getInt(8) + ".");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(in.slice(0, in.limit() - Integer.BYTES));
+        if ((int) crc.getValue() != in.getInt(in.limit() - Integer.BYTES)) {
+            throw new IOException("Сохранение повреждено: не совпадает контрольная сумма.");
+        }
+
+        int flags = in.getInt(12);
+        int rows = in.getInt(16);
+        int columns = in.getInt(20);
+        int initialMines = in.getInt(24);
+        int mineCount = in.getInt(28);
+        int initialLives = in.getInt(32);
+        int lives = in.getInt(36);
+        int state = in.get(40);
+        int mode = in.get(41);
+        long seed = in.getLong(48);
+        if (rows <= 0 || columns <= 0 || initialLives <= 0 || state < 0 || state >= STATES.length
+                || mode < 0 || mode >= MODES.length) {
+            throw new IOException("Поврежден заголовок сохранения.");
+        }
+
+        MinesweeperGame game;
+        CellStorage storage;
+        MineField field;
+        try {
+            storage = CellStorages.forDensity(rows, columns, Math.max(initialMines, mineCount));
+            field = new MineField(storage, mineCount);
+            game = new MinesweeperGame(field, initialMines, initialLives, saboteur);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Поврежден заголовок сохранения: " + e.getMessage(), e);
+        }
+
+        long cells = (long) rows * columns;
+        long group = 0;
+        long groups = (cells + GROUP_SIZE - 1) / GROUP_SIZE;
+        in.limit(in.limit() - Integer.BYTES).position(HEADER_SIZE);
+        try {
+            while (group < groups) {
+                group += getVarLong(in);
+                if (group >= groups) {
+                    break;
+                }
+                long first = group * GROUP_SIZE;
+                int count = (int) Math.min(GROUP_SIZE, cells - first);
+                long full = count == GROUP_SIZE ? -1L : (1L << count) - 1;
+                int mask = in.get();
+                long mines = readLayer(in, mask, full);
+                long open = readLayer(in, mask >> 2, full);
+                long flagged = readLayer(in, mask >> 4, full);
+                storage.setCells(first, count, mines, open, flagged);
+                group++;
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Сохранение повреждено: некорректные данные ячеек.", e);
+        }
+        if (group != groups || in.hasRemaining()) {
+            throw new IOException("Сохранение повреждено: неверное количество ячеек.");
+        }
+
+        field.calculateAllAdjacentMines();
+        game.setGenerationMode(MODES[mode]);
+        game.restore(field, lives, STATES[state],
+                (flags & FLAG_SEED_KNOWN) != 0 ? OptionalLong.of(seed) : OptionalLong.empty());
+        return game;
+    }
+
+    private static long readLayer(ByteBuffer in, int kind, long full) {
+        return switch (kind & 3) {
+            case LAYER_ZERO -> 0;
+            case LAYER_ONES -> full;
+            case LAYER_LITERAL -> in.getLong() & full;
+            default -> throw new IllegalStateException("Неизвестный вид слоя.");
+        };
+    }
+
+    private static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Слишком длинное число.");
+    }
+
+    /**
+     * Буферизованная запись в поток в порядке little-endian с подсчетом CRC32C.
+     */
+    private static final class Output {
+        private final OutputStream out;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 13).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32C crc = new CRC32C();
+
+        Output(OutputStream out) {
+            this.out = out;
+        }
+
+        void put(byte value) throws IOException {
+            ensure(1);
+            buffer.put(value);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        /**
+         * Записывает {@code length} байт значения {@code value} (младшие байты первыми).
+         */
+        void putLong(int length, long value) throws IOException {
+            for (int i = 0; i < length; i++) {
+                put((byte) (value >>> (8 * i)));
+            }
+        }
+
+        void putVarLong(long value) throws IOException {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        /**
+         * Сбрасывает буфер и дописывает контрольную сумму.
+         */
+        void finish() throws IOException {
+            flush();
+            buffer.putInt((int) crc.getValue());
+            out.write(buffer.array(), 0, buffer.position());
+            buffer.clear();
+            out.flush();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            crc.update(buffer.array(), 0, buffer.position());
+            out.write(buffer.array(), 0, buffer.position());
+            buffer.clear();
+        }
+    }
+}
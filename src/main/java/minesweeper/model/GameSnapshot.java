@@ -0,0 +1,277 @@
+package minesweeper.model;
+
+import minesweeper.model.events.CellChangeListener;
+import minesweeper.model.events.GameEventBatch;
+import minesweeper.model.storage.CellStorage;
+
+/**
+ * Неизменяемый снимок партии: состояние всех ячеек, жизни и состояние игры на момент после
+ * очередной пачки ходов. В отличие от {@link MinesweeperGame}, снимок можно читать из любого потока,
+ * например при отрисовке, пока игра в своем потоке уже выполняет следующий ход.
+ * <p>
+ * Снимки нумеруются: у более позднего снимка той же игры версия больше.
+ * <p>
+ * Ячейки хранятся блоками {@value #TILE_SIZE}×{@value #TILE_SIZE}. Следующий снимок
+ * ({@link #capture(MinesweeperGame, GameSnapshot, GameEventBatch.DirtyRegion, long)}) копирует
+ * только блоки, задетые измененными ячейками, а остальные разделяет с предыдущим: блоки после
+ * создания не меняются, так что стоимость снимка пропорциональна изменениям, а не площади поля.
+ */
+public final class GameSnapshot {
+    /**
+     * Сдвиг количества соседних мин в байте ячейки; младшие биты — биты {@link CellChangeListener}.
+     */
+    private static final int ADJACENT_SHIFT = 3;
+    private static final int STATE_MASK = (1 << ADJACENT_SHIFT) - 1;
+    /**
+     * Наибольшее количество соседних мин, которое помещается в байт ячейки над битами состояния.
+     */
+    static final int MAX_ADJACENT = 0xFF >>> ADJACENT_SHIFT;
+    private static final int TILE_SHIFT = 6;
+    /**
+     * Сторона блока ячеек.
+     */
+    static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+
+    private final long version;
+    private final int rows;
+    private final int columns;
+    private final int tileColumns;
+    /**
+     * Блоки ячеек по строкам блоков; ячейка (r, c) блока лежит по индексу {@code r * TILE_SIZE + c}.
+     */
+    private final byte[][] tiles;
+    /**
+     * Количество флагов в каждом блоке.
+     */
+    private final int[] tileFlags;
+    private final MinesweeperGame.GameState gameState;
+    private final int lives;
+    private final int mineCount;
+    private final int flaggedCells;
+
+    private GameSnapshot(long version, int rows, int columns, byte[][] tiles, int[] tileFlags,
+                         MinesweeperGame.GameState gameState, int lives, int mineCount, int flaggedCells) {
+        this.version = version;
+        this.rows = rows;
+        this.columns = columns;
+        this.tileColumns = (columns + TILE_MASK) >>> TILE_SHIFT;
+        this.tiles = tiles;
+        this.tileFlags = tileFlags;
+        this.gameState = gameState;
+        this.lives = lives;
+        this.mineCount = mineCount;
+        this.flaggedCells = flaggedCells;
+    }
+
+    /**
+     * Снимает текущее состояние игры целиком. Вызывается в потоке, которому принадлежит игра.
+     *
+     * @param game    Игра.
+     * @param version Версия снимка.
+     * @return Снимок.
+     * @throws IllegalArgumentException если поле слишком велико для снимка или у ячеек его топологии
+     *                                  больше {@value #MAX_ADJACENT} соседей.
+     */
+    public static GameSnapshot capture(MinesweeperGame game, long version) {
+        return capture(game, null, null, version);
+    }
+
+    /**
+     * Снимает текущее состояние игры, переиспользуя блоки предыдущего снимка. Заново копируются только
+     * блоки, пересекающие {@code dirty}; поэтому {@code dirty} должен покрывать все ячейки, изменившиеся
+     * после {@code previous}, включая изменившееся количество соседних мин
+     * (как {@link GameEventBatch#getDirtyRegion()} пачки {@link MinesweeperGame}).
+     * Если размеры поля не совпадают с предыдущим снимком, поле снимается целиком.
+     *
+     * @param game     Игра.
+     * @param previous Предыдущий снимок того же поля или {@code null}.
+     * @param dirty    Измененные ячейки или {@code null}, если ячейки не менялись.
+     * @param version  Версия снимка.
+     * @return Снимок.
+     * @throws IllegalArgumentException если поле слишком велико для снимка или у ячеек его топологии
+     *                                  больше {@value #MAX_ADJACENT} соседей.
+     */
+    public static GameSnapshot capture(MinesweeperGame game, GameSnapshot previous,
+                                       GameEventBatch.DirtyRegion dirty, long version) {
+        MineField field = game.getMineField();
+        int rows = field.getRows();
+        int columns = field.getColumns();
+        long area = (long) rows * columns;
+        if (area > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Слишком большое поле для снимка: " + area + " ячеек.");
+        }
+        if (field.getTopology().maxDegree() > MAX_ADJACENT) {
+            throw new IllegalArgumentException("Снимок не вмещает " + field.getTopology().maxDegree()
+                    + " соседей ячейки; допускается не больше " + MAX_ADJACENT + ".");
+        }
+        CellStorage storage = field.getStorage();
+        int tileRows = (rows + TILE_MASK) >>> TILE_SHIFT;
+        int tileColumns = (columns + TILE_MASK) >>> TILE_SHIFT;
+        byte[][] tiles;
+        int[] tileFlags;
+        int flagged;
+        int firstRow = 0;
+        int lastRow = tileRows - 1;
+        int firstColumn = 0;
+        int lastColumn = tileColumns - 1;
+        if (previous != null && previous.rows == rows && previous.columns == columns) {
+            tiles = previous.tiles.clone();
+            tileFlags = previous.tileFlags.clone();
+            flagged = previous.flaggedCells;
+            if (dirty == null) {
+                lastRow = -1; // Ячейки не менялись, все блоки общие
+            } else {
+                firstRow = Math.max(dirty.top(), 0) >>> TILE_SHIFT;
+                lastRow = Math.min(dirty.bottom(), rows - 1) >>> TILE_SHIFT;
+                firstColumn = Math.max(dirty.left(), 0) >>> TILE_SHIFT;
+                lastColumn = Math.min(dirty.right(), columns - 1) >>> TILE_SHIFT;
+            }
+        } else {
+            tiles = new byte[tileRows * tileColumns][];
+            tileFlags = new int[tiles.length];
+            flagged = 0;
+        }
+        for (int tr = firstRow; tr <= lastRow; tr++) {
+            for (int tc = firstColumn; tc <= lastColumn; tc++) {
+                int tile = tr * tileColumns + tc;
+                byte[] cells = new byte[TILE_SIZE * TILE_SIZE];
+                int top = tr << TILE_SHIFT;
+                int left = tc << TILE_SHIFT;
+                int count = captureTile(storage, top, left, Math.min(TILE_SIZE, rows - top),
+                        Math.min(TILE_SIZE, columns - left), cells);
+                tiles[tile] = cells;
+                flagged += count - tileFlags[tile];
+                tileFlags[tile] = count;
+            }
+        }
+        return new GameSnapshot(version, rows, columns, tiles, tileFlags, game.getGameState(),
+                game.getPlayer().getLives(), field.getMineCount(), flagged);
+    }
+
+    /**
+     * Копирует ячейки блока в массив.
+     *
+     * @return Количество флагов в блоке.
+     */
+    private static int captureTile(CellStorage storage, int top, int left, int height, int width, byte[] cells) {
+        int flagged = 0;
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                int row = top + r;
+                int column = left + c;
+                int cell = 0;
+                if (storage.isMine(row, column)) {
+                    cell |= CellChangeListener.MINE;
+                } else {
+                    cell |= storage.adjacentMines(row, column) << ADJACENT_SHIFT;
+                }
+                if (storage.isOpen(row, column)) {
+                    cell |= CellChangeListener.OPEN;
+                } else if (storage.isFlagged(row, column)) {
+                    cell |= CellChangeListener.FLAGGED;
+                    flagged++;
+                }
+                cells[r << TILE_SHIFT | c] = (byte) cell;
+            }
+        }
+        return flagged;
+    }
+
+    /**
+     * @return Версия снимка.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return Количество строк поля.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return Количество столбцов поля.
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return {@code true}, если позиция лежит на поле.
+     */
+    public boolean isValidPosition(int row, int column) {
+        return row >= 0 && row < rows && column >= 0 && column < columns;
+    }
+
+    /**
+     * @return {@code true}, если в ячейке мина.
+     */
+    public boolean isMine(int row, int column) {
+        return (cell(row, column) & CellChangeListener.MINE) != 0;
+    }
+
+    /**
+     * @return {@code true}, если ячейка открыта.
+     */
+    public boolean isOpen(int row, int column) {
+        return (cell(row, column) & CellChangeListener.OPEN) != 0;
+    }
+
+    /**
+     * @return {@code true}, если на ячейке флаг.
+     */
+    public boolean isFlagged(int row, int column) {
+        return (cell(row, column) & CellChangeListener.FLAGGED) != 0;
+    }
+
+    /**
+     * @return Количество соседних мин или -1 для мины.
+     */
+    public int getAdjacentMinesCount(int row, int column) {
+        int cell = cell(row, column) & 0xFF;
+        return (cell & CellChangeListener.MINE) != 0 ? -1 : cell >>> ADJACENT_SHIFT;
+    }
+
+    /**
+     * @return Битовая маска состояния ячейки {@link CellChangeListener}.
+     */
+    public int cellState(int row, int column) {
+        return cell(row, column) & STATE_MASK;
+    }
+
+    private int cell(int row, int column) {
+        byte[] tile = tiles[(row >>> TILE_SHIFT) * tileColumns + (column >>> TILE_SHIFT)];
+        return tile[(row & TILE_MASK) << TILE_SHIFT | (column & TILE_MASK)];
+    }
+
+    /**
+     * @return Состояние игры.
+     */
+    public MinesweeperGame.GameState getGameState() {
+        return gameState;
+    }
+
+    /**
+     * @return Оставшиеся жизни игрока.
+     */
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * @return Количество мин на поле.
+     */
+    public int getMineCount() {
+        return mineCount;
+    }
+
+    /**
+     * @return Количество мин за вычетом поставленных флагов.
+     */
+    public int getRemainingMines() {
+        return mineCount - flaggedCells;
+    }
+}
@@ -0,0 +1,114 @@
+package minesweeper.model;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Выборка из гипергеометрического распределения: сколько "успехов" окажется среди
+ * {@code draws} элементов, выбранных без возвращения из {@code population} элементов,
+ * {@code successes} из которых являются успехами.
+ * <p>
+ * Используется для точного разбиения количества мин по полосам поля: последовательные
+ * условные выборки дают мультивариантное гипергеометрическое распределение, то есть
+ * ровно то, что получилось бы при равномерном размещении мин по всему полю.
+ * Выборка выполняется обращением функции распределения, начиная от моды и расходясь
+ * в обе стороны, поэтому ожидаемое число шагов пропорционально стандартному отклонению.
+ */
+final class Hypergeometric {
+    /**
+     * Размер таблицы точных логарифмов факториалов.
+     */
+    private static final int TABLE_SIZE = 256;
+    /**
+     * ln(k!) для k < {@link #TABLE_SIZE}.
+     */
+    private static final double[] LOG_FACTORIALS = new double[TABLE_SIZE];
+
+    static {
+        for (int k = 1; k < TABLE_SIZE; k++) {
+            LOG_FACTORIALS[k] = LOG_FACTORIALS[k - 1] + Math.log(k);
+        }
+    }
+
+    private Hypergeometric() {
+    }
+
+    /**
+     * Возвращает случайное значение гипергеометрического распределения.
+     *
+     * @param random     Генератор случайных чисел.
+     * @param population Размер совокупности (N).
+     * @param successes  Количество успехов в совокупности (K), 0 ≤ K ≤ N.
+     * @param draws      Количество выбираемых элементов (n), 0 ≤ n ≤ N.
+     * @return Количество успехов среди выбранных элементов.
+     * @throws IllegalArgumentException если параметры некорректны.
+     */
+    static long sample(RandomGenerator random, long population, long successes, long draws) {
+        if (population < 0 || successes < 0 || draws < 0 || successes > population || draws > population) {
+            throw new IllegalArgumentException("Некорректные параметры гипергеометрического распределения.");
+        }
+        long failures = population - successes;
+        long min = Math.max(0, draws - failures);
+        long max = Math.min(draws, successes);
+        if (min == max) {
+            return min;
+        }
+
+        long mode = (long) ((draws + 1.0) * (successes + 1.0) / (population + 2.0));
+        mode = Math.max(min, Math.min(max, mode));
+        double modeProbability = Math.exp(logChoose(successes, mode) + logChoose(failures, draws - mode)
+                - logChoose(population, draws));
+
+        double u = random.nextDouble() - modeProbability;
+        if (u <= 0) {
+            return mode;
+        }
+        long low = mode;
+        long high = mode;
+        double lowProbability = modeProbability;
+        double highProbability = modeProbability;
+        while (low > min || high < max) {
+            if (high < max) {
+                // p(k+1) / p(k) = (K - k)(n - k) / ((k + 1)(N - K - n + k + 1))
+                highProbability *= (double) (successes - high) * (draws - high)
+                        / ((double) (high + 1) * (failures - draws + high + 1));
+                high++;
+                u -= highProbability;
+                if (u <= 0) {
+                    return high;
+                }
+            }
+            if (low > min) {
+                // p(k-1) / p(k) = k(N - K - n + k) / ((K - k + 1)(n - k + 1))
+                lowProbability *= (double) low * (failures - draws + low)
+                        / ((double) (successes - low + 1) * (draws - low + 1));
+                low--;
+                u -= lowProbability;
+                if (u <= 0) {
+                    return low;
+                }
+            }
+        }
+        return mode; // Остаток из-за погрешности округления
+    }
+
+    /**
+     * @return ln(C(n, k)).
+     */
+    private static double logChoose(long n, long k) {
+        return logFactorial(n) - logFactorial(k) - logFactorial(n - k);
+    }
+
+    /**
+     * @return ln(n!): точное значение из таблицы для малых n и ряд Стирлинга для остальных.
+     */
+    private static double logFactorial(long n) {
+        if (n < TABLE_SIZE) {
+            return LOG_FACTORIALS[(int) n];
+        }
+        double x = n;
+        double inverse = 1.0 / x;
+        double inverseSquared = inverse * inverse;
+        return x * Math.log(x) - x + 0.5 * Math.log(2 * Math.PI * x)
+                + inverse * (1.0 / 12 - inverseSquared * (1.0 / 360 - inverseSquared / 1260));
+    }
+}
@@ -92,10 +92,23 @@ public class MineCell {
      * @param open {@code true}, чтобы открыть ячейку, {@code false} — чтобы закрыть (обычно не используется напрямую).
      */
     public void setOpen(boolean open) {
+        boolean wasOpen = isOpen;
         isOpen = open;
         if (isOpen) {
             isFlagged = false; // Открытая ячейка не может быть помечена флагом
         }
+        if (wasOpen != open) {
+            openChanged(open);
+        }
+    }
+
+    /**
+     * Вызывается, когда ячейка открывается или закрывается (в том числе через {@link #reset()}).
+     * Ничего не делает; хранилище, которому принадлежит ячейка, ведет по нему счетчик открытых ячеек.
+     *
+     * @param open Новое состояние "открыта".
+     */
+    protected void openChanged(boolean open) {
     }
 
     /**
@@ -164,10 +177,14 @@ public class MineCell {
      * или при перемещении мины с одной ячейки на другую.
      */
     public void reset() {
+        boolean wasOpen = isOpen;
         isMine = false;
         isOpen = false;
         isFlagged = false;
         adjacentMinesCount = 0;
+        if (wasOpen) {
+            openChanged(false);
+        }
     }
 
     /**
@@ -184,9 +201,10 @@ public class MineCell {
      */
     @Override
     public String toString() {
-        if (isFlagged) return "F";
-        if (!isOpen) return "#"; // Закрытая ячейка
-        if (isMine) return "*"; // Открытая мина
-        return adjacentMinesCount > 0 ? String.valueOf(adjacentMinesCount) : " "; // Открытая пустая или с числом
+        if (isFlagged()) return "F";
+        if (!isOpen()) return "#"; // Закрытая ячейка
+        if (isMine()) return "*"; // Открытая мина
+        int count = getAdjacentMinesCount();
+        return count > 0 ? String.valueOf(count) : " "; // Открытая пустая или с числом
     }
 }
\ No newline at end of file
@@ -1,18 +1,60 @@
 package minesweeper.model;
 
+import minesweeper.model.events.CellChangeListener;
 import minesweeper.model.navigation.CellPosition;
-// import minesweeper.model.navigation.CellRange; // Не используется напрямую, но CellPosition его использует
+import minesweeper.model.navigation.RectangularTopology;
+import minesweeper.model.navigation.Topology;
+import minesweeper.model.storage.CellStorage;
+import minesweeper.model.storage.CellStorages;
+import minesweeper.model.storage.MineCellGrid;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
 
 /**
  * Представляет игровое поле "Сапёра", содержащее сетку ячеек ({@link MineCell}).
  * Отвечает за инициализацию поля, размещение мин, подсчет соседних мин,
  * а также за операции над ячейками, такие как открытие или перемещение мины.
+ * <p>
+ * Состояние ячеек хранится в {@link CellStorage}. По умолчанию это {@link MineCellGrid}
+ * с объектом {@link MineCell} на каждую ячейку; другие хранилища передаются
+ * в конструктор {@link #MineField(CellStorage, int)}.
  */
 public class MineField {
+    /**
+     * Способы размещения мин на новом поле.
+     */
+    public enum GenerationMode {
+        /**
+         * Мины размещаются равномерно случайно по всему полю.
+         */
+        UNIFORM,
+        /**
+         * То же равномерное распределение, но поле делится на горизонтальные полосы,
+         * которые заполняются параллельно. Предназначен для очень больших полей.
+         */
+        PARALLEL_STRIPES
+    }
+
+    /**
+     * Минимальное количество строк в одной полосе при параллельной генерации.
+     */
+    private static final int MIN_STRIPE_ROWS = 16;
+    /**
+     * Сколько ячеек заливка открывает в вызывающем потоке, прежде чем перейти к параллельному поиску.
+     * Небольшие области так и открываются последовательно: для них запуск задач дороже самой заливки.
+     */
+    public static final int PARALLEL_REVEAL_THRESHOLD = 1 << 15;
+
     /**
      * Количество строк на игровом поле.
      */
@@ -27,13 +69,29 @@ public class MineField {
      */
     private int mineCount;
     /**
-     * Двумерный массив, представляющий сетку ячеек на поле.
+     * Хранилище состояния ячеек поля.
      */
-    private final MineCell[][] cells;
+    private final CellStorage storage;
+    /**
+     * Соседство ячеек: по нему считаются соседние мины, открываются пустые области и ищется граница.
+     */
+    private final Topology topology;
     /**
      * Генератор случайных чисел для размещения мин и других случайных событий.
      */
     private final Random random = new Random();
+    /**
+     * Слушатели изменений ячеек, которые проходят через методы поля.
+     */
+    private final List<CellChangeListener> cellListeners = new ArrayList<>();
+    /**
+     * Индекс сводок по областям или {@code null}, пока его никто не запросил.
+     */
+    private RegionSummaryIndex summaryIndex;
+    /**
+     * Множество измененных блоков или {@code null}, пока его никто не запросил.
+     */
+    private DirtyChunkSet dirtyChunks;
 
     /**
      * Создает новое игровое поле с указанными размерами и начальным количеством мин.
@@ -47,71 +105,317 @@ public class MineField {
      * @throws IllegalArgumentException если размеры поля не положительные или количество мин некорректно.
      */
     public MineField(int rows, int columns, int initialMineCount) {
-        if (rows <= 0 || columns <= 0) {
-            throw new IllegalArgumentException("Размеры поля должны быть положительными.");
-        }
-        if (initialMineCount < 0 || initialMineCount > rows * columns) {
+        this(rows, columns, initialMineCount, true);
+    }
+
+    /**
+     * Создает новое игровое поле, позволяя не трогать глобальные диапазоны {@link CellPosition}.
+     * Используется при подготовке полей в фоновых потоках (см. {@link BoardPool}), когда
+     * поле еще не принадлежит ни одной игре. Такое поле публикует свои диапазоны
+     * вызовом {@link #publishPositionRanges()} в момент выдачи игре.
+     *
+     * @param rows             Количество строк на поле.
+     * @param columns          Количество столбцов на поле.
+     * @param initialMineCount Начальное количество мин.
+     * @param publishRanges    {@code true}, чтобы сразу установить глобальные диапазоны {@link CellPosition}.
+     */
+    MineField(int rows, int columns, int initialMineCount, boolean publishRanges) {
+        this(checkedGrid(rows, columns), null, initialMineCount, publishRanges);
+    }
+
+    /**
+     * Создает игровое поле поверх указанного хранилища ячеек. Размеры поля берутся из хранилища.
+     * Как и основной конструктор, устанавливает глобальные диапазоны {@link CellPosition}.
+     *
+     * @param storage          Хранилище состояния ячеек.
+     * @param initialMineCount Количество мин, которые будут размещены на поле. Для хранилищ,
+     *                         которые сами задают мины ({@link CellStorage#generatesMines()}),
+     *                         используется только для отображения.
+     * @throws IllegalArgumentException если количество мин некорректно.
+     */
+    public MineField(CellStorage storage, int initialMineCount) {
+        this(storage, null, initialMineCount, true);
+    }
+
+    /**
+     * Создает игровое поле поверх указанного хранилища с заданным соседством ячеек
+     * (тор, шестиугольная сетка, произвольный граф и т.д.).
+     *
+     * @param storage          Хранилище состояния ячеек.
+     * @param topology         Соседство ячеек. Размеры должны совпадать с размерами хранилища.
+     * @param initialMineCount Количество мин, которые будут размещены на поле.
+     * @throws IllegalArgumentException если размеры не совпадают, количество мин некорректно
+     *                                  или хранилище само вычисляет соседей для непрямоугольной топологии.
+     */
+    public MineField(CellStorage storage, Topology topology, int initialMineCount) {
+        this(storage, topology, initialMineCount, true);
+    }
+
+    /**
+     * Создает игровое поле с хранилищем, подобранным по размеру и плотности мин
+     * (см. {@link CellStorages#forDensity(int, int, long)}). Для огромных полей с редкими минами
+     * память под слой мин растет с количеством мин, а не с площадью поля.
+     *
+     * @param rows             Количество строк на поле. Должно быть положительным.
+     * @param columns          Количество столбцов на поле. Должно быть положительным.
+     * @param initialMineCount Начальное количество мин.
+     * @return Новое поле без размещенных мин.
+     * @throws IllegalArgumentException если размеры поля не положительные или количество мин некорректно.
+     */
+    public static MineField forDensity(int rows, int columns, int initialMineCount) {
+        return new MineField(CellStorages.forDensity(rows, columns, initialMineCount), initialMineCount);
+    }
+
+    private MineField(CellStorage storage, Topology topology, int initialMineCount, boolean publishRanges) {
+        if (initialMineCount < 0 || initialMineCount > (long) storage.rows() * storage.columns()) {
             throw new IllegalArgumentException("Некорректное количество мин.");
         }
+        if (topology == null) {
+            topology = new RectangularTopology(storage.rows(), storage.columns());
+        } else if (topology.rows() != storage.rows() || topology.columns() != storage.columns()) {
+            throw new IllegalArgumentException("Размеры топологии не совпадают с размерами хранилища.");
+        } else if (storage.derivesAdjacentMines() && !(topology instanceof RectangularTopology)) {
+            // Такие хранилища считают соседей сами и знают только прямоугольное соседство
+            throw new IllegalArgumentException("Хранилище с вычисляемыми соседями поддерживает только прямоугольную топологию.");
+        } else if (!storage.derivesAdjacentMines() && topology.maxDegree() > storage.maxAdjacentMines()) {
+            throw new IllegalArgumentException("У топологии больше соседей (" + topology.maxDegree()
+                    + "), чем хранилище может сосчитать (" + storage.maxAdjacentMines() + ").");
+        }
 
-        this.rows = rows;
-        this.columns = columns;
+        this.storage = storage;
+        this.topology = topology;
+        this.rows = storage.rows();
+        this.columns = storage.columns();
         this.mineCount = initialMineCount;
 
-        // Устанавливаем глобальные диапазоны для CellPosition (0-индексация)
-        CellPosition.setVerticalRange(0, rows - 1);
-        CellPosition.setHorizontalRange(0, columns - 1);
-
-        this.cells = new MineCell[rows][columns];
-        initializeField();
+        if (publishRanges) {
+            publishPositionRanges();
+        }
     }
 
     /**
-     * Инициализирует поле, создавая объекты {@link MineCell} для каждой позиции.
-     * Ячейки создаются в их начальном состоянии (закрыты, без мин).
+     * Проверяет размеры и создает хранилище по умолчанию с объектами {@link MineCell}.
      */
-    private void initializeField() {
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < columns; c++) {
-                cells[r][c] = new MineCell(new CellPosition(r, c));
-            }
+    private static CellStorage checkedGrid(int rows, int columns) {
+        if (rows <= 0 || columns <= 0) {
+            throw new IllegalArgumentException("Размеры поля должны быть положительными.");
         }
+        return new MineCellGrid(rows, columns);
+    }
+
+    /**
+     * Устанавливает глобальные диапазоны для {@link CellPosition} (0-индексация)
+     * по размерам этого поля.
+     */
+    void publishPositionRanges() {
+        CellPosition.setVerticalRange(0, rows - 1);
+        CellPosition.setHorizontalRange(0, columns - 1);
     }
 
     /**
      * Размещает заданное {@link #mineCount количество мин} на поле случайным образом.
-     * Этот метод обычно вызывается один раз при создании нового игрового поля,
-     * после его инициализации методом {@link #initializeField()}.
+     * Этот метод обычно вызывается один раз при создании нового игрового поля
+     * или после его сброса методом {@link #reset(int)}.
      * После размещения мин вызывается {@link #calculateAllAdjacentMines()} для подсчета
      * чисел в ячейках.
      */
     public void placeMinesOnNewField() {
-        int minesToPlace = this.mineCount;
-        if (minesToPlace > rows * columns) { // Дополнительная проверка, если mineCount изменился
-            minesToPlace = rows * columns;
+        placeMinesOnNewField(GenerationMode.UNIFORM);
+    }
+
+    /**
+     * Размещает мины на поле указанным способом генерации.
+     *
+     * @param mode Режим генерации {@link GenerationMode}.
+     */
+    public void placeMinesOnNewField(GenerationMode mode) {
+        if (storage.generatesMines()) {
+            return; // Расстановку мин задает само хранилище
         }
-        List<CellPosition> availablePositions = new ArrayList<>();
-        for (int r = 0; r < rows; r++) {
+        switch (mode) {
+            case UNIFORM -> placeMinesUniformly();
+            case PARALLEL_STRIPES -> placeMinesInStripes();
+        }
+        notifyFieldChanged();
+    }
+
+    /**
+     * Размещает {@link #mineCount мины} равномерно случайно по всему полю.
+     * Каждое подмножество ячеек нужного размера равновероятно,
+     * а сам метод не выделяет память, пропорциональную размеру поля.
+     */
+    private void placeMinesUniformly() {
+        long totalCells = (long) rows * columns;
+        if (this.mineCount > totalCells) { // Дополнительная проверка, если mineCount изменился
+            this.mineCount = (int) totalCells;
+        }
+        placeMinesInRange(0, totalCells, this.mineCount, random);
+        calculateAllAdjacentMines();
+    }
+
+    /**
+     * Размещает мины так же равномерно, как {@link #placeMinesUniformly()}, но параллельно.
+     * Поле делится на горизонтальные полосы; количество мин в каждой полосе выбирается
+     * последовательными гипергеометрическими выборками (мультивариантное гипергеометрическое
+     * распределение), поэтому общее количество мин точное, а итоговая расстановка распределена
+     * так же, как при размещении по всему полю сразу. Затем полосы заполняются параллельно,
+     * каждая своим независимым потоком {@link SplittableRandom}, и параллельно же для каждой полосы
+     * считаются соседние мины с учетом граничных строк соседних полос.
+     */
+    private void placeMinesInStripes() {
+        long totalCells = (long) rows * columns;
+        if (this.mineCount > totalCells) {
+            this.mineCount = (int) totalCells;
+        }
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int stripeCount = Math.max(1, Math.min(parallelism * 4, rows / MIN_STRIPE_ROWS));
+        int stripeRows = (rows + stripeCount - 1) / stripeCount;
+        stripeCount = (rows + stripeRows - 1) / stripeRows;
+
+        int[] stripeMines = new int[stripeCount];
+        SplittableRandom[] stripeRandoms = new SplittableRandom[stripeCount];
+        SplittableRandom root = new SplittableRandom(random.nextLong());
+        long remainingCells = totalCells;
+        long remainingMines = this.mineCount;
+        for (int i = 0; i < stripeCount; i++) {
+            long stripeCells = (long) (Math.min(rows, (i + 1) * stripeRows) - i * stripeRows) * columns;
+            stripeMines[i] = (int) Hypergeometric.sample(root, remainingCells, remainingMines, stripeCells);
+            stripeRandoms[i] = root.split();
+            remainingCells -= stripeCells;
+            remainingMines -= stripeMines[i];
+        }
+
+        final int rowsPerStripe = stripeRows;
+        IntStream.range(0, stripeCount).parallel().forEach(i -> {
+            int fromRow = i * rowsPerStripe;
+            int toRow = Math.min(rows, fromRow + rowsPerStripe);
+            placeMinesInRange((long) fromRow * columns, (long) toRow * columns, stripeMines[i], stripeRandoms[i]);
+        });
+        // Подсчет начинается только после того, как все полосы заполнены: он читает граничные строки соседей
+        if (storage.derivesAdjacentMines()) {
+            return;
+        }
+        IntStream.range(0, stripeCount).parallel().forEach(i -> {
+            int fromRow = i * rowsPerStripe;
+            calculateAdjacentMinesInRows(fromRow, Math.min(rows, fromRow + rowsPerStripe));
+        });
+    }
+
+    /**
+     * Равномерно размещает ровно {@code count} мин среди ячеек с построчными индексами
+     * из [{@code fromIndex}, {@code toIndex}), которые до вызова не содержат мин.
+     * Используется выборка с отклонением: при плотности не выше половины случайные ячейки
+     * выбираются до тех пор, пока не найдется свободная; при большей плотности диапазон сначала
+     * целиком заполняется минами, и тем же способом выбираются безопасные ячейки.
+     */
+    private void placeMinesInRange(long fromIndex, long toIndex, long count, RandomGenerator rng) {
+        long size = toIndex - fromIndex;
+        boolean mine = true;
+        if (count > size / 2) {
+            for (long index = fromIndex; index < toIndex; index++) {
+                storage.setMine((int) (index / columns), (int) (index % columns), true);
+            }
+            count = size - count;
+            mine = false;
+        }
+        while (count > 0) {
+            long index = fromIndex + rng.nextLong(size);
+            int r = (int) (index / columns);
+            int c = (int) (index % columns);
+            if (storage.isMine(r, c) != mine) {
+                storage.setMine(r, c, mine);
+                count--;
+            }
+        }
+    }
+
+    /**
+     * Считает соседние мины для строк [{@code fromRow}, {@code toRow}) скользящим окном:
+     * для каждой строки сначала суммируются мины по вертикали (сама строка и граничные строки
+     * сверху и снизу), затем эти суммы складываются по три по горизонтали.
+     * Читает только строки от {@code fromRow - 1} до {@code toRow} включительно и пишет только
+     * в свои строки, поэтому непересекающиеся диапазоны можно обрабатывать параллельно.
+     */
+    private void calculateAdjacentMinesInRows(int fromRow, int toRow) {
+        if (!(topology instanceof RectangularTopology)) {
+            calculateAdjacentMinesByTopology(fromRow, toRow);
+            return;
+        }
+        int[] columnSums = new int[columns + 2];
+        for (int r = fromRow; r < toRow; r++) {
             for (int c = 0; c < columns; c++) {
-                availablePositions.add(new CellPosition(r,c));
+                int sum = 0;
+                for (int rr = Math.max(0, r - 1); rr <= Math.min(rows - 1, r + 1); rr++) {
+                    if (storage.isMine(rr, c)) {
+                        sum++;
+                    }
+                }
+                columnSums[c + 1] = sum;
+            }
+            for (int c = 0; c < columns; c++) {
+                if (storage.isMine(r, c)) {
+                    storage.setAdjacentMines(r, c, -1);
+                } else {
+                    storage.setAdjacentMines(r, c, columnSums[c] + columnSums[c + 1] + columnSums[c + 2]);
+                }
             }
         }
+    }
 
-        while (minesToPlace > 0 && !availablePositions.isEmpty()) {
-            int randomIndex = random.nextInt(availablePositions.size());
-            CellPosition pos = availablePositions.remove(randomIndex);
-            MineCell cell = getCell(pos);
-            if (cell != null && !cell.isMine()) { // Доп. проверка на null для безопасности
-                cell.setMine(true);
-                minesToPlace--;
+    /**
+     * Считает соседние мины для строк [{@code fromRow}, {@code toRow}) перебором соседей топологии.
+     * Пишет только в свои строки, поэтому тоже допускает параллельную обработку диапазонов.
+     */
+    private void calculateAdjacentMinesByTopology(int fromRow, int toRow) {
+        int[] neighborRows = new int[topology.maxDegree()];
+        int[] neighborColumns = new int[topology.maxDegree()];
+        for (int r = fromRow; r < toRow; r++) {
+            for (int c = 0; c < columns; c++) {
+                if (storage.isMine(r, c)) {
+                    storage.setAdjacentMines(r, c, -1);
+                } else {
+                    storage.setAdjacentMines(r, c, countAdjacentMines(r, c, neighborRows, neighborColumns));
+                }
             }
         }
-        // Если после попыток разместить все мины остались (например, доступных мест меньше),
-        // обновляем фактическое количество мин.
-        this.mineCount = this.mineCount - minesToPlace;
-        calculateAllAdjacentMines();
     }
 
+    /**
+     * Возвращает поле в начальное состояние без пересоздания ячеек:
+     * все ячейки закрыты, без мин и флагов. Глобальные диапазоны {@link CellPosition}
+     * публикуются заново, как при создании нового поля.
+     *
+     * @param initialMineCount Количество мин, которое будет размещено следующим вызовом
+     *                         {@link #placeMinesOnNewField()}.
+     * @throws IllegalArgumentException если количество мин некорректно.
+     */
+    public void reset(int initialMineCount) {
+        resetDetached(initialMineCount);
+        publishPositionRanges();
+    }
+
+    /**
+     * То же, что {@link #reset(int)}, но без публикации глобальных диапазонов {@link CellPosition}.
+     * Используется при подготовке полей в фоновых потоках.
+     */
+    void resetDetached(int initialMineCount) {
+        if (initialMineCount < 0 || initialMineCount > (long) rows * columns) {
+            throw new IllegalArgumentException("Некорректное количество мин.");
+        }
+        storage.clear();
+        this.mineCount = initialMineCount;
+        notifyFieldChanged();
+    }
+
+    /**
+     * Задает зерно генератора случайных чисел поля. Два поля одинакового размера
+     * с одинаковым зерном получают одинаковую расстановку мин.
+     *
+     * @param seed Зерно генератора.
+     */
+    public void reseed(long seed) {
+        random.setSeed(seed);
+    }
 
     /**
      * Рассчитывает и устанавливает количество мин, соседствующих с каждой ячейкой на всем поле.
@@ -121,12 +425,17 @@ public class MineField {
      * расположения мин на поле.
      */
     public void calculateAllAdjacentMines() {
+        if (storage.derivesAdjacentMines()) {
+            return; // Хранилище считает соседей само при каждом запросе
+        }
+        int[] neighborRows = new int[topology.maxDegree()];
+        int[] neighborColumns = new int[topology.maxDegree()];
         for (int r = 0; r < rows; r++) {
             for (int c = 0; c < columns; c++) {
-                if (!cells[r][c].isMine()) {
-                    cells[r][c].setAdjacentMinesCount(countAdjacentMines(new CellPosition(r, c)));
+                if (!storage.isMine(r, c)) {
+                    storage.setAdjacentMines(r, c, countAdjacentMines(r, c, neighborRows, neighborColumns));
                 } else {
-                    cells[r][c].setAdjacentMinesCount(-1); // Мина не имеет числа соседей (или спец. значение)
+                    storage.setAdjacentMines(r, c, -1); // Мина не имеет числа соседей (или спец. значение)
                 }
             }
         }
@@ -141,55 +450,43 @@ public class MineField {
      *            необходимо пересчитать количество соседних мин.
      */
     public void recalculateAdjacentMinesAround(CellPosition pos) {
-        // Пересчитываем для самой ячейки
-        MineCell centerCell = getCell(pos);
-        if (centerCell != null) {
-            if (!centerCell.isMine()) {
-                centerCell.setAdjacentMinesCount(countAdjacentMines(pos));
-            } else {
-                centerCell.setAdjacentMinesCount(-1);
-            }
+        if (storage.derivesAdjacentMines() || !isValidPosition(pos)) {
+            return;
         }
-
-        // И для всех ее 8 соседей
-        for (int dr = -1; dr <= 1; dr++) {
-            for (int dc = -1; dc <= 1; dc++) {
-                // if (dr == 0 && dc == 0) continue; // Пропускаем саму центральную ячейку - уже обработана выше
-
-                CellPosition neighborPos = new CellPosition(pos.getRow() + dr, pos.getColumn() + dc);
-                if (isValidPosition(neighborPos)) {
-                    MineCell neighborCell = getCell(neighborPos);
-                    if (neighborCell != null) { // Дополнительная проверка
-                        if (!neighborCell.isMine()) {
-                            neighborCell.setAdjacentMinesCount(countAdjacentMines(neighborPos));
-                        } else {
-                            neighborCell.setAdjacentMinesCount(-1);
-                        }
-                    }
-                }
+        // Пересчитываем для самой ячейки и для всех ее соседей
+        int[] aroundRows = new int[topology.maxDegree() + 1];
+        int[] aroundColumns = new int[topology.maxDegree() + 1];
+        int count = topology.neighbors(pos.getRow(), pos.getColumn(), aroundRows, aroundColumns);
+        aroundRows[count] = pos.getRow();
+        aroundColumns[count] = pos.getColumn();
+        int[] neighborRows = new int[topology.maxDegree()];
+        int[] neighborColumns = new int[topology.maxDegree()];
+        for (int i = 0; i <= count; i++) {
+            int r = aroundRows[i];
+            int c = aroundColumns[i];
+            if (!storage.isMine(r, c)) {
+                storage.setAdjacentMines(r, c, countAdjacentMines(r, c, neighborRows, neighborColumns));
+            } else {
+                storage.setAdjacentMines(r, c, -1);
             }
         }
     }
 
     /**
-     * Подсчитывает количество мин, находящихся в восьми соседних ячейках относительно указанной позиции.
+     * Подсчитывает количество мин в соседних ячейках по координатам, не создавая объектов позиций.
      *
-     * @param pos Позиция {@link CellPosition}, для которой подсчитываются соседние мины.
+     * @param row             Индекс строки.
+     * @param column          Индекс столбца.
+     * @param neighborRows    Буфер строк соседей размером {@link Topology#maxDegree()}.
+     * @param neighborColumns Буфер столбцов соседей того же размера.
      * @return Количество мин в соседних ячейках.
      */
-    private int countAdjacentMines(CellPosition pos) {
+    private int countAdjacentMines(int row, int column, int[] neighborRows, int[] neighborColumns) {
         int count = 0;
-        for (int dr = -1; dr <= 1; dr++) {
-            for (int dc = -1; dc <= 1; dc++) {
-                if (dr == 0 && dc == 0) continue; // Пропускаем саму ячейку
-
-                CellPosition neighborPos = new CellPosition(pos.getRow() + dr, pos.getColumn() + dc);
-                if (isValidPosition(neighborPos)) {
-                    MineCell neighborCell = getCell(neighborPos);
-                    if (neighborCell != null && neighborCell.isMine()) { // Доп. проверка на null
-                        count++;
-                    }
-                }
+        int neighbors = topology.neighbors(row, column, neighborRows, neighborColumns);
+        for (int i = 0; i < neighbors; i++) {
+            if (storage.isMine(neighborRows[i], neighborColumns[i])) {
+                count++;
             }
         }
         return count;
@@ -197,14 +494,26 @@ public class MineField {
 
     /**
      * Проверяет, является ли указанная позиция валидной (находится ли в пределах игрового поля).
-     * Использует статический метод {@link CellPosition#isValid(int, int)}.
      *
      * @param pos Позиция {@link CellPosition} для проверки.
      * @return {@code true}, если позиция находится в пределах поля, иначе {@code false}.
      */
     public boolean isValidPosition(CellPosition pos) {
         if (pos == null) return false;
-        return CellPosition.isValid(pos.getRow(), pos.getColumn());
+        return isValidPosition(pos.getRow(), pos.getColumn());
+    }
+
+    /**
+     * Проверяет, находятся ли координаты в пределах этого поля.
+     * В отличие от {@link CellPosition#isValid(int, int)}, не зависит от глобальных диапазонов,
+     * поэтому безопасна для полей, которые готовятся в других потоках.
+     *
+     * @param r Индекс строки.
+     * @param c Индекс столбца.
+     * @return {@code true}, если координаты лежат в пределах поля.
+     */
+    public boolean isValidPosition(int r, int c) {
+        return r >= 0 && r < rows && c >= 0 && c < columns;
     }
 
     /**
@@ -215,7 +524,7 @@ public class MineField {
      */
     public MineCell getCell(CellPosition pos) {
         if (isValidPosition(pos)) {
-            return cells[pos.getRow()][pos.getColumn()];
+            return storage.cell(pos.getRow(), pos.getColumn());
         }
         return null;
     }
@@ -229,7 +538,56 @@ public class MineField {
      * @return Объект {@link MineCell} для данных координат, или {@code null}, если позиция невалидна.
      */
     public MineCell getCell(int r, int c) {
-        return getCell(new CellPosition(r,c));
+        if (isValidPosition(r, c)) {
+            return storage.cell(r, c);
+        }
+        return null;
+    }
+
+    /**
+     * Возвращает хранилище состояния ячеек этого поля.
+     *
+     * @return Хранилище {@link CellStorage}.
+     */
+    public CellStorage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Возвращает неизменяемый снимок поля. Снимок не меняется при дальнейших ходах,
+     * его можно читать из других потоков (например, решателю), а попытки изменить его
+     * бросают {@link UnsupportedOperationException}.
+     * <p>
+     * Для {@link minesweeper.model.storage.ChunkedCellStorage блочного хранилища} снимок
+     * создается без копирования ячеек: блоки становятся общими и копируются живым полем
+     * при первой записи в них. Остальные хранилища, в том числе хранилище по умолчанию
+     * {@link MineCellGrid}, копируются целиком за O(N) (см. {@link CellStorage#snapshot()}),
+     * поэтому снимок не предназначен для вызова на каждом ходу.
+     *
+     * @return Снимок поля с тем же количеством мин и той же топологией.
+     */
+    public MineField snapshot() {
+        return new MineField(storage.snapshot(), topology, mineCount, false);
+    }
+
+    /**
+     * Создает независимую изменяемую копию поля для перебора гипотез ("что будет, если").
+     * Ходы на копии не влияют на это поле; память разделяется так же, как у {@link #snapshot()}.
+     * Слушатели и индекс сводок не копируются.
+     *
+     * @return Копия поля.
+     */
+    public MineField fork() {
+        return new MineField(storage.fork(), topology, mineCount, false);
+    }
+
+    /**
+     * Возвращает соседство ячеек этого поля.
+     *
+     * @return Топология {@link Topology}.
+     */
+    public Topology getTopology() {
+        return topology;
     }
 
     /**
@@ -286,9 +644,8 @@ public class MineField {
         List<MineCell> activeMines = new ArrayList<>();
         for (int r = 0; r < rows; r++) {
             for (int c = 0; c < columns; c++) {
-                MineCell cell = cells[r][c];
-                if (cell.isMine() && !cell.isOpen()) { // Мина и не открыта
-                    activeMines.add(cell);
+                if (storage.isMine(r, c) && !storage.isOpen(r, c)) { // Мина и не открыта
+                    activeMines.add(storage.cell(r, c));
                 }
             }
         }
@@ -306,27 +663,18 @@ public class MineField {
      */
     public List<CellPosition> getBoundaryCellsForRelocation() {
         List<CellPosition> boundaryCells = new ArrayList<>();
+        int[] neighborRows = new int[topology.maxDegree()];
+        int[] neighborColumns = new int[topology.maxDegree()];
         for (int r = 0; r < rows; r++) {
             for (int c = 0; c < columns; c++) {
-                MineCell currentCell = cells[r][c];
-                if (!currentCell.isOpen() && !currentCell.isMine()) {
+                if (!storage.isOpen(r, c) && !storage.isMine(r, c)) {
                     boolean hasOpenNeighbor = false;
-                    for (int dr = -1; dr <= 1; dr++) {
-                        for (int dc = -1; dc <= 1; dc++) {
-                            if (dr == 0 && dc == 0) continue;
-                            CellPosition neighborPos = new CellPosition(r + dr, c + dc);
-                            if (isValidPosition(neighborPos)) {
-                                MineCell neighborCell = getCell(neighborPos);
-                                if (neighborCell != null && neighborCell.isOpen()) { // Доп. проверка на null
-                                    hasOpenNeighbor = true;
-                                    break;
-                                }
-                            }
-                        }
-                        if (hasOpenNeighbor) break;
+                    int neighbors = topology.neighbors(r, c, neighborRows, neighborColumns);
+                    for (int i = 0; i < neighbors && !hasOpenNeighbor; i++) {
+                        hasOpenNeighbor = storage.isOpen(neighborRows[i], neighborColumns[i]);
                     }
                     if (hasOpenNeighbor) {
-                        boundaryCells.add(currentCell.getPosition());
+                        boundaryCells.add(new CellPosition(r, c));
                     }
                 }
             }
@@ -357,12 +705,12 @@ public class MineField {
         }
 
         // Убираем мину со старого места
-        fromCell.setMine(false);
-        fromCell.setOpen(false); // Закрываем ячейку, как указано в ТЗ
-        fromCell.setFlagged(false); // Снимаем флаг, если был
+        writeMine(fromPos.getRow(), fromPos.getColumn(), false);
+        writeOpen(fromPos.getRow(), fromPos.getColumn(), false); // Закрываем ячейку, как указано в ТЗ
+        writeFlagged(fromPos.getRow(), fromPos.getColumn(), false); // Снимаем флаг, если был
 
         // Ставим мину на новое место
-        toCell.setMine(true);
+        writeMine(toPos.getRow(), toPos.getColumn(), true);
         // toCell остается закрытой, флаг не трогаем, если он был (хотя по логике его не должно быть)
 
         // Пересчитываем соседей вокруг старой и новой позиции мины
@@ -378,55 +726,421 @@ public class MineField {
      * Если открытая ячейка является миной, метод возвращает {@code true} (мина взорвана).
      * Если открытая ячейка не содержит мины и количество соседних мин равно 0,
      * то рекурсивно открываются все соседние ячейки.
+     * <p>
+     * Несмотря на название, "рекурсия" выполняется явным стеком координат, поэтому
+     * большие пустые области не переполняют стек вызовов. Заливка идет только в вызывающем потоке;
+     * чтобы искать очень большие области параллельно, пул передается явно
+     * (см. {@link #openCellRecursive(CellPosition, ForkJoinPool)}). Хранилище может ограничить
+     * количество ячеек одной заливки ({@link CellStorage#revealLimit()}).
      *
      * @param pos Позиция {@link CellPosition} ячейки, которую нужно открыть.
      * @return {@code true}, если при открытии ячейки была активирована мина, иначе {@code false}.
      */
     public boolean openCellRecursive(CellPosition pos) {
-        MineCell cell = getCell(pos);
-        if (cell == null || cell.isOpen() || cell.isFlagged()) {
-            return false; // Нельзя открыть, или уже открыта, или помечена флагом
+        return openCellRecursive(pos, null);
+    }
+
+    /**
+     * Открывает ячейку так же, как {@link #openCellRecursive(CellPosition)}, но с указанным пулом
+     * для больших областей. Заливка начинается в вызывающем потоке; если она открыла больше
+     * {@link #PARALLEL_REVEAL_THRESHOLD} ячеек, а в пуле больше одного потока, остаток области ищется
+     * параллельно (см. {@link ParallelReveal}), после чего найденные ячейки открываются здесь же,
+     * в вызывающем потоке. Итоговое состояние поля то же, что при последовательной заливке;
+     * отличается только порядок, в котором слушатели видят открытие ячеек.
+     *
+     * @param pos  Позиция ячейки, которую нужно открыть.
+     * @param pool Пул для поиска больших областей или {@code null}, чтобы открывать только последовательно.
+     * @return {@code true}, если при открытии ячейки была активирована мина, иначе {@code false}.
+     */
+    public boolean openCellRecursive(CellPosition pos, ForkJoinPool pool) {
+        Reveal reveal = beginReveal(pos);
+        reveal.finish(pool);
+        return reveal.hitMine();
+    }
+
+    /**
+     * Начинает открытие ячейки, которое можно продолжать частями (см. {@link Reveal#step}).
+     * Сама ячейка открывается сразу; если она пустая, ее соседи открываются при следующих шагах.
+     * Если ячейку открыть нельзя (позиция вне поля, уже открыта или под флагом), открытие сразу
+     * завершено и ничего не открыло. Пока открытие не завершено, поле нельзя менять другими способами.
+     *
+     * @param pos Позиция ячейки, которую нужно открыть.
+     * @return Незавершенное (или уже завершенное) открытие.
+     */
+    public Reveal beginReveal(CellPosition pos) {
+        Reveal reveal = new Reveal();
+        if (!isValidPosition(pos)) {
+            return reveal;
+        }
+        int row = pos.getRow();
+        int column = pos.getColumn();
+        if (storage.isOpen(row, column) || storage.isFlagged(row, column)) {
+            return reveal; // Нельзя открыть, или уже открыта, или помечена флагом
         }
 
-        cell.setOpen(true);
+        writeOpen(row, column, true);
+        reveal.opened = 1;
 
-        if (cell.isMine()) {
-            return true; // Взорвались!
+        if (storage.isMine(row, column)) {
+            reveal.hitMine = true; // Взорвались!
+        } else if (storage.adjacentMines(row, column) == 0) {
+            reveal.push(row, column);
         }
+        return reveal;
+    }
 
-        // Если adjacentMinesCount == 0 (для пустых ячеек) или -1 (для мин, но этот случай уже обработан)
-        // Интересует только случай == 0 для рекурсии
-        if (cell.getAdjacentMinesCount() == 0) {
-            // Рекурсивно открываем соседей
-            for (int dr = -1; dr <= 1; dr++) {
-                for (int dc = -1; dc <= 1; dc++) {
-                    if (dr == 0 && dc == 0) continue;
-                    CellPosition neighborPos = new CellPosition(pos.getRow() + dr, pos.getColumn() + dc);
-                    if (isValidPosition(neighborPos)) {
-                        // Рекурсивный вызов не должен возвращать true, если соседи - мины,
-                        // так как текущий вызов уже безопасен. Нас интересует только взорвалась ли *эта* ячейка.
-                        openCellRecursive(neighborPos);
-                    }
+    /**
+     * Открытие пустой области, которое идет частями. Хранит стек упакованных координат пустых
+     * ячеек, соседей которых еще нужно открыть; каждый шаг продолжает ту же заливку, что и
+     * {@link #openCellRecursive(CellPosition)}, поэтому итог не зависит от размера шагов.
+     */
+    public final class Reveal {
+        private long[] stack = new long[16];
+        private int size;
+        private int opened;
+        private boolean hitMine;
+        private final int[] neighborRows = new int[topology.maxDegree()];
+        private final int[] neighborColumns = new int[topology.maxDegree()];
+        /**
+         * Ограничение хранилища на количество ячеек одного открытия ({@link CellStorage#revealLimit()}).
+         */
+        private final int revealLimit = storage.revealLimit();
+
+        private Reveal() {
+        }
+
+        /**
+         * @return {@code true}, если открывать больше нечего или открытие достигло
+         * ограничения хранилища ({@link CellStorage#revealLimit()}).
+         */
+        public boolean isDone() {
+            return size == 0 || opened >= revealLimit;
+        }
+
+        /**
+         * @return {@code true}, если открытая ячейка оказалась миной.
+         */
+        public boolean hitMine() {
+            return hitMine;
+        }
+
+        /**
+         * @return Количество ячеек, открытых с начала открытия.
+         */
+        public int openedCells() {
+            return opened;
+        }
+
+        /**
+         * Продолжает открытие, пока не открыто не меньше {@code maxCells} ячеек или не прошло
+         * {@code maxNanos} наносекунд (время проверяется не на каждой ячейке, так что шаг может
+         * немного превысить оба ограничения).
+         *
+         * @param maxCells Ограничение на количество ячеек или 0, если его нет.
+         * @param maxNanos Ограничение на время или 0, если его нет.
+         * @return Количество ячеек, открытых на этом шаге.
+         */
+        public int step(int maxCells, long maxNanos) {
+            int before = opened;
+            int limit = maxCells > 0 ? maxCells : Integer.MAX_VALUE;
+            long deadline = maxNanos > 0 ? System.nanoTime() + maxNanos : 0;
+            int expanded = 0;
+            while (!isDone() && opened - before < limit) {
+                expandNext();
+                if (deadline != 0 && (++expanded & 63) == 0 && System.nanoTime() - deadline >= 0) {
+                    break;
+                }
+            }
+            return opened - before;
+        }
+
+        /**
+         * Открывает все, что осталось; большой остаток ищется параллельно в пуле,
+         * как описано в {@link #openCellRecursive(CellPosition, ForkJoinPool)}.
+         */
+        void finish(ForkJoinPool pool) {
+            // Параллельный поиск не останавливается на полпути, поэтому ограниченные заливки идут последовательно
+            boolean parallel = pool != null && pool.getParallelism() > 1 && revealLimit == Integer.MAX_VALUE;
+            while (!isDone()) {
+                if (parallel && opened > PARALLEL_REVEAL_THRESHOLD) {
+                    opened += openClaimed(ParallelReveal.claim(storage, topology, stack, size, pool));
+                    size = 0;
+                    break;
+                }
+                expandNext();
+            }
+        }
+
+        private void expandNext() {
+            long packed = stack[--size];
+            int neighbors = topology.neighbors((int) (packed >> 32), (int) packed, neighborRows, neighborColumns);
+            for (int i = 0; i < neighbors; i++) {
+                int nr = neighborRows[i];
+                int nc = neighborColumns[i];
+                if (storage.isOpen(nr, nc) || storage.isFlagged(nr, nc)) {
+                    continue;
+                }
+                // Соседи пустой ячейки не бывают минами, поэтому открытие соседей безопасно
+                writeOpen(nr, nc, true);
+                opened++;
+                if (storage.adjacentMines(nr, nc) == 0) {
+                    push(nr, nc);
                 }
             }
         }
-        return false; // Безопасно открыли эту ячейку (или она была пустой и инициировала рекурсию)
+
+        private void push(int row, int column) {
+            if (size == stack.length) {
+                stack = Arrays.copyOf(stack, size * 2);
+            }
+            stack[size++] = pack(row, column);
+        }
     }
 
     /**
-     * Подсчитывает общее количество открытых ячеек на поле.
+     * Открывает ячейки, отмеченные в битовой карте параллельного поиска, по порядку индексов.
+     * Обходятся только страницы, на которых поиск что-то нашел.
      *
-     * @return Количество ячеек, которые были открыты игроком.
+     * @return Количество открытых ячеек.
      */
-    public int getNumberOfOpenedCells() {
+    private int openClaimed(NavigableMap<Long, AtomicLongArray> claimed) {
         int count = 0;
+        for (Map.Entry<Long, AtomicLongArray> page : claimed.entrySet()) {
+            long base = page.getKey() << ParallelReveal.PAGE_SHIFT;
+            AtomicLongArray bitmap = page.getValue();
+            for (int word = 0; word < bitmap.length(); word++) {
+                long bits = bitmap.getPlain(word);
+                if (bits == 0) {
+                    continue;
+                }
+                count += Long.bitCount(bits);
+                while (bits != 0) {
+                    long index = base + ((long) word << 6) + Long.numberOfTrailingZeros(bits);
+                    writeOpen((int) (index / columns), (int) (index % columns), true);
+                    bits &= bits - 1;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Возвращает ячейку в ранее записанное состояние (мина, открыта, флаг) через общие
+     * методы изменения, так что слушатели видят каждое изменение. Если изменилось наличие мины,
+     * пересчитываются соседи вокруг ячейки. Используется отменой и повтором ходов.
+     *
+     * @param row    Индекс строки.
+     * @param column Индекс столбца.
+     * @param state  Битовая маска состояния {@link CellChangeListener}.
+     */
+    void restoreCellState(int row, int column, int state) {
+        boolean mine = (state & CellChangeListener.MINE) != 0;
+        if (storage.isMine(row, column) != mine) {
+            writeMine(row, column, mine);
+            recalculateAdjacentMinesAround(new CellPosition(row, column));
+        }
+        writeOpen(row, column, (state & CellChangeListener.OPEN) != 0);
+        writeFlagged(row, column, (state & CellChangeListener.FLAGGED) != 0);
+    }
+
+    /**
+     * Устанавливает счетчик мин, сохраненный ранее (например, при отмене хода).
+     *
+     * @param mineCount Количество мин.
+     */
+    void restoreMineCount(int mineCount) {
+        this.mineCount = mineCount;
+    }
+
+    /**
+     * Переключает флаг на закрытой ячейке.
+     *
+     * @param pos Позиция {@link CellPosition} ячейки.
+     * @return {@code true}, если флаг был переключен; {@code false}, если позиция невалидна или ячейка открыта.
+     */
+    public boolean toggleFlag(CellPosition pos) {
+        if (!isValidPosition(pos) || storage.isOpen(pos.getRow(), pos.getColumn())) {
+            return false;
+        }
+        writeFlagged(pos.getRow(), pos.getColumn(), !storage.isFlagged(pos.getRow(), pos.getColumn()));
+        return true;
+    }
+
+    /**
+     * Открывает все еще закрытые мины. Вызывается при проигрыше.
+     */
+    public void revealAllMines() {
         for (int r = 0; r < rows; r++) {
             for (int c = 0; c < columns; c++) {
-                if (cells[r][c].isOpen()) {
-                    count++;
+                if (storage.isMine(r, c) && !storage.isOpen(r, c)) {
+                    writeOpen(r, c, true);
                 }
             }
         }
-        return count;
     }
-}
\ No newline at end of file
+
+    /**
+     * Упаковывает координаты в одно число: строка в старших 32 битах, столбец в младших.
+     */
+    private static long pack(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Подсчитывает общее количество открытых ячеек на поле.
+     *
+     * @return Количество ячеек, которые были открыты игроком.
+     */
+    public long getNumberOfOpenedCells() {
+        return storage.countOpen();
+    }
+
+    /**
+     * Возвращает индекс сводок по областям этого поля, создавая его при первом обращении.
+     * Созданный индекс строится по текущему состоянию за один проход по полю
+     * и дальше обновляется при каждом изменении через методы поля.
+     *
+     * @return Индекс {@link RegionSummaryIndex}.
+     */
+    public RegionSummaryIndex getSummaryIndex() {
+        if (summaryIndex == null) {
+            summaryIndex = new RegionSummaryIndex(this);
+            cellListeners.add(summaryIndex);
+        }
+        return summaryIndex;
+    }
+
+    /**
+     * Возвращает ячейки, которые открывает "аккорд" на открытой ячейке: закрытые соседи без флага.
+     * Аккорд возможен, только если вокруг ячейки стоит ровно столько флагов, сколько у нее соседних мин.
+     *
+     * @param pos Позиция открытой ячейки.
+     * @return Позиции для открытия; пустой список, если аккорд на этой ячейке невозможен.
+     */
+    public List<CellPosition> chordTargets(CellPosition pos) {
+        if (!isValidPosition(pos) || !storage.isOpen(pos.getRow(), pos.getColumn())
+                || storage.isMine(pos.getRow(), pos.getColumn())) {
+            return List.of();
+        }
+        int adjacentMines = storage.adjacentMines(pos.getRow(), pos.getColumn());
+        int[] neighborRows = new int[topology.maxDegree()];
+        int[] neighborColumns = new int[topology.maxDegree()];
+        int count = topology.neighbors(pos.getRow(), pos.getColumn(), neighborRows, neighborColumns);
+        int flags = 0;
+        List<CellPosition> targets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int r = neighborRows[i];
+            int c = neighborColumns[i];
+            if (storage.isFlagged(r, c)) {
+                flags++;
+            } else if (!storage.isOpen(r, c)) {
+                targets.add(new CellPosition(r, c));
+            }
+        }
+        return adjacentMines > 0 && flags == adjacentMines ? targets : List.of();
+    }
+
+    /**
+     * Возвращает множество блоков поля, изменившихся с последней контрольной точки, создавая его
+     * при первом обращении (тогда помечены все блоки). Дальше множество обновляется при каждом
+     * изменении через методы поля.
+     *
+     * @return Множество {@link DirtyChunkSet}.
+     */
+    public DirtyChunkSet getDirtyChunks() {
+        if (dirtyChunks == null) {
+            dirtyChunks = new DirtyChunkSet(rows, columns);
+            cellListeners.add(dirtyChunks);
+        }
+        return dirtyChunks;
+    }
+
+    /**
+     * Отключает от поля всех слушателей, а также индекс сводок и множество измененных блоков.
+     * Вызывается, когда отработавшее поле возвращается в пул: следующая партия на этом поле
+     * не должна доходить до потребителей прежней.
+     */
+    void detachListeners() {
+        cellListeners.clear();
+        summaryIndex = null;
+        dirtyChunks = null;
+    }
+
+    /**
+     * Регистрирует слушателя изменений ячеек.
+     *
+     * @param listener Слушатель {@link CellChangeListener}.
+     */
+    public void addCellChangeListener(CellChangeListener listener) {
+        cellListeners.add(listener);
+    }
+
+    /**
+     * Удаляет ранее зарегистрированного слушателя изменений ячеек.
+     *
+     * @param listener Слушатель {@link CellChangeListener}.
+     */
+    public void removeCellChangeListener(CellChangeListener listener) {
+        cellListeners.remove(listener);
+    }
+
+    /**
+     * @return Состояние ячейки в виде битовой маски {@link CellChangeListener}.
+     */
+    int cellState(int row, int column) {
+        return (storage.isMine(row, column) ? CellChangeListener.MINE : 0)
+                | (storage.isOpen(row, column) ? CellChangeListener.OPEN : 0)
+                | (storage.isFlagged(row, column) ? CellChangeListener.FLAGGED : 0);
+    }
+
+    /*
+     * Все точечные изменения ячеек проходят через следующие три метода, чтобы слушатели
+     * (индекс сводок и другие) видели каждое из них. Без слушателей это прямая запись в хранилище.
+     */
+
+    private void writeOpen(int row, int column, boolean open) {
+        if (cellListeners.isEmpty()) {
+            storage.setOpen(row, column, open);
+            return;
+        }
+        int before = cellState(row, column);
+        storage.setOpen(row, column, open);
+        notifyCellChanged(row, column, before);
+    }
+
+    private void writeFlagged(int row, int column, boolean flagged) {
+        if (cellListeners.isEmpty()) {
+            storage.setFlagged(row, column, flagged);
+            return;
+        }
+        int before = cellState(row, column);
+        storage.setFlagged(row, column, flagged);
+        notifyCellChanged(row, column, before);
+    }
+
+    private void writeMine(int row, int column, boolean mine) {
+        if (cellListeners.isEmpty()) {
+            storage.setMine(row, column, mine);
+            return;
+        }
+        int before = cellState(row, column);
+        storage.setMine(row, column, mine);
+        notifyCellChanged(row, column, before);
+    }
+
+    private void notifyCellChanged(int row, int column, int before) {
+        int after = cellState(row, column);
+        if (after == before) {
+            return;
+        }
+        for (CellChangeListener listener : cellListeners) {
+            listener.cellChanged(row, column, before, after);
+        }
+    }
+
+    private void notifyFieldChanged() {
+        for (CellChangeListener listener : cellListeners) {
+            listener.fieldChanged();
+        }
+    }
+}
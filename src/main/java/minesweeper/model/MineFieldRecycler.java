@@ -0,0 +1,105 @@
+package minesweeper.model;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пул отработавших игровых полей ({@link MineField}), сгруппированных по размерам.
+ * Вместо выделения новых rows×columns ячеек на каждую игру поле возвращается в пул
+ * вызовом {@link #release(MineField)} и позже сбрасывается на месте в {@link #acquire(int, int, int)}.
+ * Безопасен для использования из нескольких потоков.
+ */
+public class MineFieldRecycler {
+    /**
+     * Размеры поля, по которым группируются сохраненные поля.
+     */
+    private record Dimensions(int rows, int columns) {
+    }
+
+    /**
+     * Сохраненные поля одного размера.
+     */
+    private static final class Bucket {
+        private final Queue<MineField> fields = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+    }
+
+    /**
+     * Максимальное количество полей, хранимых для одного размера.
+     */
+    private final int capacityPerSize;
+    /**
+     * Сохраненные поля по размерам.
+     */
+    private final Map<Dimensions, Bucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Создает пул, хранящий не более {@code capacityPerSize} полей каждого размера.
+     *
+     * @param capacityPerSize Максимальное количество полей одного размера. Должно быть положительным.
+     * @throws IllegalArgumentException если {@code capacityPerSize} не положителен.
+     */
+    public MineFieldRecycler(int capacityPerSize) {
+        if (capacityPerSize <= 0) {
+            throw new IllegalArgumentException("Вместимость пула должна быть положительной.");
+        }
+        this.capacityPerSize = capacityPerSize;
+    }
+
+    /**
+     * Выдает чистое поле указанного размера: сброшенное на месте, если подходящее есть в пуле,
+     * или новое в противном случае. Мины на выданном поле еще не размещены, а глобальные
+     * диапазоны {@link minesweeper.model.navigation.CellPosition} не публикуются.
+     *
+     * @param rows             Количество строк.
+     * @param columns          Количество столбцов.
+     * @param initialMineCount Количество мин для последующего {@link MineField#placeMinesOnNewField()}.
+     * @return Поле в начальном состоянии.
+     */
+    public MineField acquire(int rows, int columns, int initialMineCount) {
+        Bucket bucket = buckets.get(new Dimensions(rows, columns));
+        MineField field = bucket == null ? null : bucket.fields.poll();
+        if (field == null) {
+            return new MineField(rows, columns, initialMineCount, false);
+        }
+        bucket.size.decrementAndGet();
+        field.resetDetached(initialMineCount);
+        return field;
+    }
+
+    /**
+     * Возвращает поле в пул. Поле не должно больше использоваться вызывающей стороной.
+     * Слушатели изменений поля отключаются, поэтому прежние потребители (история ходов, индекс сводок,
+     * контрольные точки) о его следующих партиях не узнают.
+     * Если пул для этого размера заполнен, поле просто отбрасывается.
+     *
+     * @param field Отработавшее поле. {@code null} игнорируется.
+     */
+    public void release(MineField field) {
+        if (field == null) {
+            return;
+        }
+        field.detachListeners();
+        Bucket bucket = buckets.computeIfAbsent(new Dimensions(field.getRows(), field.getColumns()), d -> new Bucket());
+        if (bucket.size.incrementAndGet() <= capacityPerSize) {
+            bucket.fields.add(field);
+        } else {
+            bucket.size.decrementAndGet();
+        }
+    }
+
+    /**
+     * Возвращает количество сохраненных полей указанного размера.
+     *
+     * @param rows    Количество строк.
+     * @param columns Количество столбцов.
+     * @return Количество полей, готовых к повторному использованию.
+     */
+    public int available(int rows, int columns) {
+        Bucket bucket = buckets.get(new Dimensions(rows, columns));
+        return bucket == null ? 0 : bucket.size.get();
+    }
+}
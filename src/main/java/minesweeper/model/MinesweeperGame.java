@@ -1,11 +1,19 @@
 package minesweeper.model;
 
+import minesweeper.model.events.CellChangeListener;
 import minesweeper.model.events.GameEvent;
 import minesweeper.model.events.GameActionListener;
+import minesweeper.model.events.GameEventBatch;
+import minesweeper.model.events.GameEventBatchListener;
+import minesweeper.model.journal.MoveJournal;
 import minesweeper.model.navigation.CellPosition;
+import minesweeper.model.navigation.Topology;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
 // import java.util.Objects; // Не используется напрямую
 
 /**
@@ -52,9 +60,99 @@ public class MinesweeperGame {
     private final int initialLives;
 
     /**
-     * Список слушателей, которые будут уведомлены об игровых событиях.
+     * Режим генерации мин для новых полей.
      */
-    private final List<GameActionListener> listeners = new ArrayList<>();
+    private MineField.GenerationMode generationMode = MineField.GenerationMode.UNIFORM;
+    /**
+     * Пул заранее сгенерированных полей или {@code null}, если поля генерируются при старте игры.
+     */
+    private BoardPool boardPool;
+    /**
+     * Глубина истории ходов по умолчанию.
+     */
+    public static final int DEFAULT_HISTORY_DEPTH = 100;
+    /**
+     * История ходов для отмены и повтора или {@code null}, если история отключена.
+     */
+    private MoveHistory history = new MoveHistory(DEFAULT_HISTORY_DEPTH);
+    /**
+     * Журнал ходов или {@code null}, если ходы не записываются.
+     */
+    private MoveJournal journal;
+    /**
+     * Источник зерен расстановки мин для партий, записываемых в журнал.
+     */
+    private final Random seedSource = new Random();
+    /**
+     * Зерно расстановки мин текущей партии, если оно известно.
+     */
+    private OptionalLong seed = OptionalLong.empty();
+
+    /**
+     * Ограничение одной части открытия в ячейках или 0; см. {@link #setRevealSlice}.
+     */
+    private int revealSliceCells;
+    /**
+     * Ограничение одной части открытия в микросекундах или 0; см. {@link #setRevealSlice}.
+     */
+    private long revealSliceMicros;
+    /**
+     * Пул для параллельного поиска больших областей или {@code null}; см. {@link #setRevealPool}.
+     */
+    private ForkJoinPool revealPool;
+
+    /**
+     * Список слушателей, которые будут уведомлены об игровых событиях. Регистрация редка, а рассылка
+     * идет на каждое событие, поэтому список копируется при изменении, а не при обходе.
+     */
+    private final CopyOnWriteArrayList<GameActionListener> listeners = new CopyOnWriteArrayList<>();
+    /**
+     * Слушатели пачек: получают одну сводку на команду.
+     */
+    private final CopyOnWriteArrayList<GameEventBatchListener> batchListeners = new CopyOnWriteArrayList<>();
+    /**
+     * События и измененные ячейки текущей команды.
+     */
+    private final GameEventBatch.Builder pendingBatch = new GameEventBatch.Builder();
+    /**
+     * Глубина вложенности команд: {@link #startGame()} может вызвать {@link #startGame(long)}.
+     */
+    private int commandDepth;
+    /**
+     * Переносит изменения ячеек поля в прямоугольник текущей пачки. Когда в ячейке появляется
+     * или исчезает мина, у ее соседей меняется количество соседних мин, поэтому они тоже отмечаются.
+     */
+    private final CellChangeListener dirtyTracker = new CellChangeListener() {
+        private int[] neighborRows = new int[0];
+        private int[] neighborColumns = new int[0];
+
+        @Override
+        public void cellChanged(int row, int column, int before, int after) {
+            pendingBatch.cellChanged(row, column);
+            if (((before ^ after) & CellChangeListener.MINE) == 0) {
+                return;
+            }
+            Topology topology = trackedField.getTopology();
+            if (neighborRows.length < topology.maxDegree()) {
+                neighborRows = new int[topology.maxDegree()];
+                neighborColumns = new int[topology.maxDegree()];
+            }
+            int count = topology.neighbors(row, column, neighborRows, neighborColumns);
+            for (int i = 0; i < count; i++) {
+                pendingBatch.cellChanged(neighborRows[i], neighborColumns[i]);
+            }
+        }
+
+        @Override
+        public void fieldChanged() {
+            pendingBatch.cellChanged(0, 0);
+            pendingBatch.cellChanged(rows - 1, columns - 1);
+        }
+    };
+    /**
+     * Поле, к которому подключен {@link #dirtyTracker}, или {@code null}.
+     */
+    private MineField trackedField;
 
     /**
      * Перечисление возможных состояний игры.
@@ -102,19 +200,91 @@ public class MinesweeperGame {
         this.gameState = GameState.NOT_STARTED;
     }
 
+    /**
+     * Создает игру поверх готового поля (например, загруженного из сохранения или с компактным
+     * хранилищем ячеек для сервера, где игр много). Размеры игры берутся из поля.
+     *
+     * @param mineField    Игровое поле.
+     * @param mineCount    Количество мин, с которым начинается каждая партия.
+     * @param initialLives Начальное количество жизней у игрока.
+     * @param saboteur     Экземпляр "диверсанта" или {@code null}.
+     */
+    public MinesweeperGame(MineField mineField, int mineCount, int initialLives, Saboteur saboteur) {
+        this.rows = mineField.getRows();
+        this.columns = mineField.getColumns();
+        this.initialMineCountSetting = mineCount;
+        this.initialLives = initialLives;
+        this.saboteur = saboteur;
+        this.player = new Player(initialLives);
+        this.mineField = mineField;
+        this.gameState = GameState.NOT_STARTED;
+    }
+
     /**
      * Запускает или перезапускает игру.
-     * Создается новый игрок и новое игровое поле с начальными настройками.
+     * Создается новый игрок, а игровое поле сбрасывается к начальным настройкам на месте.
+     * Если задан {@link #setBoardPool(BoardPool) пул полей}, новое поле берется из него,
+     * а прежнее возвращается в пул для повторного использования.
      * Мины размещаются на поле, и состояние игры устанавливается в {@link GameState#PLAYING}.
      * Генерируется событие {@link GameEvent.Type#GAME_STARTED}.
+     * Без пула (или если подключен {@link #setMoveJournal(MoveJournal) журнал ходов}) партия начинается
+     * со случайного зерна через {@link #startGame(long)}, и зерно доступно через {@link #getSeed()}.
      */
     public void startGame() {
-        this.player = new Player(this.initialLives);
-        // При каждом старте игры MineField создается с ИЗНАЧАЛЬНЫМ количеством мин
-        this.mineField = new MineField(this.rows, this.columns, this.initialMineCountSetting);
-        this.mineField.placeMinesOnNewField();
-        this.gameState = GameState.PLAYING;
-        fireGameEvent(GameEvent.Type.GAME_STARTED, null);
+        beginCommand();
+        try {
+            if (journal != null || boardPool == null) {
+                startGame(seedSource.nextLong());
+                return;
+            }
+            if (history != null) {
+                history.detach(); // Ходы прежней партии к новому полю не относятся
+            }
+            this.player = new Player(this.initialLives);
+            // При каждом старте игры поле готовится с ИЗНАЧАЛЬНЫМ количеством мин
+            MineField previousField = this.mineField;
+            this.mineField = boardPool.take(this.rows, this.columns, this.initialMineCountSetting, generationMode);
+            this.mineField.publishPositionRanges();
+            trackDirtyCells(); // Прежнее поле уходит в пул, и его изменения к игре больше не относятся
+            boardPool.recycle(previousField);
+            this.seed = OptionalLong.empty(); // Поле из пула сгенерировано заранее с неизвестным зерном
+            this.gameState = GameState.PLAYING;
+            fireGameEvent(GameEvent.Type.GAME_STARTED, null);
+        } finally {
+            endCommand();
+        }
+    }
+
+    /**
+     * Запускает или перезапускает игру с заданным зерном расстановки мин: при одинаковых
+     * параметрах игры и одинаковом зерне расстановка мин одинакова. Поле всегда сбрасывается
+     * на месте, {@link #setBoardPool(BoardPool) пул полей} не используется.
+     * Начало партии записывается в журнал ходов, если он подключен.
+     * Генерируется событие {@link GameEvent.Type#GAME_STARTED}.
+     *
+     * @param seed Зерно расстановки мин.
+     */
+    public void startGame(long seed) {
+        beginCommand();
+        try {
+            if (history != null) {
+                history.detach();
+            }
+            this.player = new Player(this.initialLives);
+            // Размеры поля у игры постоянны, поэтому прежнее поле сбрасывается на месте
+            this.mineField.reset(this.initialMineCountSetting);
+            this.mineField.reseed(seed);
+            this.seed = OptionalLong.of(seed);
+            this.mineField.placeMinesOnNewField(generationMode);
+            this.gameState = GameState.PLAYING;
+            if (journal != null) {
+                journal.gameStarted(rows, columns, initialMineCountSetting, initialLives, generationMode,
+                        getHistoryDepth(), saboteur != null, seed);
+            }
+            fireGameEvent(GameEvent.Type.GAME_STARTED, null);
+        } finally {
+            endCommand();
+        }
     }
 
     /**
@@ -123,12 +293,31 @@ public class MinesweeperGame {
      * Если на ячейке мина, игрок теряет жизнь, а количество активных мин на поле уменьшается.
      * Диверсант действует только после успешного открытия ячейки игроком, если игра не завершена.
      *
+     * Ход (вместе с действием диверсанта) записывается в историю для {@link #undo()}.
+     *
      * @param pos Позиция {@link CellPosition} ячейки, которую пытается открыть игрок.
      */
     public void openCell(CellPosition pos) {
-        if (gameState != GameState.PLAYING) {
-            return; // Игра не в процессе
+        beginCommand();
+        try {
+            if (gameState != GameState.PLAYING) {
+                return; // Игра не в процессе
+            }
+            if (journal != null) {
+                journal.cellOpened(pos);
+            }
+            beginMove();
+            try {
+                openCellMove(pos);
+            } finally {
+                endMove();
+            }
+        } finally {
+            endCommand();
         }
+    }
+
+    private void openCellMove(CellPosition pos) {
 
         MineCell cell = mineField.getCell(pos);
 
@@ -138,8 +327,38 @@ public class MinesweeperGame {
             return; // Диверсант не должен срабатывать, т.к. не было нового открытия
         }
 
+        boolean hitMine = revealCell(pos);
+        if (gameState != GameState.PLAYING) {
+            return; // Игра окончена (выигрыш или проигрыш), диверсант не действует
+        }
+        // Если мы здесь, это означает:
+        // 1. Игрок сделал ход по валидной, закрытой, не флагнутой ячейке.
+        // 2. Этот ход не привел к немедленному окончательному проигрышу или выигрышу.
+        // => Игра все еще в состоянии PLAYING.
+        // => Это и есть "успешное открытие", после которого может действовать диверсант.
+        saboteurTurn(hitMine);
+    }
+
+    /**
+     * Открывает закрытую ячейку без флага: теряет жизнь при мине, проверяет победу и поражение.
+     *
+     * @return {@code true}, если на ячейке была мина.
+     */
+    private boolean revealCell(CellPosition pos) {
         // Попытка открыть ячейку
-        boolean hitMine = mineField.openCellRecursive(pos);
+        boolean hitMine;
+        if (revealSliceCells == 0 && revealSliceMicros == 0) {
+            hitMine = mineField.openCellRecursive(pos, revealPool);
+        } else {
+            MineField.Reveal reveal = mineField.beginReveal(pos);
+            while (!reveal.isDone()) {
+                reveal.step(revealSliceCells, revealSliceMicros * 1000);
+                if (!reveal.isDone()) {
+                    fireGameEvent(GameEvent.Type.REVEAL_PROGRESS, pos); // Промежуточный результат
+                }
+            }
+            hitMine = reveal.hitMine();
+        }
         fireGameEvent(GameEvent.Type.CELL_UPDATED, pos); // Уведомляем об изменении ячейки
 
         if (hitMine) {
@@ -154,40 +373,91 @@ public class MinesweeperGame {
                 gameState = GameState.LOST;
                 revealAllMines();
                 fireGameEvent(GameEvent.Type.GAME_OVER_LOST, null);
-                return; // Игра окончена (проигрыш), диверсант не действует
             }
             // Игрок подорвался, но игра продолжается. Ход считается "успешным открытием" (мины).
         } else {
             // Мина НЕ была взорвана. Проверяем условие победы.
+            // Ход считается "успешным открытием" (безопасной ячейки).
             checkWinCondition();
-            if (gameState == GameState.WON) {
-                return; // Игра окончена (выигрыш), диверсант не действует
+        }
+        return hitMine;
+    }
+
+    /**
+     * Ход диверсанта после успешного открытия; игра при этом в состоянии {@link GameState#PLAYING}.
+     *
+     * @param hitMine {@code true}, если игрок подорвался на своем ходу.
+     */
+    private void saboteurTurn(boolean hitMine) {
+        if (saboteur == null) {
+            return;
+        }
+        boolean saboteurActed;
+        if (journal != null) {
+            journal.saboteurStarted(mineField);
+        }
+        try {
+            saboteurActed = saboteur.performAction(mineField, this);
+        } finally {
+            if (journal != null) {
+                journal.saboteurFinished();
+            }
+        }
+        if (saboteurActed) {
+            fireGameEvent(GameEvent.Type.SABOTEUR_ACTION, null);
+            fireGameEvent(GameEvent.Type.FIELD_UPDATED, null); // Поле изменилось диверсантом
+
+            // После действия диверсанта состояние игры могло измениться.
+            // Например, если диверсант убрал последнюю "ложную" мину и условие победы выполнилось.
+            if (!hitMine) { // Если игрок не взорвался на своем ходу, проверяем победу после диверсанта
+                checkWinCondition();
             }
-            // Ход считается "успешным открытием" (безопасной ячейки).
         }
+    }
 
-        // Если мы здесь, это означает:
-        // 1. Игрок сделал ход по валидной, закрытой, не флагнутой ячейке.
-        // 2. Этот ход не привел к немедленному окончательному проигрышу или выигрышу.
-        // => Игра все еще в состоянии PLAYING.
-        // => Это и есть "успешное открытие", после которого может действовать диверсант.
-        if (saboteur != null) { // gameState == GameState.PLAYING здесь подразумевается
-            boolean saboteurActed = saboteur.performAction(mineField, this);
-            if (saboteurActed) {
-                fireGameEvent(GameEvent.Type.SABOTEUR_ACTION, null);
-                fireGameEvent(GameEvent.Type.FIELD_UPDATED, null); // Поле изменилось диверсантом
-
-                // После действия диверсанта состояние игры могло измениться.
-                // Например, если диверсант убрал последнюю "ложную" мину и условие победы выполнилось.
-                // Или если бы диверсант мог взорвать игрока (не текущий случай).
-                if (!hitMine) { // Если игрок не взорвался на своем ходу, проверяем победу после диверсанта
-                    checkWinCondition();
+    /**
+     * Выполняет "аккорд" на открытой ячейке: если вокруг нее стоит столько флагов, сколько у нее
+     * соседних мин, открывает всех закрытых соседей без флага (см. {@link MineField#chordTargets}).
+     * Весь аккорд — один ход: диверсант действует один раз после него, отмена возвращает все
+     * открытые ячейки. Если флаги стоят неверно, игрок подрывается на каждой открытой мине.
+     *
+     * @param pos Позиция {@link CellPosition} открытой ячейки.
+     */
+    public void chord(CellPosition pos) {
+        beginCommand();
+        try {
+            if (gameState != GameState.PLAYING) {
+                return;
+            }
+            List<CellPosition> targets = mineField.chordTargets(pos);
+            if (targets.isEmpty()) {
+                return;
+            }
+            if (journal != null) {
+                journal.chorded(pos);
+            }
+            beginMove();
+            try {
+                boolean hitMine = false;
+                boolean opened = false;
+                for (CellPosition target : targets) {
+                    if (mineField.getCell(target).isOpen()) {
+                        continue; // Уже открыта заливкой от предыдущего соседа
+                    }
+                    opened = true;
+                    hitMine |= revealCell(target);
+                    if (gameState != GameState.PLAYING) {
+                        return;
+                    }
                 }
-                // Если игра завершилась после действия диверсанта, выходим.
-                if (gameState == GameState.WON || gameState == GameState.LOST) {
-                    return;
+                if (opened) {
+                    saboteurTurn(hitMine);
                 }
+            } finally {
+                endMove();
             }
+        } finally {
+            endCommand();
         }
     }
 
@@ -196,14 +466,7 @@ public class MinesweeperGame {
      * Генерирует событие {@link GameEvent.Type#FIELD_UPDATED}.
      */
     private void revealAllMines() {
-        for (int r = 0; r < mineField.getRows(); r++) {
-            for (int c = 0; c < mineField.getColumns(); c++) {
-                MineCell cell = mineField.getCell(r, c);
-                if (cell.isMine() && !cell.isOpen()) {
-                    cell.setOpen(true);
-                }
-            }
-        }
+        mineField.revealAllMines();
         fireGameEvent(GameEvent.Type.FIELD_UPDATED, null);
     }
 
@@ -216,15 +479,152 @@ public class MinesweeperGame {
      * @param pos Позиция {@link CellPosition} ячейки.
      */
     public void toggleFlag(CellPosition pos) {
-        if (gameState != GameState.PLAYING) return;
+        beginCommand();
+        try {
+            if (gameState != GameState.PLAYING) return;
 
-        MineCell cell = mineField.getCell(pos);
-        if (cell != null && !cell.isOpen()) {
-            cell.toggleFlag();
-            fireGameEvent(GameEvent.Type.CELL_UPDATED, pos);
+            if (journal != null) {
+                journal.flagToggled(pos);
+            }
+            beginMove();
+            try {
+                if (mineField.toggleFlag(pos)) {
+                    fireGameEvent(GameEvent.Type.CELL_UPDATED, pos);
+                }
+            } finally {
+                endMove();
+            }
+        } finally {
+            endCommand();
         }
     }
 
+    /**
+     * Отменяет последний ход: возвращает измененные ячейки, жизни игрока, счетчик мин
+     * и состояние игры к значениям до хода. Отменить можно и проигрышный или выигрышный ход.
+     * Генерирует события {@link GameEvent.Type#FIELD_UPDATED} и {@link GameEvent.Type#LIVES_CHANGED}.
+     *
+     * @return {@code true}, если ход отменен.
+     */
+    public boolean undo() {
+        beginCommand();
+        try {
+            if (history == null || !applyHistory(history.undo())) {
+                return false;
+            }
+            if (journal != null) {
+                journal.moveUndone();
+            }
+            return true;
+        } finally {
+            endCommand();
+        }
+    }
+
+    /**
+     * Повторяет последний отмененный ход.
+     * Генерирует события {@link GameEvent.Type#FIELD_UPDATED} и {@link GameEvent.Type#LIVES_CHANGED}.
+     *
+     * @return {@code true}, если ход повторен.
+     */
+    public boolean redo() {
+        beginCommand();
+        try {
+            if (history == null || !applyHistory(history.redo())) {
+                return false;
+            }
+            if (journal != null) {
+                journal.moveRedone();
+            }
+            return true;
+        } finally {
+            endCommand();
+        }
+    }
+
+    /**
+     * @return {@code true}, если есть ход для отмены.
+     */
+    public boolean canUndo() {
+        return history != null && gameState != GameState.NOT_STARTED && history.canUndo();
+    }
+
+    /**
+     * @return {@code true}, если есть отмененный ход для повтора.
+     */
+    public boolean canRedo() {
+        return history != null && gameState != GameState.NOT_STARTED && history.canRedo();
+    }
+
+    /**
+     * Задает наибольшее количество ходов, которые можно отменить. Текущая история очищается.
+     *
+     * @param depth Глубина истории; 0 отключает историю.
+     * @throws IllegalArgumentException если {@code depth} отрицателен.
+     */
+    public void setHistoryDepth(int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Глубина истории не может быть отрицательной.");
+        }
+        if (history != null) {
+            history.detach();
+        }
+        history = depth == 0 ? null : new MoveHistory(depth);
+    }
+
+    /**
+     * @return Наибольшее количество ходов, которые можно отменить; 0, если история отключена.
+     */
+    public int getHistoryDepth() {
+        return history == null ? 0 : history.depth();
+    }
+
+    /**
+     * Подключает журнал ходов. Следующие партии начинаются с записанного зерна, а ходы игрока,
+     * отмены, повторы и перемещения мин диверсантом дописываются в журнал.
+     * Журнал закрывает тот, кто его открыл.
+     *
+     * @param journal Журнал или {@code null}, чтобы прекратить запись.
+     */
+    public void setMoveJournal(MoveJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * @return Подключенный журнал ходов или {@code null}.
+     */
+    MoveJournal getMoveJournal() {
+        return journal;
+    }
+
+    private void beginMove() {
+        if (history != null) {
+            history.beginMove(mineField, currentScalars());
+        }
+    }
+
+    private void endMove() {
+        if (history != null) {
+            history.endMove(currentScalars());
+        }
+    }
+
+    private MoveHistory.Scalars currentScalars() {
+        return new MoveHistory.Scalars(player.getLives(), mineField.getMineCount(), gameState);
+    }
+
+    private boolean applyHistory(MoveHistory.Scalars scalars) {
+        if (scalars == null) {
+            return false;
+        }
+        player.restoreLives(scalars.lives());
+        mineField.restoreMineCount(scalars.mineCount());
+        gameState = scalars.state();
+        fireGameEvent(GameEvent.Type.FIELD_UPDATED, null);
+        fireGameEvent(GameEvent.Type.LIVES_CHANGED, null);
+        return true;
+    }
+
     /**
      * Проверяет, выполнены ли условия для победы в игре.
      * Условие победы: все ячейки, которые изначально не содержали мин, должны быть открыты.
@@ -239,11 +639,12 @@ public class MinesweeperGame {
             return;
         }
 
-        int totalCells = rows * columns;
-        int openCellsCount = mineField.getNumberOfOpenedCells();
+        long totalCells = (long) rows * columns;
+        // Счетчик открытых ячеек ведет хранилище; индекс сводок для проверки не нужен
+        long openCellsCount = mineField.getNumberOfOpenedCells();
 
         // Количество ячеек, которые ИЗНАЧАЛЬНО не были минами и должны быть открыты для победы.
-        int nonMineCellsToOpenTarget = totalCells - this.initialMineCountSetting;
+        long nonMineCellsToOpenTarget = totalCells - this.initialMineCountSetting;
 
         // Основное и единственное строгое условие победы:
         // Открыты все ячейки, которые изначально не были минами.
@@ -270,6 +671,44 @@ public class MinesweeperGame {
         return mineField;
     }
 
+    /**
+     * Возвращает зерно расстановки мин текущей партии.
+     * @return Зерно или пустое значение, если игра не начата или поле взято из пула.
+     */
+    public OptionalLong getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return Количество мин, с которым начинается каждая партия.
+     */
+    int getInitialMineCount() {
+        return initialMineCountSetting;
+    }
+
+    /**
+     * @return Количество жизней, с которым начинается каждая партия.
+     */
+    int getInitialLives() {
+        return initialLives;
+    }
+
+    /**
+     * Устанавливает сохраненное состояние партии: поле, жизни игрока, состояние игры и зерно.
+     * История ходов очищается, события не генерируются.
+     */
+    void restore(MineField field, int lives, GameState state, OptionalLong seed) {
+        if (history != null) {
+            history.detach();
+        }
+        this.mineField = field;
+        trackDirtyCells();
+        this.player = new Player(this.initialLives);
+        this.player.restoreLives(lives);
+        this.gameState = state;
+        this.seed = seed;
+    }
+
     /**
      * Возвращает объект игрока.
      * @return Текущий {@link Player}.
@@ -278,13 +717,113 @@ public class MinesweeperGame {
         return player;
     }
 
+    /**
+     * Возвращает "диверсанта" игры.
+     * @return Текущий {@link Saboteur} или {@code null}, если диверсант не участвует.
+     */
+    public Saboteur getSaboteur() {
+        return saboteur;
+    }
+
+    /**
+     * Заменяет "диверсанта" игры. Новый диверсант действует начиная со следующего хода.
+     * @param saboteur Экземпляр "диверсанта" или {@code null}, чтобы отключить диверсанта.
+     */
+    public void setSaboteur(Saboteur saboteur) {
+        this.saboteur = saboteur;
+    }
+
+    /**
+     * Возвращает режим генерации мин для новых полей.
+     * @return Текущий {@link MineField.GenerationMode}.
+     */
+    public MineField.GenerationMode getGenerationMode() {
+        return generationMode;
+    }
+
+    /**
+     * Устанавливает режим генерации мин, применяемый при следующем {@link #startGame()}.
+     * @param generationMode Режим генерации.
+     */
+    public void setGenerationMode(MineField.GenerationMode generationMode) {
+        if (generationMode != null) {
+            this.generationMode = generationMode;
+        }
+    }
+
+    /**
+     * Включает открытие больших областей частями. Открытие по-прежнему выполняется целиком внутри
+     * хода, но после каждой части, пока область не открыта до конца, слушатели получают
+     * {@link GameEvent.Type#REVEAL_PROGRESS}: поле в этот момент согласовано, и уже открытую часть
+     * можно показывать. Итоговое поле, проверка победы и остальные события хода те же, что при
+     * открытии целиком; области, открывшиеся за одну часть, не дают ни одного промежуточного события.
+     * Открытие частями всегда последовательное.
+     *
+     * @param maxCells  Примерное количество ячеек в части или 0 без ограничения.
+     * @param maxMicros Примерная длительность части в микросекундах или 0 без ограничения.
+     *                  Если оба значения 0, область открывается целиком (по умолчанию).
+     * @throws IllegalArgumentException если значение отрицательно.
+     */
+    public void setRevealSlice(int maxCells, long maxMicros) {
+        if (maxCells < 0 || maxMicros < 0) {
+            throw new IllegalArgumentException("Размер части открытия не может быть отрицательным: "
+                    + maxCells + " ячеек, " + maxMicros + " мкс.");
+        }
+        this.revealSliceCells = maxCells;
+        this.revealSliceMicros = maxMicros;
+    }
+
+    /**
+     * @return Ограничение части открытия в ячейках или 0 (см. {@link #setRevealSlice}).
+     */
+    public int getRevealSliceCells() {
+        return revealSliceCells;
+    }
+
+    /**
+     * @return Ограничение части открытия в микросекундах или 0 (см. {@link #setRevealSlice}).
+     */
+    public long getRevealSliceMicros() {
+        return revealSliceMicros;
+    }
+
+    /**
+     * Задает пул, в котором ищутся очень большие открываемые области
+     * (см. {@link MineField#openCellRecursive(CellPosition, ForkJoinPool)}). Игра пулом не владеет
+     * и не закрывает его. При открытии частями ({@link #setRevealSlice}) пул не используется.
+     *
+     * @param revealPool Пул или {@code null}, чтобы открывать области только в потоке игры (по умолчанию).
+     */
+    public void setRevealPool(ForkJoinPool revealPool) {
+        this.revealPool = revealPool;
+    }
+
+    /**
+     * @return Пул для поиска больших областей или {@code null} (см. {@link #setRevealPool}).
+     */
+    public ForkJoinPool getRevealPool() {
+        return revealPool;
+    }
+
+    /**
+     * Подключает пул заранее сгенерированных полей. Пул сразу начинает готовить поля
+     * для параметров этой игры.
+     * @param boardPool Пул полей или {@code null}, чтобы генерировать поля при каждом старте.
+     */
+    public void setBoardPool(BoardPool boardPool) {
+        this.boardPool = boardPool;
+        if (boardPool != null) {
+            boardPool.prefill(rows, columns, initialMineCountSetting, generationMode);
+        }
+    }
+
     /**
      * Добавляет слушателя игровых событий.
      * @param listener Слушатель {@link GameActionListener}.
      */
     public void addGameActionListener(GameActionListener listener) {
-        if (listener != null && !listeners.contains(listener)) {
-            listeners.add(listener);
+        if (listener != null) {
+            listeners.addIfAbsent(listener);
         }
     }
 
@@ -297,16 +836,85 @@ public class MinesweeperGame {
     }
 
     /**
-     * Создает и отправляет игровое событие всем зарегистрированным слушателям.
+     * Добавляет слушателя пачек. Каждая команда игры (начало партии, открытие, аккорд, флаг, отмена,
+     * повтор) дает ровно одну пачку {@link GameEventBatch} со всеми событиями команды и прямоугольником
+     * измененных ячеек; при открытии частями ({@link #setRevealSlice}) промежуточные результаты приходят
+     * отдельными пачками без команд. Слушатель вызывается в потоке игры по завершении команды.
+     * Пока такие слушатели есть, игра отслеживает изменения ячеек поля.
+     *
+     * @param listener Слушатель {@link GameEventBatchListener}.
+     */
+    public void addGameEventBatchListener(GameEventBatchListener listener) {
+        if (listener != null) {
+            batchListeners.addIfAbsent(listener);
+        }
+    }
+
+    /**
+     * Удаляет слушателя пачек.
+     * @param listener Слушатель {@link GameEventBatchListener}.
+     */
+    public void removeGameEventBatchListener(GameEventBatchListener listener) {
+        batchListeners.remove(listener);
+    }
+
+    private void beginCommand() {
+        if (commandDepth++ == 0) {
+            trackDirtyCells();
+        }
+    }
+
+    private void endCommand() {
+        if (--commandDepth == 0 && !batchListeners.isEmpty()) {
+            pendingBatch.commandApplied();
+            publishBatch();
+        }
+    }
+
+    /**
+     * Подключает отслеживание измененных ячеек к текущему полю, если есть слушатели пачек,
+     * и отключает от прежнего поля.
+     */
+    private void trackDirtyCells() {
+        MineField target = batchListeners.isEmpty() ? null : mineField;
+        if (trackedField == target) {
+            return;
+        }
+        if (trackedField != null) {
+            trackedField.removeCellChangeListener(dirtyTracker);
+        }
+        if (target != null) {
+            target.addCellChangeListener(dirtyTracker);
+        }
+        trackedField = target;
+    }
+
+    private void publishBatch() {
+        GameEventBatch batch = pendingBatch.build(this);
+        for (GameEventBatchListener listener : batchListeners) {
+            listener.batchApplied(batch);
+        }
+    }
+
+    /**
+     * Отправляет игровое событие слушателям событий и добавляет его в пачку текущей команды.
+     * Объект события создается, только если есть слушатели отдельных событий.
      *
      * @param type     Тип события {@link GameEvent.Type}.
      * @param position Позиция {@link CellPosition}, связанная с событием (может быть {@code null}).
      */
     private void fireGameEvent(GameEvent.Type type, CellPosition position) {
-        GameEvent event = new GameEvent(this, type, position);
-        List<GameActionListener> listenersCopy = new ArrayList<>(listeners); // Для безопасной итерации
-        for (GameActionListener listener : listenersCopy) {
-            listener.gameChanged(event);
+        if (!listeners.isEmpty()) {
+            GameEvent event = new GameEvent(this, type, position);
+            for (GameActionListener listener : listeners) {
+                listener.gameChanged(event);
+            }
+        }
+        if (!batchListeners.isEmpty()) {
+            pendingBatch.add(type, position);
+            if (commandDepth == 0 || type == GameEvent.Type.REVEAL_PROGRESS) {
+                publishBatch(); // Событие вне команды или промежуточный результат открытия — сразу
+            }
         }
     }
 }
\ No newline at end of file
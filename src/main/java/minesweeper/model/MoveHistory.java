@@ -0,0 +1,309 @@
+package minesweeper.model;
+
+import minesweeper.model.events.CellChangeListener;
+
+/**
+ * История ходов для отмены и повтора ({@link MinesweeperGame#undo()}, {@link MinesweeperGame#redo()}).
+ * Каждый ход хранится как дельта: список изменений ячеек (координаты, состояние до и после),
+ * которые поле сообщило через {@link CellChangeListener} за время хода, плюс жизни игрока,
+ * счетчик мин и состояние игры до и после хода. Так в ход попадают и ячейки, открытые
+ * раскрытием пустой области, и перемещения мин диверсантом.
+ * <p>
+ * Изменения лежат в кольцевом буфере примитивов ({@code long} с упакованными координатами
+ * и {@code byte} с двумя состояниями), заголовки ходов — в кольце фиксированной глубины.
+ * Память на ход пропорциональна числу измененных ячеек, а самые старые ходы вытесняются,
+ * когда история глубже заданной. Кольцо изменений растет вдвое при нехватке и сжимается вдвое,
+ * когда заполнено не больше чем на четверть, так что одно большое раскрытие не держит память
+ * после своего вытеснения. Отмена и повтор работают за время, пропорциональное дельте.
+ */
+final class MoveHistory implements CellChangeListener {
+    /**
+     * Скалярная часть состояния игры, которую восстанавливают отмена и повтор.
+     *
+     * @param lives     Жизни игрока.
+     * @param mineCount Счетчик мин на поле.
+     * @param state     Состояние игры.
+     */
+    record Scalars(int lives, int mineCount, MinesweeperGame.GameState state) {
+    }
+
+    private static final MinesweeperGame.GameState[] STATES = MinesweeperGame.GameState.values();
+    private static final int STATE_BITS = 3;
+    private static final int STATE_MASK = (1 << STATE_BITS) - 1;
+    private static final int MIN_CAPACITY = 64;
+
+    /**
+     * Поле, изменения которого записываются.
+     */
+    private MineField field;
+    /**
+     * Наибольшее количество хранимых ходов.
+     */
+    private final int depth;
+
+    /*
+     * Кольцо изменений ячеек: действительны абсолютные номера [changeHead, changeTail).
+     * Емкость — степень двойки, при нехватке кольцо удваивается, при заполнении
+     * не больше четверти — уменьшается вдвое, но не ниже MIN_CAPACITY.
+     */
+    private long[] positions = new long[MIN_CAPACITY];
+    private byte[] transitions = new byte[MIN_CAPACITY];
+    private long changeHead;
+    private long changeTail;
+
+    /*
+     * Кольцо заголовков ходов глубиной depth: действительны номера [firstMove, lastMove),
+     * ходы до cursor применены, после него — доступны для повтора.
+     */
+    private final long[] moveStarts;
+    private final long[] moveEnds;
+    private final int[] livesBefore;
+    private final int[] livesAfter;
+    private final int[] minesBefore;
+    private final int[] minesAfter;
+    private final byte[] statesBefore;
+    private final byte[] statesAfter;
+    private long firstMove;
+    private long cursor;
+    private long lastMove;
+
+    /**
+     * Записывается ли сейчас ход.
+     */
+    private boolean recording;
+    /**
+     * Применяются ли сейчас изменения самой историей (их записывать не нужно).
+     */
+    private boolean applying;
+    private Scalars pendingBefore;
+
+    /**
+     * @param depth Наибольшее количество хранимых ходов. Должно быть положительным.
+     * @throws IllegalArgumentException если {@code depth} не положителен.
+     */
+    MoveHistory(int depth) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("Глубина истории должна быть положительной.");
+        }
+        this.depth = depth;
+        this.moveStarts = new long[depth];
+        this.moveEnds = new long[depth];
+        this.livesBefore = new int[depth];
+        this.livesAfter = new int[depth];
+        this.minesBefore = new int[depth];
+        this.minesAfter = new int[depth];
+        this.statesBefore = new byte[depth];
+        this.statesAfter = new byte[depth];
+    }
+
+    /**
+     * Подключает историю к полю. Если поле сменилось, история очищается.
+     */
+    void attach(MineField newField) {
+        if (field == newField) {
+            return;
+        }
+        detach();
+        field = newField;
+        field.addCellChangeListener(this);
+    }
+
+    /**
+     * Отключает историю от поля и очищает ее.
+     */
+    void detach() {
+        if (field != null) {
+            field.removeCellChangeListener(this);
+            field = null;
+        }
+        clear();
+    }
+
+    /**
+     * Начинает запись хода. Ходы, отмененные ранее, после этого повторить уже нельзя.
+     */
+    void beginMove(MineField currentField, Scalars before) {
+        attach(currentField);
+        lastMove = cursor;
+        changeTail = cursor > firstMove ? moveEnds[slot(cursor - 1)] : changeHead;
+        shrinkIfSparse();
+        pendingBefore = before;
+        recording = true;
+    }
+
+    /**
+     * Завершает запись хода. Ход без изменений не сохраняется.
+     */
+    void endMove(Scalars after) {
+        recording = false;
+        long start = cursor > firstMove ? moveEnds[slot(cursor - 1)] : changeHead;
+        if (start == changeTail && pendingBefore.equals(after)) {
+            return;
+        }
+        if (lastMove - firstMove == depth) {
+            firstMove++; // Вытесняем самый старый ход вместе с его изменениями
+            changeHead = moveStarts[slot(firstMove)];
+            shrinkIfSparse();
+        }
+        int slot = slot(lastMove);
+        moveStarts[slot] = start;
+        moveEnds[slot] = changeTail;
+        livesBefore[slot] = pendingBefore.lives();
+        minesBefore[slot] = pendingBefore.mineCount();
+        statesBefore[slot] = (byte) pendingBefore.state().ordinal();
+        livesAfter[slot] = after.lives();
+        minesAfter[slot] = after.mineCount();
+        statesAfter[slot] = (byte) after.state().ordinal();
+        lastMove++;
+        cursor = lastMove;
+    }
+
+    /**
+     * @return Наибольшее количество хранимых ходов.
+     */
+    int depth() {
+        return depth;
+    }
+
+    boolean canUndo() {
+        return cursor > firstMove;
+    }
+
+    boolean canRedo() {
+        return cursor < lastMove;
+    }
+
+    /**
+     * Отменяет последний примененный ход, возвращая ячейки в состояние до хода.
+     *
+     * @return Скалярное состояние до хода или {@code null}, если отменять нечего.
+     */
+    Scalars undo() {
+        if (!canUndo()) {
+            return null;
+        }
+        cursor--;
+        int slot = slot(cursor);
+        applying = true;
+        try {
+            for (long i = moveEnds[slot] - 1; i >= moveStarts[slot]; i--) {
+                int index = ring(i);
+                field.restoreCellState((int) (positions[index] >> 32), (int) positions[index], transitions[index] & STATE_MASK);
+            }
+        } finally {
+            applying = false;
+        }
+        return new Scalars(livesBefore[slot], minesBefore[slot], STATES[statesBefore[slot]]);
+    }
+
+    /**
+     * Повторяет последний отмененный ход.
+     *
+     * @return Скалярное состояние после хода или {@code null}, если повторять нечего.
+     */
+    Scalars redo() {
+        if (!canRedo()) {
+            return null;
+        }
+        int slot = slot(cursor);
+        cursor++;
+        applying = true;
+        try {
+            for (long i = moveStarts[slot]; i < moveEnds[slot]; i++) {
+                int index = ring(i);
+                field.restoreCellState((int) (positions[index] >> 32), (int) positions[index], transitions[index] >>> STATE_BITS);
+            }
+        } finally {
+            applying = false;
+        }
+        return new Scalars(livesAfter[slot], minesAfter[slot], STATES[statesAfter[slot]]);
+    }
+
+    /**
+     * @return Количество изменений ячеек, хранимых сейчас в истории.
+     */
+    long storedChanges() {
+        return changeTail - changeHead;
+    }
+
+    /**
+     * @return Текущая емкость кольца изменений.
+     */
+    int changeCapacity() {
+        return positions.length;
+    }
+
+    @Override
+    public void cellChanged(int row, int column, int before, int after) {
+        if (applying) {
+            return;
+        }
+        if (!recording) {
+            clear(); // Изменение в обход ходов: прежние дельты к полю больше не применимы
+            return;
+        }
+        if (changeTail - changeHead == positions.length) {
+            resize(positions.length * 2);
+        }
+        int index = ring(changeTail++);
+        positions[index] = ((long) row << 32) | (column & 0xFFFFFFFFL);
+        transitions[index] = (byte) (before | after << STATE_BITS);
+    }
+
+    /**
+     * Сброс или новая расстановка мин делают историю неприменимой.
+     */
+    @Override
+    public void fieldChanged() {
+        clear();
+    }
+
+    private void clear() {
+        firstMove = cursor = lastMove = 0;
+        changeHead = changeTail = 0;
+        recording = false;
+        if (positions.length > MIN_CAPACITY) {
+            positions = new long[MIN_CAPACITY];
+            transitions = new byte[MIN_CAPACITY];
+        }
+    }
+
+    /**
+     * Уменьшает кольцо изменений, пока оно заполнено не больше чем на четверть.
+     * Между удвоением и уменьшением остается запас, поэтому кольцо не копируется на каждом ходу.
+     */
+    private void shrinkIfSparse() {
+        int capacity = positions.length;
+        long size = changeTail - changeHead;
+        while (capacity > MIN_CAPACITY && size <= capacity / 4) {
+            capacity /= 2;
+        }
+        if (capacity != positions.length) {
+            resize(capacity);
+        }
+    }
+
+    /**
+     * Переносит изменения в кольцо новой емкости (степени двойки), сохраняя их номера.
+     */
+    private void resize(int capacity) {
+        long[] newPositions = new long[capacity];
+        byte[] newTransitions = new byte[capacity];
+        for (long i = changeHead; i < changeTail; i++) {
+            int from = ring(i);
+            int to = (int) (i & (newPositions.length - 1));
+            newPositions[to] = positions[from];
+            newTransitions[to] = transitions[from];
+        }
+        positions = newPositions;
+        transitions = newTransitions;
+    }
+
+    private int ring(long changeNumber) {
+        return (int) (changeNumber & (positions.length - 1));
+    }
+
+    private int slot(long moveNumber) {
+        return (int) (moveNumber % depth);
+    }
+}
@@ -0,0 +1,102 @@
+package minesweeper.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Ограниченная очередь без блокировок для многих отправителей и одного получателя
+ * (кольцевой буфер с порядковым номером в каждой ячейке).
+ * <p>
+ * Отправитель занимает место сравнением с обменом хвоста, пишет элемент и публикует его
+ * номером ячейки; получатель читает ячейки по порядку, не синхронизируясь с отправителями.
+ * Порядок элементов — порядок, в котором отправители заняли места.
+ */
+final class MpscMailbox<E> {
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    /**
+     * Номер ячейки: {@code i} — свободна для места {@code i}, {@code i + 1} — занята элементом
+     * с местом {@code i}. Получатель освобождает ячейку для места на круг дальше.
+     */
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // Только поток получателя
+
+    /**
+     * @param capacity Емкость; округляется вверх до степени двойки.
+     * @throws IllegalArgumentException если емкость не положительна.
+     */
+    MpscMailbox(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Емкость очереди должна быть от 1 до 2^30.");
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Добавляет элемент. Можно вызывать из любых потоков.
+     *
+     * @return {@code false}, если очередь заполнена.
+     */
+    boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.set(index, position + 1); // Публикация; запись volatile, см. GameActor
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false; // Ячейка еще не освобождена получателем: очередь заполнена
+            }
+            // Иначе место занял другой отправитель; пробуем следующее
+        }
+    }
+
+    /**
+     * Передает обработчику до {@code limit} элементов по порядку. Только для потока получателя.
+     *
+     * @return Количество переданных элементов.
+     */
+    int drain(Consumer<? super E> consumer, int limit) {
+        int drained = 0;
+        while (drained < limit) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                break; // Следующий элемент еще не опубликован
+            }
+            E element = elements.get(index);
+            elements.lazySet(index, null);
+            sequences.lazySet(index, head + mask + 1);
+            head++;
+            drained++;
+            consumer.accept(element);
+        }
+        return drained;
+    }
+
+    /**
+     * @return {@code true}, если опубликованных элементов нет. Только для потока получателя.
+     */
+    boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+
+    /**
+     * @return Емкость очереди.
+     */
+    int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,144 @@
+package minesweeper.model;
+
+import minesweeper.model.navigation.Topology;
+import minesweeper.model.storage.CellStorage;
+
+import java.util.Arrays;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Параллельный поиск пустой области для {@link MineField#openCellRecursive(minesweeper.model.navigation.CellPosition, ForkJoinPool)}.
+ * <p>
+ * Хранилище во время поиска только читается, а открываемые ячейки отмечаются в общей битовой карте:
+ * бит ставится сравнением с обменом, поэтому каждую ячейку забирает ровно одна задача, сколько бы
+ * фронтов до нее ни дошло. Карта состоит из страниц по {@value #PAGE_CELLS} ячеек подряд в построчном
+ * порядке, которые создаются при первой отметке, так что память и последующий обход карты зависят
+ * от области, а не от размеров поля. Задача обходит свою пачку ячеек фронта явным стеком и, когда стек
+ * разрастается, отдает половину новой задаче; простаивающие потоки пула забирают такие задачи
+ * у занятых. Запись найденных ячеек в хранилище остается за вызывающим: хранилища и слушатели
+ * изменений рассчитаны на один пишущий поток.
+ */
+final class ParallelReveal {
+    /**
+     * Задача делится, когда в ее стеке набирается вдвое больше ячеек.
+     */
+    private static final int BATCH = 512;
+    /**
+     * Сдвиг номера страницы в построчном индексе ячейки: страница — 4096 слов, 32 КБ.
+     */
+    static final int PAGE_SHIFT = 18;
+    static final int PAGE_CELLS = 1 << PAGE_SHIFT;
+
+    private final CellStorage storage;
+    private final Topology topology;
+    private final int columns;
+    private final ConcurrentHashMap<Long, AtomicLongArray> pages = new ConcurrentHashMap<>();
+
+    private ParallelReveal(CellStorage storage, Topology topology) {
+        this.storage = storage;
+        this.topology = topology;
+        this.columns = storage.columns();
+    }
+
+    /**
+     * Находит все ячейки, которые откроет заливка от пустых ячеек фронта.
+     *
+     * @param storage  Хранилище; пока идет поиск, в него никто не пишет.
+     * @param topology Соседство ячеек.
+     * @param frontier Упакованные координаты ({@code row << 32 | column}) уже открытых пустых ячеек,
+     *                 соседей которых еще нужно открыть.
+     * @param size     Количество ячеек фронта.
+     * @param pool     Пул, в котором идет поиск.
+     * @return Страницы битовой карты найденных ячеек по возрастанию номера; бит {@code i} страницы
+     * {@code p} соответствует ячейке с построчным индексом {@code p * PAGE_CELLS + i}.
+     * Сами ячейки фронта в карту не входят.
+     */
+    static NavigableMap<Long, AtomicLongArray> claim(CellStorage storage, Topology topology, long[] frontier, int size,
+                                                     ForkJoinPool pool) {
+        ParallelReveal reveal = new ParallelReveal(storage, topology);
+        pool.invoke(reveal.new Task(null, Arrays.copyOf(frontier, size), size));
+        return new TreeMap<>(reveal.pages);
+    }
+
+    private final class Task extends CountedCompleter<Void> {
+        private long[] stack;
+        private int size;
+        /**
+         * Последняя страница, к которой обращалась задача: соседние ячейки обычно лежат на ней же.
+         */
+        private long pageIndex = -1;
+        private AtomicLongArray page;
+
+        Task(Task parent, long[] stack, int size) {
+            super(parent);
+            this.stack = stack;
+            this.size = size;
+        }
+
+        @Override
+        public void compute() {
+            int[] neighborRows = new int[topology.maxDegree()];
+            int[] neighborColumns = new int[topology.maxDegree()];
+            while (size > 0) {
+                if (size >= 2 * BATCH) {
+                    // Отдаем нижнюю половину стека: до этих ячеек задача доберется нескоро
+                    int half = size >>> 1;
+                    long[] batch = Arrays.copyOf(stack, half);
+                    System.arraycopy(stack, half, stack, 0, size - half);
+                    size -= half;
+                    addToPendingCount(1);
+                    new Task(this, batch, half).fork();
+                }
+                long packed = stack[--size];
+                int neighbors = topology.neighbors((int) (packed >> 32), (int) packed, neighborRows, neighborColumns);
+                for (int i = 0; i < neighbors; i++) {
+                    int nr = neighborRows[i];
+                    int nc = neighborColumns[i];
+                    if (!tryClaim(nr, nc)) {
+                        continue;
+                    }
+                    // Соседи пустой ячейки не бывают минами
+                    if (storage.adjacentMines(nr, nc) == 0) {
+                        if (size == stack.length) {
+                            stack = Arrays.copyOf(stack, Math.max(16, size * 2));
+                        }
+                        stack[size++] = ((long) nr << 32) | (nc & 0xFFFFFFFFL);
+                    }
+                }
+            }
+            stack = null;
+            page = null;
+            tryComplete();
+        }
+
+        /**
+         * Забирает ячейку: закрытую, без флага и еще никем не найденную.
+         */
+        private boolean tryClaim(int row, int column) {
+            if (storage.isOpen(row, column) || storage.isFlagged(row, column)) {
+                return false;
+            }
+            long index = (long) row * columns + column;
+            if (index >>> PAGE_SHIFT != pageIndex) {
+                pageIndex = index >>> PAGE_SHIFT;
+                page = pages.computeIfAbsent(pageIndex, key -> new AtomicLongArray(PAGE_CELLS >>> 6));
+            }
+            int word = (int) (index & (PAGE_CELLS - 1)) >>> 6;
+            long bit = 1L << index;
+            long current = page.get(word);
+            while ((current & bit) == 0) {
+                long witness = page.compareAndExchange(word, current, current | bit);
+                if (witness == current) {
+                    return true;
+                }
+                current = witness;
+            }
+            return false;
+        }
+    }
+}
@@ -58,6 +58,15 @@ public class Player {
         return lives > 0;
     }
 
+    /**
+     * Устанавливает количество жизней, сохраненное ранее (например, при отмене хода).
+     *
+     * @param lives Количество жизней, от 0 до начального.
+     */
+    void restoreLives(int lives) {
+        this.lives = Math.max(0, Math.min(initialLives, lives));
+    }
+
     /**
      * Сбрасывает текущее количество жизней игрока до начального значения.
      * Используется, например, при перезапуске игры.
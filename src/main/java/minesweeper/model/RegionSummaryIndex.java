@@ -0,0 +1,356 @@
+package minesweeper.model;
+
+import minesweeper.model.events.CellChangeListener;
+import minesweeper.model.navigation.CellRange;
+import minesweeper.model.navigation.Topology;
+import minesweeper.model.storage.CellStorage;
+
+import java.util.Arrays;
+
+/**
+ * Иерархический индекс сводок по областям игрового поля (пирамида, она же квадродерево по плиткам).
+ * Нижний уровень делит поле на плитки 16×16 ячеек, каждый следующий объединяет по 2×2 узла
+ * предыдущего, вершина описывает все поле. Для каждого узла хранятся счетчики {@link Count}.
+ * <p>
+ * Индекс обновляется за O(log N) при каждом изменении ячейки через методы {@link MineField}
+ * (поле уведомляет его как {@link CellChangeListener}) и отвечает на запросы по прямоугольникам
+ * за O(log N + периметр): целиком покрытые узлы берутся из пирамиды, ячейки на краях плиток
+ * проверяются по хранилищу. Узлы отдельных уровней пригодны для отрисовки с разной детализацией.
+ * <p>
+ * Изменения, сделанные в обход поля (напрямую через {@link MineCell}), индекс не видит.
+ * Как и само поле, индекс рассчитан на использование из одного потока.
+ */
+public class RegionSummaryIndex implements CellChangeListener {
+    /**
+     * Виды счетчиков, которые ведет индекс.
+     */
+    public enum Count {
+        /**
+         * Закрытые ячейки (с минами и без).
+         */
+        CLOSED,
+        /**
+         * Ячейки с флагами.
+         */
+        FLAGGED,
+        /**
+         * Мины, включая открытые (взорванные).
+         */
+        MINES,
+        /**
+         * Закрытые ячейки без мин — то, что игроку еще предстоит открыть.
+         */
+        HIDDEN_SAFE,
+        /**
+         * Граница: закрытые ячейки, у которых есть открытый сосед.
+         */
+        FRONTIER
+    }
+
+    /**
+     * Двоичный логарифм стороны плитки нижнего уровня.
+     */
+    static final int TILE_SHIFT = 4;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final Count[] COUNTS = Count.values();
+
+    private final CellStorage storage;
+    private final Topology topology;
+    private final int rows;
+    private final int columns;
+    /**
+     * Количество узлов по вертикали и горизонтали на каждом уровне.
+     */
+    private final int[] levelRows;
+    private final int[] levelColumns;
+    /**
+     * Счетчики: {@code counts[уровень][вид][строка узла * столбцов уровня + столбец узла]}.
+     */
+    private final long[][][] counts;
+    /**
+     * Буферы соседей: изменившаяся ячейка с соседями и соседи одной из них.
+     */
+    private final int[] aroundRows;
+    private final int[] aroundColumns;
+    private final int[] neighborRows;
+    private final int[] neighborColumns;
+
+    /**
+     * Создает индекс по текущему состоянию поля. Регистрацией индекса как слушателя
+     * занимается {@link MineField#getSummaryIndex()}.
+     */
+    RegionSummaryIndex(MineField field) {
+        this.storage = field.getStorage();
+        this.topology = field.getTopology();
+        this.aroundRows = new int[topology.maxDegree() + 1];
+        this.aroundColumns = new int[topology.maxDegree() + 1];
+        this.neighborRows = new int[topology.maxDegree()];
+        this.neighborColumns = new int[topology.maxDegree()];
+        this.rows = field.getRows();
+        this.columns = field.getColumns();
+
+        int levels = 1;
+        for (long r = tiles(rows), c = tiles(columns); r > 1 || c > 1; r = (r + 1) / 2, c = (c + 1) / 2) {
+            levels++;
+        }
+        this.levelRows = new int[levels];
+        this.levelColumns = new int[levels];
+        this.counts = new long[levels][][];
+        int r = tiles(rows);
+        int c = tiles(columns);
+        for (int level = 0; level < levels; level++) {
+            levelRows[level] = r;
+            levelColumns[level] = c;
+            counts[level] = new long[COUNTS.length][r * c];
+            r = (r + 1) / 2;
+            c = (c + 1) / 2;
+        }
+        rebuild();
+    }
+
+    private static int tiles(int cells) {
+        return (cells + TILE_SIZE - 1) >>> TILE_SHIFT;
+    }
+
+    /**
+     * @return Количество уровней пирамиды; уровень 0 — плитки 16×16, последний — все поле.
+     */
+    public int levels() {
+        return counts.length;
+    }
+
+    /**
+     * @return Количество узлов уровня по вертикали.
+     */
+    public int levelRows(int level) {
+        return levelRows[level];
+    }
+
+    /**
+     * @return Количество узлов уровня по горизонтали.
+     */
+    public int levelColumns(int level) {
+        return levelColumns[level];
+    }
+
+    /**
+     * @return Сторона области, которую покрывает один узел уровня, в ячейках.
+     */
+    public long tileSize(int level) {
+        return (long) TILE_SIZE << level;
+    }
+
+    /**
+     * Возвращает счетчик одного узла. Предназначен для отрисовки с пониженной детализацией:
+     * каждый узел уровня можно нарисовать одним прямоугольником.
+     *
+     * @param kind       Вид счетчика.
+     * @param level      Уровень пирамиды.
+     * @param tileRow    Строка узла на уровне.
+     * @param tileColumn Столбец узла на уровне.
+     * @return Значение счетчика для области узла.
+     */
+    public long count(Count kind, int level, int tileRow, int tileColumn) {
+        return counts[level][kind.ordinal()][tileRow * levelColumns[level] + tileColumn];
+    }
+
+    /**
+     * @return Значение счетчика по всему полю за O(1).
+     */
+    public long total(Count kind) {
+        return counts[counts.length - 1][kind.ordinal()][0];
+    }
+
+    /**
+     * Подсчитывает ячейки указанного вида в прямоугольнике. Части прямоугольника
+     * за пределами поля игнорируются.
+     *
+     * @param kind        Вид счетчика.
+     * @param rowRange    Диапазон строк (включительно).
+     * @param columnRange Диапазон столбцов (включительно).
+     * @return Количество ячеек вида {@code kind} в прямоугольнике.
+     */
+    public long count(Count kind, CellRange rowRange, CellRange columnRange) {
+        return query(kind, rowRange, columnRange, Long.MAX_VALUE);
+    }
+
+    /**
+     * Проверяет, остались ли в прямоугольнике закрытые ячейки без мин.
+     * Поиск прекращается на первой найденной ячейке.
+     *
+     * @param rowRange    Диапазон строк (включительно).
+     * @param columnRange Диапазон столбцов (включительно).
+     * @return {@code true}, если в прямоугольнике есть что открывать.
+     */
+    public boolean hasHiddenSafeCells(CellRange rowRange, CellRange columnRange) {
+        return query(Count.HIDDEN_SAFE, rowRange, columnRange, 1) > 0;
+    }
+
+    private long query(Count kind, CellRange rowRange, CellRange columnRange, long limit) {
+        int top = rowRange.min();
+        int bottom = Math.min(rows - 1, rowRange.max());
+        int left = columnRange.min();
+        int right = Math.min(columns - 1, columnRange.max());
+        if (top > bottom || left > right) {
+            return 0;
+        }
+        return query(kind.ordinal(), counts.length - 1, 0, 0, top, bottom, left, right, limit);
+    }
+
+    /**
+     * Спускается от узла ({@code tileRow}, {@code tileColumn}) уровня {@code level},
+     * суммируя целиком покрытые узлы и проверяя по ячейкам частично покрытые плитки нижнего уровня.
+     * Останавливается, как только сумма достигла {@code limit}.
+     */
+    private long query(int kind, int level, int tileRow, int tileColumn,
+                       int top, int bottom, int left, int right, long limit) {
+        int shift = TILE_SHIFT + level;
+        long nodeTop = (long) tileRow << shift;
+        long nodeLeft = (long) tileColumn << shift;
+        long nodeBottom = Math.min(rows, nodeTop + (1L << shift)) - 1;
+        long nodeRight = Math.min(columns, nodeLeft + (1L << shift)) - 1;
+        if (nodeTop > bottom || nodeBottom < top || nodeLeft > right || nodeRight < left) {
+            return 0;
+        }
+        if (nodeTop >= top && nodeBottom <= bottom && nodeLeft >= left && nodeRight <= right) {
+            return counts[level][kind][tileRow * levelColumns[level] + tileColumn];
+        }
+        long sum = 0;
+        if (level == 0) {
+            for (int r = (int) Math.max(top, nodeTop); r <= Math.min(bottom, nodeBottom) && sum < limit; r++) {
+                for (int c = (int) Math.max(left, nodeLeft); c <= Math.min(right, nodeRight); c++) {
+                    if (matches(kind, r, c)) {
+                        sum++;
+                    }
+                }
+            }
+            return sum;
+        }
+        int childLevel = level - 1;
+        for (int r = tileRow * 2; r <= Math.min(levelRows[childLevel] - 1, tileRow * 2 + 1); r++) {
+            for (int c = tileColumn * 2; c <= Math.min(levelColumns[childLevel] - 1, tileColumn * 2 + 1); c++) {
+                sum += query(kind, childLevel, r, c, top, bottom, left, right, limit - sum);
+                if (sum >= limit) {
+                    return sum;
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public void cellChanged(int row, int column, int before, int after) {
+        add(Count.CLOSED, row, column, closed(after) - closed(before));
+        add(Count.FLAGGED, row, column, bit(after, FLAGGED) - bit(before, FLAGGED));
+        add(Count.MINES, row, column, bit(after, MINE) - bit(before, MINE));
+        add(Count.HIDDEN_SAFE, row, column, hiddenSafe(after) - hiddenSafe(before));
+        if (((before ^ after) & OPEN) == 0) {
+            return; // Граница зависит только от того, какие ячейки открыты
+        }
+        boolean openedBefore = (before & OPEN) != 0;
+        boolean openedAfter = (after & OPEN) != 0;
+        // Соседство симметрично, поэтому граница могла измениться только у самой ячейки и ее соседей
+        int around = topology.neighbors(row, column, aroundRows, aroundColumns);
+        aroundRows[around] = row;
+        aroundColumns[around] = column;
+        for (int i = 0; i <= around; i++) {
+            int r = aroundRows[i];
+            int c = aroundColumns[i];
+            boolean self = r == row && c == column;
+            boolean closedBefore = self ? !openedBefore : !storage.isOpen(r, c);
+            boolean closedAfter = self ? !openedAfter : closedBefore;
+            boolean otherOpen = hasOpenNeighbor(r, c, row, column);
+            boolean frontierBefore = closedBefore && (otherOpen || !self && openedBefore);
+            boolean frontierAfter = closedAfter && (otherOpen || !self && openedAfter);
+            add(Count.FRONTIER, r, c, (frontierAfter ? 1 : 0) - (frontierBefore ? 1 : 0));
+        }
+    }
+
+    /**
+     * Пересчитывает все счетчики по хранилищу.
+     */
+    @Override
+    public void fieldChanged() {
+        rebuild();
+    }
+
+    private void rebuild() {
+        long[][] tilesCounts = counts[0];
+        for (long[] values : tilesCounts) {
+            Arrays.fill(values, 0);
+        }
+        for (int r = 0; r < rows; r++) {
+            int tileBase = (r >>> TILE_SHIFT) * levelColumns[0];
+            for (int c = 0; c < columns; c++) {
+                int tile = tileBase + (c >>> TILE_SHIFT);
+                for (int kind = 0; kind < COUNTS.length; kind++) {
+                    if (matches(kind, r, c)) {
+                        tilesCounts[kind][tile]++;
+                    }
+                }
+            }
+        }
+        for (int level = 1; level < counts.length; level++) {
+            for (int kind = 0; kind < COUNTS.length; kind++) {
+                long[] parent = counts[level][kind];
+                long[] child = counts[level - 1][kind];
+                Arrays.fill(parent, 0);
+                for (int r = 0; r < levelRows[level - 1]; r++) {
+                    for (int c = 0; c < levelColumns[level - 1]; c++) {
+                        parent[(r >>> 1) * levelColumns[level] + (c >>> 1)] += child[r * levelColumns[level - 1] + c];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Прибавляет {@code delta} к счетчику всех узлов, покрывающих ячейку.
+     */
+    private void add(Count kind, int row, int column, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        for (int level = 0; level < counts.length; level++) {
+            int shift = TILE_SHIFT + level;
+            counts[level][kind.ordinal()][(row >>> shift) * levelColumns[level] + (column >>> shift)] += delta;
+        }
+    }
+
+    private boolean matches(int kind, int row, int column) {
+        return switch (COUNTS[kind]) {
+            case CLOSED -> !storage.isOpen(row, column);
+            case FLAGGED -> storage.isFlagged(row, column);
+            case MINES -> storage.isMine(row, column);
+            case HIDDEN_SAFE -> !storage.isOpen(row, column) && !storage.isMine(row, column);
+            case FRONTIER -> !storage.isOpen(row, column) && hasOpenNeighbor(row, column, row, column);
+        };
+    }
+
+    /**
+     * @return {@code true}, если у ячейки есть открытый сосед, не считая ячейки ({@code exceptRow}, {@code exceptColumn}).
+     */
+    private boolean hasOpenNeighbor(int row, int column, int exceptRow, int exceptColumn) {
+        int neighbors = topology.neighbors(row, column, neighborRows, neighborColumns);
+        for (int i = 0; i < neighbors; i++) {
+            int r = neighborRows[i];
+            int c = neighborColumns[i];
+            if ((r != exceptRow || c != exceptColumn) && storage.isOpen(r, c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int closed(int state) {
+        return (state & OPEN) == 0 ? 1 : 0;
+    }
+
+    private static int hiddenSafe(int state) {
+        return (state & (OPEN | MINE)) == 0 ? 1 : 0;
+    }
+
+    private static int bit(int state, int bit) {
+        return (state & bit) != 0 ? 1 : 0;
+    }
+}
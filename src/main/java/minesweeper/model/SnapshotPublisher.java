@@ -0,0 +1,83 @@
+package minesweeper.model;
+
+import minesweeper.model.events.GameEvent;
+import minesweeper.model.events.GameEventBatch;
+import minesweeper.model.events.GameEventBatchListener;
+import minesweeper.model.events.GameSnapshotListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Публикует снимки партии ({@link GameSnapshot}) для потоков, которым нельзя трогать саму игру,
+ * прежде всего для отрисовки в Swing. Подключается к {@link GameActor} как слушатель пачек:
+ * после каждой пачки ходов в потоке актора снимается новый снимок и публикуется через volatile-ссылку,
+ * так что читатель всегда видит целиком одно согласованное состояние, а не ход на середине.
+ * Новый снимок копирует только блоки ячеек из прямоугольника изменений пачки
+ * ({@link GameEventBatch#getDirtyRegion()}), остальные он разделяет с предыдущим; целиком поле
+ * снимается только в начале новой партии или после замены поля.
+ * <pre>{@code
+ * SnapshotPublisher snapshots = new SnapshotPublisher(game);
+ * GameActor actor = new GameActor(game);
+ * actor.addBatchListener(snapshots);
+ * }</pre>
+ */
+public final class SnapshotPublisher implements GameEventBatchListener {
+    private final MinesweeperGame game;
+    private final List<GameSnapshotListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile GameSnapshot latest;
+    /**
+     * Поле, с которого снят {@link #latest}; используется только в потоке игры.
+     */
+    private MineField capturedField;
+
+    /**
+     * Создает издателя и снимает начальное состояние игры. Вызывается до того, как игра
+     * передана актору, или в потоке актора.
+     *
+     * @param game Игра.
+     */
+    public SnapshotPublisher(MinesweeperGame game) {
+        this.game = game;
+        this.latest = GameSnapshot.capture(game, 0);
+        this.capturedField = game.getMineField();
+    }
+
+    /**
+     * @return Последний опубликованный снимок.
+     */
+    public GameSnapshot latest() {
+        return latest;
+    }
+
+    /**
+     * Регистрирует слушателя публикаций. Слушатели вызываются в потоке игры.
+     */
+    public void addSnapshotListener(GameSnapshotListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Удаляет слушателя публикаций.
+     */
+    public void removeSnapshotListener(GameSnapshotListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void batchApplied(GameEventBatch batch) {
+        if (batch.getEventCount() == 0 && batch.getDirtyRegion() == null) {
+            return; // Ни одна команда пачки ничего не изменила
+        }
+        MineField field = game.getMineField();
+        GameSnapshot previous = latest;
+        GameSnapshot snapshot = field == capturedField && !batch.contains(GameEvent.Type.GAME_STARTED)
+                ? GameSnapshot.capture(game, previous, batch.getDirtyRegion(), previous.getVersion() + 1)
+                : GameSnapshot.capture(game, previous.getVersion() + 1);
+        capturedField = field;
+        latest = snapshot;
+        for (GameSnapshotListener listener : listeners) {
+            listener.snapshotPublished(snapshot);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package minesweeper.model.events;
+
+import java.util.EventListener;
+
+/**
+ * Слушатель изменений отдельных ячеек игрового поля ({@link minesweeper.model.MineField}).
+ * Поле уведомляет слушателей обо всех изменениях, которые проходят через его методы
+ * (открытие, флаги, перемещение мин). Изменения, сделанные напрямую через объекты
+ * {@link minesweeper.model.MineCell} или хранилище, слушатели не видят.
+ * <p>
+ * Состояние ячейки передается битовой маской из {@link #MINE}, {@link #OPEN} и {@link #FLAGGED}.
+ */
+public interface CellChangeListener extends EventListener {
+    /**
+     * Бит состояния: в ячейке мина.
+     */
+    int MINE = 1;
+    /**
+     * Бит состояния: ячейка открыта.
+     */
+    int OPEN = 2;
+    /**
+     * Бит состояния: на ячейке флаг.
+     */
+    int FLAGGED = 4;
+
+    /**
+     * Вызывается после изменения состояния одной ячейки.
+     *
+     * @param row    Индекс строки.
+     * @param column Индекс столбца.
+     * @param before Состояние ячейки до изменения.
+     * @param after  Состояние ячейки после изменения.
+     */
+    void cellChanged(int row, int column, int before, int after);
+
+    /**
+     * Вызывается после изменения, затронувшего все поле сразу: сброса или размещения мин.
+     * Слушатель должен считать, что любая ячейка могла измениться.
+     */
+    void fieldChanged();
+}
@@ -48,7 +48,14 @@ public class GameEvent extends EventObject {
         /**
          * Событие: Игра завершена поражением игрока.
          */
-        GAME_OVER_LOST
+        GAME_OVER_LOST,
+        /**
+         * Событие: часть большой пустой области уже открыта, открытие продолжается
+         * (см. {@link minesweeper.model.MinesweeperGame#setRevealSlice}). Поле в этот момент
+         * согласовано и его можно показывать; {@link GameEvent#getPosition()} — ячейка хода.
+         * Завершается открытие обычным {@link #CELL_UPDATED} для той же ячейки.
+         */
+        REVEAL_PROGRESS
     }
 
     /**
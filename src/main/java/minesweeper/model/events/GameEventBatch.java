@@ -0,0 +1,211 @@
+package minesweeper.model.events;
+
+import minesweeper.model.navigation.CellPosition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.EventObject;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Сводка игровых событий ({@link GameEvent}), произошедших при применении пачки команд.
+ * События объединяются: каждый тип отмечается один раз, а измененные ячейки
+ * ({@link GameEvent.Type#CELL_UPDATED}) перечисляются без повторов в порядке первого изменения.
+ * Так слушатель перерисовывает ячейку один раз, сколько бы ходов ее ни затронуло.
+ * Если источник отслеживает изменения самих ячеек, все они сводятся в один прямоугольник
+ * ({@link #getDirtyRegion()}), который покрывает и заливку, и действия диверсанта.
+ * <p>
+ * Объект неизменяем и может передаваться между потоками.
+ */
+public class GameEventBatch extends EventObject {
+    private final int commandCount;
+    private final int eventCount;
+    private final Set<GameEvent.Type> types;
+    private final List<CellPosition> updatedCells;
+    private final DirtyRegion dirtyRegion;
+
+    /**
+     * Прямоугольник измененных ячеек, границы включительно.
+     *
+     * @param top    Первая строка.
+     * @param left   Первый столбец.
+     * @param bottom Последняя строка.
+     * @param right  Последний столбец.
+     */
+    public record DirtyRegion(int top, int left, int bottom, int right) {
+        /**
+         * @return {@code true}, если ячейка лежит в прямоугольнике.
+         */
+        public boolean contains(int row, int column) {
+            return row >= top && row <= bottom && column >= left && column <= right;
+        }
+    }
+
+    private GameEventBatch(Object source, int commandCount, int eventCount, Set<GameEvent.Type> types,
+                           List<CellPosition> updatedCells, DirtyRegion dirtyRegion) {
+        super(source);
+        this.commandCount = commandCount;
+        this.eventCount = eventCount;
+        this.types = types;
+        this.updatedCells = updatedCells;
+        this.dirtyRegion = dirtyRegion;
+    }
+
+    /**
+     * @return Количество команд в пачке.
+     */
+    public int getCommandCount() {
+        return commandCount;
+    }
+
+    /**
+     * @return Количество исходных событий до объединения.
+     */
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * @return {@code true}, если в пачке было событие указанного типа.
+     */
+    public boolean contains(GameEvent.Type type) {
+        return types.contains(type);
+    }
+
+    /**
+     * @return Типы событий пачки.
+     */
+    public Set<GameEvent.Type> getTypes() {
+        return types;
+    }
+
+    /**
+     * @return Позиции ячеек из событий {@link GameEvent.Type#CELL_UPDATED} и {@link GameEvent.Type#REVEAL_PROGRESS}
+     * без повторов.
+     */
+    public List<CellPosition> getUpdatedCells() {
+        return updatedCells;
+    }
+
+    /**
+     * @return {@code true}, если поле изменилось целиком (новая партия или {@link GameEvent.Type#FIELD_UPDATED})
+     * и перерисовать нужно все поле, а не только {@link #getUpdatedCells()}.
+     */
+    public boolean isFieldUpdated() {
+        return types.contains(GameEvent.Type.FIELD_UPDATED) || types.contains(GameEvent.Type.GAME_STARTED);
+    }
+
+    /**
+     * @return Прямоугольник, охватывающий все ячейки, измененные в пачке, или {@code null},
+     * если источник не сообщал об изменениях ячеек (см. {@link Builder#cellChanged}).
+     */
+    public DirtyRegion getDirtyRegion() {
+        return dirtyRegion;
+    }
+
+    /**
+     * Накопитель событий для пачки. Используется одним потоком; после {@link #build} очищается
+     * и готов к следующей пачке.
+     */
+    public static final class Builder {
+        private final EnumSet<GameEvent.Type> types = EnumSet.noneOf(GameEvent.Type.class);
+        private final Set<CellPosition> seenCells = new HashSet<>();
+        private final List<CellPosition> cells = new ArrayList<>();
+        private int eventCount;
+        private int commandCount;
+        private int top = Integer.MAX_VALUE;
+        private int left = Integer.MAX_VALUE;
+        private int bottom = -1;
+        private int right = -1;
+
+        /**
+         * Добавляет событие в пачку.
+         */
+        public void add(GameEvent event) {
+            add(event.getType(), event.getPosition());
+        }
+
+        /**
+         * Добавляет событие в пачку, не создавая объект {@link GameEvent}.
+         *
+         * @param type     Тип события.
+         * @param position Позиция ячейки события или {@code null}.
+         */
+        public void add(GameEvent.Type type, CellPosition position) {
+            eventCount++;
+            types.add(type);
+            boolean cellEvent = type == GameEvent.Type.CELL_UPDATED || type == GameEvent.Type.REVEAL_PROGRESS;
+            if (cellEvent && position != null && seenCells.add(position)) {
+                cells.add(position);
+            }
+        }
+
+        /**
+         * Расширяет прямоугольник измененных ячеек на ячейку.
+         */
+        public void cellChanged(int row, int column) {
+            top = Math.min(top, row);
+            left = Math.min(left, column);
+            bottom = Math.max(bottom, row);
+            right = Math.max(right, column);
+        }
+
+        /**
+         * Добавляет в пачку события и изменения другой пачки. Количество команд не переносится:
+         * его считает тот, кто собирает эту пачку.
+         */
+        public void merge(GameEventBatch other) {
+            eventCount += other.eventCount;
+            types.addAll(other.types);
+            for (CellPosition position : other.updatedCells) {
+                if (seenCells.add(position)) {
+                    cells.add(position);
+                }
+            }
+            DirtyRegion region = other.dirtyRegion;
+            if (region != null) {
+                cellChanged(region.top(), region.left());
+                cellChanged(region.bottom(), region.right());
+            }
+        }
+
+        /**
+         * Отмечает еще одну примененную команду.
+         */
+        public void commandApplied() {
+            commandCount++;
+        }
+
+        /**
+         * @return {@code true}, если с последней сборки не было ни событий, ни команд, ни измененных ячеек.
+         */
+        public boolean isEmpty() {
+            return eventCount == 0 && commandCount == 0 && bottom < 0;
+        }
+
+        /**
+         * Собирает пачку из накопленного и очищает накопитель.
+         *
+         * @param source Источник событий.
+         * @return Неизменяемая сводка.
+         */
+        public GameEventBatch build(Object source) {
+            GameEventBatch batch = new GameEventBatch(source, commandCount, eventCount,
+                    Collections.unmodifiableSet(types.isEmpty() ? EnumSet.noneOf(GameEvent.Type.class) : EnumSet.copyOf(types)),
+                    List.copyOf(cells), bottom < 0 ? null : new DirtyRegion(top, left, bottom, right));
+            types.clear();
+            seenCells.clear();
+            cells.clear();
+            eventCount = 0;
+            commandCount = 0;
+            top = Integer.MAX_VALUE;
+            left = Integer.MAX_VALUE;
+            bottom = -1;
+            right = -1;
+            return batch;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package minesweeper.model.events;
+
+import java.util.EventListener;
+
+/**
+ * Слушатель пачек игровых событий ({@link GameEventBatch}): вместо отдельного уведомления
+ * на каждое событие получает одно уведомление на пачку команд.
+ */
+public interface GameEventBatchListener extends EventListener {
+    /**
+     * Вызывается после применения пачки команд.
+     *
+     * @param batch Сводка событий пачки.
+     */
+    void batchApplied(GameEventBatch batch);
+}
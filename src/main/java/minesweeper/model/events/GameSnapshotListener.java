@@ -0,0 +1,17 @@
+package minesweeper.model.events;
+
+import minesweeper.model.GameSnapshot;
+
+import java.util.EventListener;
+
+/**
+ * Слушатель публикации снимков партии ({@link GameSnapshot}).
+ */
+public interface GameSnapshotListener extends EventListener {
+    /**
+     * Вызывается в потоке игры после публикации нового снимка.
+     *
+     * @param snapshot Опубликованный снимок.
+     */
+    void snapshotPublished(GameSnapshot snapshot);
+}
@@ -0,0 +1,76 @@
+package minesweeper.model.journal;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+/**
+ * Формат файла журнала ходов.
+ * <p>
+ * Файл начинается с заголовка из {@value #HEADER_SIZE} байт: сигнатура, версия, размер сегмента,
+ * время создания журнала и длина записей, гарантированно сброшенных на диск.
+ * Далее идут записи: байт типа ({@link JournalRecordType}), разница времени с предыдущей записью
+ * в микросекундах, данные записи и контрольная сумма CRC32C байта типа и данных ({@value #CRC_SIZE} байта).
+ * Целые числа записываются в формате varint (по 7 бит в байте, старший бит — признак продолжения),
+ * так что типичная запись хода занимает 7–9 байт.
+ * <p>
+ * Действительны только записи до длины, зафиксированной в заголовке: все, что дальше, могло
+ * не дойти до диска целиком. Контрольная сумма отсекает записи, склеенные из новых и старых байт.
+ * Запись не пересекает границу сегмента: если до конца сегмента осталось меньше
+ * {@value #MAX_RECORD_SIZE} байт, ставится байт {@link #SKIP} и запись продолжается со следующего сегмента.
+ */
+final class JournalFormat {
+    /**
+     * Сигнатура файла журнала ("MSWPJRNL").
+     */
+    static final long MAGIC = 0x4D535750_4A524E4CL;
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 64;
+    static final int SEGMENT_SIZE_OFFSET = 12;
+    static final int CREATED_OFFSET = 16;
+    static final int COMMITTED_OFFSET = 24;
+    /**
+     * Наибольший размер одной записи в байтах.
+     */
+    static final int MAX_RECORD_SIZE = 64;
+    /**
+     * Байт, после которого записи продолжаются с начала следующего сегмента.
+     */
+    static final byte SKIP = 0x7F;
+    /**
+     * Размер контрольной суммы в конце записи.
+     */
+    static final int CRC_SIZE = Integer.BYTES;
+
+    private JournalFormat() {
+    }
+
+    /**
+     * Считает контрольную сумму записи: байт типа и данные с {@code from} до {@code to}.
+     *
+     * @param crc  Переиспользуемый счетчик.
+     * @param code Код типа записи.
+     * @return Младшие 32 бита CRC32C.
+     */
+    static int checksum(CRC32C crc, ByteBuffer buffer, int code, int from, int to) {
+        crc.reset();
+        crc.update(code);
+        for (int i = from; i < to; i++) {
+            crc.update(buffer.get(i));
+        }
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Записывает неотрицательное число в формате varint.
+     *
+     * @return Индекс байта после записанного числа.
+     */
+    static int putVarLong(ByteBuffer buffer, int index, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put(index++, (byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put(index++, (byte) value);
+        return index;
+    }
+}
@@ -0,0 +1,348 @@
+package minesweeper.model.journal;
+
+import minesweeper.model.MineField;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+import static minesweeper.model.journal.JournalFormat.*;
+
+/**
+ * Последовательное чтение журнала ходов {@link MoveJournal}. Читатель работает как курсор:
+ * {@link #next()} переходит к следующей записи, а ее поля доступны через методы доступа,
+ * так что обход журнала не создает объектов на запись. Файл отображается в память только для чтения.
+ * <p>
+ * Координаты ячеек распаковываются по количеству столбцов из последней записи
+ * {@link JournalRecordType#GAME_STARTED}. Чтение заканчивается на первой недописанной
+ * или поврежденной записи (с неверной контрольной суммой) и не заходит дальше длины,
+ * зафиксированной в заголовке ({@link #committedLength()}).
+ */
+public class JournalReader implements Closeable {
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final int segmentSize;
+    private final long size;
+    private final long createdEpochMillis;
+    private final long committedLength;
+    /**
+     * Граница чтения: зафиксированная длина, но не дальше конца файла.
+     */
+    private final long limit;
+    private final CRC32C crc = new CRC32C();
+
+    private long offset = HEADER_SIZE;
+    private int index;
+    private ByteBuffer segment;
+
+    private JournalRecordType type;
+    private long timeMicros;
+    private int row;
+    private int column;
+    private int targetRow;
+    private int targetColumn;
+    private int rows;
+    private int columns = 1;
+    private int mines;
+    private int lives;
+    private MineField.GenerationMode generationMode;
+    private int historyDepth;
+    private boolean saboteur;
+    private long seed;
+
+    private JournalReader(FileChannel channel, int segmentSize, long createdEpochMillis, long committedLength) throws IOException {
+        this.channel = channel;
+        this.segmentSize = segmentSize;
+        this.size = channel.size();
+        this.createdEpochMillis = createdEpochMillis;
+        this.committedLength = committedLength;
+        this.limit = Math.min(size, committedLength);
+        this.segments = new MappedByteBuffer[(int) ((size + segmentSize - 1) / segmentSize)];
+        for (int i = 0; i < segments.length; i++) {
+            long position = (long) i * segmentSize;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(segmentSize, size - position));
+            segments[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Открывает журнал для чтения.
+     *
+     * @param file Путь к файлу журнала.
+     * @return Читатель, стоящий перед первой записью.
+     * @throws IOException при ошибке ввода-вывода или если файл не является журналом ходов.
+     */
+    public static JournalReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // Читаем заголовок целиком
+            }
+            if (header.hasRemaining() || header.getLong(0) != MAGIC || header.getInt(8) != VERSION) {
+                throw new IOException("Файл не является журналом ходов: " + file);
+            }
+            int segmentSize = header.getInt(SEGMENT_SIZE_OFFSET);
+            if (segmentSize < HEADER_SIZE || Integer.bitCount(segmentSize) != 1
+                    || header.getLong(COMMITTED_OFFSET) < HEADER_SIZE) {
+                throw new IOException("Поврежден заголовок журнала ходов: " + file);
+            }
+            return new JournalReader(channel, segmentSize, header.getLong(CREATED_OFFSET), header.getLong(COMMITTED_OFFSET));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Переходит к следующей записи.
+     *
+     * @return {@code true}, если запись прочитана; {@code false}, если журнал закончился.
+     */
+    public boolean next() {
+        while (offset < limit) {
+            segment = segments[(int) (offset / segmentSize)];
+            index = (int) (offset % segmentSize);
+            int start = index;
+            int code = segment.get(index++);
+            if (code == SKIP) {
+                offset = (offset / segmentSize + 1) * segmentSize;
+                continue;
+            }
+            JournalRecordType recordType = JournalRecordType.fromCode(code);
+            if (recordType == null) {
+                return false; // Конец журнала или недописанная запись
+            }
+            long time;
+            try {
+                time = read(recordType);
+                int expected = checksum(crc, segment, code, start + 1, index);
+                if (segment.getInt(index) != expected) {
+                    return false; // Запись повреждена или склеена из разных записей
+                }
+                index += CRC_SIZE;
+            } catch (IndexOutOfBoundsException e) {
+                return false; // Запись обрезана концом файла
+            }
+            if ((offset / segmentSize) * segmentSize + index > limit) {
+                return false; // Запись не успела зафиксироваться
+            }
+            timeMicros = time;
+            type = recordType;
+            offset = (offset / segmentSize) * segmentSize + index;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Переставляет курсор на запись, начинающуюся с указанного смещения (например, на
+     * {@link MoveJournal#size()}, запомненный вместе с контрольной точкой). Параметры партии
+     * до смещения не читаются, поэтому количество столбцов передается явно,
+     * а время следующих записей отсчитывается от нуля.
+     *
+     * @param offset  Смещение начала записи в файле.
+     * @param columns Количество столбцов поля партии, к которой относятся записи.
+     * @throws IllegalArgumentException если смещение вне данных журнала или столбцов меньше одного.
+     */
+    public void seek(long offset, int columns) {
+        if (offset < HEADER_SIZE || offset > size || columns < 1) {
+            throw new IllegalArgumentException("Некорректная позиция в журнале: " + offset + ".");
+        }
+        this.offset = offset;
+        this.columns = columns;
+        this.type = null;
+        this.timeMicros = 0;
+    }
+
+    /**
+     * Разбирает данные записи в поля курсора.
+     *
+     * @return Время записи; присваивается только после проверки контрольной суммы.
+     */
+    private long read(JournalRecordType recordType) {
+        long time = timeMicros + readVarLong();
+        switch (recordType) {
+            case GAME_STARTED -> {
+                rows = (int) readVarLong();
+                columns = Math.max(1, (int) readVarLong());
+                mines = (int) readVarLong();
+                lives = (int) readVarLong();
+                generationMode = MineField.GenerationMode.values()[segment.get(index++)];
+                historyDepth = (int) readVarLong();
+                saboteur = segment.get(index++) != 0;
+                seed = segment.getLong(index);
+                index += Long.BYTES;
+            }
+            case CELL_OPENED, FLAG_TOGGLED, CHORDED -> {
+                long packed = readVarLong();
+                row = (int) (packed / columns);
+                column = (int) (packed % columns);
+            }
+            case MINE_RELOCATED -> {
+                long from = readVarLong();
+                long to = readVarLong();
+                row = (int) (from / columns);
+                column = (int) (from % columns);
+                targetRow = (int) (to / columns);
+                targetColumn = (int) (to % columns);
+            }
+            case MOVE_UNDONE, MOVE_REDONE -> {
+            }
+        }
+        return time;
+    }
+
+    private long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = segment.get(index++);
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IndexOutOfBoundsException("Слишком длинное число в журнале.");
+    }
+
+    /**
+     * @return Тип текущей записи.
+     */
+    public JournalRecordType type() {
+        return type;
+    }
+
+    /**
+     * @return Время текущей записи в микросекундах от создания журнала.
+     */
+    public long timeMicros() {
+        return timeMicros;
+    }
+
+    /**
+     * @return Время текущей записи в миллисекундах эпохи Unix.
+     */
+    public long epochMillis() {
+        return createdEpochMillis + timeMicros / 1000;
+    }
+
+    /**
+     * @return Строка ячейки хода или исходная строка перемещенной мины.
+     */
+    public int row() {
+        return row;
+    }
+
+    /**
+     * @return Столбец ячейки хода или исходный столбец перемещенной мины.
+     */
+    public int column() {
+        return column;
+    }
+
+    /**
+     * @return Строка, куда перемещена мина.
+     */
+    public int targetRow() {
+        return targetRow;
+    }
+
+    /**
+     * @return Столбец, куда перемещена мина.
+     */
+    public int targetColumn() {
+        return targetColumn;
+    }
+
+    /**
+     * @return Количество строк поля текущей партии.
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * @return Количество столбцов поля текущей партии.
+     */
+    public int columns() {
+        return columns;
+    }
+
+    /**
+     * @return Количество мин текущей партии.
+     */
+    public int mines() {
+        return mines;
+    }
+
+    /**
+     * @return Количество жизней в текущей партии.
+     */
+    public int lives() {
+        return lives;
+    }
+
+    /**
+     * @return Режим генерации мин текущей партии.
+     */
+    public MineField.GenerationMode generationMode() {
+        return generationMode;
+    }
+
+    /**
+     * @return Глубина истории ходов текущей партии.
+     */
+    public int historyDepth() {
+        return historyDepth;
+    }
+
+    /**
+     * @return {@code true}, если в текущей партии участвует диверсант.
+     */
+    public boolean hasSaboteur() {
+        return saboteur;
+    }
+
+    /**
+     * @return Зерно расстановки мин текущей партии.
+     */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * @return Смещение в файле сразу за последней прочитанной записью.
+     */
+    public long endOffset() {
+        return offset;
+    }
+
+    /**
+     * @return Время создания журнала в миллисекундах эпохи Unix.
+     */
+    public long createdEpochMillis() {
+        return createdEpochMillis;
+    }
+
+    /**
+     * @return Длина данных журнала, гарантированно сброшенных на диск на момент последней фиксации.
+     */
+    public long committedLength() {
+        return committedLength;
+    }
+
+    int segmentSize() {
+        return segmentSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
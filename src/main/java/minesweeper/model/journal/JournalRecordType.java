@@ -0,0 +1,65 @@
+package minesweeper.model.journal;
+
+/**
+ * Типы записей журнала ходов {@link MoveJournal}. Код типа записывается первым байтом записи;
+ * нулевой байт означает конец журнала.
+ */
+public enum JournalRecordType {
+    /**
+     * Начало партии: размеры поля, количество мин и жизней, режим генерации,
+     * глубина истории ходов, наличие диверсанта и зерно расстановки мин.
+     */
+    GAME_STARTED(1),
+    /**
+     * Игрок открыл ячейку.
+     */
+    CELL_OPENED(2),
+    /**
+     * Игрок переключил флаг.
+     */
+    FLAG_TOGGLED(3),
+    /**
+     * Диверсант переместил мину; относится к предшествующему открытию ячейки.
+     */
+    MINE_RELOCATED(4),
+    /**
+     * Отменен последний ход.
+     */
+    MOVE_UNDONE(5),
+    /**
+     * Повторен отмененный ход.
+     */
+    MOVE_REDONE(6),
+    /**
+     * Игрок сделал "аккорд" на открытой ячейке; как и открытие, может сопровождаться перемещениями мин.
+     */
+    CHORDED(7);
+
+    private static final JournalRecordType[] BY_CODE = new JournalRecordType[8];
+
+    static {
+        for (JournalRecordType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final int code;
+
+    JournalRecordType(int code) {
+        this.code = code;
+    }
+
+    /**
+     * @return Код типа в файле журнала.
+     */
+    public int code() {
+        return code;
+    }
+
+    /**
+     * @return Тип записи по коду или {@code null}, если код неизвестен.
+     */
+    static JournalRecordType fromCode(int code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
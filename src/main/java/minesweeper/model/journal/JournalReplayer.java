@@ -0,0 +1,187 @@
+package minesweeper.model.journal;
+
+import minesweeper.model.MinesweeperGame;
+import minesweeper.model.Saboteur;
+import minesweeper.model.navigation.CellPosition;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Восстанавливает партию по журналу ходов: поле с той же расстановкой мин создается по зерну
+ * из записи {@link JournalRecordType#GAME_STARTED}, затем по порядку повторяются ходы игрока,
+ * отмены и повторы, а действия диверсанта заменяются записанными перемещениями мин.
+ */
+public final class JournalReplayer {
+    /**
+     * Наблюдатель за воспроизведением: получает игру после начала каждой партии
+     * и после каждого воспроизведенного хода.
+     */
+    interface Observer {
+        /**
+         * Вызывается после начала партии.
+         *
+         * @param game       Новая игра.
+         * @param timeMicros Время записи о начале партии.
+         */
+        void gameStarted(MinesweeperGame game, long timeMicros);
+
+        /**
+         * Вызывается после каждого хода, отмены или повтора (ход с действием диверсанта — один шаг).
+         *
+         * @param game       Игра после хода.
+         * @param timeMicros Время записи хода.
+         */
+        void stepApplied(MinesweeperGame game, long timeMicros);
+    }
+
+    private JournalReplayer() {
+    }
+
+    /**
+     * Воспроизводит журнал и возвращает последнюю партию из него в состоянии после последней
+     * целой записи. Восстановленная игра журнал не ведет.
+     *
+     * @param file Путь к файлу журнала.
+     * @return Восстановленная игра или {@code null}, если в журнале нет ни одной партии.
+     * @throws IOException при ошибке чтения или если файл не является журналом ходов.
+     */
+    public static MinesweeperGame replay(Path file) throws IOException {
+        try (JournalReader reader = JournalReader.open(file)) {
+            return replay(reader);
+        }
+    }
+
+    /**
+     * Воспроизводит записи читателя от текущей позиции до конца журнала.
+     *
+     * @param reader Открытый читатель журнала.
+     * @return Восстановленная игра или {@code null}, если в журнале нет ни одной партии.
+     */
+    public static MinesweeperGame replay(JournalReader reader) {
+        return replay(reader, null);
+    }
+
+    /**
+     * Продолжает уже идущую партию записями читателя от текущей позиции до конца журнала.
+     * Используется для восстановления после контрольной точки: игра восстанавливается
+     * из точки, а читатель ставится на смещение журнала, запомненное вместе с ней.
+     * На время воспроизведения диверсант игры заменяется записанными перемещениями мин.
+     * <p>
+     * В журнал попадают только состоявшиеся отмены и повторы. Если у игры нет истории для записанной
+     * отмены или повтора (ход сделан до позиции читателя), продолжить партию нельзя: игра к этому моменту
+     * уже частично изменена, и ее нужно восстанавливать заново, например {@link #replay(Path)}.
+     *
+     * @param reader Открытый читатель журнала.
+     * @param game   Игра в состоянии на момент позиции читателя.
+     * @return Та же игра после всех записей или новая, если в журнале началась новая партия.
+     * @throws IllegalStateException если записанную отмену или повтор нельзя применить к игре.
+     */
+    public static MinesweeperGame resume(JournalReader reader, MinesweeperGame game) {
+        Saboteur original = game.getSaboteur();
+        ReplaySaboteur saboteur = original != null ? new ReplaySaboteur() : null;
+        game.setSaboteur(saboteur);
+        try {
+            return replay(reader, game, saboteur, null, game);
+        } finally {
+            game.setSaboteur(original);
+        }
+    }
+
+    /**
+     * Воспроизводит записи читателя, сообщая наблюдателю о каждом шаге.
+     *
+     * @param reader   Открытый читатель журнала.
+     * @param observer Наблюдатель или {@code null}.
+     * @return Восстановленная игра или {@code null}, если в журнале нет ни одной партии.
+     */
+    static MinesweeperGame replay(JournalReader reader, Observer observer) {
+        return replay(reader, null, null, observer, null);
+    }
+
+    /**
+     * @param resumed Продолжаемая игра: пока идет ее партия, отмены и повторы обязаны состояться.
+     */
+    private static MinesweeperGame replay(JournalReader reader, MinesweeperGame game, ReplaySaboteur saboteur,
+                                          Observer observer, MinesweeperGame resumed) {
+        CellPosition pendingOpen = null; // Открытие или аккорд ждет следующих за ним перемещений мин
+        boolean pendingChord = false;
+        long pendingTime = 0;
+        while (reader.next()) {
+            JournalRecordType type = reader.type();
+            if (type == JournalRecordType.MINE_RELOCATED) {
+                if (saboteur != null) {
+                    saboteur.enqueue(new CellPosition(reader.row(), reader.column()),
+                            new CellPosition(reader.targetRow(), reader.targetColumn()));
+                }
+                continue;
+            }
+            if (pendingOpen != null) {
+                open(game, pendingOpen, pendingChord);
+                pendingOpen = null;
+                if (observer != null) {
+                    observer.stepApplied(game, pendingTime);
+                }
+            }
+            if (saboteur != null) {
+                saboteur.clear();
+            }
+            switch (type) {
+                case GAME_STARTED -> {
+                    saboteur = reader.hasSaboteur() ? new ReplaySaboteur() : null;
+                    game = new MinesweeperGame(reader.rows(), reader.columns(), reader.mines(), reader.lives(), saboteur);
+                    game.setGenerationMode(reader.generationMode());
+                    game.setHistoryDepth(reader.historyDepth());
+                    game.startGame(reader.seed());
+                    if (observer != null) {
+                        observer.gameStarted(game, reader.timeMicros());
+                    }
+                    continue;
+                }
+                case CELL_OPENED, CHORDED -> {
+                    if (game != null) {
+                        pendingOpen = new CellPosition(reader.row(), reader.column());
+                        pendingChord = type == JournalRecordType.CHORDED;
+                        pendingTime = reader.timeMicros();
+                    }
+                    continue;
+                }
+                case FLAG_TOGGLED -> {
+                    if (game != null) {
+                        game.toggleFlag(new CellPosition(reader.row(), reader.column()));
+                    }
+                }
+                case MOVE_UNDONE -> {
+                    if (game != null && !game.undo() && game == resumed) {
+                        throw new IllegalStateException("Отменяемый ход сделан до позиции продолжения журнала.");
+                    }
+                }
+                case MOVE_REDONE -> {
+                    if (game != null && !game.redo() && game == resumed) {
+                        throw new IllegalStateException("Повторяемый ход отменен до позиции продолжения журнала.");
+                    }
+                }
+                default -> {
+                }
+            }
+            if (game != null && observer != null) {
+                observer.stepApplied(game, reader.timeMicros());
+            }
+        }
+        if (pendingOpen != null) {
+            open(game, pendingOpen, pendingChord);
+            if (observer != null) {
+                observer.stepApplied(game, pendingTime);
+            }
+        }
+        return game;
+    }
+
+    private static void open(MinesweeperGame game, CellPosition position, boolean chord) {
+        if (chord) {
+            game.chord(position);
+        } else {
+            game.openCell(position);
+        }
+    }
+}
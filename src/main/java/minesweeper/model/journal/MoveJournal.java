@@ -0,0 +1,508 @@
+package minesweeper.model.journal;
+
+import minesweeper.model.MineField;
+import minesweeper.model.events.CellChangeListener;
+import minesweeper.model.navigation.CellPosition;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+import static minesweeper.model.journal.JournalFormat.*;
+
+/**
+ * Журнал ходов только для дозаписи: каждое открытие ячейки, переключение флага, отмена и повтор хода,
+ * а также перемещения мин диверсантом записываются в компактном двоичном виде
+ * (см. {@link JournalFormat}). Вместе с зерном расстановки мин из записи о начале партии этого
+ * достаточно, чтобы после сбоя восстановить партию ({@link JournalReplayer}); тот же журнал
+ * читается для анализа партий через {@link JournalReader}.
+ * <p>
+ * Записи пишутся прямо в отображенный в память сегмент файла, поэтому запись хода — это несколько
+ * байтовых операций без системных вызовов. Сброс на диск выполняет фоновый поток групповой фиксации:
+ * раз в заданный интервал он сбрасывает все накопленные записи одним {@link MappedByteBuffer#force(int, int)}
+ * и обновляет в заголовке длину зафиксированных данных. {@link #sync()} дожидается фиксации
+ * всех записей, сделанных до вызова.
+ * <p>
+ * Байт типа записи пишется последним, после данных и контрольной суммы, поэтому при аварийном
+ * завершении процесса недописанная запись читается как конец журнала. После сбоя читаются только
+ * записи до зафиксированной длины; {@link #open(Path)} затирает все, что лежит за последней целой записью.
+ * <p>
+ * Записывать в журнал должен один поток (поток игры).
+ */
+public class MoveJournal implements Closeable {
+    /**
+     * Размер сегмента по умолчанию.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 20;
+    /**
+     * Интервал групповой фиксации по умолчанию в миллисекундах.
+     */
+    public static final long DEFAULT_COMMIT_INTERVAL_MILLIS = 5;
+
+    private final FileChannel channel;
+    private final int segmentSize;
+    private final long commitIntervalMillis;
+    /**
+     * Отображенные сегменты; массив заменяется целиком при добавлении сегмента.
+     */
+    private volatile MappedByteBuffer[] segments;
+    /**
+     * Смещение в файле, с которого начнется следующая запись.
+     */
+    private volatile long writePosition;
+    /**
+     * Смещение, до которого записи сброшены на диск. Изменяется под {@code commitLock}.
+     */
+    private long committedPosition;
+    private final Object commitLock = new Object();
+    private final Thread committer;
+    private volatile boolean closed;
+
+    /**
+     * Значение {@link System#nanoTime()}, соответствующее времени создания журнала.
+     */
+    private final long originNanos;
+    /**
+     * Время предыдущей записи в микросекундах от создания журнала.
+     */
+    private long lastMicros;
+    /**
+     * Количество столбцов текущей партии, по которому упаковываются координаты.
+     */
+    private int columns = 1;
+    private final CRC32C crc = new CRC32C();
+
+    /*
+     * Мины, убранные и поставленные диверсантом за текущее действие.
+     */
+    private final CellChangeListener relocationRecorder = new RelocationRecorder();
+    private MineField saboteurField;
+    private long[] removedMines = new long[4];
+    private long[] placedMines = new long[4];
+    private int removedCount;
+    private int placedCount;
+
+    private MoveJournal(FileChannel channel, int segmentSize, long commitIntervalMillis, long writePosition,
+                        long originNanos, long lastMicros) throws IOException {
+        this.channel = channel;
+        this.segmentSize = segmentSize;
+        this.commitIntervalMillis = commitIntervalMillis;
+        this.writePosition = writePosition;
+        this.committedPosition = writePosition;
+        this.originNanos = originNanos;
+        this.lastMicros = lastMicros;
+        int segmentCount = (int) (writePosition / segmentSize) + 1;
+        MappedByteBuffer[] mapped = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            mapped[i] = map(i);
+        }
+        this.segments = mapped;
+        this.committer = new Thread(this::commitLoop, "move-journal-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /**
+     * Создает новый журнал (или перезаписывает существующий) с параметрами по умолчанию.
+     *
+     * @param file Путь к файлу журнала.
+     * @return Журнал, готовый к записи.
+     * @throws IOException при ошибке ввода-вывода.
+     */
+    public static MoveJournal create(Path file) throws IOException {
+        return create(file, DEFAULT_SEGMENT_SIZE, DEFAULT_COMMIT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Создает новый журнал (или перезаписывает существующий).
+     *
+     * @param file                 Путь к файлу журнала.
+     * @param segmentSize          Размер отображаемого сегмента: степень двойки от 4 КБ до 1 ГБ.
+     * @param commitIntervalMillis Интервал групповой фиксации в миллисекундах. Должен быть положительным.
+     * @return Журнал, готовый к записи.
+     * @throws IOException              при ошибке ввода-вывода.
+     * @throws IllegalArgumentException если параметры некорректны.
+     */
+    public static MoveJournal create(Path file, int segmentSize, long commitIntervalMillis) throws IOException {
+        if (segmentSize < 4096 || segmentSize > (1 << 30) || Integer.bitCount(segmentSize) != 1) {
+            throw new IllegalArgumentException("Размер сегмента должен быть степенью двойки от 4 КБ до 1 ГБ.");
+        }
+        if (commitIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Интервал фиксации должен быть положительным.");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(0, MAGIC);
+            header.putInt(8, VERSION);
+            header.putInt(SEGMENT_SIZE_OFFSET, segmentSize);
+            header.putLong(CREATED_OFFSET, System.currentTimeMillis());
+            header.putLong(COMMITTED_OFFSET, HEADER_SIZE);
+            channel.write(header, 0);
+            return new MoveJournal(channel, segmentSize, commitIntervalMillis, HEADER_SIZE, System.nanoTime(), 0);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Открывает существующий журнал для дозаписи, например после сбоя. Записи читаются до первой
+     * недописанной или поврежденной (но не дальше зафиксированной длины), и следующая запись ляжет
+     * сразу за последней целой. Хвост файла после нее затирается нулями и обрезается до конца сегмента,
+     * чтобы остатки прежних записей не читались как продолжение новых.
+     *
+     * @param file Путь к файлу журнала.
+     * @return Журнал, готовый к записи.
+     * @throws IOException при ошибке ввода-вывода или если файл не является журналом.
+     */
+    public static MoveJournal open(Path file) throws IOException {
+        long end;
+        long lastMicros = 0;
+        long createdMillis;
+        int segmentSize;
+        int columns = 1;
+        try (JournalReader reader = JournalReader.open(file)) {
+            while (reader.next()) {
+                lastMicros = reader.timeMicros();
+                if (reader.type() == JournalRecordType.GAME_STARTED) {
+                    columns = reader.columns();
+                }
+            }
+            end = reader.endOffset();
+            createdMillis = reader.createdEpochMillis();
+            segmentSize = reader.segmentSize();
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            discardTail(channel, end, segmentSize);
+            // Время продолжается с момента открытия, а не с последней записи
+            long elapsedNanos = Math.max(0, System.currentTimeMillis() - createdMillis) * 1_000_000L;
+            MoveJournal journal = new MoveJournal(channel, segmentSize, DEFAULT_COMMIT_INTERVAL_MILLIS, end,
+                    System.nanoTime() - elapsedNanos, lastMicros);
+            journal.columns = columns;
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Затирает нулями данные от {@code end} до конца его сегмента, отбрасывает следующие сегменты
+     * и записывает {@code end} как зафиксированную длину.
+     */
+    private static void discardTail(FileChannel channel, long end, int segmentSize) throws IOException {
+        long segmentEnd = (end / segmentSize + 1) * segmentSize;
+        if (channel.size() > segmentEnd) {
+            channel.truncate(segmentEnd);
+        }
+        long limit = Math.min(channel.size(), segmentEnd);
+        ByteBuffer zeros = ByteBuffer.allocate(64 * 1024);
+        for (long position = end; position < limit; ) {
+            zeros.clear().limit((int) Math.min(zeros.capacity(), limit - position));
+            position += channel.write(zeros, position);
+        }
+        ByteBuffer committed = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(0, end);
+        channel.write(committed, COMMITTED_OFFSET);
+        channel.force(true);
+    }
+
+    /**
+     * Записывает начало партии.
+     *
+     * @param rows         Количество строк.
+     * @param columns      Количество столбцов.
+     * @param mines        Количество мин.
+     * @param lives        Количество жизней.
+     * @param mode         Режим генерации мин.
+     * @param historyDepth Глубина истории ходов (0 — история отключена).
+     * @param saboteur     Участвует ли в партии диверсант.
+     * @param seed         Зерно расстановки мин.
+     */
+    public void gameStarted(int rows, int columns, int mines, int lives, MineField.GenerationMode mode,
+                            int historyDepth, boolean saboteur, long seed) {
+        this.columns = columns;
+        MappedByteBuffer segment = reserve();
+        int start = (int) (writePosition & (segmentSize - 1));
+        int index = putTime(segment, start + 1);
+        index = putVarLong(segment, index, rows);
+        index = putVarLong(segment, index, columns);
+        index = putVarLong(segment, index, mines);
+        index = putVarLong(segment, index, lives);
+        segment.put(index++, (byte) mode.ordinal());
+        index = putVarLong(segment, index, historyDepth);
+        segment.put(index++, (byte) (saboteur ? 1 : 0));
+        segment.putLong(index, seed);
+        index += Long.BYTES;
+        publish(segment, start, index, JournalRecordType.GAME_STARTED);
+    }
+
+    /**
+     * Записывает открытие ячейки игроком.
+     */
+    public void cellOpened(CellPosition position) {
+        appendCell(JournalRecordType.CELL_OPENED, position);
+    }
+
+    /**
+     * Записывает "аккорд" игрока на открытой ячейке.
+     */
+    public void chorded(CellPosition position) {
+        appendCell(JournalRecordType.CHORDED, position);
+    }
+
+    /**
+     * Записывает переключение флага игроком.
+     */
+    public void flagToggled(CellPosition position) {
+        appendCell(JournalRecordType.FLAG_TOGGLED, position);
+    }
+
+    /**
+     * Записывает отмену хода.
+     */
+    public void moveUndone() {
+        appendEmpty(JournalRecordType.MOVE_UNDONE);
+    }
+
+    /**
+     * Записывает повтор хода.
+     */
+    public void moveRedone() {
+        appendEmpty(JournalRecordType.MOVE_REDONE);
+    }
+
+    /**
+     * Начинает запись действия диверсанта: до {@link #saboteurFinished()} журнал отслеживает
+     * перемещения мин на поле.
+     *
+     * @param field Поле, на котором действует диверсант.
+     */
+    public void saboteurStarted(MineField field) {
+        saboteurField = field;
+        removedCount = 0;
+        placedCount = 0;
+        field.addCellChangeListener(relocationRecorder);
+    }
+
+    /**
+     * Завершает запись действия диверсанта и записывает каждую перемещенную мину
+     * (убранные и поставленные мины сопоставляются по порядку).
+     */
+    public void saboteurFinished() {
+        if (saboteurField == null) {
+            return;
+        }
+        saboteurField.removeCellChangeListener(relocationRecorder);
+        saboteurField = null;
+        for (int i = 0; i < Math.min(removedCount, placedCount); i++) {
+            MappedByteBuffer segment = reserve();
+            int start = (int) (writePosition & (segmentSize - 1));
+            int index = putTime(segment, start + 1);
+            index = putVarLong(segment, index, removedMines[i]);
+            index = putVarLong(segment, index, placedMines[i]);
+            publish(segment, start, index, JournalRecordType.MINE_RELOCATED);
+        }
+    }
+
+    /**
+     * Дожидается, пока все записи, сделанные до вызова, будут сброшены на диск.
+     */
+    public void sync() {
+        long target = writePosition;
+        synchronized (commitLock) {
+            commitLock.notifyAll(); // Не ждем очередного интервала
+            while (committedPosition < target && !closed) {
+                try {
+                    commitLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Размер записанных данных журнала в байтах, включая заголовок.
+     */
+    public long size() {
+        return writePosition;
+    }
+
+    /**
+     * Фиксирует все записи на диске и закрывает файл. Журнал после этого использовать нельзя.
+     *
+     * @throws IOException при ошибке закрытия файла.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        synchronized (commitLock) {
+            closed = true;
+            commitLock.notifyAll();
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        commit();
+        channel.close();
+    }
+
+    private void appendCell(JournalRecordType type, CellPosition position) {
+        MappedByteBuffer segment = reserve();
+        int start = (int) (writePosition & (segmentSize - 1));
+        int index = putTime(segment, start + 1);
+        index = putVarLong(segment, index, (long) position.getRow() * columns + position.getColumn());
+        publish(segment, start, index, type);
+    }
+
+    private void appendEmpty(JournalRecordType type) {
+        MappedByteBuffer segment = reserve();
+        int start = (int) (writePosition & (segmentSize - 1));
+        publish(segment, start, putTime(segment, start + 1), type);
+    }
+
+    /**
+     * Возвращает сегмент, в котором поместится следующая запись. Если в текущем сегменте
+     * места не хватает, ставит {@link JournalFormat#SKIP} и переходит к следующему сегменту.
+     */
+    private MappedByteBuffer reserve() {
+        if (closed) {
+            throw new IllegalStateException("Журнал закрыт.");
+        }
+        long position = writePosition;
+        int segmentIndex = (int) (position / segmentSize);
+        MappedByteBuffer[] current = segments;
+        if (segmentSize - (position & (segmentSize - 1)) >= MAX_RECORD_SIZE) {
+            return current[segmentIndex];
+        }
+        MappedByteBuffer next;
+        try {
+            next = map(segmentIndex + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось расширить журнал ходов.", e);
+        }
+        MappedByteBuffer[] grown = Arrays.copyOf(current, segmentIndex + 2);
+        grown[segmentIndex + 1] = next;
+        segments = grown;
+        current[segmentIndex].put((int) (position & (segmentSize - 1)), SKIP);
+        writePosition = (long) (segmentIndex + 1) * segmentSize;
+        return next;
+    }
+
+    private int putTime(MappedByteBuffer segment, int index) {
+        long micros = (System.nanoTime() - originNanos) / 1000;
+        long delta = Math.max(0, micros - lastMicros);
+        lastMicros += delta;
+        return putVarLong(segment, index, delta);
+    }
+
+    /**
+     * Завершает запись: после данных записываются контрольная сумма и байт типа,
+     * и запись становится видимой читателям.
+     */
+    private void publish(MappedByteBuffer segment, int start, int end, JournalRecordType type) {
+        segment.putInt(end, checksum(crc, segment, type.code(), start + 1, end));
+        end += CRC_SIZE;
+        VarHandle.releaseFence(); // Данные записи должны оказаться в памяти раньше байта типа
+        segment.put(start, (byte) type.code());
+        writePosition += end - start;
+    }
+
+    private MappedByteBuffer map(int segmentIndex) throws IOException {
+        MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, (long) segmentIndex * segmentSize, segmentSize);
+        segment.order(ByteOrder.LITTLE_ENDIAN);
+        return segment;
+    }
+
+    private void commitLoop() {
+        while (true) {
+            synchronized (commitLock) {
+                if (closed) {
+                    return;
+                }
+                if (committedPosition == writePosition) {
+                    try {
+                        commitLock.wait(commitIntervalMillis);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+            commit();
+        }
+    }
+
+    /**
+     * Сбрасывает на диск записи от зафиксированной позиции до текущей и обновляет заголовок.
+     * Записи, добавленные во время сброса, попадут в следующую фиксацию.
+     */
+    private void commit() {
+        long target = writePosition;
+        long from;
+        synchronized (commitLock) {
+            from = committedPosition;
+        }
+        if (target > from) {
+            MappedByteBuffer[] current = segments;
+            for (int i = (int) (from / segmentSize); i <= (int) ((target - 1) / segmentSize); i++) {
+                long segmentStart = (long) i * segmentSize;
+                int offset = (int) (Math.max(from, segmentStart) - segmentStart);
+                int end = (int) (Math.min(target, segmentStart + segmentSize) - segmentStart);
+                current[i].force(offset, end - offset);
+            }
+            current[0].putLong(COMMITTED_OFFSET, target);
+            current[0].force(0, HEADER_SIZE);
+        }
+        synchronized (commitLock) {
+            committedPosition = Math.max(committedPosition, target);
+            commitLock.notifyAll();
+        }
+    }
+
+    /**
+     * Собирает изменения бита мины во время действия диверсанта.
+     */
+    private final class RelocationRecorder implements CellChangeListener {
+        @Override
+        public void cellChanged(int row, int column, int before, int after) {
+            boolean wasMine = (before & MINE) != 0;
+            boolean isMine = (after & MINE) != 0;
+            if (wasMine == isMine) {
+                return;
+            }
+            long packed = (long) row * columns + column;
+            if (wasMine) {
+                if (removedCount == removedMines.length) {
+                    removedMines = Arrays.copyOf(removedMines, removedCount * 2);
+                }
+                removedMines[removedCount++] = packed;
+            } else {
+                if (placedCount == placedMines.length) {
+                    placedMines = Arrays.copyOf(placedMines, placedCount * 2);
+                }
+                placedMines[placedCount++] = packed;
+            }
+        }
+
+        @Override
+        public void fieldChanged() {
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package minesweeper.model.journal;
+
+import minesweeper.model.MineField;
+import minesweeper.model.MinesweeperGame;
+import minesweeper.model.events.CellChangeListener;
+import minesweeper.model.storage.CellStorage;
+import minesweeper.model.storage.ChunkedCellStorage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Проигрыватель записанной партии с быстрой перемоткой к любому ходу.
+ * <p>
+ * При загрузке журнал воспроизводится один раз, и для каждого шага (хода, отмены или повтора)
+ * сохраняется дельта: измененные ячейки с состоянием до и после, а также жизни, счетчик мин
+ * и состояние игры после шага. Каждые {@code keyframeInterval} шагов сохраняется ключевой кадр —
+ * полное состояние поля в виде копии {@link ChunkedCellStorage}. Копии делят с текущим полем
+ * и друг с другом все блоки 64×64, не изменившиеся между кадрами, а нетронутые блоки не хранятся
+ * вовсе, так что кадр огромного поля занимает память, пропорциональную изменениям с прошлого кадра.
+ * <p>
+ * Переход к ходу загружает ближайший предшествующий ключевой кадр и применяет не более
+ * {@code keyframeInterval} дельт; близкие переходы вперед и назад применяют дельты
+ * от текущего хода без загрузки кадра. Поэтому перемотка партии из сотен тысяч ходов
+ * стоит одинаково в любом ее месте.
+ * <p>
+ * Проигрыватель не потокобезопасен; для отрисовки в другом потоке используйте {@link #snapshot()}.
+ */
+public class ReplayPlayer {
+    /**
+     * Интервал ключевых кадров по умолчанию.
+     */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 256;
+    private static final int STATE_BITS = 3;
+    private static final int STATE_MASK = (1 << STATE_BITS) - 1;
+    private static final MinesweeperGame.GameState[] STATES = MinesweeperGame.GameState.values();
+
+    private final int rows;
+    private final int columns;
+    private final int keyframeInterval;
+    private final int moveCount;
+    /**
+     * Ключевые кадры для шагов 0, keyframeInterval, 2·keyframeInterval, ...
+     */
+    private final ChunkedCellStorage[] keyframes;
+
+    /*
+     * Изменения ячеек всех шагов подряд: упакованный индекс ячейки и состояния до и после.
+     * Изменения шага k лежат в [stepEnds[k - 1], stepEnds[k]).
+     */
+    private final long[] changeCells;
+    private final byte[] changeTransitions;
+    private final int[] stepEnds;
+
+    /*
+     * Скалярное состояние и время после каждого шага; индекс 0 — начало партии.
+     */
+    private final int[] lives;
+    private final int[] mineCounts;
+    private final byte[] states;
+    private final long[] times;
+
+    /**
+     * Поле текущего кадра.
+     */
+    private ChunkedCellStorage frame;
+    private int position;
+
+    private ReplayPlayer(Recorder recorder) {
+        this.rows = recorder.rows;
+        this.columns = recorder.columns;
+        this.keyframeInterval = recorder.keyframeInterval;
+        this.moveCount = recorder.steps;
+        this.keyframes = recorder.keyframes.toArray(new ChunkedCellStorage[0]);
+        this.changeCells = Arrays.copyOf(recorder.changeCells, recorder.changeCount);
+        this.changeTransitions = Arrays.copyOf(recorder.changeTransitions, recorder.changeCount);
+        this.stepEnds = Arrays.copyOf(recorder.stepEnds, moveCount + 1);
+        this.lives = Arrays.copyOf(recorder.lives, moveCount + 1);
+        this.mineCounts = Arrays.copyOf(recorder.mineCounts, moveCount + 1);
+        this.states = Arrays.copyOf(recorder.states, moveCount + 1);
+        this.times = Arrays.copyOf(recorder.times, moveCount + 1);
+        this.frame = keyframes[0].fork();
+    }
+
+    /**
+     * Загружает последнюю партию журнала с интервалом ключевых кадров по умолчанию.
+     *
+     * @param file Путь к файлу журнала.
+     * @return Проигрыватель, стоящий на начале партии.
+     * @throws IOException при ошибке чтения, если файл не является журналом или в нем нет партий.
+     */
+    public static ReplayPlayer load(Path file) throws IOException {
+        return load(file, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * Загружает последнюю партию журнала.
+     *
+     * @param file             Путь к файлу журнала.
+     * @param keyframeInterval Через сколько шагов сохранять ключевой кадр. Должен быть положительным.
+     * @return Проигрыватель, стоящий на начале партии.
+     * @throws IOException              при ошибке чтения, если файл не является журналом или в нем нет партий.
+     * @throws IllegalArgumentException если интервал не положителен.
+     */
+    public static ReplayPlayer load(Path file, int keyframeInterval) throws IOException {
+        if (keyframeInterval <= 0) {
+            throw new IllegalArgumentException("Интервал ключевых кадров должен быть положительным.");
+        }
+        Recorder recorder = new Recorder(keyframeInterval);
+        try (JournalReader reader = JournalReader.open(file)) {
+            JournalReplayer.replay(reader, recorder);
+        }
+        if (recorder.keyframes.isEmpty()) {
+            throw new IOException("В журнале нет ни одной партии: " + file);
+        }
+        recorder.detach();
+        return new ReplayPlayer(recorder);
+    }
+
+    /**
+     * Переходит к состоянию после указанного шага (0 — начало партии).
+     *
+     * @param move Номер шага от 0 до {@link #moveCount()}.
+     * @throws IllegalArgumentException если номер шага вне диапазона.
+     */
+    public void seek(int move) {
+        if (move < 0 || move > moveCount) {
+            throw new IllegalArgumentException("Номер хода вне диапазона: " + move + ".");
+        }
+        int keyframeMove = (move / keyframeInterval) * keyframeInterval;
+        if (move >= position && position >= keyframeMove) {
+            forwardTo(move);
+        } else if (move < position && position - move <= move - keyframeMove) {
+            backwardTo(move);
+        } else {
+            frame = keyframes[move / keyframeInterval].fork();
+            position = keyframeMove;
+            forwardTo(move);
+        }
+    }
+
+    /**
+     * Делает один шаг вперед.
+     *
+     * @return {@code false}, если партия уже в конце.
+     */
+    public boolean stepForward() {
+        if (position == moveCount) {
+            return false;
+        }
+        forwardTo(position + 1);
+        return true;
+    }
+
+    /**
+     * Делает один шаг назад.
+     *
+     * @return {@code false}, если проигрыватель уже в начале партии.
+     */
+    public boolean stepBack() {
+        if (position == 0) {
+            return false;
+        }
+        backwardTo(position - 1);
+        return true;
+    }
+
+    /**
+     * Быстрая перемотка вперед: продвигается на {@code moves} шагов (или до конца партии)
+     * и вызывает {@code frameCallback} только через каждые {@code framesEvery} шагов и в конце.
+     * Промежуточные кадры не отрисовываются, а длинные промежутки проходятся через ключевые кадры.
+     *
+     * @param moves         На сколько шагов продвинуться.
+     * @param framesEvery   Через сколько шагов показывать кадр. Должно быть положительным.
+     * @param frameCallback Вызывается для каждого показываемого кадра; может быть {@code null}.
+     * @throws IllegalArgumentException если {@code moves} отрицательно или {@code framesEvery} не положительно.
+     */
+    public void fastForward(int moves, int framesEvery, Runnable frameCallback) {
+        if (moves < 0 || framesEvery <= 0) {
+            throw new IllegalArgumentException("Некорректные параметры перемотки.");
+        }
+        int target = (int) Math.min(moveCount, (long) position + moves);
+        while (position < target) {
+            seek((int) Math.min(target, (long) position + framesEvery));
+            if (frameCallback != null) {
+                frameCallback.run();
+            }
+        }
+    }
+
+    private void forwardTo(int move) {
+        for (int step = position + 1; step <= move; step++) {
+            for (int i = stepEnds[step - 1]; i < stepEnds[step]; i++) {
+                apply(changeCells[i], changeTransitions[i] >>> STATE_BITS);
+            }
+        }
+        position = move;
+    }
+
+    private void backwardTo(int move) {
+        for (int step = position; step > move; step--) {
+            for (int i = stepEnds[step] - 1; i >= stepEnds[step - 1]; i--) {
+                apply(changeCells[i], changeTransitions[i] & STATE_MASK);
+            }
+        }
+        position = move;
+    }
+
+    private void apply(long cell, int state) {
+        writeState(frame, (int) (cell / columns), (int) (cell % columns), state);
+    }
+
+    private static void writeState(CellStorage storage, int row, int column, int state) {
+        storage.setMine(row, column, (state & CellChangeListener.MINE) != 0);
+        storage.setOpen(row, column, (state & CellChangeListener.OPEN) != 0);
+        storage.setFlagged(row, column, (state & CellChangeListener.FLAGGED) != 0);
+    }
+
+    /**
+     * @return Номер текущего шага.
+     */
+    public int position() {
+        return position;
+    }
+
+    /**
+     * @return Количество шагов в партии.
+     */
+    public int moveCount() {
+        return moveCount;
+    }
+
+    /**
+     * @return Количество сохраненных ключевых кадров.
+     */
+    public int keyframeCount() {
+        return keyframes.length;
+    }
+
+    /**
+     * @return Количество строк поля.
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * @return Количество столбцов поля.
+     */
+    public int columns() {
+        return columns;
+    }
+
+    /**
+     * @return {@code true}, если в ячейке текущего кадра мина.
+     */
+    public boolean isMine(int row, int column) {
+        return frame.isMine(row, column);
+    }
+
+    /**
+     * @return {@code true}, если ячейка текущего кадра открыта.
+     */
+    public boolean isOpen(int row, int column) {
+        return frame.isOpen(row, column);
+    }
+
+    /**
+     * @return {@code true}, если на ячейке текущего кадра флаг.
+     */
+    public boolean isFlagged(int row, int column) {
+        return frame.isFlagged(row, column);
+    }
+
+    /**
+     * @return Количество мин среди соседей или -1 для мины.
+     */
+    public int adjacentMines(int row, int column) {
+        return frame.adjacentMines(row, column);
+    }
+
+    /**
+     * @return Жизни игрока после текущего шага.
+     */
+    public int lives() {
+        return lives[position];
+    }
+
+    /**
+     * @return Счетчик мин после текущего шага.
+     */
+    public int mineCount() {
+        return mineCounts[position];
+    }
+
+    /**
+     * @return Состояние игры после текущего шага.
+     */
+    public MinesweeperGame.GameState gameState() {
+        return STATES[states[position]];
+    }
+
+    /**
+     * @return Время текущего шага в микросекундах от создания журнала.
+     */
+    public long timeMicros() {
+        return times[position];
+    }
+
+    /**
+     * Возвращает неизменяемый снимок текущего кадра, который можно отрисовывать в другом потоке,
+     * пока проигрыватель перематывается дальше.
+     *
+     * @return Снимок поля только для чтения.
+     */
+    public CellStorage snapshot() {
+        return frame.snapshot();
+    }
+
+    /**
+     * Записывает дельты шагов и ключевые кадры во время однократного воспроизведения журнала.
+     * Каждая новая партия в журнале отбрасывает записанное для предыдущей.
+     */
+    private static final class Recorder implements JournalReplayer.Observer, CellChangeListener {
+        private final int keyframeInterval;
+        private MineField field;
+        private int rows;
+        private int columns;
+        private ChunkedCellStorage frame;
+        private final List<ChunkedCellStorage> keyframes = new ArrayList<>();
+        private long[] changeCells = new long[256];
+        private byte[] changeTransitions = new byte[256];
+        private int changeCount;
+        private int[] stepEnds = new int[64];
+        private int[] lives = new int[64];
+        private int[] mineCounts = new int[64];
+        private byte[] states = new byte[64];
+        private long[] times = new long[64];
+        private int steps;
+
+        Recorder(int keyframeInterval) {
+            this.keyframeInterval = keyframeInterval;
+        }
+
+        @Override
+        public void gameStarted(MinesweeperGame game, long timeMicros) {
+            detach();
+            field = game.getMineField();
+            rows = field.getRows();
+            columns = field.getColumns();
+            frame = new ChunkedCellStorage(rows, columns);
+            for (int r = 0; r < rows; r++) {
+                for (int c = 0; c < columns; c++) {
+                    if (field.getCell(r, c).isMine()) {
+                        frame.setMine(r, c, true);
+                    }
+                }
+            }
+            keyframes.clear();
+            changeCount = 0;
+            steps = 0;
+            record(game, timeMicros);
+            field.addCellChangeListener(this);
+        }
+
+        @Override
+        public void stepApplied(MinesweeperGame game, long timeMicros) {
+            steps++;
+            record(game, timeMicros);
+        }
+
+        private void record(MinesweeperGame game, long timeMicros) {
+            if (steps == stepEnds.length) {
+                int capacity = steps * 2;
+                stepEnds = Arrays.copyOf(stepEnds, capacity);
+                lives = Arrays.copyOf(lives, capacity);
+                mineCounts = Arrays.copyOf(mineCounts, capacity);
+                states = Arrays.copyOf(states, capacity);
+                times = Arrays.copyOf(times, capacity);
+            }
+            stepEnds[steps] = changeCount;
+            lives[steps] = game.getPlayer().getLives();
+            mineCounts[steps] = game.getMineField().getMineCount();
+            states[steps] = (byte) game.getGameState().ordinal();
+            times[steps] = timeMicros;
+            if (steps % keyframeInterval == 0) {
+                keyframes.add(frame.fork());
+            }
+        }
+
+        @Override
+        public void cellChanged(int row, int column, int before, int after) {
+            if (changeCount == changeCells.length) {
+                changeCells = Arrays.copyOf(changeCells, changeCount * 2);
+                changeTransitions = Arrays.copyOf(changeTransitions, changeCount * 2);
+            }
+            changeCells[changeCount] = (long) row * columns + column;
+            changeTransitions[changeCount] = (byte) (before | after << STATE_BITS);
+            changeCount++;
+            writeState(frame, row, column, after);
+        }
+
+        /**
+         * Поле партии сбрасывается только при начале новой партии, которую запишет {@link #gameStarted}.
+         */
+        @Override
+        public void fieldChanged() {
+        }
+
+        void detach() {
+            if (field != null) {
+                field.removeCellChangeListener(this);
+                field = null;
+            }
+        }
+    }
+}
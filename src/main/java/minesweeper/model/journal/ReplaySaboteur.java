@@ -0,0 +1,42 @@
+package minesweeper.model.journal;
+
+import minesweeper.model.MineField;
+import minesweeper.model.MinesweeperGame;
+import minesweeper.model.Saboteur;
+import minesweeper.model.navigation.CellPosition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Диверсант для воспроизведения журнала: вместо случайного выбора выполняет перемещения мин,
+ * записанные в журнале после открытия ячейки. Если перемещений нет, бездействует,
+ * как бездействовал исходный диверсант.
+ */
+final class ReplaySaboteur implements Saboteur {
+    private final List<CellPosition[]> pending = new ArrayList<>();
+
+    /**
+     * Добавляет перемещение мины для ближайшего действия диверсанта.
+     */
+    void enqueue(CellPosition from, CellPosition to) {
+        pending.add(new CellPosition[]{from, to});
+    }
+
+    /**
+     * Отбрасывает перемещения, которые не понадобились (ход не дошел до диверсанта).
+     */
+    void clear() {
+        pending.clear();
+    }
+
+    @Override
+    public boolean performAction(MineField field, MinesweeperGame game) {
+        boolean acted = false;
+        for (CellPosition[] relocation : pending) {
+            acted |= field.relocateMine(relocation[0], relocation[1]);
+        }
+        pending.clear();
+        return acted;
+    }
+}
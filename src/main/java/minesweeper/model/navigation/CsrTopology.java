@@ -0,0 +1,190 @@
+package minesweeper.model.navigation;
+
+import java.util.Arrays;
+
+/**
+ * Произвольное соседство, заданное таблицами в формате CSR (compressed sparse row):
+ * соседи ячейки с построчным индексом i лежат в {@code neighborRows/neighborColumns}
+ * с позиции {@code offsets[i]} до {@code offsets[i + 1]}.
+ * Перебор соседей — это копирование непрерывного участка двух массивов.
+ * <p>
+ * Создается либо {@link Builder построителем} из списка ребер, либо {@link #compile(Topology) компиляцией}
+ * любой другой топологии, например чтобы заменить вычисления с краевыми случаями чтением таблиц.
+ */
+public final class CsrTopology implements Topology {
+    private final int rows;
+    private final int columns;
+    private final int[] offsets;
+    private final int[] neighborRows;
+    private final int[] neighborColumns;
+    private final int maxDegree;
+
+    private CsrTopology(int rows, int columns, int[] offsets, int[] neighborRows, int[] neighborColumns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.offsets = offsets;
+        this.neighborRows = neighborRows;
+        this.neighborColumns = neighborColumns;
+        int max = 0;
+        for (int i = 0; i + 1 < offsets.length; i++) {
+            max = Math.max(max, offsets[i + 1] - offsets[i]);
+        }
+        this.maxDegree = max;
+    }
+
+    /**
+     * Переводит соседство другой топологии в таблицы.
+     *
+     * @param source Исходная топология.
+     * @return Эквивалентная табличная топология.
+     * @throws IllegalArgumentException если поле или число ребер не помещается в массив.
+     */
+    public static CsrTopology compile(Topology source) {
+        int rows = source.rows();
+        int columns = source.columns();
+        int[] offsets = new int[checkedCells(rows, columns) + 1];
+        int[] rowBuffer = new int[source.maxDegree()];
+        int[] columnBuffer = new int[source.maxDegree()];
+        long edges = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                edges += source.neighbors(r, c, rowBuffer, columnBuffer);
+                offsets[r * columns + c + 1] = checkedEdges(edges);
+            }
+        }
+        int[] neighborRows = new int[(int) edges];
+        int[] neighborColumns = new int[(int) edges];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                int start = offsets[r * columns + c];
+                int count = source.neighbors(r, c, rowBuffer, columnBuffer);
+                System.arraycopy(rowBuffer, 0, neighborRows, start, count);
+                System.arraycopy(columnBuffer, 0, neighborColumns, start, count);
+            }
+        }
+        return new CsrTopology(rows, columns, offsets, neighborRows, neighborColumns);
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int columns() {
+        return columns;
+    }
+
+    @Override
+    public int maxDegree() {
+        return maxDegree;
+    }
+
+    @Override
+    public int neighbors(int row, int column, int[] rowsOut, int[] columnsOut) {
+        int index = row * columns + column;
+        int start = offsets[index];
+        int count = offsets[index + 1] - start;
+        System.arraycopy(neighborRows, start, rowsOut, 0, count);
+        System.arraycopy(neighborColumns, start, columnsOut, 0, count);
+        return count;
+    }
+
+    private static int checkedCells(int rows, int columns) {
+        if (rows <= 0 || columns <= 0 || (long) rows * columns >= Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Некорректные размеры поля для табличной топологии.");
+        }
+        return rows * columns;
+    }
+
+    private static int checkedEdges(long edges) {
+        if (edges > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Слишком много связей для табличной топологии.");
+        }
+        return (int) edges;
+    }
+
+    /**
+     * Построитель произвольного соседства из списка связей.
+     * Каждая связь добавляется в обе стороны; повторы и петли отбрасываются.
+     */
+    public static final class Builder {
+        private final int rows;
+        private final int columns;
+        /**
+         * Ориентированные ребра: индекс ячейки-источника в старших 32 битах, соседа — в младших.
+         */
+        private long[] edges = new long[16];
+        private int edgeCount;
+
+        /**
+         * @param rows    Количество строк.
+         * @param columns Количество столбцов.
+         * @throws IllegalArgumentException если размеры некорректны.
+         */
+        public Builder(int rows, int columns) {
+            checkedCells(rows, columns);
+            this.rows = rows;
+            this.columns = columns;
+        }
+
+        /**
+         * Делает две ячейки соседями друг друга.
+         *
+         * @return Этот построитель.
+         * @throws IllegalArgumentException если одна из ячеек вне поля.
+         */
+        public Builder connect(int row1, int column1, int row2, int column2) {
+            int a = index(row1, column1);
+            int b = index(row2, column2);
+            if (a != b) {
+                add(((long) a << 32) | b);
+                add(((long) b << 32) | a);
+            }
+            return this;
+        }
+
+        /**
+         * @return Табличная топология с добавленными связями.
+         */
+        public CsrTopology build() {
+            long[] sorted = Arrays.copyOf(edges, edgeCount);
+            Arrays.sort(sorted);
+            int cells = rows * columns;
+            int[] offsets = new int[cells + 1];
+            int[] neighborRows = new int[sorted.length];
+            int[] neighborColumns = new int[sorted.length];
+            int unique = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i > 0 && sorted[i] == sorted[i - 1]) {
+                    continue;
+                }
+                int from = (int) (sorted[i] >>> 32);
+                int to = (int) sorted[i];
+                offsets[from + 1]++;
+                neighborRows[unique] = to / columns;
+                neighborColumns[unique] = to % columns;
+                unique++;
+            }
+            for (int i = 0; i < cells; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            return new CsrTopology(rows, columns, offsets,
+                    Arrays.copyOf(neighborRows, unique), Arrays.copyOf(neighborColumns, unique));
+        }
+
+        private int index(int row, int column) {
+            if (row < 0 || row >= rows || column < 0 || column >= columns) {
+                throw new IllegalArgumentException("Ячейка вне поля: (" + row + ", " + column + ").");
+            }
+            return row * columns + column;
+        }
+
+        private void add(long edge) {
+            if (edgeCount == edges.length) {
+                edges = Arrays.copyOf(edges, edgeCount * 2);
+            }
+            edges[edgeCount++] = edge;
+        }
+    }
+}
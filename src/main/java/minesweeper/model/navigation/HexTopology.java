@@ -0,0 +1,30 @@
+package minesweeper.model.navigation;
+
+/**
+ * Шестиугольная сетка с горизонтальными рядами, где нечетные строки сдвинуты вправо
+ * на половину ячейки (раскладка "odd-r"). У внутренних ячеек шесть соседей;
+ * набор смещений зависит от четности строки.
+ */
+public final class HexTopology extends OffsetTopology {
+    private static final int[] EVEN_DR = {-1, -1, 0, 0, 1, 1};
+    private static final int[] EVEN_DC = {-1, 0, -1, 1, -1, 0};
+    private static final int[] ODD_DR = {-1, -1, 0, 0, 1, 1};
+    private static final int[] ODD_DC = {0, 1, -1, 1, 0, 1};
+
+    /**
+     * @param rows    Количество строк. Должно быть положительным.
+     * @param columns Количество столбцов. Должно быть положительным.
+     * @throws IllegalArgumentException если размеры не положительны.
+     */
+    public HexTopology(int rows, int columns) {
+        super(rows, columns, new int[][]{EVEN_DR, ODD_DR}, new int[][]{EVEN_DC, ODD_DC});
+    }
+
+    @Override
+    long edge(int row, int column) {
+        if (row < 0 || row >= rows || column < 0 || column >= columns) {
+            return -1;
+        }
+        return ((long) row << 32) | column;
+    }
+}
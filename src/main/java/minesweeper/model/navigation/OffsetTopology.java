@@ -0,0 +1,72 @@
+package minesweeper.model.navigation;
+
+/**
+ * Основа топологий, где соседи задаются постоянными смещениями (dr, dc).
+ * Для внутренних ячеек, все соседи которых заведомо лежат на поле, смещения
+ * применяются без единой проверки; проверки границ нужны только у краев.
+ * Таблица смещений может зависеть от четности строки (как у шестиугольной сетки).
+ */
+abstract class OffsetTopology implements Topology {
+    final int rows;
+    final int columns;
+    /**
+     * Смещения строк и столбцов для четных и нечетных строк.
+     */
+    private final int[][] rowOffsets;
+    private final int[][] columnOffsets;
+
+    OffsetTopology(int rows, int columns, int[][] rowOffsets, int[][] columnOffsets) {
+        if (rows <= 0 || columns <= 0) {
+            throw new IllegalArgumentException("Размеры поля должны быть положительными.");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.rowOffsets = rowOffsets;
+        this.columnOffsets = columnOffsets;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int columns() {
+        return columns;
+    }
+
+    @Override
+    public int maxDegree() {
+        return Math.max(rowOffsets[0].length, rowOffsets[1].length);
+    }
+
+    @Override
+    public int neighbors(int row, int column, int[] rowsOut, int[] columnsOut) {
+        int[] dr = rowOffsets[row & 1];
+        int[] dc = columnOffsets[row & 1];
+        if (row > 0 && row < rows - 1 && column > 0 && column < columns - 1) {
+            for (int i = 0; i < dr.length; i++) {
+                rowsOut[i] = row + dr[i];
+                columnsOut[i] = column + dc[i];
+            }
+            return dr.length;
+        }
+        int count = 0;
+        for (int i = 0; i < dr.length; i++) {
+            long packed = edge(row + dr[i], column + dc[i]);
+            if (packed >= 0) {
+                rowsOut[count] = (int) (packed >>> 32);
+                columnsOut[count] = (int) packed;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Обрабатывает соседа ячейки у края поля.
+     *
+     * @return Упакованные координаты (строка в старших 32 битах) или -1, если соседа нет.
+     */
+    abstract long edge(int row, int column);
+}
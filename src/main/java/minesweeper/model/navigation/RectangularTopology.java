@@ -0,0 +1,27 @@
+package minesweeper.model.navigation;
+
+/**
+ * Обычное прямоугольное поле: восемь соседей по сторонам и диагоналям,
+ * у ячеек на краях и в углах соседей меньше.
+ */
+public final class RectangularTopology extends OffsetTopology {
+    private static final int[] DR = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] DC = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+    /**
+     * @param rows    Количество строк. Должно быть положительным.
+     * @param columns Количество столбцов. Должно быть положительным.
+     * @throws IllegalArgumentException если размеры не положительны.
+     */
+    public RectangularTopology(int rows, int columns) {
+        super(rows, columns, new int[][]{DR, DR}, new int[][]{DC, DC});
+    }
+
+    @Override
+    long edge(int row, int column) {
+        if (row < 0 || row >= rows || column < 0 || column >= columns) {
+            return -1;
+        }
+        return ((long) row << 32) | column;
+    }
+}
@@ -0,0 +1,50 @@
+package minesweeper.model.navigation;
+
+/**
+ * Отношение соседства между ячейками поля rows×columns.
+ * Подсчет соседних мин, открытие пустых областей и поиск границы открытой области
+ * перебирают соседей только через этот интерфейс, поэтому форма поля
+ * (прямоугольник, тор, шестиугольники, произвольный граф) не влияет на игровую логику.
+ * <p>
+ * Соседство должно быть симметричным: если B — сосед A, то и A — сосед B.
+ * Реализации заранее вычисляют таблицы смещений или соседей, чтобы перебор не требовал
+ * ни выделения памяти, ни проверки границ для каждой пробы.
+ */
+public interface Topology {
+    /**
+     * @return Количество строк поля.
+     */
+    int rows();
+
+    /**
+     * @return Количество столбцов поля.
+     */
+    int columns();
+
+    /**
+     * @return Наибольшее количество соседей у одной ячейки; достаточный размер буферов для {@link #neighbors}.
+     */
+    int maxDegree();
+
+    /**
+     * Записывает координаты соседей ячейки в начало переданных массивов.
+     *
+     * @param row        Индекс строки ячейки.
+     * @param column     Индекс столбца ячейки.
+     * @param rowsOut    Буфер строк соседей размером не меньше {@link #maxDegree()}.
+     * @param columnsOut Буфер столбцов соседей размером не меньше {@link #maxDegree()}.
+     * @return Количество записанных соседей.
+     */
+    int neighbors(int row, int column, int[] rowsOut, int[] columnsOut);
+
+    /**
+     * Создает обычное прямоугольное поле с восемью соседями у внутренних ячеек.
+     *
+     * @param rows    Количество строк.
+     * @param columns Количество столбцов.
+     * @return Прямоугольная топология.
+     */
+    static Topology rectangular(int rows, int columns) {
+        return new RectangularTopology(rows, columns);
+    }
+}
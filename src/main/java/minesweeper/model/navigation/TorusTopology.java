@@ -0,0 +1,37 @@
+package minesweeper.model.navigation;
+
+/**
+ * Поле, свернутое в тор: верхний край склеен с нижним, левый с правым,
+ * поэтому у каждой ячейки ровно восемь соседей.
+ */
+public final class TorusTopology extends OffsetTopology {
+    private static final int[] DR = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] DC = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+    /**
+     * @param rows    Количество строк. Не меньше 3, иначе соседи совпадали бы между собой.
+     * @param columns Количество столбцов. Не меньше 3.
+     * @throws IllegalArgumentException если поле меньше 3×3.
+     */
+    public TorusTopology(int rows, int columns) {
+        super(rows, columns, new int[][]{DR, DR}, new int[][]{DC, DC});
+        if (rows < 3 || columns < 3) {
+            throw new IllegalArgumentException("Тор должен быть не меньше 3x3.");
+        }
+    }
+
+    @Override
+    long edge(int row, int column) {
+        if (row < 0) {
+            row += rows;
+        } else if (row >= rows) {
+            row -= rows;
+        }
+        if (column < 0) {
+            column += columns;
+        } else if (column >= columns) {
+            column -= columns;
+        }
+        return ((long) row << 32) | column;
+    }
+}
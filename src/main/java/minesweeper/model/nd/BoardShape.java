@@ -0,0 +1,217 @@
+package minesweeper.model.nd;
+
+import java.util.Arrays;
+
+/**
+ * Форма N-мерного игрового поля: размеры по осям и построчная (row-major) нумерация ячеек
+ * одним целым индексом. Последняя ось меняется быстрее всех, как столбцы в двумерном поле.
+ * <p>
+ * Заранее вычисляются шаги индекса по осям и смещения индекса до всех 3^N−1 соседей,
+ * так что переход к соседу внутренней ячейки — одно сложение.
+ */
+public final class BoardShape {
+    /**
+     * Наибольшее поддерживаемое число измерений: у ячейки 5-мерного поля 242 соседа,
+     * и количество соседних мин еще помещается в байт.
+     */
+    public static final int MAX_DIMENSIONS = 5;
+
+    private final int[] dimensions;
+    /**
+     * Шаг индекса при увеличении координаты на единицу по каждой оси.
+     */
+    private final int[] strides;
+    private final int cellCount;
+    /**
+     * Смещения индекса до соседей и соответствующие им смещения координат (−1, 0, 1 по каждой оси).
+     */
+    private final int[] neighborStrides;
+    private final int[][] neighborDeltas;
+
+    /**
+     * Создает форму с указанными размерами по осям.
+     *
+     * @param dimensions Размеры по осям, от 1 до {@link #MAX_DIMENSIONS} положительных чисел.
+     * @throws IllegalArgumentException если размеров нет, их слишком много, они не положительны
+     *                                  или ячеек больше, чем помещается в массив.
+     */
+    public BoardShape(int... dimensions) {
+        if (dimensions.length == 0 || dimensions.length > MAX_DIMENSIONS) {
+            throw new IllegalArgumentException("Поддерживается от 1 до " + MAX_DIMENSIONS + " измерений.");
+        }
+        this.dimensions = dimensions.clone();
+        this.strides = new int[dimensions.length];
+        long cells = 1;
+        for (int axis = dimensions.length - 1; axis >= 0; axis--) {
+            if (dimensions[axis] <= 0) {
+                throw new IllegalArgumentException("Размеры поля должны быть положительными.");
+            }
+            strides[axis] = (int) cells;
+            cells *= dimensions[axis];
+            if (cells > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Слишком большое поле.");
+            }
+        }
+        this.cellCount = (int) cells;
+
+        int neighbors = 1;
+        for (int axis = 0; axis < dimensions.length; axis++) {
+            neighbors *= 3;
+        }
+        neighbors--;
+        this.neighborStrides = new int[neighbors];
+        this.neighborDeltas = new int[neighbors][];
+        int count = 0;
+        for (int code = 0; code <= neighbors; code++) {
+            int[] delta = new int[dimensions.length];
+            int offset = 0;
+            boolean self = true;
+            for (int axis = 0, rest = code; axis < dimensions.length; axis++, rest /= 3) {
+                delta[axis] = rest % 3 - 1;
+                offset += delta[axis] * strides[axis];
+                self &= delta[axis] == 0;
+            }
+            if (!self) {
+                neighborStrides[count] = offset;
+                neighborDeltas[count] = delta;
+                count++;
+            }
+        }
+    }
+
+    /**
+     * @return Количество измерений.
+     */
+    public int rank() {
+        return dimensions.length;
+    }
+
+    /**
+     * @return Размер поля по оси.
+     */
+    public int dimension(int axis) {
+        return dimensions[axis];
+    }
+
+    /**
+     * @return Шаг индекса по оси.
+     */
+    public int stride(int axis) {
+        return strides[axis];
+    }
+
+    /**
+     * @return Общее количество ячеек.
+     */
+    public int cellCount() {
+        return cellCount;
+    }
+
+    /**
+     * @return Наибольшее количество соседей одной ячейки, 3^N−1.
+     */
+    public int neighborCount() {
+        return neighborStrides.length;
+    }
+
+    /**
+     * Вычисляет индекс ячейки по координатам.
+     *
+     * @param coordinates Координаты по всем осям.
+     * @return Индекс ячейки.
+     * @throws IllegalArgumentException если число координат не совпадает с числом измерений
+     *                                  или ячейка вне поля.
+     */
+    public int index(int... coordinates) {
+        if (!contains(coordinates)) {
+            throw new IllegalArgumentException("Ячейка вне поля: " + Arrays.toString(coordinates) + ".");
+        }
+        int index = 0;
+        for (int axis = 0; axis < dimensions.length; axis++) {
+            index += coordinates[axis] * strides[axis];
+        }
+        return index;
+    }
+
+    /**
+     * @return {@code true}, если координаты лежат в пределах поля.
+     */
+    public boolean contains(int... coordinates) {
+        if (coordinates.length != dimensions.length) {
+            return false;
+        }
+        for (int axis = 0; axis < dimensions.length; axis++) {
+            if (coordinates[axis] < 0 || coordinates[axis] >= dimensions[axis]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Раскладывает индекс ячейки на координаты.
+     *
+     * @param index Индекс ячейки.
+     * @param out   Массив для координат длиной не меньше {@link #rank()}.
+     * @return Переданный массив {@code out}.
+     */
+    public int[] coordinates(int index, int[] out) {
+        for (int axis = 0; axis < dimensions.length; axis++) {
+            out[axis] = index / strides[axis];
+            index -= out[axis] * strides[axis];
+        }
+        return out;
+    }
+
+    /**
+     * Записывает индексы соседей ячейки. У внутренних ячеек (не лежащих на краю ни по одной оси)
+     * соседи получаются прибавлением заранее вычисленных смещений без проверок;
+     * у краевых отбрасываются смещения, выводящие за пределы поля.
+     *
+     * @param index       Индекс ячейки.
+     * @param coordinates Буфер координат длиной не меньше {@link #rank()}.
+     * @param out         Буфер соседей длиной не меньше {@link #neighborCount()}.
+     * @return Количество записанных соседей.
+     */
+    public int neighbors(int index, int[] coordinates, int[] out) {
+        coordinates(index, coordinates);
+        boolean interior = true;
+        for (int axis = 0; axis < dimensions.length && interior; axis++) {
+            interior = coordinates[axis] > 0 && coordinates[axis] < dimensions[axis] - 1;
+        }
+        if (interior) {
+            for (int i = 0; i < neighborStrides.length; i++) {
+                out[i] = index + neighborStrides[i];
+            }
+            return neighborStrides.length;
+        }
+        int count = 0;
+        for (int i = 0; i < neighborStrides.length; i++) {
+            int[] delta = neighborDeltas[i];
+            boolean inside = true;
+            for (int axis = 0; axis < dimensions.length && inside; axis++) {
+                int coordinate = coordinates[axis] + delta[axis];
+                inside = coordinate >= 0 && coordinate < dimensions[axis];
+            }
+            if (inside) {
+                out[count++] = index + neighborStrides[i];
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof BoardShape other && Arrays.equals(dimensions, other.dimensions);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(dimensions);
+    }
+
+    @Override
+    public String toString() {
+        return "BoardShape" + Arrays.toString(dimensions);
+    }
+}
@@ -0,0 +1,273 @@
+package minesweeper.model.nd;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.random.RandomGenerator;
+
+/**
+ * Игровое поле произвольной размерности (1–5 осей) на том же принципе, что и
+ * {@link minesweeper.model.MineField}: мины, открытие с раскрытием пустых областей, флаги.
+ * Ячейки адресуются одним индексом {@link BoardShape}; состояние хранится в байте на ячейку,
+ * количество соседних мин — в отдельном байте.
+ * <p>
+ * Соседние мины считаются разделимыми суммами по осям: сумма по кубу 3^N вокруг ячейки
+ * равна последовательному применению одномерной суммы по трем соседним ячейкам вдоль
+ * каждой оси. Поэтому полный пересчет стоит O(ячейки × N), а не O(ячейки × (3^N−1)).
+ */
+public class NdMineField {
+    private static final byte MINE = 1;
+    private static final byte OPEN = 2;
+    private static final byte FLAGGED = 4;
+
+    private final BoardShape shape;
+    private final byte[] state;
+    /**
+     * Количество соседних мин для ячеек без мин (без знака, до 242 при N = 5).
+     */
+    private final byte[] adjacent;
+    private final Random random = new Random();
+    private int mineCount;
+    private int openCount;
+    /**
+     * Количество открытых ячеек без мин.
+     */
+    private int safeOpenCount;
+
+    /**
+     * Создает поле без мин.
+     *
+     * @param shape     Форма поля.
+     * @param mineCount Количество мин для {@link #placeMines()}.
+     * @throws IllegalArgumentException если количество мин некорректно.
+     */
+    public NdMineField(BoardShape shape, int mineCount) {
+        if (mineCount < 0 || mineCount > shape.cellCount()) {
+            throw new IllegalArgumentException("Некорректное количество мин.");
+        }
+        this.shape = shape;
+        this.state = new byte[shape.cellCount()];
+        this.adjacent = new byte[shape.cellCount()];
+        this.mineCount = mineCount;
+    }
+
+    /**
+     * Задает зерно генератора случайных чисел поля.
+     *
+     * @param seed Зерно генератора.
+     */
+    public void reseed(long seed) {
+        random.setSeed(seed);
+    }
+
+    /**
+     * Сбрасывает поле и равномерно случайно размещает мины, затем считает соседей.
+     */
+    public void placeMines() {
+        placeMines(random);
+    }
+
+    /**
+     * Сбрасывает поле и равномерно случайно размещает мины указанным генератором.
+     * Как и в двумерном поле, при плотности выше половины случайно выбираются безопасные ячейки.
+     *
+     * @param rng Генератор случайных чисел.
+     */
+    public void placeMines(RandomGenerator rng) {
+        Arrays.fill(state, (byte) 0);
+        openCount = 0;
+        safeOpenCount = 0;
+        int cells = state.length;
+        int count = mineCount;
+        byte target = MINE;
+        if (count > cells / 2) {
+            Arrays.fill(state, MINE);
+            count = cells - count;
+            target = 0;
+        }
+        while (count > 0) {
+            int index = rng.nextInt(cells);
+            if (state[index] != target) {
+                state[index] = target;
+                count--;
+            }
+        }
+        calculateAllAdjacentMines();
+    }
+
+    /**
+     * Ставит или убирает мину и пересчитывает соседей всего поля.
+     * Предназначен для подготовки заданных расстановок.
+     *
+     * @param index Индекс ячейки.
+     * @param mine  {@code true}, чтобы поставить мину.
+     */
+    public void setMine(int index, boolean mine) {
+        boolean wasMine = isMine(index);
+        if (wasMine != mine) {
+            state[index] = (byte) (mine ? state[index] | MINE : state[index] & ~MINE);
+            mineCount += mine ? 1 : -1;
+            calculateAllAdjacentMines();
+        }
+    }
+
+    /**
+     * Пересчитывает количество соседних мин для всех ячеек разделимыми суммами по осям:
+     * после прохода по оси d в каждой ячейке лежит сумма мин по "плите" 3×…×3 по первым d осям.
+     */
+    public void calculateAllAdjacentMines() {
+        int cells = state.length;
+        int[] sums = new int[cells];
+        int[] next = new int[cells];
+        for (int i = 0; i < cells; i++) {
+            sums[i] = state[i] & MINE;
+        }
+        for (int axis = 0; axis < shape.rank(); axis++) {
+            int stride = shape.stride(axis);
+            int length = shape.dimension(axis);
+            int block = stride * length;
+            for (int base = 0; base < cells; base += block) {
+                for (int k = 0; k < length; k++) {
+                    int row = base + k * stride;
+                    for (int inner = 0; inner < stride; inner++) {
+                        int i = row + inner;
+                        int sum = sums[i];
+                        if (k > 0) {
+                            sum += sums[i - stride];
+                        }
+                        if (k < length - 1) {
+                            sum += sums[i + stride];
+                        }
+                        next[i] = sum;
+                    }
+                }
+            }
+            int[] swap = sums;
+            sums = next;
+            next = swap;
+        }
+        for (int i = 0; i < cells; i++) {
+            adjacent[i] = (byte) (sums[i] - (state[i] & MINE)); // Сумма по кубу включает саму ячейку
+        }
+    }
+
+    /**
+     * Открывает ячейку; если в ней нет мины и соседних мин, раскрывает всю пустую область
+     * явным стеком индексов.
+     *
+     * @param index Индекс ячейки.
+     * @return {@code true}, если открыта мина.
+     */
+    public boolean open(int index) {
+        if ((state[index] & (OPEN | FLAGGED)) != 0) {
+            return false;
+        }
+        markOpen(index);
+        if (isMine(index)) {
+            return true;
+        }
+        if (adjacent[index] != 0) {
+            return false;
+        }
+        int[] stack = new int[16];
+        int size = 0;
+        stack[size++] = index;
+        int[] coordinates = new int[shape.rank()];
+        int[] neighbors = new int[shape.neighborCount()];
+        while (size > 0) {
+            int current = stack[--size];
+            int count = shape.neighbors(current, coordinates, neighbors);
+            for (int i = 0; i < count; i++) {
+                int neighbor = neighbors[i];
+                if ((state[neighbor] & (OPEN | FLAGGED)) != 0) {
+                    continue;
+                }
+                markOpen(neighbor); // Соседи пустой ячейки не бывают минами
+                if (adjacent[neighbor] == 0) {
+                    if (size == stack.length) {
+                        stack = Arrays.copyOf(stack, size * 2);
+                    }
+                    stack[size++] = neighbor;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void markOpen(int index) {
+        state[index] = (byte) ((state[index] | OPEN) & ~FLAGGED);
+        openCount++;
+        if (!isMine(index)) {
+            safeOpenCount++;
+        }
+    }
+
+    /**
+     * Переключает флаг на закрытой ячейке.
+     *
+     * @param index Индекс ячейки.
+     * @return {@code true}, если флаг переключен.
+     */
+    public boolean toggleFlag(int index) {
+        if ((state[index] & OPEN) != 0) {
+            return false;
+        }
+        state[index] ^= FLAGGED;
+        return true;
+    }
+
+    /**
+     * @return Форма поля.
+     */
+    public BoardShape getShape() {
+        return shape;
+    }
+
+    /**
+     * @return {@code true}, если в ячейке мина.
+     */
+    public boolean isMine(int index) {
+        return (state[index] & MINE) != 0;
+    }
+
+    /**
+     * @return {@code true}, если ячейка открыта.
+     */
+    public boolean isOpen(int index) {
+        return (state[index] & OPEN) != 0;
+    }
+
+    /**
+     * @return {@code true}, если на ячейке флаг.
+     */
+    public boolean isFlagged(int index) {
+        return (state[index] & FLAGGED) != 0;
+    }
+
+    /**
+     * @return Количество мин среди соседей или -1 для мины.
+     */
+    public int getAdjacentMines(int index) {
+        return isMine(index) ? -1 : adjacent[index] & 0xFF;
+    }
+
+    /**
+     * @return Количество мин на поле.
+     */
+    public int getMineCount() {
+        return mineCount;
+    }
+
+    /**
+     * @return Количество открытых ячеек.
+     */
+    public int getNumberOfOpenedCells() {
+        return openCount;
+    }
+
+    /**
+     * @return {@code true}, если открыты все ячейки без мин.
+     */
+    public boolean isCleared() {
+        return safeOpenCount == state.length - mineCount;
+    }
+}
@@ -0,0 +1,150 @@
+package minesweeper.model.shared;
+
+import minesweeper.model.MineField;
+import minesweeper.model.events.CellChangeListener;
+import minesweeper.model.navigation.Topology;
+import minesweeper.model.storage.CellStorage;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Общая часть совместных полей: неизменная расстановка мин из исходного {@link MineField},
+ * байт состояния на ячейку (биты {@link CellChangeListener#OPEN} и {@link CellChangeListener#FLAGGED})
+ * и счетчики.
+ * <p>
+ * Счетчики — {@link LongAdder}: каждый поток прибавляет в свою ячейку, и ходы в разных местах поля
+ * не конкурируют за одну переменную. Расчистка поля определяется точно: поток, сделавший последнее
+ * открытие безопасной ячейки, видит в сумме все предыдущие.
+ */
+abstract class AbstractSharedMineField implements SharedMineField {
+    static final byte OPEN = CellChangeListener.OPEN;
+    static final byte FLAGGED = CellChangeListener.FLAGGED;
+    static final VarHandle STATE = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    final CellStorage storage;
+    final Topology topology;
+    final int rows;
+    final int columns;
+    final byte[] state;
+    private final long safeCells;
+
+    final LongAdder opened = new LongAdder();
+    final LongAdder safeOpened = new LongAdder();
+    final LongAdder flagged = new LongAdder();
+    final LongAdder explosions = new LongAdder();
+    private volatile boolean cleared;
+
+    /**
+     * Создает совместное поле поверх расставленных мин. Текущее открытие и флаги поля копируются;
+     * дальше исходное поле не меняется и не должно меняться, пока идет игра.
+     *
+     * @param field Поле с расставленными минами.
+     * @throws IllegalArgumentException если в поле больше ячеек, чем помещается в массив.
+     */
+    AbstractSharedMineField(MineField field) {
+        this.storage = field.getStorage();
+        this.topology = field.getTopology();
+        this.rows = field.getRows();
+        this.columns = field.getColumns();
+        long cells = (long) rows * columns;
+        if (cells > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Слишком большое поле для совместной игры: " + cells + " ячеек.");
+        }
+        this.state = new byte[(int) cells];
+        long mines = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                boolean mine = storage.isMine(r, c);
+                mines += mine ? 1 : 0;
+                if (storage.isOpen(r, c)) {
+                    state[r * columns + c] = OPEN;
+                    opened.increment();
+                    (mine ? explosions : safeOpened).increment();
+                } else if (storage.isFlagged(r, c)) {
+                    state[r * columns + c] = FLAGGED;
+                    flagged.increment();
+                }
+            }
+        }
+        this.safeCells = cells - mines;
+        this.cleared = safeOpened.sum() == safeCells;
+    }
+
+    /**
+     * Учитывает открытые вызовом {@link #open} ячейки и проверяет расчистку поля.
+     */
+    final void recordOpened(int safe, boolean mine) {
+        if (mine) {
+            opened.increment();
+            explosions.increment();
+            return;
+        }
+        if (safe > 0) {
+            opened.add(safe);
+            safeOpened.add(safe);
+            if (safeOpened.sum() == safeCells) {
+                cleared = true;
+            }
+        }
+    }
+
+    final boolean isValid(int row, int column) {
+        return row >= 0 && row < rows && column >= 0 && column < columns;
+    }
+
+    final byte stateAt(int index) {
+        return (byte) STATE.getAcquire(state, index);
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int columns() {
+        return columns;
+    }
+
+    @Override
+    public boolean isOpen(int row, int column) {
+        return isValid(row, column) && (stateAt(row * columns + column) & OPEN) != 0;
+    }
+
+    @Override
+    public boolean isFlagged(int row, int column) {
+        return isValid(row, column) && (stateAt(row * columns + column) & FLAGGED) != 0;
+    }
+
+    @Override
+    public boolean isMine(int row, int column) {
+        return storage.isMine(row, column);
+    }
+
+    @Override
+    public int adjacentMines(int row, int column) {
+        return storage.adjacentMines(row, column);
+    }
+
+    @Override
+    public long openedCells() {
+        return opened.sum();
+    }
+
+    @Override
+    public long flaggedCells() {
+        return flagged.sum();
+    }
+
+    @Override
+    public long explosions() {
+        return explosions.sum();
+    }
+
+    @Override
+    public boolean isCleared() {
+        return cleared;
+    }
+}
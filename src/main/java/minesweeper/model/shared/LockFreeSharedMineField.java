@@ -0,0 +1,105 @@
+package minesweeper.model.shared;
+
+import minesweeper.model.MineField;
+
+import java.util.Arrays;
+
+/**
+ * Совместное поле без блокировок: каждое изменение ячейки — сравнение с обменом ее байта
+ * состояния через {@link java.lang.invoke.VarHandle}.
+ * <p>
+ * Переходы атомарны: "закрыта → открыта" удается, только если ячейка закрыта и без флага,
+ * "флаг ↔ без флага" — только пока ячейка закрыта. Поэтому из игроков, одновременно открывающих
+ * пересекающиеся области, каждую ячейку открывает ровно один (тот, чей обмен удался), и сумма
+ * открытых ими ячеек совпадает со счетчиком. Флаг, поставленный одновременно с открытием,
+ * либо успевает и останавливает открытие, либо не ставится вовсе.
+ */
+public final class LockFreeSharedMineField extends AbstractSharedMineField {
+
+    /**
+     * Создает поле поверх расставленных мин.
+     *
+     * @param field Поле с расставленными минами.
+     */
+    public LockFreeSharedMineField(MineField field) {
+        super(field);
+    }
+
+    /**
+     * Атомарно открывает закрытую ячейку без флага.
+     *
+     * @return {@code true}, если ячейку открыл этот поток.
+     */
+    private boolean claimOpen(int index) {
+        byte cell = stateAt(index);
+        while ((cell & (OPEN | FLAGGED)) == 0) {
+            byte witness = (byte) STATE.compareAndExchange(state, index, cell, (byte) (cell | OPEN));
+            if (witness == cell) {
+                return true;
+            }
+            cell = witness;
+        }
+        return false;
+    }
+
+    @Override
+    public int open(int row, int column) {
+        if (!isValid(row, column) || !claimOpen(row * columns + column)) {
+            return 0;
+        }
+        if (storage.isMine(row, column)) {
+            recordOpened(0, true);
+            return HIT_MINE;
+        }
+        int safe = 1;
+        if (storage.adjacentMines(row, column) == 0) {
+            long[] stack = new long[16];
+            int size = 0;
+            stack[size++] = pack(row, column);
+            int[] neighborRows = new int[topology.maxDegree()];
+            int[] neighborColumns = new int[topology.maxDegree()];
+            while (size > 0) {
+                long packed = stack[--size];
+                int neighbors = topology.neighbors((int) (packed >> 32), (int) packed, neighborRows, neighborColumns);
+                for (int i = 0; i < neighbors; i++) {
+                    int nr = neighborRows[i];
+                    int nc = neighborColumns[i];
+                    if (!claimOpen(nr * columns + nc)) {
+                        continue; // Открыта другим игроком или под флагом
+                    }
+                    safe++;
+                    if (storage.adjacentMines(nr, nc) == 0) {
+                        if (size == stack.length) {
+                            stack = Arrays.copyOf(stack, size * 2);
+                        }
+                        stack[size++] = pack(nr, nc);
+                    }
+                }
+            }
+        }
+        recordOpened(safe, false);
+        return safe;
+    }
+
+    @Override
+    public boolean toggleFlag(int row, int column) {
+        if (!isValid(row, column)) {
+            return false;
+        }
+        int index = row * columns + column;
+        byte cell = stateAt(index);
+        while ((cell & OPEN) == 0) {
+            byte witness = (byte) STATE.compareAndExchange(state, index, cell, (byte) (cell ^ FLAGGED));
+            if (witness == cell) {
+                flagged.add((cell & FLAGGED) != 0 ? -1 : 1);
+                return true;
+            }
+            cell = witness;
+        }
+        return false;
+    }
+
+    private static long pack(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,84 @@
+package minesweeper.model.shared;
+
+/**
+ * Поле для совместной игры, на котором одновременно ходят многие игроки из разных потоков.
+ * Расстановка мин во время игры не меняется (диверсанта и отмены ходов нет), меняются только
+ * открытие и флаги. Все методы потокобезопасны.
+ * <p>
+ * Подрыв на мине не заканчивает игру: мина открывается и учитывается в {@link #explosions()}.
+ * Поле считается расчищенным, когда открыты все ячейки без мин.
+ */
+public interface SharedMineField {
+    /**
+     * Результат {@link #open}: игрок открыл мину.
+     */
+    int HIT_MINE = -1;
+
+    /**
+     * @return Количество строк поля.
+     */
+    int rows();
+
+    /**
+     * @return Количество столбцов поля.
+     */
+    int columns();
+
+    /**
+     * Открывает закрытую ячейку без флага, а если у нее нет соседних мин — всю пустую область вокруг.
+     * Ячейку, которую одновременно открывают несколько игроков, открывает ровно один из них.
+     *
+     * @param row    Индекс строки.
+     * @param column Индекс столбца.
+     * @return Количество ячеек, открытых этим вызовом (0, если открывать нечего),
+     * или {@link #HIT_MINE}, если ячейка оказалась миной.
+     */
+    int open(int row, int column);
+
+    /**
+     * Ставит или снимает флаг на закрытой ячейке.
+     *
+     * @return {@code true}, если флаг переключен; {@code false}, если ячейка открыта или вне поля.
+     */
+    boolean toggleFlag(int row, int column);
+
+    /**
+     * @return {@code true}, если ячейка открыта.
+     */
+    boolean isOpen(int row, int column);
+
+    /**
+     * @return {@code true}, если на ячейке флаг.
+     */
+    boolean isFlagged(int row, int column);
+
+    /**
+     * @return {@code true}, если в ячейке мина.
+     */
+    boolean isMine(int row, int column);
+
+    /**
+     * @return Количество соседних мин ячейки.
+     */
+    int adjacentMines(int row, int column);
+
+    /**
+     * @return Количество открытых ячеек, включая открытые мины.
+     */
+    long openedCells();
+
+    /**
+     * @return Количество ячеек с флагом.
+     */
+    long flaggedCells();
+
+    /**
+     * @return Количество подрывов на минах.
+     */
+    long explosions();
+
+    /**
+     * @return {@code true}, если открыты все ячейки без мин.
+     */
+    boolean isCleared();
+}
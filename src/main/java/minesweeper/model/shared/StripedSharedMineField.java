@@ -0,0 +1,188 @@
+package minesweeper.model.shared;
+
+import minesweeper.model.MineField;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Совместное поле с блокировками по блокам. Поле делится на блоки {@value #CHUNK_SIZE}×{@value #CHUNK_SIZE}
+ * ячеек, блоки распределены по фиксированному набору блокировок (полосам); ячейка меняется только
+ * под блокировкой полосы своего блока. Ходы в разных частях поля идут параллельно.
+ * <p>
+ * Открытие пустой области может затронуть много блоков, которые заранее неизвестны. Заливка идет
+ * раундами: в раунде берутся блокировки всех нужных полос строго по возрастанию номера (общий
+ * порядок исключает взаимную блокировку), заливка проходит внутри них, а ячейки из чужих полос
+ * откладываются до следующего раунда. Между раундами все блокировки отпускаются, поэтому
+ * большая заливка не останавливает остальных игроков надолго. Другие игроки могут открыть часть
+ * области раньше: такие ячейки просто пропускаются.
+ */
+public final class StripedSharedMineField extends AbstractSharedMineField {
+    /**
+     * Двоичный логарифм стороны блока.
+     */
+    public static final int CHUNK_SHIFT = 6;
+    /**
+     * Сторона блока в ячейках.
+     */
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    /**
+     * Количество полос блокировок по умолчанию.
+     */
+    public static final int DEFAULT_STRIPES = 256;
+
+    private final ReentrantLock[] locks;
+    private final int stripeMask;
+    private final int chunkColumns;
+
+    /**
+     * Создает поле с количеством полос по умолчанию.
+     *
+     * @param field Поле с расставленными минами.
+     */
+    public StripedSharedMineField(MineField field) {
+        this(field, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Создает поле с заданным количеством полос блокировок.
+     *
+     * @param field   Поле с расставленными минами.
+     * @param stripes Количество полос, степень двойки.
+     * @throws IllegalArgumentException если количество полос не степень двойки.
+     */
+    public StripedSharedMineField(MineField field, int stripes) {
+        super(field);
+        if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Количество полос должно быть степенью двойки: " + stripes);
+        }
+        this.locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.stripeMask = stripes - 1;
+        this.chunkColumns = (columns + CHUNK_SIZE - 1) >>> CHUNK_SHIFT;
+    }
+
+    private int stripeOf(int row, int column) {
+        return ((row >>> CHUNK_SHIFT) * chunkColumns + (column >>> CHUNK_SHIFT)) & stripeMask;
+    }
+
+    @Override
+    public int open(int row, int column) {
+        if (!isValid(row, column) || (stateAt(row * columns + column) & (OPEN | FLAGGED)) != 0) {
+            return 0;
+        }
+        long[] pending = {pack(row, column)};
+        int pendingSize = 1;
+        long[] stack = new long[16];
+        int[] neighborRows = new int[topology.maxDegree()];
+        int[] neighborColumns = new int[topology.maxDegree()];
+        int safe = 0;
+        while (pendingSize > 0) {
+            int[] stripes = stripesOf(pending, pendingSize);
+            for (int stripe : stripes) {
+                locks[stripe].lock(); // По возрастанию номера
+            }
+            long[] deferred = new long[16];
+            int deferredSize = 0;
+            try {
+                if (stack.length < pendingSize) {
+                    stack = new long[pendingSize];
+                }
+                System.arraycopy(pending, 0, stack, 0, pendingSize);
+                int size = pendingSize;
+                while (size > 0) {
+                    long packed = stack[--size];
+                    int r = (int) (packed >> 32);
+                    int c = (int) packed;
+                    if (Arrays.binarySearch(stripes, stripeOf(r, c)) < 0) {
+                        if (deferredSize == deferred.length) {
+                            deferred = Arrays.copyOf(deferred, deferredSize * 2);
+                        }
+                        deferred[deferredSize++] = packed; // Откроем в следующем раунде
+                        continue;
+                    }
+                    int index = r * columns + c;
+                    byte cell = state[index];
+                    if ((cell & (OPEN | FLAGGED)) != 0) {
+                        continue; // Открыта другим игроком или под флагом
+                    }
+                    STATE.setRelease(state, index, (byte) (cell | OPEN));
+                    if (storage.isMine(r, c)) {
+                        // Миной может быть только сама ячейка хода: соседи пустых ячеек не мины
+                        recordOpened(0, true);
+                        return HIT_MINE;
+                    }
+                    safe++;
+                    if (storage.adjacentMines(r, c) != 0) {
+                        continue;
+                    }
+                    int neighbors = topology.neighbors(r, c, neighborRows, neighborColumns);
+                    for (int i = 0; i < neighbors; i++) {
+                        int nr = neighborRows[i];
+                        int nc = neighborColumns[i];
+                        // Чтение без блокировки лишь отсеивает заведомо открытые; проверка — при извлечении
+                        if ((stateAt(nr * columns + nc) & (OPEN | FLAGGED)) == 0) {
+                            if (size == stack.length) {
+                                stack = Arrays.copyOf(stack, size * 2);
+                            }
+                            stack[size++] = pack(nr, nc);
+                        }
+                    }
+                }
+            } finally {
+                for (int i = stripes.length - 1; i >= 0; i--) {
+                    locks[stripes[i]].unlock();
+                }
+            }
+            pending = deferred;
+            pendingSize = deferredSize;
+        }
+        recordOpened(safe, false);
+        return safe;
+    }
+
+    /**
+     * @return Номера полос ячеек без повторов, по возрастанию.
+     */
+    private int[] stripesOf(long[] cells, int count) {
+        int[] stripes = new int[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = stripeOf((int) (cells[i] >> 32), (int) cells[i]);
+        }
+        Arrays.sort(stripes);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || stripes[unique - 1] != stripes[i]) {
+                stripes[unique++] = stripes[i];
+            }
+        }
+        return unique == count ? stripes : Arrays.copyOf(stripes, unique);
+    }
+
+    @Override
+    public boolean toggleFlag(int row, int column) {
+        if (!isValid(row, column)) {
+            return false;
+        }
+        ReentrantLock lock = locks[stripeOf(row, column)];
+        lock.lock();
+        try {
+            int index = row * columns + column;
+            byte cell = state[index];
+            if ((cell & OPEN) != 0) {
+                return false;
+            }
+            STATE.setRelease(state, index, (byte) (cell ^ FLAGGED));
+            flagged.add((cell & FLAGGED) != 0 ? -1 : 1);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long pack(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+}
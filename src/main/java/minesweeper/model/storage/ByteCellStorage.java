@@ -0,0 +1,139 @@
+package minesweeper.model.storage;
+
+import java.util.Arrays;
+
+/**
+ * Основа для плотных хранилищ в куче с одним байтом на ячейку (см. {@link CellBits}).
+ * Подклассы определяют только раскладку ячеек в массиве через {@link #index(int, int)},
+ * поэтому разные раскладки можно сравнивать на одной и той же игровой логике.
+ */
+public abstract class ByteCellStorage implements CellStorage {
+    private final int rows;
+    private final int columns;
+    /**
+     * Состояния ячеек в раскладке подкласса.
+     */
+    final byte[] cells;
+    /**
+     * Количество открытых ячеек.
+     */
+    private long openCount;
+
+    /**
+     * @param rows     Количество строк.
+     * @param columns  Количество столбцов.
+     * @param capacity Размер массива ячеек с учетом выравнивания раскладки.
+     */
+    ByteCellStorage(int rows, int columns, long capacity) {
+        if (rows <= 0 || columns <= 0) {
+            throw new IllegalArgumentException("Размеры поля должны быть положительными.");
+        }
+        if (capacity > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Слишком большое поле для хранилища в куче.");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.cells = new byte[(int) capacity];
+    }
+
+    /**
+     * Переводит координаты ячейки в индекс массива {@link #cells}.
+     *
+     * @return Индекс байта ячейки.
+     */
+    abstract int index(int row, int column);
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int columns() {
+        return columns;
+    }
+
+    @Override
+    public boolean isMine(int row, int column) {
+        return (cells[index(row, column)] & CellBits.MINE) != 0;
+    }
+
+    @Override
+    public void setMine(int row, int column, boolean mine) {
+        int i = index(row, column);
+        cells[i] = (byte) CellBits.withFlag(cells[i], CellBits.MINE, mine);
+    }
+
+    @Override
+    public boolean isOpen(int row, int column) {
+        return (cells[index(row, column)] & CellBits.OPEN) != 0;
+    }
+
+    @Override
+    public void setOpen(int row, int column, boolean open) {
+        int i = index(row, column);
+        if (((cells[i] & CellBits.OPEN) != 0) != open) {
+            openCount += open ? 1 : -1;
+        }
+        cells[i] = (byte) CellBits.withOpen(cells[i], open);
+    }
+
+    @Override
+    public boolean isFlagged(int row, int column) {
+        return (cells[index(row, column)] & CellBits.FLAGGED) != 0;
+    }
+
+    @Override
+    public void setFlagged(int row, int column, boolean flagged) {
+        int i = index(row, column);
+        cells[i] = (byte) CellBits.withFlag(cells[i], CellBits.FLAGGED, flagged);
+    }
+
+    @Override
+    public int adjacentMines(int row, int column) {
+        return CellBits.adjacent(cells[index(row, column)]);
+    }
+
+    @Override
+    public void setAdjacentMines(int row, int column, int count) {
+        int i = index(row, column);
+        cells[i] = (byte) CellBits.withAdjacent(cells[i], count);
+    }
+
+    @Override
+    public int maxAdjacentMines() {
+        return CellBits.MAX_ADJACENT;
+    }
+
+    /**
+     * Пишет байты ячеек напрямую, сохраняя биты количества соседних мин.
+     */
+    @Override
+    public void setCells(long first, int count, long mines, long open, long flagged) {
+        int row = (int) (first / columns);
+        int column = (int) (first % columns);
+        for (int i = 0; i < count; i++) {
+            int index = index(row, column);
+            int state = (int) ((mines >>> i & 1) * CellBits.MINE
+                    | (open >>> i & 1) * CellBits.OPEN
+                    | (flagged >>> i & 1) * CellBits.FLAGGED);
+            openCount += ((state & CellBits.OPEN) >> 1) - ((cells[index] & CellBits.OPEN) >> 1);
+            cells[index] = (byte) ((cells[index] & ~CellBits.STATE_MASK) | state);
+            if (++column == columns) {
+                column = 0;
+                row++;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(cells, (byte) 0);
+        openCount = 0;
+    }
+
+    @Override
+    public long countOpen() {
+        return openCount;
+    }
+}
@@ -0,0 +1,53 @@
+package minesweeper.model.storage;
+
+/**
+ * Упаковка состояния ячейки в один байт для байтовых хранилищ.
+ * Младшие биты — признаки мины, открытия и флага; старшие четыре бита — количество
+ * соседних мин. Для мины количество соседей всегда читается как -1.
+ * Хранилища, вычисляющие соседей на лету, старшие биты не используют.
+ * Нулевой байт означает закрытую ячейку без мины и флага.
+ */
+final class CellBits {
+    static final int MINE = 1;
+    static final int OPEN = 1 << 1;
+    static final int FLAGGED = 1 << 2;
+    static final int ADJACENT_SHIFT = 4;
+    /**
+     * Наибольшее количество соседних мин, которое помещается в старшие четыре бита.
+     */
+    static final int MAX_ADJACENT = 15;
+    static final int STATE_MASK = MINE | OPEN | FLAGGED;
+
+    private CellBits() {
+    }
+
+    static int withFlag(int state, int flag, boolean value) {
+        return value ? state | flag : state & ~flag;
+    }
+
+    /**
+     * Открывает или закрывает ячейку; открытие снимает флаг.
+     */
+    static int withOpen(int state, boolean open) {
+        return open ? (state | OPEN) & ~FLAGGED : state & ~OPEN;
+    }
+
+    /**
+     * @return -1 для мины, иначе количество соседних мин, сохраненное в старших битах.
+     */
+    static int adjacent(int state) {
+        return (state & MINE) != 0 ? -1 : (state & 0xFF) >>> ADJACENT_SHIFT;
+    }
+
+    /**
+     * Сохраняет количество соседних мин. Отрицательное значение (мина) хранится как 0.
+     *
+     * @throws IllegalArgumentException если количество больше {@link #MAX_ADJACENT}.
+     */
+    static int withAdjacent(int state, int count) {
+        if (count > MAX_ADJACENT) {
+            throw new IllegalArgumentException("Количество соседних мин не помещается в байт ячейки: " + count);
+        }
+        return (state & STATE_MASK) | (Math.max(0, count) << ADJACENT_SHIFT);
+    }
+}
@@ -0,0 +1,216 @@
+package minesweeper.model.storage;
+
+import minesweeper.model.MineCell;
+
+/**
+ * Хранилище состояния ячеек игрового поля.
+ * {@link minesweeper.model.MineField} работает с ячейками только через этот интерфейс,
+ * поэтому способ хранения (объекты {@link MineCell}, упакованные байты, вычисление по зерну и т.д.)
+ * выбирается при создании поля и не влияет на игровую логику.
+ * <p>
+ * Все методы принимают координаты, уже проверенные вызывающей стороной
+ * (0 ≤ row &lt; {@link #rows()}, 0 ≤ column &lt; {@link #columns()}).
+ */
+public interface CellStorage {
+    /**
+     * @return Количество строк.
+     */
+    int rows();
+
+    /**
+     * @return Количество столбцов.
+     */
+    int columns();
+
+    /**
+     * @return {@code true}, если в ячейке находится мина.
+     */
+    boolean isMine(int row, int column);
+
+    /**
+     * Устанавливает или убирает мину в ячейке.
+     */
+    void setMine(int row, int column, boolean mine);
+
+    /**
+     * @return {@code true}, если ячейка открыта.
+     */
+    boolean isOpen(int row, int column);
+
+    /**
+     * Открывает или закрывает ячейку. Открытие снимает флаг, как в {@link MineCell#setOpen(boolean)}.
+     */
+    void setOpen(int row, int column, boolean open);
+
+    /**
+     * @return {@code true}, если на ячейке стоит флаг.
+     */
+    boolean isFlagged(int row, int column);
+
+    /**
+     * Устанавливает или снимает флаг без дополнительных проверок.
+     */
+    void setFlagged(int row, int column, boolean flagged);
+
+    /**
+     * @return Количество мин в соседних ячейках или -1 для мины.
+     */
+    int adjacentMines(int row, int column);
+
+    /**
+     * Сохраняет количество соседних мин. Хранилища, для которых {@link #derivesAdjacentMines()}
+     * возвращает {@code true}, игнорируют этот вызов.
+     */
+    void setAdjacentMines(int row, int column, int count);
+
+    /**
+     * Возвращает все ячейки в начальное состояние: закрыты, без мин и флагов.
+     */
+    void clear();
+
+    /**
+     * Показывает, вычисляет ли хранилище количество соседних мин само при каждом запросе.
+     * В этом случае поле не выполняет полный пересчет соседей после изменения мин.
+     *
+     * @return {@code true}, если {@link #adjacentMines(int, int)} вычисляется по минам на лету.
+     */
+    default boolean derivesAdjacentMines() {
+        return false;
+    }
+
+    /**
+     * Возвращает наибольшее количество соседних мин, которое хранилище может сохранить.
+     * Поле не создается с топологией, у которой соседей больше: счетчики были бы искажены.
+     *
+     * @return Предел для {@link #setAdjacentMines(int, int, int)}.
+     */
+    default int maxAdjacentMines() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Возвращает примерное наибольшее количество ячеек, которое открывает одна заливка пустой области
+     * (см. {@link minesweeper.model.MineField#openCellRecursive}). Хранилища практически бесконечных
+     * полей ограничивают заливку, чтобы один ход не открывал поле без конца; открытые пустые ячейки
+     * на границе остановленной заливки остаются с закрытыми соседями.
+     *
+     * @return Ограничение или {@link Integer#MAX_VALUE}, если заливка не ограничена.
+     */
+    default int revealLimit() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Показывает, задает ли хранилище расстановку мин само (например, функцией от зерна).
+     * Для таких хранилищ {@link minesweeper.model.MineField#placeMinesOnNewField()} ничего не делает.
+     *
+     * @return {@code true}, если мины не нужно размещать.
+     */
+    default boolean generatesMines() {
+        return false;
+    }
+
+    /**
+     * Подсчитывает открытые ячейки. Реализация по умолчанию просматривает все поле;
+     * хранилища, знающие это число, переопределяют метод.
+     *
+     * @return Количество открытых ячеек.
+     */
+    default long countOpen() {
+        long count = 0;
+        for (int r = 0; r < rows(); r++) {
+            for (int c = 0; c < columns(); c++) {
+                if (isOpen(r, c)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Записывает мины, открытие и флаги для {@code count} (до 64) ячеек подряд в построчном порядке,
+     * начиная с ячейки с линейным индексом {@code first} (строка × столбцы + столбец).
+     * Бит {@code i} каждой маски относится к ячейке {@code first + i}. Количество соседних мин
+     * не пересчитывается. Используется при массовой загрузке поля; реализация по умолчанию
+     * вызывает сеттеры для каждой ячейки, байтовые хранилища пишут байты напрямую.
+     *
+     * @param first   Линейный индекс первой ячейки.
+     * @param count   Количество ячеек, от 1 до 64.
+     * @param mines   Биты мин.
+     * @param open    Биты открытых ячеек.
+     * @param flagged Биты флагов.
+     */
+    default void setCells(long first, int count, long mines, long open, long flagged) {
+        int row = (int) (first / columns());
+        int column = (int) (first % columns());
+        for (int i = 0; i < count; i++) {
+            setMine(row, column, (mines >>> i & 1) != 0);
+            setOpen(row, column, (open >>> i & 1) != 0);
+            setFlagged(row, column, (flagged >>> i & 1) != 0);
+            if (++column == columns()) {
+                column = 0;
+                row++;
+            }
+        }
+    }
+
+    /**
+     * Возвращает объект {@link MineCell} для ячейки. По умолчанию это легковесное представление,
+     * которое читает и изменяет состояние прямо в хранилище; новое при каждом вызове.
+     *
+     * @return Ячейка по указанным координатам.
+     */
+    default MineCell cell(int row, int column) {
+        return new StoredMineCell(this, row, column);
+    }
+
+    /**
+     * Создает независимую изменяемую копию хранилища: изменения копии не видны в оригинале и наоборот.
+     * Реализация по умолчанию копирует все ячейки в {@link PackedCellStorage}
+     * (или в {@link ChunkedCellStorage} для полей, не помещающихся в один массив) — это O(N)
+     * по времени и памяти на каждый вызов; хранилища, умеющие разделять память с копией
+     * ({@link ChunkedCellStorage}, {@link SparseMineCellStorage}, {@link ProceduralCellStorage}),
+     * переопределяют метод. Вызывать копию по умолчанию на каждом ходу не следует.
+     *
+     * @return Копия хранилища.
+     */
+    default CellStorage fork() {
+        long area = (long) rows() * columns();
+        CellStorage copy = area <= Integer.MAX_VALUE - 8
+                ? new PackedCellStorage(rows(), columns())
+                : new ChunkedCellStorage(rows(), columns());
+        for (int r = 0; r < rows(); r++) {
+            for (int c = 0; c < columns(); c++) {
+                copy.setMine(r, c, isMine(r, c));
+                copy.setAdjacentMines(r, c, adjacentMines(r, c));
+                copy.setOpen(r, c, isOpen(r, c));
+                copy.setFlagged(r, c, isFlagged(r, c));
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Возвращает неизменяемый снимок текущего состояния. Снимок не меняется при дальнейших
+     * изменениях хранилища, его можно читать из других потоков, а методы записи снимка
+     * бросают {@link UnsupportedOperationException}. Стоимость та же, что у {@link #fork()}:
+     * по умолчанию это полная копия.
+     *
+     * @return Снимок хранилища.
+     */
+    default CellStorage snapshot() {
+        return new ReadOnlyCellStorage(fork());
+    }
+
+    /**
+     * Показывает, разделяет ли {@link #fork()} память с копией, то есть стоит ли копия
+     * меньше, чем чтение всех ячеек. Тогда снимок можно снимать хоть на каждом ходу,
+     * а читать его потом в другом потоке.
+     *
+     * @return {@code true}, если {@link #fork()} и {@link #snapshot()} не копируют ячейки целиком.
+     */
+    default boolean forksCheaply() {
+        return false;
+    }
+}
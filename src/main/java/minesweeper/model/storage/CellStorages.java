@@ -0,0 +1,53 @@
+package minesweeper.model.storage;
+
+/**
+ * Выбор хранилища ячеек по размеру поля и плотности мин.
+ */
+public final class CellStorages {
+    /**
+     * Плотность мин, ниже которой слой мин выгоднее хранить сжатым множеством.
+     */
+    public static final double SPARSE_DENSITY_THRESHOLD = 1.0 / 64;
+    /**
+     * Площадь поля, начиная с которой имеет смысл экономить память на слое мин.
+     */
+    public static final long SPARSE_MIN_AREA = 1L << 20;
+    /**
+     * Наибольшая площадь поля, которое помещается в один массив байтов.
+     */
+    private static final long MAX_PACKED_AREA = Integer.MAX_VALUE - 8;
+
+    private CellStorages() {
+    }
+
+    /**
+     * Подбирает хранилище для поля:
+     * <ul>
+     *   <li>большое поле с плотностью ниже {@link #SPARSE_DENSITY_THRESHOLD} — {@link SparseMineCellStorage};</li>
+     *   <li>поле, помещающееся в один массив, — {@link PackedCellStorage};</li>
+     *   <li>остальные — {@link ChunkedCellStorage}.</li>
+     * </ul>
+     *
+     * @param rows    Количество строк.
+     * @param columns Количество столбцов.
+     * @param mines   Количество мин.
+     * @return Новое пустое хранилище.
+     * @throws IllegalArgumentException если размеры не положительны или количество мин некорректно.
+     */
+    public static CellStorage forDensity(int rows, int columns, long mines) {
+        if (rows <= 0 || columns <= 0) {
+            throw new IllegalArgumentException("Размеры поля должны быть положительными.");
+        }
+        long area = (long) rows * columns;
+        if (mines < 0 || mines > area) {
+            throw new IllegalArgumentException("Некорректное количество мин.");
+        }
+        if (area >= SPARSE_MIN_AREA && mines < area * SPARSE_DENSITY_THRESHOLD) {
+            return new SparseMineCellStorage(rows, columns);
+        }
+        if (area <= MAX_PACKED_AREA) {
+            return new PackedCellStorage(rows, columns);
+        }
+        return new ChunkedCellStorage(rows, columns);
+    }
+}
@@ -0,0 +1,273 @@
+package minesweeper.model.storage;
+
+import java.util.Arrays;
+
+/**
+ * Разреженное хранилище, разбитое на квадратные блоки 64×64 ячейки по байту на ячейку.
+ * Блок выделяется только при первой записи в него (размещение мины, открытие, флаг);
+ * до этого все нетронутые блоки ссылаются на общий неизменяемый блок-заглушку
+ * "все закрыто". Поэтому очень широкие поля, на которых игроки исследуют малую часть,
+ * не требуют памяти на rows×columns ячеек заранее.
+ * <p>
+ * Количество соседних мин не хранится, а вычисляется по битам мин при каждом запросе:
+ * иначе полный пересчет соседей выделил бы все блоки поля. Доступ к соседу через
+ * границу блока стоит лишь одного дополнительного чтения из каталога блоков.
+ * <p>
+ * Выделение блоков безопасно при одновременной записи из нескольких потоков
+ * (например, при {@link minesweeper.model.MineField.GenerationMode#PARALLEL_STRIPES}),
+ * если потоки пишут в разные ячейки. Счетчик открытых ячеек рассчитан на один пишущий поток.
+ * <p>
+ * Копия ({@link #fork()}) и снимок ({@link #snapshot()}) создаются без копирования ячеек:
+ * копируется только каталог блоков, а сами блоки становятся общими. Каждый блок помечен эпохой,
+ * в которой он принадлежит хранилищу единолично; создание копии начинает новую эпоху,
+ * и первая запись в общий блок копирует его (copy-on-write). Копирование при записи
+ * рассчитано на один пишущий поток.
+ */
+public class ChunkedCellStorage implements CellStorage {
+    /**
+     * Двоичный логарифм стороны блока.
+     */
+    static final int CHUNK_SHIFT = 6;
+    /**
+     * Сторона блока в ячейках.
+     */
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    /**
+     * Общий блок-заглушка для нетронутых блоков. Никогда не изменяется.
+     */
+    private static final byte[] EMPTY_CHUNK = new byte[CHUNK_SIZE * CHUNK_SIZE];
+
+    private final int rows;
+    private final int columns;
+    /**
+     * Количество блоков по горизонтали.
+     */
+    private final int chunkColumns;
+    /**
+     * Каталог блоков в построчном порядке; нетронутые блоки ссылаются на {@link #EMPTY_CHUNK}.
+     */
+    private final byte[][] chunks;
+    /**
+     * Эпоха, в которой выделен или скопирован каждый блок. Блоки более ранних эпох
+     * могут быть общими с копиями и перед записью копируются.
+     */
+    private final int[] chunkEpochs;
+    /**
+     * Текущая эпоха; увеличивается при каждом создании копии.
+     */
+    private int epoch;
+    /**
+     * Количество открытых ячеек.
+     */
+    private long openCount;
+
+    /**
+     * Создает хранилище, в котором ни один блок еще не выделен.
+     *
+     * @param rows    Количество строк.
+     * @param columns Количество столбцов.
+     * @throws IllegalArgumentException если размеры не положительны или каталог блоков слишком велик.
+     */
+    public ChunkedCellStorage(int rows, int columns) {
+        if (rows <= 0 || columns <= 0) {
+            throw new IllegalArgumentException("Размеры поля должны быть положительными.");
+        }
+        long chunkRows = ((long) rows + CHUNK_MASK) >> CHUNK_SHIFT;
+        long chunkCount = chunkRows * (((long) columns + CHUNK_MASK) >> CHUNK_SHIFT);
+        if (chunkCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Слишком большое поле для блочного хранилища.");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.chunkColumns = (columns + CHUNK_MASK) >>> CHUNK_SHIFT;
+        this.chunks = new byte[(int) chunkCount][];
+        this.chunkEpochs = new int[(int) chunkCount];
+        Arrays.fill(chunks, EMPTY_CHUNK);
+    }
+
+    /**
+     * Создает копию, разделяющую с {@code source} все блоки.
+     */
+    private ChunkedCellStorage(ChunkedCellStorage source) {
+        this.rows = source.rows;
+        this.columns = source.columns;
+        this.chunkColumns = source.chunkColumns;
+        this.chunks = source.chunks.clone();
+        this.chunkEpochs = source.chunkEpochs.clone();
+        this.openCount = source.openCount;
+        this.epoch = source.epoch;
+    }
+
+    /**
+     * @return Количество блоков, для которых выделена память.
+     */
+    public int materializedChunkCount() {
+        int count = 0;
+        for (byte[] chunk : chunks) {
+            if (chunk != EMPTY_CHUNK) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int columns() {
+        return columns;
+    }
+
+    @Override
+    public boolean isMine(int row, int column) {
+        return (read(row, column) & CellBits.MINE) != 0;
+    }
+
+    @Override
+    public void setMine(int row, int column, boolean mine) {
+        write(row, column, CellBits.withFlag(read(row, column), CellBits.MINE, mine));
+    }
+
+    @Override
+    public boolean isOpen(int row, int column) {
+        return (read(row, column) & CellBits.OPEN) != 0;
+    }
+
+    @Override
+    public void setOpen(int row, int column, boolean open) {
+        int state = read(row, column);
+        if (((state & CellBits.OPEN) != 0) != open) {
+            openCount += open ? 1 : -1;
+        }
+        write(row, column, CellBits.withOpen(state, open));
+    }
+
+    @Override
+    public boolean isFlagged(int row, int column) {
+        return (read(row, column) & CellBits.FLAGGED) != 0;
+    }
+
+    @Override
+    public void setFlagged(int row, int column, boolean flagged) {
+        write(row, column, CellBits.withFlag(read(row, column), CellBits.FLAGGED, flagged));
+    }
+
+    @Override
+    public int adjacentMines(int row, int column) {
+        if (isMine(row, column)) {
+            return -1;
+        }
+        int count = 0;
+        for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+            for (int c = Math.max(0, column - 1); c <= Math.min(columns - 1, column + 1); c++) {
+                if ((read(r, c) & CellBits.MINE) != 0) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Ничего не делает: количество соседних мин вычисляется по битам мин.
+     */
+    @Override
+    public void setAdjacentMines(int row, int column, int count) {
+    }
+
+    /**
+     * Возвращает все блоки к заглушке, освобождая выделенную под них память.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(chunks, EMPTY_CHUNK);
+        openCount = 0;
+    }
+
+    @Override
+    public boolean derivesAdjacentMines() {
+        return true;
+    }
+
+    @Override
+    public long countOpen() {
+        return openCount;
+    }
+
+    @Override
+    public boolean forksCheaply() {
+        return true;
+    }
+
+    /**
+     * Создает копию за время, пропорциональное числу блоков, а не ячеек: блоки становятся общими
+     * и копируются той стороной, которая первой запишет в них.
+     */
+    @Override
+    public synchronized ChunkedCellStorage fork() {
+        ChunkedCellStorage copy = new ChunkedCellStorage(this);
+        epoch++;
+        copy.epoch = epoch;
+        return copy;
+    }
+
+    /**
+     * Возвращает количество блоков, которые выделены и физически общие с {@code other}.
+     */
+    int sharedChunkCount(ChunkedCellStorage other) {
+        int count = 0;
+        for (int i = 0; i < chunks.length && i < other.chunks.length; i++) {
+            if (chunks[i] != EMPTY_CHUNK && chunks[i] == other.chunks[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int read(int row, int column) {
+        return chunks[chunkIndex(row, column)][offset(row, column)];
+    }
+
+    private void write(int row, int column, int state) {
+        int index = chunkIndex(row, column);
+        byte[] chunk = chunks[index];
+        if (chunk == EMPTY_CHUNK) {
+            if (state == 0) {
+                return; // Нетронутый блок и так хранит нули
+            }
+            chunk = materialize(index);
+        } else if (chunkEpochs[index] != epoch) {
+            chunk = materialize(index); // Блок может быть общим с копией
+        }
+        chunk[offset(row, column)] = (byte) state;
+    }
+
+    /**
+     * Выделяет блок или копирует общий блок, если этого еще не сделал другой поток.
+     */
+    private synchronized byte[] materialize(int index) {
+        byte[] chunk = chunks[index];
+        if (chunk == EMPTY_CHUNK) {
+            chunk = new byte[CHUNK_SIZE * CHUNK_SIZE];
+        } else if (chunkEpochs[index] != epoch) {
+            chunk = chunk.clone();
+        } else {
+            return chunk;
+        }
+        chunks[index] = chunk;
+        chunkEpochs[index] = epoch;
+        return chunk;
+    }
+
+    private int chunkIndex(int row, int column) {
+        return (row >>> CHUNK_SHIFT) * chunkColumns + (column >>> CHUNK_SHIFT);
+    }
+
+    private static int offset(int row, int column) {
+        return ((row & CHUNK_MASK) << CHUNK_SHIFT) | (column & CHUNK_MASK);
+    }
+}
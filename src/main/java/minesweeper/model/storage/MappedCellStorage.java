@@ -0,0 +1,238 @@
+package minesweeper.model.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Хранилище вне кучи: состояние ячеек лежит в файле, отображенном в память
+ * через {@link FileChannel#map}, по одному байту на ячейку (см. {@link CellBits}).
+ * Подходит для полей из миллиардов ячеек: данные не нагружают сборщик мусора,
+ * а операционная система подгружает страницы файла по мере обращения к ним.
+ * Существующий файл поля открывается мгновенно методом {@link #open(Path)}.
+ * <p>
+ * Файл начинается с заголовка из {@value #HEADER_SIZE} байт: сигнатура, версия,
+ * размеры поля и счетчик открытых ячеек; далее ячейки в построчном порядке.
+ * Так как один {@link MappedByteBuffer} ограничен 2 ГБ, файл отображается сегментами по 1 ГБ.
+ */
+public class MappedCellStorage implements CellStorage, Closeable {
+    /**
+     * Сигнатура файла поля ("MSWPCELL").
+     */
+    private static final long MAGIC = 0x4D535750_43454C4CL;
+    private static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    private static final int ROWS_OFFSET = 12;
+    private static final int COLUMNS_OFFSET = 16;
+    private static final int OPEN_COUNT_OFFSET = 24;
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final int rows;
+    private final int columns;
+    /**
+     * Количество открытых ячеек; копия значения из заголовка файла.
+     */
+    private long openCount;
+
+    private MappedCellStorage(FileChannel channel, int rows, int columns) throws IOException {
+        this.channel = channel;
+        this.rows = rows;
+        this.columns = columns;
+        long size = HEADER_SIZE + (long) rows * columns;
+        this.segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+        for (int i = 0; i < segments.length; i++) {
+            long position = (long) i << SEGMENT_SHIFT;
+            segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.min(SEGMENT_SIZE, size - position));
+            segments[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Создает новый файл поля (или перезаписывает существующий) со всеми ячейками в начальном состоянии.
+     *
+     * @param file    Путь к файлу поля.
+     * @param rows    Количество строк.
+     * @param columns Количество столбцов.
+     * @return Хранилище, отображенное на созданный файл.
+     * @throws IOException              при ошибке ввода-вывода.
+     * @throws IllegalArgumentException если размеры не положительны.
+     */
+    public static MappedCellStorage create(Path file, int rows, int columns) throws IOException {
+        if (rows <= 0 || columns <= 0) {
+            throw new IllegalArgumentException("Размеры поля должны быть положительными.");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            // Файл расширяется без записи данных; новые байты читаются как нули (закрытые ячейки)
+            channel.position(HEADER_SIZE + (long) rows * columns - 1);
+            channel.write(ByteBuffer.wrap(new byte[1]));
+            MappedCellStorage storage = new MappedCellStorage(channel, rows, columns);
+            MappedByteBuffer header = storage.segments[0];
+            header.putLong(0, MAGIC);
+            header.putInt(8, VERSION);
+            header.putInt(ROWS_OFFSET, rows);
+            header.putInt(COLUMNS_OFFSET, columns);
+            header.putLong(OPEN_COUNT_OFFSET, 0);
+            return storage;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Открывает существующий файл поля. Ячейки не читаются заранее, а подгружаются при обращении.
+     *
+     * @param file Путь к файлу поля.
+     * @return Хранилище, отображенное на файл.
+     * @throws IOException при ошибке ввода-вывода или если файл не является файлом поля.
+     */
+    public static MappedCellStorage open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // Читаем заголовок целиком
+            }
+            if (header.hasRemaining() || header.getLong(0) != MAGIC || header.getInt(8) != VERSION) {
+                throw new IOException("Файл не является файлом поля: " + file);
+            }
+            int rows = header.getInt(ROWS_OFFSET);
+            int columns = header.getInt(COLUMNS_OFFSET);
+            if (rows <= 0 || columns <= 0 || channel.size() < HEADER_SIZE + (long) rows * columns) {
+                throw new IOException("Поврежден заголовок файла поля: " + file);
+            }
+            MappedCellStorage storage = new MappedCellStorage(channel, rows, columns);
+            storage.openCount = header.getLong(OPEN_COUNT_OFFSET);
+            return storage;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Принудительно записывает измененные страницы на диск.
+     */
+    public void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Записывает изменения на диск и закрывает файл. Хранилище после этого использовать нельзя.
+     *
+     * @throws IOException при ошибке закрытия файла.
+     */
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int columns() {
+        return columns;
+    }
+
+    @Override
+    public boolean isMine(int row, int column) {
+        return (read(row, column) & CellBits.MINE) != 0;
+    }
+
+    @Override
+    public void setMine(int row, int column, boolean mine) {
+        write(row, column, CellBits.withFlag(read(row, column), CellBits.MINE, mine));
+    }
+
+    @Override
+    public boolean isOpen(int row, int column) {
+        return (read(row, column) & CellBits.OPEN) != 0;
+    }
+
+    @Override
+    public void setOpen(int row, int column, boolean open) {
+        int state = read(row, column);
+        if (((state & CellBits.OPEN) != 0) != open) {
+            openCount += open ? 1 : -1;
+            segments[0].putLong(OPEN_COUNT_OFFSET, openCount);
+        }
+        write(row, column, CellBits.withOpen(state, open));
+    }
+
+    @Override
+    public boolean isFlagged(int row, int column) {
+        return (read(row, column) & CellBits.FLAGGED) != 0;
+    }
+
+    @Override
+    public void setFlagged(int row, int column, boolean flagged) {
+        write(row, column, CellBits.withFlag(read(row, column), CellBits.FLAGGED, flagged));
+    }
+
+    @Override
+    public int adjacentMines(int row, int column) {
+        return CellBits.adjacent(read(row, column));
+    }
+
+    @Override
+    public void setAdjacentMines(int row, int column, int count) {
+        write(row, column, CellBits.withAdjacent(read(row, column), count));
+    }
+
+    @Override
+    public int maxAdjacentMines() {
+        return CellBits.MAX_ADJACENT;
+    }
+
+    /**
+     * Обнуляет все ячейки файла. Затрагивает каждую страницу, поэтому для огромных полей
+     * дешевле создать новый файл через {@link #create(Path, int, int)}.
+     */
+    @Override
+    public void clear() {
+        byte[] zeros = new byte[64 * 1024];
+        for (int i = 0; i < segments.length; i++) {
+            MappedByteBuffer segment = segments[i];
+            int position = i == 0 ? HEADER_SIZE : 0;
+            while (position < segment.limit()) {
+                int length = Math.min(zeros.length, segment.limit() - position);
+                segment.put(position, zeros, 0, length);
+                position += length;
+            }
+        }
+        openCount = 0;
+        segments[0].putLong(OPEN_COUNT_OFFSET, 0);
+    }
+
+    @Override
+    public long countOpen() {
+        return openCount;
+    }
+
+    private int read(int row, int column) {
+        long index = HEADER_SIZE + (long) row * columns + column;
+        return segments[(int) (index >>> SEGMENT_SHIFT)].get((int) (index & SEGMENT_MASK));
+    }
+
+    private void write(int row, int column, int state) {
+        long index = HEADER_SIZE + (long) row * columns + column;
+        segments[(int) (index >>> SEGMENT_SHIFT)].put((int) (index & SEGMENT_MASK), (byte) state);
+    }
+}
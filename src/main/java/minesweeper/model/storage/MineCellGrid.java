@@ -0,0 +1,128 @@
+package minesweeper.model.storage;
+
+import minesweeper.model.MineCell;
+import minesweeper.model.navigation.CellPosition;
+
+/**
+ * Хранилище по умолчанию: двумерный массив объектов {@link MineCell}.
+ * Метод {@link #cell(int, int)} возвращает сами объекты ячеек, поэтому ссылка,
+ * полученная через {@link minesweeper.model.MineField#getCell(CellPosition)},
+ * остается действительной на все время жизни поля.
+ * <p>
+ * По той же причине сетка не может делить память с копиями: ячейки меняются через выданные
+ * объекты в обход хранилища. {@link #fork()} и {@link #snapshot()} копируют поле целиком
+ * (см. {@link CellStorage#fork()}); для частых снимков больших полей подходит
+ * {@link ChunkedCellStorage}.
+ * <p>
+ * Ячейки сетки сообщают ей об открытии и закрытии, даже если их меняют напрямую, поэтому
+ * {@link #countOpen()} возвращает счетчик, а не просматривает поле.
+ */
+public class MineCellGrid implements CellStorage {
+    private final MineCell[][] cells;
+    private final int rows;
+    private final int columns;
+    private long openCount;
+
+    /**
+     * Создает сетку ячеек в начальном состоянии (закрыты, без мин).
+     *
+     * @param rows    Количество строк.
+     * @param columns Количество столбцов.
+     */
+    public MineCellGrid(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.cells = new MineCell[rows][columns];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                cells[r][c] = new GridCell(new CellPosition(r, c));
+            }
+        }
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int columns() {
+        return columns;
+    }
+
+    @Override
+    public boolean isMine(int row, int column) {
+        return cells[row][column].isMine();
+    }
+
+    @Override
+    public void setMine(int row, int column, boolean mine) {
+        cells[row][column].setMine(mine);
+    }
+
+    @Override
+    public boolean isOpen(int row, int column) {
+        return cells[row][column].isOpen();
+    }
+
+    @Override
+    public void setOpen(int row, int column, boolean open) {
+        cells[row][column].setOpen(open);
+    }
+
+    @Override
+    public boolean isFlagged(int row, int column) {
+        return cells[row][column].isFlagged();
+    }
+
+    @Override
+    public void setFlagged(int row, int column, boolean flagged) {
+        cells[row][column].setFlagged(flagged);
+    }
+
+    @Override
+    public int adjacentMines(int row, int column) {
+        return cells[row][column].getAdjacentMinesCount();
+    }
+
+    @Override
+    public void setAdjacentMines(int row, int column, int count) {
+        cells[row][column].setAdjacentMinesCount(count);
+    }
+
+    /**
+     * Сбрасывает каждую ячейку на месте через {@link MineCell#reset()}, не создавая новых объектов.
+     */
+    @Override
+    public void clear() {
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                cells[r][c].reset();
+            }
+        }
+    }
+
+    @Override
+    public long countOpen() {
+        return openCount;
+    }
+
+    @Override
+    public MineCell cell(int row, int column) {
+        return cells[row][column];
+    }
+
+    /**
+     * Ячейка, которая учитывает свое открытие в счетчике сетки.
+     */
+    private final class GridCell extends MineCell {
+        GridCell(CellPosition position) {
+            super(position);
+        }
+
+        @Override
+        protected void openChanged(boolean open) {
+            openCount += open ? 1 : -1;
+        }
+    }
+}
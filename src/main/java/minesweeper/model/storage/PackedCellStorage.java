@@ -0,0 +1,23 @@
+package minesweeper.model.storage;
+
+/**
+ * Плотное хранилище с одним байтом на ячейку в построчном порядке.
+ * Самая компактная раскладка для обхода поля по строкам.
+ */
+public final class PackedCellStorage extends ByteCellStorage {
+    private final int columns;
+
+    /**
+     * @param rows    Количество строк.
+     * @param columns Количество столбцов.
+     */
+    public PackedCellStorage(int rows, int columns) {
+        super(rows, columns, (long) rows * columns);
+        this.columns = columns;
+    }
+
+    @Override
+    int index(int row, int column) {
+        return row * columns + column;
+    }
+}
@@ -0,0 +1,344 @@
+package minesweeper.model.storage;
+
+import java.util.HashMap;
+
+/**
+ * Хранилище для полей практически неограниченного размера.
+ * Наличие мины в ячейке — чистая функция от зерна и координат: счетчиковый хеш
+ * (SplitMix64 от зерна и упакованных координат) сравнивается с порогом плотности.
+ * Поэтому для неисследованной части поля ничего не хранится, а количество соседних мин
+ * вычисляется на лету по тому же хешу.
+ * <p>
+ * Хранится только состояние "тронутых" ячеек: открытых, помеченных флагом или тех,
+ * в которых мина была явно добавлена или убрана (например, диверсантом).
+ * Расход памяти пропорционален исследованной игроками области, а не площади поля.
+ * <p>
+ * Количество мин на таком поле не точное: каждая ячейка независимо является миной
+ * с вероятностью, равной плотности.
+ * <p>
+ * При плотности ниже примерно 9,5% пустые ячейки (без соседних мин) образуют бесконечный
+ * связный кластер, и заливка от пустой ячейки не заканчивается в пределах поля разумного размера.
+ * Поэтому одно открытие ограничено {@link #revealLimit()} ячейками: дальше заливка останавливается,
+ * и граница открытой части остается закрытой до следующих ходов.
+ */
+public class ProceduralCellStorage implements CellStorage {
+    private static final byte OPEN = 1;
+    private static final byte FLAGGED = 1 << 1;
+    /**
+     * Наличие мины в ячейке задано явно и не берется из хеша.
+     */
+    private static final byte MINE_OVERRIDDEN = 1 << 2;
+    /**
+     * Явно заданное значение мины (действует вместе с {@link #MINE_OVERRIDDEN}).
+     */
+    private static final byte MINE = 1 << 3;
+    /**
+     * Ограничение одного открытия по умолчанию, в ячейках.
+     */
+    public static final int DEFAULT_REVEAL_LIMIT = 1 << 20;
+    private static final int TILE_SHIFT = 6;
+    private static final int TILE_MASK = (1 << TILE_SHIFT) - 1;
+
+    private final int rows;
+    private final int columns;
+    private final long seed;
+    /**
+     * Вероятность того, что ячейка является миной.
+     */
+    private final double density;
+    private final int revealLimit;
+    /**
+     * Блоки 64×64 с тронутыми ячейками по ключу {@link #key(int, int)} от координат блока.
+     * Блок, в котором не осталось тронутых ячеек, удаляется.
+     */
+    private final HashMap<Long, Tile> tiles = new HashMap<>();
+    /**
+     * Последний блок, к которому было обращение: соседние ячейки обычно лежат в нем же.
+     */
+    private long cachedKey = -1;
+    private Tile cachedTile;
+    private int touchedCells;
+    /**
+     * Количество открытых ячеек, поддерживаемое при каждом изменении.
+     */
+    private long openCount;
+
+    /**
+     * Создает процедурное хранилище.
+     *
+     * @param rows    Количество строк.
+     * @param columns Количество столбцов.
+     * @param density Вероятность того, что ячейка является миной, от 0 до 1.
+     * @param seed    Зерно, определяющее расстановку мин.
+     * @throws IllegalArgumentException если плотность вне [0, 1] или размеры не положительны.
+     */
+    public ProceduralCellStorage(int rows, int columns, double density, long seed) {
+        this(rows, columns, density, seed, DEFAULT_REVEAL_LIMIT);
+    }
+
+    /**
+     * Создает процедурное хранилище с заданным ограничением одного открытия.
+     *
+     * @param rows        Количество строк.
+     * @param columns     Количество столбцов.
+     * @param density     Вероятность того, что ячейка является миной, от 0 до 1.
+     * @param seed        Зерно, определяющее расстановку мин.
+     * @param revealLimit Примерное наибольшее количество ячеек, открываемых одним ходом.
+     * @throws IllegalArgumentException если плотность вне [0, 1], а размеры или ограничение не положительны.
+     */
+    public ProceduralCellStorage(int rows, int columns, double density, long seed, int revealLimit) {
+        if (rows <= 0 || columns <= 0) {
+            throw new IllegalArgumentException("Размеры поля должны быть положительными.");
+        }
+        if (!(density >= 0 && density <= 1)) {
+            throw new IllegalArgumentException("Плотность мин должна быть в диапазоне [0, 1].");
+        }
+        if (revealLimit <= 0) {
+            throw new IllegalArgumentException("Ограничение открытия должно быть положительным: " + revealLimit);
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.density = density;
+        this.seed = seed;
+        this.revealLimit = revealLimit;
+    }
+
+    @Override
+    public boolean forksCheaply() {
+        return true;
+    }
+
+    /**
+     * Копирует только состояние тронутых ячеек: расстановка мин задается тем же зерном.
+     */
+    @Override
+    public ProceduralCellStorage fork() {
+        ProceduralCellStorage copy = new ProceduralCellStorage(rows, columns, density, seed, revealLimit);
+        tiles.forEach((key, tile) -> copy.tiles.put(key, tile.copy()));
+        copy.touchedCells = touchedCells;
+        copy.openCount = openCount;
+        return copy;
+    }
+
+    /**
+     * @return Ожидаемое количество мин на всем поле.
+     */
+    public long expectedMineCount() {
+        return Math.round(density * rows * (double) columns);
+    }
+
+    /**
+     * @return Количество ячеек, для которых хранится состояние.
+     */
+    public int touchedCellCount() {
+        return touchedCells;
+    }
+
+    /**
+     * @return Зерно расстановки мин.
+     */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * Вычисляет, является ли ячейка миной по зерну, без учета явных изменений.
+     *
+     * @return {@code true}, если хеш ячейки ниже порога плотности.
+     */
+    public boolean isGeneratedMine(int row, int column) {
+        long hash = mix(seed + key(row, column) * 0x9E3779B97F4A7C15L);
+        return (hash >>> 11) * 0x1.0p-53 < density;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int columns() {
+        return columns;
+    }
+
+    @Override
+    public boolean isMine(int row, int column) {
+        byte state = state(row, column);
+        if ((state & MINE_OVERRIDDEN) != 0) {
+            return (state & MINE) != 0;
+        }
+        return isGeneratedMine(row, column);
+    }
+
+    @Override
+    public void setMine(int row, int column, boolean mine) {
+        byte state = (byte) (state(row, column) | MINE_OVERRIDDEN);
+        state = (byte) (mine ? state | MINE : state & ~MINE);
+        if (mine == isGeneratedMine(row, column)) {
+            state = (byte) (state & ~(MINE_OVERRIDDEN | MINE)); // Совпадает с хешем, хранить незачем
+        }
+        store(row, column, state);
+    }
+
+    @Override
+    public boolean isOpen(int row, int column) {
+        return (state(row, column) & OPEN) != 0;
+    }
+
+    @Override
+    public void setOpen(int row, int column, boolean open) {
+        byte state = state(row, column);
+        store(row, column, (byte) (open ? (state | OPEN) & ~FLAGGED : state & ~OPEN));
+    }
+
+    @Override
+    public boolean isFlagged(int row, int column) {
+        return (state(row, column) & FLAGGED) != 0;
+    }
+
+    @Override
+    public void setFlagged(int row, int column, boolean flagged) {
+        byte state = state(row, column);
+        store(row, column, (byte) (flagged ? state | FLAGGED : state & ~FLAGGED));
+    }
+
+    @Override
+    public int adjacentMines(int row, int column) {
+        if (isMine(row, column)) {
+            return -1;
+        }
+        int count = 0;
+        for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+            for (int c = Math.max(0, column - 1); c <= Math.min(columns - 1, column + 1); c++) {
+                if ((r != row || c != column) && isMine(r, c)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Ничего не делает: количество соседних мин всегда вычисляется по хешу.
+     */
+    @Override
+    public void setAdjacentMines(int row, int column, int count) {
+    }
+
+    /**
+     * Забывает все тронутые ячейки; расстановка мин возвращается к заданной зерном.
+     */
+    @Override
+    public void clear() {
+        tiles.clear();
+        cachedKey = -1;
+        cachedTile = null;
+        touchedCells = 0;
+        openCount = 0;
+    }
+
+    @Override
+    public boolean derivesAdjacentMines() {
+        return true;
+    }
+
+    @Override
+    public boolean generatesMines() {
+        return true;
+    }
+
+    @Override
+    public long countOpen() {
+        return openCount;
+    }
+
+    @Override
+    public int revealLimit() {
+        return revealLimit;
+    }
+
+    private byte state(int row, int column) {
+        Tile tile = tile(row, column, false);
+        return tile == null ? 0 : tile.states[index(row, column)];
+    }
+
+    private void store(int row, int column, byte state) {
+        Tile tile = tile(row, column, state != 0);
+        if (tile == null) {
+            return; // Ячейка не тронута и остается нетронутой
+        }
+        int index = index(row, column);
+        byte previous = tile.states[index];
+        tile.states[index] = state;
+        if ((previous == 0) != (state == 0)) {
+            int delta = state != 0 ? 1 : -1;
+            tile.touched += delta;
+            touchedCells += delta;
+            if (tile.touched == 0) {
+                tiles.remove(cachedKey);
+                cachedKey = -1;
+                cachedTile = null;
+            }
+        }
+        boolean wasOpen = (previous & OPEN) != 0;
+        boolean isOpen = (state & OPEN) != 0;
+        if (wasOpen != isOpen) {
+            openCount += isOpen ? 1 : -1;
+        }
+    }
+
+    /**
+     * Находит блок ячейки и запоминает его для следующих обращений.
+     *
+     * @param create Создать блок, если его нет.
+     * @return Блок или {@code null}, если его нет и создавать не нужно.
+     */
+    private Tile tile(int row, int column, boolean create) {
+        long key = key(row >>> TILE_SHIFT, column >>> TILE_SHIFT);
+        if (key != cachedKey) {
+            Tile tile = tiles.get(key);
+            if (tile == null) {
+                if (!create) {
+                    return null;
+                }
+                tile = new Tile();
+                tiles.put(key, tile);
+            }
+            cachedKey = key;
+            cachedTile = tile;
+        }
+        return cachedTile;
+    }
+
+    private static int index(int row, int column) {
+        return (row & TILE_MASK) << TILE_SHIFT | (column & TILE_MASK);
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Состояния ячеек блока и количество тронутых среди них.
+     */
+    private static final class Tile {
+        final byte[] states = new byte[1 << (2 * TILE_SHIFT)];
+        int touched;
+
+        Tile copy() {
+            Tile copy = new Tile();
+            System.arraycopy(states, 0, copy.states, 0, states.length);
+            copy.touched = touched;
+            return copy;
+        }
+    }
+
+    /**
+     * Финализатор SplitMix64: биективно перемешивает биты 64-битного счетчика.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
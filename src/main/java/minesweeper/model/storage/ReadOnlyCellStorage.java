@@ -0,0 +1,116 @@
+package minesweeper.model.storage;
+
+/**
+ * Хранилище только для чтения поверх копии, которой больше никто не владеет.
+ * Используется для снимков ({@link CellStorage#snapshot()}): все методы записи
+ * бросают {@link UnsupportedOperationException}.
+ */
+final class ReadOnlyCellStorage implements CellStorage {
+    private final CellStorage delegate;
+
+    ReadOnlyCellStorage(CellStorage delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public int rows() {
+        return delegate.rows();
+    }
+
+    @Override
+    public int columns() {
+        return delegate.columns();
+    }
+
+    @Override
+    public boolean isMine(int row, int column) {
+        return delegate.isMine(row, column);
+    }
+
+    @Override
+    public void setMine(int row, int column, boolean mine) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean isOpen(int row, int column) {
+        return delegate.isOpen(row, column);
+    }
+
+    @Override
+    public void setOpen(int row, int column, boolean open) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean isFlagged(int row, int column) {
+        return delegate.isFlagged(row, column);
+    }
+
+    @Override
+    public void setFlagged(int row, int column, boolean flagged) {
+        throw readOnly();
+    }
+
+    @Override
+    public int adjacentMines(int row, int column) {
+        return delegate.adjacentMines(row, column);
+    }
+
+    @Override
+    public void setAdjacentMines(int row, int column, int count) {
+        throw readOnly();
+    }
+
+    @Override
+    public void clear() {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean derivesAdjacentMines() {
+        return delegate.derivesAdjacentMines();
+    }
+
+    @Override
+    public int maxAdjacentMines() {
+        return delegate.maxAdjacentMines();
+    }
+
+    @Override
+    public int revealLimit() {
+        return delegate.revealLimit();
+    }
+
+    @Override
+    public boolean generatesMines() {
+        return delegate.generatesMines();
+    }
+
+    @Override
+    public long countOpen() {
+        return delegate.countOpen();
+    }
+
+    @Override
+    public CellStorage fork() {
+        return delegate.fork();
+    }
+
+    @Override
+    public boolean forksCheaply() {
+        return delegate.forksCheaply();
+    }
+
+    /**
+     * Снимок и так неизменяем, поэтому служит снимком самого себя.
+     */
+    @Override
+    public CellStorage snapshot() {
+        return this;
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Снимок поля доступен только для чтения.");
+    }
+}
@@ -0,0 +1,508 @@
+package minesweeper.model.storage;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Сжатое множество индексов ячеек с минами в духе Roaring bitmap.
+ * Индексы делятся на блоки по 65536 ячеек; для каждого непустого блока хранится
+ * контейнер одного из трех видов:
+ * <ul>
+ *   <li>отсортированный массив 16-битных смещений — для редких мин (до 4096 в блоке);</li>
+ *   <li>битовая карта на 8 КБ — для плотных блоков;</li>
+ *   <li>список отрезков (начало, длина) — для длинных сплошных участков, после {@link #optimize()}.</li>
+ * </ul>
+ * Пустые блоки не занимают ничего, кроме ссылки в каталоге, поэтому память растет
+ * с количеством мин, а не с площадью поля. Поддерживаются быстрая проверка принадлежности,
+ * подсчет мин в отрезке индексов (основа подсчета соседей) и обход в порядке возрастания.
+ */
+public class RoaringMineSet {
+    private static final int BLOCK_SHIFT = 16;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+    /**
+     * Наибольшее количество элементов, при котором массив компактнее битовой карты.
+     */
+    private static final int ARRAY_MAX = 4096;
+
+    /**
+     * Контейнеры по номерам блоков; {@code null} для пустого блока.
+     */
+    private final Container[] blocks;
+    private long cardinality;
+
+    /**
+     * Создает пустое множество для индексов из [0, {@code universe}).
+     *
+     * @param universe Количество ячеек поля.
+     * @throws IllegalArgumentException если каталог блоков не помещается в массив.
+     */
+    public RoaringMineSet(long universe) {
+        long blockCount = (universe + BLOCK_MASK) >>> BLOCK_SHIFT;
+        if (universe < 0 || blockCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Некорректный размер множества.");
+        }
+        this.blocks = new Container[(int) blockCount];
+    }
+
+    /**
+     * Создает независимую копию множества. Копируются только непустые контейнеры,
+     * поэтому время копирования пропорционально количеству мин.
+     *
+     * @param source Копируемое множество.
+     */
+    public RoaringMineSet(RoaringMineSet source) {
+        this.blocks = new Container[source.blocks.length];
+        for (int block = 0; block < blocks.length; block++) {
+            if (source.blocks[block] != null) {
+                blocks[block] = source.blocks[block].copy();
+            }
+        }
+        this.cardinality = source.cardinality;
+    }
+
+    /**
+     * @return {@code true}, если индекс принадлежит множеству.
+     */
+    public boolean contains(long index) {
+        Container block = blocks[(int) (index >>> BLOCK_SHIFT)];
+        return block != null && block.contains((int) (index & BLOCK_MASK));
+    }
+
+    /**
+     * Добавляет индекс.
+     *
+     * @return {@code true}, если индекса в множестве еще не было.
+     */
+    public boolean add(long index) {
+        int block = (int) (index >>> BLOCK_SHIFT);
+        Container container = blocks[block];
+        if (container == null) {
+            container = new ArrayContainer();
+        }
+        int before = container.cardinality();
+        blocks[block] = container.add((int) (index & BLOCK_MASK));
+        if (blocks[block].cardinality() != before) {
+            cardinality++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Удаляет индекс.
+     *
+     * @return {@code true}, если индекс был в множестве.
+     */
+    public boolean remove(long index) {
+        int block = (int) (index >>> BLOCK_SHIFT);
+        Container container = blocks[block];
+        if (container == null || !container.contains((int) (index & BLOCK_MASK))) {
+            return false;
+        }
+        container = container.remove((int) (index & BLOCK_MASK));
+        blocks[block] = container.cardinality() == 0 ? null : container;
+        cardinality--;
+        return true;
+    }
+
+    /**
+     * Подсчитывает элементы множества в отрезке индексов [{@code from}, {@code to}).
+     *
+     * @return Количество элементов в отрезке.
+     */
+    public int rangeCardinality(long from, long to) {
+        int count = 0;
+        while (from < to) {
+            int block = (int) (from >>> BLOCK_SHIFT);
+            long blockEnd = ((long) block + 1) << BLOCK_SHIFT;
+            long end = Math.min(to, blockEnd);
+            Container container = blocks[block];
+            if (container != null) {
+                count += container.rangeCardinality((int) (from & BLOCK_MASK), (int) (end - ((long) block << BLOCK_SHIFT)));
+            }
+            from = end;
+        }
+        return count;
+    }
+
+    /**
+     * Обходит элементы множества в порядке возрастания.
+     *
+     * @param action Действие для каждого индекса.
+     */
+    public void forEach(LongConsumer action) {
+        for (int block = 0; block < blocks.length; block++) {
+            if (blocks[block] != null) {
+                blocks[block].forEach((long) block << BLOCK_SHIFT, action);
+            }
+        }
+    }
+
+    /**
+     * @return Количество элементов множества.
+     */
+    public long cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Переводит в список отрезков те контейнеры, для которых это компактнее.
+     * Изменение такого контейнера переводит его обратно в массив или битовую карту.
+     */
+    public void optimize() {
+        for (int block = 0; block < blocks.length; block++) {
+            Container container = blocks[block];
+            if (container != null) {
+                RunContainer runs = RunContainer.from(container);
+                if (runs.sizeInBytes() < container.sizeInBytes()) {
+                    blocks[block] = runs;
+                }
+            }
+        }
+    }
+
+    /**
+     * Оценивает занимаемую память: каталог блоков и данные контейнеров.
+     *
+     * @return Приблизительный размер в байтах.
+     */
+    public long sizeInBytes() {
+        long bytes = 4L * blocks.length;
+        for (Container container : blocks) {
+            if (container != null) {
+                bytes += container.sizeInBytes();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Удаляет все элементы.
+     */
+    public void clear() {
+        Arrays.fill(blocks, null);
+        cardinality = 0;
+    }
+
+    /**
+     * Контейнер 16-битных смещений одного блока. Изменяющие методы возвращают
+     * контейнер, которым нужно заменить текущий (он может смениться при изменении плотности).
+     */
+    private abstract static class Container {
+        abstract boolean contains(int value);
+
+        abstract Container add(int value);
+
+        abstract Container remove(int value);
+
+        abstract int cardinality();
+
+        /**
+         * @return Количество элементов в [{@code from}, {@code to}), 0 ≤ from ≤ to ≤ 65536.
+         */
+        abstract int rangeCardinality(int from, int to);
+
+        abstract void forEach(long base, LongConsumer action);
+
+        abstract long sizeInBytes();
+
+        abstract Container copy();
+    }
+
+    /**
+     * Отсортированный массив смещений.
+     */
+    private static final class ArrayContainer extends Container {
+        private char[] values = new char[4];
+        private int size;
+
+        @Override
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, size, (char) value) >= 0;
+        }
+
+        @Override
+        Container add(int value) {
+            int position = Arrays.binarySearch(values, 0, size, (char) value);
+            if (position >= 0) {
+                return this;
+            }
+            if (size >= ARRAY_MAX) {
+                return BitmapContainer.from(this).add(value);
+            }
+            position = -position - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, size * 2));
+            }
+            System.arraycopy(values, position, values, position + 1, size - position);
+            values[position] = (char) value;
+            size++;
+            return this;
+        }
+
+        @Override
+        Container remove(int value) {
+            int position = Arrays.binarySearch(values, 0, size, (char) value);
+            if (position >= 0) {
+                System.arraycopy(values, position + 1, values, position, size - position - 1);
+                size--;
+            }
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        int rangeCardinality(int from, int to) {
+            return lowerBound(to) - lowerBound(from);
+        }
+
+        /**
+         * @return Количество элементов, меньших {@code value}.
+         */
+        private int lowerBound(int value) {
+            if (value >= BLOCK_SIZE) {
+                return size;
+            }
+            int position = Arrays.binarySearch(values, 0, size, (char) value);
+            return position >= 0 ? position : -position - 1;
+        }
+
+        @Override
+        void forEach(long base, LongConsumer action) {
+            for (int i = 0; i < size; i++) {
+                action.accept(base + values[i]);
+            }
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 2L * values.length;
+        }
+
+        @Override
+        Container copy() {
+            ArrayContainer copy = new ArrayContainer();
+            copy.values = values.clone();
+            copy.size = size;
+            return copy;
+        }
+    }
+
+    /**
+     * Битовая карта на 65536 бит.
+     */
+    private static final class BitmapContainer extends Container {
+        private final long[] words = new long[BLOCK_SIZE / 64];
+        private int cardinality;
+
+        static BitmapContainer from(Container container) {
+            BitmapContainer bitmap = new BitmapContainer();
+            container.forEach(0, value -> bitmap.add((int) value));
+            return bitmap;
+        }
+
+        @Override
+        boolean contains(int value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container add(int value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) == 0) {
+                words[value >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(int value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) != 0) {
+                words[value >>> 6] &= ~bit;
+                cardinality--;
+                if (cardinality <= ARRAY_MAX / 2) { // Запас, чтобы не переключаться туда и обратно
+                    ArrayContainer array = new ArrayContainer();
+                    forEach(0, v -> array.add((int) v));
+                    return array;
+                }
+            }
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int rangeCardinality(int from, int to) {
+            if (from >= to) {
+                return 0;
+            }
+            int firstWord = from >>> 6;
+            int lastWord = (to - 1) >>> 6;
+            long firstMask = -1L << from;
+            long lastMask = -1L >>> (63 - ((to - 1) & 63));
+            if (firstWord == lastWord) {
+                return Long.bitCount(words[firstWord] & firstMask & lastMask);
+            }
+            int count = Long.bitCount(words[firstWord] & firstMask);
+            for (int i = firstWord + 1; i < lastWord; i++) {
+                count += Long.bitCount(words[i]);
+            }
+            return count + Long.bitCount(words[lastWord] & lastMask);
+        }
+
+        @Override
+        void forEach(long base, LongConsumer action) {
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    action.accept(base + (i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 8L * words.length;
+        }
+
+        @Override
+        Container copy() {
+            BitmapContainer copy = new BitmapContainer();
+            System.arraycopy(words, 0, copy.words, 0, words.length);
+            copy.cardinality = cardinality;
+            return copy;
+        }
+    }
+
+    /**
+     * Список отрезков: начало и длина минус один для каждого отрезка.
+     */
+    private static final class RunContainer extends Container {
+        private char[] starts = new char[4];
+        private char[] lengths = new char[4];
+        private int runs;
+        private int cardinality;
+
+        static RunContainer from(Container container) {
+            RunContainer result = new RunContainer();
+            container.forEach(0, v -> result.append((int) v));
+            return result;
+        }
+
+        /**
+         * Добавляет значение, большее всех уже имеющихся.
+         */
+        private void append(int value) {
+            if (runs > 0 && starts[runs - 1] + lengths[runs - 1] + 1 == value) {
+                lengths[runs - 1]++;
+            } else {
+                if (runs == starts.length) {
+                    starts = Arrays.copyOf(starts, runs * 2);
+                    lengths = Arrays.copyOf(lengths, runs * 2);
+                }
+                starts[runs] = (char) value;
+                lengths[runs] = 0;
+                runs++;
+            }
+            cardinality++;
+        }
+
+        @Override
+        boolean contains(int value) {
+            int run = runAtOrBefore(value);
+            return run >= 0 && value <= starts[run] + lengths[run];
+        }
+
+        /**
+         * Изменения выполняются в массиве или битовой карте: список отрезков служит
+         * лишь компактной формой для редко меняющихся блоков.
+         */
+        private Container expand() {
+            if (cardinality > ARRAY_MAX) {
+                return BitmapContainer.from(this);
+            }
+            ArrayContainer array = new ArrayContainer();
+            forEach(0, v -> array.add((int) v));
+            return array;
+        }
+
+        @Override
+        Container add(int value) {
+            return contains(value) ? this : expand().add(value);
+        }
+
+        @Override
+        Container remove(int value) {
+            return contains(value) ? expand().remove(value) : this;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        /**
+         * Находит двоичным поиском первый и последний отрезки, пересекающие [{@code from}, {@code to}),
+         * и суммирует только отрезки между ними.
+         */
+        @Override
+        int rangeCardinality(int from, int to) {
+            if (from >= to) {
+                return 0;
+            }
+            int first = runAtOrBefore(from);
+            if (first < 0 || starts[first] + lengths[first] < from) {
+                first++; // Отрезок левее from закончился раньше него
+            }
+            int last = runAtOrBefore(to - 1);
+            int count = 0;
+            for (int i = first; i <= last; i++) {
+                count += Math.min(to, starts[i] + lengths[i] + 1) - Math.max(from, starts[i]);
+            }
+            return count;
+        }
+
+        /**
+         * @return Номер последнего отрезка, начинающегося не правее {@code value}, или -1.
+         */
+        private int runAtOrBefore(int value) {
+            int position = Arrays.binarySearch(starts, 0, runs, (char) value);
+            return position >= 0 ? position : -position - 2;
+        }
+
+        @Override
+        void forEach(long base, LongConsumer action) {
+            for (int i = 0; i < runs; i++) {
+                for (int v = starts[i]; v <= starts[i] + lengths[i]; v++) {
+                    action.accept(base + v);
+                }
+            }
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 4L * runs;
+        }
+
+        @Override
+        Container copy() {
+            RunContainer copy = new RunContainer();
+            copy.starts = starts.clone();
+            copy.lengths = lengths.clone();
+            copy.runs = runs;
+            copy.cardinality = cardinality;
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package minesweeper.model.storage;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Хранилище для больших полей с низкой плотностью мин.
+ * Мины хранятся в сжатом множестве {@link RoaringMineSet}, поэтому память под слой мин
+ * растет с количеством мин, а не с площадью поля. Открытые ячейки и флаги хранятся
+ * в {@link ChunkedCellStorage}, где память выделяется только под исследованные области.
+ * <p>
+ * Количество соседних мин вычисляется на лету тремя запросами количества мин в отрезке
+ * индексов: по одному на строку над ячейкой, строку ячейки и строку под ней.
+ * <p>
+ * Доступ к слою мин защищен {@link StampedLock}, так что мины можно размещать из нескольких потоков
+ * (например, при {@link minesweeper.model.MineField.GenerationMode#PARALLEL_STRIPES}). Чтение мин
+ * и соседей идет оптимистично, без захвата блокировки, и повторяется под блокировкой чтения, только
+ * если слой менялся одновременно с ним. Поэтому параллельное чтение (например, при параллельном
+ * открытии области) не выстраивает потоки в очередь.
+ */
+public class SparseMineCellStorage implements CellStorage {
+    private final int rows;
+    private final int columns;
+    /**
+     * Индексы ячеек с минами в построчном порядке.
+     */
+    private final RoaringMineSet mines;
+    /**
+     * Открытые ячейки и флаги; биты мин здесь не используются.
+     */
+    private final ChunkedCellStorage state;
+    private final StampedLock lock = new StampedLock();
+
+    /**
+     * Создает хранилище без мин и открытых ячеек.
+     *
+     * @param rows    Количество строк.
+     * @param columns Количество столбцов.
+     * @throws IllegalArgumentException если размеры не положительны или поле слишком велико.
+     */
+    public SparseMineCellStorage(int rows, int columns) {
+        this.state = new ChunkedCellStorage(rows, columns);
+        this.rows = rows;
+        this.columns = columns;
+        this.mines = new RoaringMineSet((long) rows * columns);
+    }
+
+    private SparseMineCellStorage(int rows, int columns, RoaringMineSet mines, ChunkedCellStorage state) {
+        this.rows = rows;
+        this.columns = columns;
+        this.mines = mines;
+        this.state = state;
+    }
+
+    @Override
+    public boolean forksCheaply() {
+        return true;
+    }
+
+    /**
+     * Копирует слой мин (за время, пропорциональное количеству мин) и разделяет с копией
+     * блоки открытых ячеек и флагов до первой записи.
+     */
+    @Override
+    public SparseMineCellStorage fork() {
+        long stamp = lock.readLock();
+        try {
+            return new SparseMineCellStorage(rows, columns, new RoaringMineSet(mines), state.fork());
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return Количество мин на поле.
+     */
+    public long mineCount() {
+        long stamp = lock.readLock();
+        try {
+            return mines.cardinality();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return Приблизительная память, занимаемая слоем мин, в байтах.
+     */
+    public long mineLayerBytes() {
+        long stamp = lock.readLock();
+        try {
+            return mines.sizeInBytes();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Сжимает слой мин: переводит в отрезки блоки, где это экономнее.
+     * Имеет смысл после размещения мин, когда слой больше почти не меняется.
+     */
+    public void compactMines() {
+        long stamp = lock.writeLock();
+        try {
+            mines.optimize();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int columns() {
+        return columns;
+    }
+
+    @Override
+    public boolean isMine(int row, int column) {
+        long index = index(row, column);
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                boolean mine = mines.contains(index);
+                if (lock.validate(stamp)) {
+                    return mine;
+                }
+            } catch (RuntimeException e) {
+                // Слой менялся во время чтения; повторяем под блокировкой
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return mines.contains(index);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void setMine(int row, int column, boolean mine) {
+        long stamp = lock.writeLock();
+        try {
+            if (mine) {
+                mines.add(index(row, column));
+            } else {
+                mines.remove(index(row, column));
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean isOpen(int row, int column) {
+        return state.isOpen(row, column);
+    }
+
+    @Override
+    public void setOpen(int row, int column, boolean open) {
+        state.setOpen(row, column, open);
+    }
+
+    @Override
+    public boolean isFlagged(int row, int column) {
+        return state.isFlagged(row, column);
+    }
+
+    @Override
+    public void setFlagged(int row, int column, boolean flagged) {
+        state.setFlagged(row, column, flagged);
+    }
+
+    @Override
+    public int adjacentMines(int row, int column) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                int count = countAdjacentMines(row, column);
+                if (lock.validate(stamp)) {
+                    return count;
+                }
+            } catch (RuntimeException e) {
+                // Слой менялся во время чтения; повторяем под блокировкой
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return countAdjacentMines(row, column);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private int countAdjacentMines(int row, int column) {
+        long index = index(row, column);
+        if (mines.contains(index)) {
+            return -1;
+        }
+        int from = Math.max(0, column - 1);
+        int to = Math.min(columns - 1, column + 1) + 1;
+        int count = 0;
+        for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+            long rowStart = (long) r * columns;
+            count += mines.rangeCardinality(rowStart + from, rowStart + to);
+        }
+        return count;
+    }
+
+    /**
+     * Ничего не делает: количество соседних мин вычисляется по слою мин.
+     */
+    @Override
+    public void setAdjacentMines(int row, int column, int count) {
+    }
+
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            mines.clear();
+            state.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean derivesAdjacentMines() {
+        return true;
+    }
+
+    @Override
+    public long countOpen() {
+        return state.countOpen();
+    }
+
+    private long index(int row, int column) {
+        return (long) row * columns + column;
+    }
+}
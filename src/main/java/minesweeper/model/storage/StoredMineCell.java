@@ -0,0 +1,79 @@
+package minesweeper.model.storage;
+
+import minesweeper.model.MineCell;
+import minesweeper.model.navigation.CellPosition;
+
+/**
+ * Представление ячейки, все состояние которой хранится в {@link CellStorage}.
+ * Сам объект ничего не хранит, кроме координат, и лишь переводит вызовы
+ * методов {@link MineCell} в обращения к хранилищу, сохраняя их семантику.
+ */
+class StoredMineCell extends MineCell {
+    private final CellStorage storage;
+    private final int row;
+    private final int column;
+
+    StoredMineCell(CellStorage storage, int row, int column) {
+        super(new CellPosition(row, column));
+        this.storage = storage;
+        this.row = row;
+        this.column = column;
+    }
+
+    @Override
+    public boolean isMine() {
+        return storage.isMine(row, column);
+    }
+
+    @Override
+    public void setMine(boolean mine) {
+        storage.setMine(row, column, mine);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return storage.isOpen(row, column);
+    }
+
+    @Override
+    public void setOpen(boolean open) {
+        storage.setOpen(row, column, open);
+    }
+
+    @Override
+    public boolean isFlagged() {
+        return storage.isFlagged(row, column);
+    }
+
+    @Override
+    public void toggleFlag() {
+        if (!isOpen()) {
+            storage.setFlagged(row, column, !isFlagged());
+        }
+    }
+
+    @Override
+    public void setFlagged(boolean flagged) {
+        if (!isOpen() || !flagged) {
+            storage.setFlagged(row, column, flagged);
+        }
+    }
+
+    @Override
+    public int getAdjacentMinesCount() {
+        return storage.adjacentMines(row, column);
+    }
+
+    @Override
+    public void setAdjacentMinesCount(int adjacentMinesCount) {
+        storage.setAdjacentMines(row, column, adjacentMinesCount);
+    }
+
+    @Override
+    public void reset() {
+        storage.setMine(row, column, false);
+        storage.setOpen(row, column, false);
+        storage.setFlagged(row, column, false);
+        storage.setAdjacentMines(row, column, 0);
+    }
+}
@@ -0,0 +1,40 @@
+package minesweeper.model.storage;
+
+/**
+ * Плотное хранилище с одним байтом на ячейку, разложенное квадратными плитками 8×8.
+ * Плитка занимает 64 байта, то есть ровно одну строку кэша, а плитки идут в построчном порядке.
+ * <p>
+ * В построчной раскладке окрестность 3×3 затрагивает три далеко отстоящие строки поля,
+ * а здесь — не более четырех соседних строк кэша; заливка при открытии тоже
+ * реже перескакивает по памяти. Поле дополняется до целого числа плиток.
+ */
+public final class TiledCellStorage extends ByteCellStorage {
+    private static final int TILE_SHIFT = 3;
+    private static final int TILE_MASK = (1 << TILE_SHIFT) - 1;
+
+    /**
+     * Количество плиток в одной строке плиток.
+     */
+    private final int tileColumns;
+
+    /**
+     * @param rows    Количество строк.
+     * @param columns Количество столбцов.
+     */
+    public TiledCellStorage(int rows, int columns) {
+        super(rows, columns, tiledCapacity(rows, columns));
+        this.tileColumns = (columns + TILE_MASK) >>> TILE_SHIFT;
+    }
+
+    private static long tiledCapacity(int rows, int columns) {
+        long tileRows = ((long) rows + TILE_MASK) >>> TILE_SHIFT;
+        long tileColumns = ((long) columns + TILE_MASK) >>> TILE_SHIFT;
+        return (tileRows * tileColumns) << (2 * TILE_SHIFT);
+    }
+
+    @Override
+    int index(int row, int column) {
+        int tile = (row >>> TILE_SHIFT) * tileColumns + (column >>> TILE_SHIFT);
+        return (tile << (2 * TILE_SHIFT)) | ((row & TILE_MASK) << TILE_SHIFT) | (column & TILE_MASK);
+    }
+}
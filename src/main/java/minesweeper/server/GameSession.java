@@ -0,0 +1,202 @@
+package minesweeper.server;
+
+import minesweeper.model.MinesweeperGame;
+import minesweeper.model.navigation.CellPosition;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Сессия сервера: одна игра {@link MinesweeperGame} и очередь команд к ней.
+ * <p>
+ * Игра не потокобезопасна, поэтому команды выполняются строго по очереди: отправитель кладет
+ * команду в очередь и, если сессия простаивала, запускает на исполнителе менеджера (виртуальные
+ * потоки) задачу, которая выбирает очередь до конца. Пока задача работает, новые команды
+ * просто добавляются в очередь, так что под нагрузкой одна задача обрабатывает их пачкой.
+ * Очередь ограничена: при переполнении команда сразу завершается
+ * с {@link RejectedExecutionException}, и память сессии не растет.
+ */
+public final class GameSession {
+    /**
+     * Сколько команд подряд выполняет одна задача, прежде чем уступить поток другим сессиям.
+     */
+    private static final int DRAIN_BATCH = 256;
+
+    private final long id;
+    private final MinesweeperGame game;
+    private final Executor executor;
+    private final int mailboxCapacity;
+    private final LongAdder processedCommands;
+
+    private final Queue<Command> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile boolean closed;
+    private volatile long lastActivityNanos = System.nanoTime();
+
+    /**
+     * Команда сессии: действие над игрой и будущий результат.
+     */
+    private record Command(Function<MinesweeperGame, Object> action, CompletableFuture<Object> result) {
+    }
+
+    GameSession(long id, MinesweeperGame game, Executor executor, int mailboxCapacity, LongAdder processedCommands) {
+        this.id = id;
+        this.game = game;
+        this.executor = executor;
+        this.mailboxCapacity = mailboxCapacity;
+        this.processedCommands = processedCommands;
+    }
+
+    /**
+     * @return Идентификатор сессии.
+     */
+    public long id() {
+        return id;
+    }
+
+    /**
+     * Открывает ячейку.
+     *
+     * @return Состояние партии после хода.
+     */
+    public CompletableFuture<MoveResult> open(int row, int column) {
+        return submit(game -> {
+            game.openCell(new CellPosition(row, column));
+            return MoveResult.of(game);
+        });
+    }
+
+    /**
+     * Ставит или снимает флаг.
+     *
+     * @return Состояние партии после хода.
+     */
+    public CompletableFuture<MoveResult> toggleFlag(int row, int column) {
+        return submit(game -> {
+            game.toggleFlag(new CellPosition(row, column));
+            return MoveResult.of(game);
+        });
+    }
+
+    /**
+     * Начинает новую партию с прежними параметрами.
+     *
+     * @return Состояние новой партии.
+     */
+    public CompletableFuture<MoveResult> restart() {
+        return submit(game -> {
+            game.startGame();
+            return MoveResult.of(game);
+        });
+    }
+
+    /**
+     * Выполняет произвольное чтение игры в очереди команд, то есть без гонок с ходами.
+     * Функция не должна возвращать саму игру или ее изменяемые части.
+     *
+     * @param query Функция, вычисляемая над игрой.
+     * @return Результат функции.
+     */
+    public <T> CompletableFuture<T> inspect(Function<MinesweeperGame, T> query) {
+        return submit(query);
+    }
+
+    /**
+     * @return Количество команд, ожидающих выполнения.
+     */
+    public int pendingCommands() {
+        return pending.get();
+    }
+
+    /**
+     * @return {@code true}, если сессия закрыта и команды больше не принимает.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    long lastActivityNanos() {
+        return lastActivityNanos;
+    }
+
+    /**
+     * Закрывает сессию. Команды, уже стоящие в очереди, выполняются; новые отклоняются.
+     */
+    void close() {
+        closed = true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> submit(Function<MinesweeperGame, T> action) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Сессия " + id + " закрыта."));
+        }
+        if (pending.incrementAndGet() > mailboxCapacity) {
+            pending.decrementAndGet();
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Очередь команд сессии " + id + " переполнена."));
+        }
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        mailbox.offer(new Command((Function<MinesweeperGame, Object>) action, result));
+        lastActivityNanos = System.nanoTime();
+        if (scheduled.compareAndSet(false, true)) {
+            schedule();
+        }
+        return (CompletableFuture<T>) result;
+    }
+
+    private void schedule() {
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) { // Менеджер закрыт
+            closed = true;
+            Command command;
+            while ((command = mailbox.poll()) != null) {
+                pending.decrementAndGet();
+                command.result.completeExceptionally(e);
+            }
+            scheduled.set(false);
+        }
+    }
+
+    private void drain() {
+        int executed = 0;
+        Command command;
+        while ((command = mailbox.poll()) != null) {
+            pending.decrementAndGet();
+            Object result = null;
+            Throwable failure = null;
+            try {
+                result = command.action.apply(game);
+            } catch (Throwable e) {
+                // Ошибка (в том числе Error) уходит вызывающему, а сессия продолжает работать
+                failure = e;
+            }
+            // Счетчик растет до завершения результата: дождавшийся ответа видит свою команду в счетчике
+            processedCommands.increment();
+            if (failure == null) {
+                command.result.complete(result);
+            } else {
+                command.result.completeExceptionally(failure);
+            }
+            executed++;
+            if (executed == DRAIN_BATCH) {
+                schedule(); // Остаток очереди — следующей задачей, чтобы не занимать поток
+                return;
+            }
+        }
+        scheduled.set(false);
+        // Команда могла прийти между последним poll и сбросом флага
+        if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+            schedule();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package minesweeper.server;
+
+import minesweeper.model.MineField;
+import minesweeper.model.MinesweeperGame;
+import minesweeper.model.storage.CellStorages;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Менеджер игровых сессий для работы игры как сервиса без интерфейса: создает сессии
+ * ({@link GameSession}), находит их по идентификатору и удаляет простаивающие.
+ * <p>
+ * Команды всех сессий выполняются на виртуальных потоках, по одной задаче на активную сессию,
+ * так что тысячи сессий не требуют тысяч потоков ОС, а команды одной сессии не выполняются
+ * параллельно. Память сессии ограничена {@link Limits}: размером поля (ячейки хранятся
+ * в компактном хранилище, см. {@link CellStorages#forDensity(int, int, long)}), глубиной истории
+ * ходов и длиной очереди команд.
+ */
+public class GameSessionManager implements AutoCloseable {
+
+    /**
+     * Ограничения сессий.
+     *
+     * @param maxCells        Наибольшая площадь поля.
+     * @param mailboxCapacity Наибольшее количество команд в очереди сессии.
+     * @param historyDepth    Глубина истории ходов каждой игры (0 — без отмены ходов).
+     * @param idleTimeout     Время простоя, после которого сессия удаляется.
+     */
+    public record Limits(int maxCells, int mailboxCapacity, int historyDepth, Duration idleTimeout) {
+        /**
+         * Ограничения по умолчанию: поле до 512×512, 1024 команды в очереди, 32 хода истории,
+         * 10 минут простоя.
+         */
+        public static final Limits DEFAULT = new Limits(512 * 512, 1024, 32, Duration.ofMinutes(10));
+
+        /**
+         * @throws IllegalArgumentException если ограничения не положительны.
+         */
+        public Limits {
+            if (maxCells <= 0 || mailboxCapacity <= 0 || historyDepth < 0
+                    || idleTimeout.isNegative() || idleTimeout.isZero()) {
+                throw new IllegalArgumentException("Ограничения сессий должны быть положительными.");
+            }
+        }
+    }
+
+    private final Limits limits;
+    private final Map<Long, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final LongAdder processedCommands = new LongAdder();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * Создает менеджер с ограничениями по умолчанию.
+     */
+    public GameSessionManager() {
+        this(Limits.DEFAULT);
+    }
+
+    /**
+     * Создает менеджер. Простаивающие сессии удаляются фоновым потоком
+     * с периодом в четверть {@link Limits#idleTimeout()}.
+     *
+     * @param limits Ограничения сессий.
+     */
+    public GameSessionManager(Limits limits) {
+        this.limits = limits;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, limits.idleTimeout().toMillis() / 4);
+        sweeper.scheduleAtFixedRate(this::expireIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Создает сессию и начинает в ней партию.
+     *
+     * @param rows    Количество строк поля.
+     * @param columns Количество столбцов поля.
+     * @param mines   Количество мин.
+     * @param lives   Количество жизней.
+     * @return Новая сессия.
+     * @throws IllegalArgumentException если параметры некорректны или поле больше {@link Limits#maxCells()}.
+     * @throws IllegalStateException    если менеджер закрыт.
+     */
+    public GameSession create(int rows, int columns, int mines, int lives) {
+        if (executor.isShutdown()) {
+            throw new IllegalStateException("Менеджер сессий закрыт.");
+        }
+        if (rows <= 0 || columns <= 0 || lives <= 0) {
+            throw new IllegalArgumentException("Размеры поля и количество жизней должны быть положительными.");
+        }
+        if ((long) rows * columns > limits.maxCells()) {
+            throw new IllegalArgumentException("Поле " + rows + "×" + columns + " больше допустимых "
+                    + limits.maxCells() + " ячеек.");
+        }
+        MineField field = new MineField(CellStorages.forDensity(rows, columns, mines), mines);
+        MinesweeperGame game = new MinesweeperGame(field, mines, lives, null);
+        game.setHistoryDepth(limits.historyDepth());
+        game.startGame();
+        GameSession session = new GameSession(nextId.incrementAndGet(), game, executor,
+                limits.mailboxCapacity(), processedCommands);
+        sessions.put(session.id(), session);
+        return session;
+    }
+
+    /**
+     * Находит сессию по идентификатору.
+     *
+     * @return Сессия или {@code null}, если ее нет или она удалена.
+     */
+    public GameSession get(long id) {
+        return sessions.get(id);
+    }
+
+    /**
+     * Закрывает и удаляет сессию.
+     *
+     * @return {@code true}, если сессия была.
+     */
+    public boolean remove(long id) {
+        GameSession session = sessions.remove(id);
+        if (session == null) {
+            return false;
+        }
+        session.close();
+        return true;
+    }
+
+    /**
+     * Удаляет сессии, простаивающие дольше {@link Limits#idleTimeout()} и без команд в очереди.
+     *
+     * @return Количество удаленных сессий.
+     */
+    public int expireIdle() {
+        long now = System.nanoTime();
+        long timeout = limits.idleTimeout().toNanos();
+        int expired = 0;
+        for (GameSession session : sessions.values()) {
+            if (now - session.lastActivityNanos() >= timeout && session.pendingCommands() == 0
+                    && sessions.remove(session.id(), session)) {
+                session.close();
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * @return Количество сессий.
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * @return Количество команд, выполненных всеми сессиями.
+     */
+    public long processedCommands() {
+        return processedCommands.sum();
+    }
+
+    /**
+     * @return Ограничения сессий.
+     */
+    public Limits limits() {
+        return limits;
+    }
+
+    /**
+     * Закрывает все сессии и дожидается выполнения команд, уже стоящих в очередях.
+     */
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+        sessions.values().forEach(GameSession::close);
+        sessions.clear();
+        executor.close();
+    }
+}
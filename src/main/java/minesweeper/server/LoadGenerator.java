@@ -0,0 +1,87 @@
+package minesweeper.server;
+
+import minesweeper.model.MinesweeperGame;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Локальный генератор нагрузки для {@link GameSessionManager}: создает сессии и на каждую запускает
+ * клиента на виртуальном потоке, который делает случайные ходы и начинает новую партию после
+ * окончания прежней. Клиент отправляет ходы окнами: несколько команд подряд и ожидание последней
+ * (команды сессии выполняются по порядку, значит выполнены и предыдущие).
+ * <p>
+ * Запуск: {@code java minesweeper.server.LoadGenerator [сессии] [секунды] [окно] [сторона поля]},
+ * по умолчанию 2000 сессий, 10 секунд, окно 16, поле 32×32 с 15% мин.
+ */
+public final class LoadGenerator {
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int sessionCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int window = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        int side = args.length > 3 ? Integer.parseInt(args[3]) : 32;
+        int mines = side * side * 15 / 100;
+
+        GameSessionManager.Limits limits = new GameSessionManager.Limits(side * side, Math.max(window, 64), 32,
+                Duration.ofMinutes(1));
+        LongAdder moves = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        try (GameSessionManager manager = new GameSessionManager(limits)) {
+            List<GameSession> sessions = new ArrayList<>(sessionCount);
+            for (int i = 0; i < sessionCount; i++) {
+                sessions.add(manager.create(side, side, mines, 3));
+            }
+            long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+            long started = System.nanoTime();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (GameSession session : sessions) {
+                    clients.execute(() -> play(session, side, window, deadline, moves, rejected));
+                }
+            }
+            double elapsed = (System.nanoTime() - started) / 1e9;
+            System.out.printf("Сессий: %d, поле %d×%d, окно %d%n", sessionCount, side, side, window);
+            System.out.printf("Ходов: %d за %.1f с — %.0f ходов/с%n", moves.sum(), elapsed, moves.sum() / elapsed);
+            System.out.printf("Отклонено команд: %d, всего выполнено команд: %d%n",
+                    rejected.sum(), manager.processedCommands());
+        }
+    }
+
+    private static void play(GameSession session, int side, int window, long deadline,
+                             LongAdder moves, LongAdder rejected) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            CompletableFuture<MoveResult> last = null;
+            for (int i = 0; i < window; i++) {
+                int row = random.nextInt(side);
+                int column = random.nextInt(side);
+                last = random.nextInt(8) == 0 ? session.toggleFlag(row, column) : session.open(row, column);
+            }
+            MoveResult result;
+            try {
+                result = last.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RejectedExecutionException) {
+                    rejected.increment();
+                    continue;
+                }
+                throw e;
+            }
+            moves.add(window);
+            if (result.state() != MinesweeperGame.GameState.PLAYING) {
+                session.restart().join();
+            }
+        }
+    }
+}
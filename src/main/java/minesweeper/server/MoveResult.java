@@ -0,0 +1,20 @@
+package minesweeper.server;
+
+import minesweeper.model.MinesweeperGame;
+
+/**
+ * Состояние партии сессии после выполнения команды. Неизменяемо и может передаваться
+ * между потоками, в отличие от самой игры.
+ *
+ * @param state          Состояние игры.
+ * @param lives          Оставшиеся жизни игрока.
+ * @param remainingMines Количество мин, оставшихся на поле.
+ * @param openedCells    Количество открытых ячеек.
+ */
+public record MoveResult(MinesweeperGame.GameState state, int lives, int remainingMines, long openedCells) {
+
+    static MoveResult of(MinesweeperGame game) {
+        return new MoveResult(game.getGameState(), game.getPlayer().getLives(),
+                game.getMineField().getMineCount(), game.getMineField().getNumberOfOpenedCells());
+    }
+}
@@ -1,10 +1,10 @@
 package minesweeper.view;
 
-import minesweeper.model.MineCell;
+import minesweeper.model.GameActor;
+import minesweeper.model.GameSnapshot;
 import minesweeper.model.MinesweeperGame;
-// import minesweeper.model.Player; // Не используется напрямую, но game.getPlayer() используется
-import minesweeper.model.events.GameEvent;
-import minesweeper.model.events.GameActionListener;
+import minesweeper.model.SnapshotPublisher;
+import minesweeper.model.events.GameSnapshotListener;
 import minesweeper.model.navigation.CellPosition;
 
 import javax.swing.*;
@@ -14,12 +14,17 @@ import java.awt.event.MouseEvent;
 
 /**
  * Панель Swing, отвечающая за визуальное отображение игры "Сапёр" и обработку ввода пользователя (клики мыши).
- * Эта панель является слушателем событий игры ({@link GameActionListener}) и обновляет свое
- * отображение при получении уведомлений от модели игры ({@link MinesweeperGame}).
+ * <p>
+ * Сама игра ({@link MinesweeperGame}) выполняется в потоке {@link GameActor}: клики только ставят
+ * команды в его очередь, поэтому большая заливка или ход диверсанта не останавливают поток
+ * обработки событий Swing. Отрисовка идет по последнему снимку ({@link GameSnapshot}) от
+ * {@link SnapshotPublisher}; о каждом новом снимке панель узнает как слушатель ({@link GameSnapshotListener})
+ * и запрашивает перерисовку.
  */
-public class MinesweeperPanel extends JPanel implements GameActionListener {
+public class MinesweeperPanel extends JPanel implements GameSnapshotListener {
 
-    private final MinesweeperGame game;
+    private final GameActor actor;
+    private final SnapshotPublisher snapshots;
     private static final int CELL_SIZE = 30;
     private static final int HEADER_HEIGHT = 50;
 
@@ -43,20 +48,30 @@ public class MinesweeperPanel extends JPanel implements GameActionListener {
      */
     private boolean debugShowMines = false; // <<< НОВОЕ ПОЛЕ
 
-    public MinesweeperPanel(MinesweeperGame game) {
-        this.game = game;
-        this.game.addGameActionListener(this);
-
-        int fieldWidth = game.getMineField().getColumns() * CELL_SIZE;
-        int fieldHeight = game.getMineField().getRows() * CELL_SIZE;
+    /**
+     * Создает панель.
+     *
+     * @param actor     Актор, которому принадлежит игра; ему отправляются ходы.
+     * @param snapshots Издатель снимков той же игры, подключенный к актору.
+     */
+    public MinesweeperPanel(GameActor actor, SnapshotPublisher snapshots) {
+        this.actor = actor;
+        this.snapshots = snapshots;
+        this.snapshots.addSnapshotListener(this);
+
+        GameSnapshot initial = snapshots.latest();
+        int fieldWidth = initial.getColumns() * CELL_SIZE;
+        int fieldHeight = initial.getRows() * CELL_SIZE;
         setPreferredSize(new Dimension(fieldWidth, fieldHeight + HEADER_HEIGHT));
         setBackground(Color.LIGHT_GRAY);
 
         addMouseListener(new MouseAdapter() {
             @Override
             public void mousePressed(MouseEvent e) {
-                if (game.getGameState() != MinesweeperGame.GameState.PLAYING &&
-                        game.getGameState() != MinesweeperGame.GameState.NOT_STARTED) { // Разрешим клик, если игра еще не началась (для первого хода)
+                // Состояние по последнему снимку; ход, еще стоящий в очереди, актор проверит сам
+                GameSnapshot snapshot = snapshots.latest();
+                if (snapshot.getGameState() != MinesweeperGame.GameState.PLAYING &&
+                        snapshot.getGameState() != MinesweeperGame.GameState.NOT_STARTED) { // Разрешим клик, если игра еще не началась (для первого хода)
                     // Если игра закончена
                     if (e.getButton() == MouseEvent.BUTTON1) {
                         // Предложить начать новую игру
@@ -68,7 +83,7 @@ public class MinesweeperPanel extends JPanel implements GameActionListener {
                     return;
                 }
                 // Если игра NOT_STARTED, первый клик левой кнопкой должен запустить игру (если такая логика нужна)
-                if (game.getGameState() == MinesweeperGame.GameState.NOT_STARTED && e.getButton() == MouseEvent.BUTTON1) {
+                if (snapshot.getGameState() == MinesweeperGame.GameState.NOT_STARTED && e.getButton() == MouseEvent.BUTTON1) {
                     // Здесь можно было бы добавить логику "первый клик всегда безопасен",
                     // но для этого нужно модифицировать MinesweeperGame.startGame() или добавить новый метод.
                     // Пока просто считаем, что игра начнется с клика.
@@ -81,12 +96,13 @@ public class MinesweeperPanel extends JPanel implements GameActionListener {
 
                 if (e.getY() < HEADER_HEIGHT) return;
 
-                CellPosition clickedPos = new CellPosition(r, c);
-                if (game.getMineField().isValidPosition(clickedPos)) {
+                if (snapshot.isValidPosition(r, c)) {
+                    // Если очередь актора переполнена, клик просто теряется, как при зависшем интерфейсе
+                    CellPosition clickedPos = new CellPosition(r, c);
                     if (e.getButton() == MouseEvent.BUTTON1) {
-                        game.openCell(clickedPos);
+                        actor.open(clickedPos);
                     } else if (e.getButton() == MouseEvent.BUTTON3) {
-                        game.toggleFlag(clickedPos);
+                        actor.toggleFlag(clickedPos);
                     }
                 }
             }
@@ -116,25 +132,27 @@ public class MinesweeperPanel extends JPanel implements GameActionListener {
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        drawHeader(g);
-        drawMineField(g);
+        // Весь кадр рисуется по одному снимку, даже если игра тем временем сделала следующий ход
+        GameSnapshot snapshot = snapshots.latest();
+        drawHeader(g, snapshot);
+        drawMineField(g, snapshot);
 
-        if (game.getGameState() == MinesweeperGame.GameState.WON) {
+        if (snapshot.getGameState() == MinesweeperGame.GameState.WON) {
             drawGameStatus(g, "ПОБЕДА!", Color.GREEN.darker());
-        } else if (game.getGameState() == MinesweeperGame.GameState.LOST) {
+        } else if (snapshot.getGameState() == MinesweeperGame.GameState.LOST) {
             drawGameStatus(g, "ПОРАЖЕНИЕ!", Color.RED.darker());
         }
     }
 
-    private void drawHeader(Graphics g) {
+    private void drawHeader(Graphics g, GameSnapshot snapshot) {
         g.setColor(Color.DARK_GRAY);
         g.fillRect(0, 0, getWidth(), HEADER_HEIGHT);
 
         g.setColor(Color.WHITE);
         g.setFont(new Font("Arial", Font.BOLD, 16));
 
-        String livesText = "Жизни: " + (game.getPlayer() != null ? game.getPlayer().getLives() : "-");
-        String minesText = "Мины: " + (game.getMineField() != null ? countRemainingFlagsOrMines() : "-");
+        String livesText = "Жизни: " + snapshot.getLives();
+        String minesText = "Мины: " + snapshot.getRemainingMines();
 
         g.drawString(livesText, 10, HEADER_HEIGHT / 2 + 5);
 
@@ -143,60 +161,45 @@ public class MinesweeperPanel extends JPanel implements GameActionListener {
         g.drawString(minesText, getWidth() - minesTextWidth - 10, HEADER_HEIGHT / 2 + 5);
     }
 
-    private int countRemainingFlagsOrMines() {
-        if (game.getMineField() == null) return 0;
-        int flagsSet = 0;
-        for (int r = 0; r < game.getMineField().getRows(); r++) {
-            for (int c = 0; c < game.getMineField().getColumns(); c++) {
-                MineCell cell = game.getMineField().getCell(r,c);
-                if (cell != null && cell.isFlagged()) {
-                    flagsSet++;
-                }
-            }
-        }
-        return game.getMineField().getMineCount() - flagsSet;
-    }
-
-
-    private void drawMineField(Graphics g) {
-        if (game.getMineField() == null) return;
-
-        int rows = game.getMineField().getRows();
-        int cols = game.getMineField().getColumns();
+    private void drawMineField(Graphics g, GameSnapshot snapshot) {
+        int rows = snapshot.getRows();
+        int cols = snapshot.getColumns();
 
         for (int r = 0; r < rows; r++) {
             for (int c = 0; c < cols; c++) {
-                MineCell cell = game.getMineField().getCell(new CellPosition(r, c));
-                if (cell == null) continue;
+                boolean open = snapshot.isOpen(r, c);
+                boolean flagged = snapshot.isFlagged(r, c);
+                boolean mine = snapshot.isMine(r, c);
 
                 int x = c * CELL_SIZE;
                 int y = r * CELL_SIZE + HEADER_HEIGHT;
 
                 // Заливка ячейки
-                if (!cell.isOpen()) {
+                if (!open) {
                     g.setColor(COLOR_CLOSED);
                     g.fillRect(x, y, CELL_SIZE, CELL_SIZE);
-                    if (cell.isFlagged()) {
+                    if (flagged) {
                         drawFlag(g, x, y);
                     }
                     // <<< НАЧАЛО ОТЛАДОЧНОЙ ОТРИСОВКИ МИН >>>
-                    if (debugShowMines && cell.isMine()) {
+                    if (debugShowMines && mine) {
                         // Не рисуем отладочный маркер поверх флага, если флаг уже нарисован
-                        if (!cell.isFlagged()) {
+                        if (!flagged) {
                             drawDebugMineMarker(g, x, y);
                         }
                     }
                     // <<< КОНЕЦ ОТЛАДОЧНОЙ ОТРИСОВКИ МИН >>>
                 } else {
-                    if (cell.isMine()) {
+                    if (mine) {
                         g.setColor(COLOR_MINE);
                         g.fillRect(x, y, CELL_SIZE, CELL_SIZE);
                         drawMineSymbol(g, x, y);
                     } else {
                         g.setColor(COLOR_OPEN_EMPTY);
                         g.fillRect(x, y, CELL_SIZE, CELL_SIZE);
-                        if (cell.getAdjacentMinesCount() > 0) {
-                            drawNumber(g, x, y, cell.getAdjacentMinesCount());
+                        int adjacentMines = snapshot.getAdjacentMinesCount(r, c);
+                        if (adjacentMines > 0) {
+                            drawNumber(g, x, y, adjacentMines);
                         }
                     }
                 }
@@ -273,8 +276,11 @@ public class MinesweeperPanel extends JPanel implements GameActionListener {
     }
 
 
+    /**
+     * Вызывается в потоке игры; {@link #repaint()} можно вызывать из любого потока.
+     */
     @Override
-    public void gameChanged(GameEvent event) {
+    public void snapshotPublished(GameSnapshot snapshot) {
         repaint();
     }
 }
\ No newline at end of file
@@ -0,0 +1,152 @@
+package minesweeper.model;
+
+import minesweeper.model.events.CellChangeListener;
+import minesweeper.model.navigation.CellPosition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardPoolTest {
+
+    private BoardPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new BoardPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    private static int countMines(MineField field) {
+        int count = 0;
+        for (int r = 0; r < field.getRows(); r++) {
+            for (int c = 0; c < field.getColumns(); c++) {
+                if (field.getCell(r, c).isMine()) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private void awaitAvailable(int rows, int cols, int mines, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pool.available(rows, cols, mines, MineField.GenerationMode.UNIFORM) < expected) {
+            assertTrue(System.currentTimeMillis() < deadline, "Пул не заполнился вовремя");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    @DisplayName("take без предварительного заполнения генерирует поле синхронно и считает промах")
+    void take_withoutPrefill_countsMiss() {
+        MineField field = pool.take(6, 7, 10, MineField.GenerationMode.UNIFORM);
+        field.publishPositionRanges();
+
+        assertEquals(6, field.getRows());
+        assertEquals(7, field.getColumns());
+        assertEquals(10, countMines(field));
+        assertEquals(0, pool.getHits());
+        assertEquals(1, pool.getMisses());
+    }
+
+    @Test
+    @DisplayName("prefill заполняет пул, и take выдает готовое поле с попаданием")
+    void prefill_thenTake_countsHitAndRefills() throws InterruptedException {
+        pool.prefill(8, 8, 12, MineField.GenerationMode.UNIFORM);
+        awaitAvailable(8, 8, 12, 2);
+
+        MineField first = pool.take(8, 8, 12, MineField.GenerationMode.UNIFORM);
+        MineField second = pool.take(8, 8, 12, MineField.GenerationMode.UNIFORM);
+        assertNotSame(first, second);
+        assertEquals(2, pool.getHits());
+        assertEquals(0, pool.getMisses());
+
+        first.publishPositionRanges();
+        assertEquals(12, countMines(first));
+
+        awaitAvailable(8, 8, 12, 2); // Пул пополняется после выдачи
+    }
+
+    @Test
+    @DisplayName("Игра с подключенным пулом берет поле из пула при старте")
+    void game_withPool_takesFieldFromPool() throws InterruptedException {
+        MinesweeperGame game = new MinesweeperGame(4, 5, 3, 1, null);
+        game.setBoardPool(pool);
+        awaitAvailable(4, 5, 3, 2);
+
+        game.startGame();
+
+        assertEquals(1, pool.getHits());
+        assertEquals(MinesweeperGame.GameState.PLAYING, game.getGameState());
+        assertEquals(3, countMines(game.getMineField()));
+        assertTrue(CellPosition.isValid(3, 4), "Игра должна опубликовать диапазоны поля из пула");
+        assertFalse(CellPosition.isValid(4, 5));
+    }
+
+    @Test
+    @DisplayName("Одновременные пополнения не генерируют полей сверх размера пула")
+    void concurrentRefills_doNotOvershootTargetSize() throws InterruptedException {
+        pool.close();
+        pool = new BoardPool(2, 4);
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService callers = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                callers.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < 200; i++) {
+                        pool.prefill(5, 5, 4, MineField.GenerationMode.UNIFORM);
+                    }
+                });
+            }
+            start.countDown();
+        }
+        awaitAvailable(5, 5, 4, 2);
+        Thread.sleep(100); // Лишние поля, если бы они были заказаны, успели бы появиться
+        assertEquals(2, pool.available(5, 5, 4, MineField.GenerationMode.UNIFORM));
+    }
+
+    @Test
+    @DisplayName("Поле, возвращенное в пул, не уведомляет прежних слушателей")
+    void recycledField_dropsListeners() {
+        MineFieldRecycler recycler = new MineFieldRecycler(1);
+        MineField field = new MineField(4, 4, 2, false);
+        RegionSummaryIndex index = field.getSummaryIndex();
+        int[] notifications = new int[1];
+        field.addCellChangeListener(new CellChangeListener() {
+            @Override
+            public void cellChanged(int row, int column, int before, int after) {
+                notifications[0]++;
+            }
+
+            @Override
+            public void fieldChanged() {
+                notifications[0]++;
+            }
+        });
+
+        recycler.release(field);
+        MineField reused = recycler.acquire(4, 4, 2);
+        assertSame(field, reused);
+        reused.placeMinesOnNewField(MineField.GenerationMode.UNIFORM);
+        reused.publishPositionRanges();
+        reused.openCellRecursive(new CellPosition(0, 0));
+
+        assertEquals(0, notifications[0]);
+        assertNotSame(index, reused.getSummaryIndex(), "Новая партия строит свой индекс");
+    }
+}
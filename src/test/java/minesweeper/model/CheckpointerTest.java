@@ -0,0 +1,238 @@
+package minesweeper.model;
+
+import minesweeper.model.journal.MoveJournal;
+import minesweeper.model.navigation.CellPosition;
+import minesweeper.model.storage.ChunkedCellStorage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static void assertSameGame(MinesweeperGame expected, MinesweeperGame actual) {
+        assertEquals(expected.getGameState(), actual.getGameState());
+        assertEquals(expected.getPlayer().getLives(), actual.getPlayer().getLives());
+        assertEquals(expected.getSeed(), actual.getSeed());
+        MineField e = expected.getMineField();
+        MineField a = actual.getMineField();
+        assertEquals(e.getMineCount(), a.getMineCount());
+        for (int r = 0; r < e.getRows(); r++) {
+            for (int c = 0; c < e.getColumns(); c++) {
+                assertEquals(e.cellState(r, c), a.cellState(r, c), "Ячейка (" + r + ", " + c + ")");
+                assertEquals(e.getCell(r, c).getAdjacentMinesCount(), a.getCell(r, c).getAdjacentMinesCount());
+            }
+        }
+    }
+
+    private static void playRandomly(MinesweeperGame game, Random random, int moves) {
+        MineField field = game.getMineField();
+        for (int i = 0; i < moves && game.getGameState() == MinesweeperGame.GameState.PLAYING; i++) {
+            CellPosition pos = new CellPosition(random.nextInt(field.getRows()), random.nextInt(field.getColumns()));
+            switch (random.nextInt(6)) {
+                case 0 -> game.toggleFlag(pos);
+                case 1 -> game.undo();
+                default -> game.openCell(pos);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("После контрольной точки помечены только блоки, измененные ходами")
+    void checkpoint_drainsOnlyDirtyChunks() throws IOException {
+        MinesweeperGame game = new MinesweeperGame(200, 150, 3000, 3, null);
+        game.startGame(11);
+        DirtyChunkSet dirty = game.getMineField().getDirtyChunks();
+        assertEquals(4 * 3, dirty.chunkCount());
+
+        try (Checkpointer checkpointer = Checkpointer.create(game, tempDir.resolve("cp"))) {
+            assertTrue(checkpointer.checkpoint());
+            assertEquals(0, dirty.dirtyCount());
+            checkpointer.awaitWritten();
+            assertEquals(1, checkpointer.completedCheckpoints());
+
+            game.toggleFlag(new CellPosition(130, 70)); // Блок (2, 1)
+            game.toggleFlag(new CellPosition(131, 71));
+            assertEquals(1, dirty.dirtyCount());
+            assertTrue(dirty.isDirty(2 * 3 + 1));
+
+            assertTrue(checkpointer.checkpoint());
+            checkpointer.awaitWritten();
+            assertEquals(2, checkpointer.completedCheckpoints());
+        }
+        assertSameGame(game, Checkpointer.recover(tempDir.resolve("cp"), null, null));
+    }
+
+    @Test
+    @DisplayName("Игра восстанавливается из контрольной точки и хвоста журнала")
+    void recover_replaysJournalTail() throws IOException {
+        Path journalFile = tempDir.resolve("game.journal");
+        Path directory = tempDir.resolve("cp");
+        MinesweeperGame game = new MinesweeperGame(90, 70, 400, 5, new RelocatingSaboteur());
+        Random random = new Random(21);
+        try (MoveJournal journal = MoveJournal.create(journalFile);
+             Checkpointer checkpointer = Checkpointer.create(game, directory)) {
+            game.setMoveJournal(journal);
+            game.startGame(8);
+            playRandomly(game, random, 150);
+            boolean couldUndo = game.canUndo();
+            assertTrue(checkpointer.checkpoint());
+            assertEquals(couldUndo, game.canUndo(), "Контрольная точка не трогает историю ходов");
+            playRandomly(game, random, 150);
+            checkpointer.awaitWritten();
+            journal.sync();
+        }
+
+        assertSameGame(game, Checkpointer.recover(directory, journalFile, new RelocatingSaboteur()));
+    }
+
+    @Test
+    @DisplayName("Если запись точки прервана до подмены манифеста, действует предыдущая точка")
+    void interruptedCheckpoint_keepsPreviousManifest() throws IOException {
+        Path journalFile = tempDir.resolve("game.journal");
+        Path directory = tempDir.resolve("cp");
+        Path savedManifest = tempDir.resolve("manifest.copy");
+        MinesweeperGame game = new MinesweeperGame(100, 100, 900, 4, null);
+        Random random = new Random(5);
+        try (MoveJournal journal = MoveJournal.create(journalFile);
+             Checkpointer checkpointer = Checkpointer.create(game, directory)) {
+            game.setMoveJournal(journal);
+            game.startGame(3);
+            playRandomly(game, random, 60);
+            checkpointer.checkpoint();
+            checkpointer.awaitWritten();
+            Files.copy(directory.resolve(Checkpointer.MANIFEST_FILE), savedManifest);
+
+            playRandomly(game, random, 60);
+            checkpointer.checkpoint();
+            checkpointer.awaitWritten();
+            playRandomly(game, random, 30);
+            journal.sync();
+        }
+        // Страницы второй точки записаны, но манифест остался прежним, как при сбое перед подменой
+        Files.copy(savedManifest, directory.resolve(Checkpointer.MANIFEST_FILE), StandardCopyOption.REPLACE_EXISTING);
+
+        assertSameGame(game, Checkpointer.recover(directory, journalFile, null));
+    }
+
+    @Test
+    @DisplayName("Отмена хода, сделанного до контрольной точки, восстанавливается по журналу целиком")
+    void recover_undoPastCheckpoint_replaysWholeJournal() throws IOException {
+        Path journalFile = tempDir.resolve("game.journal");
+        Path directory = tempDir.resolve("cp");
+        MinesweeperGame game = new MinesweeperGame(40, 40, 100, 5, null);
+        try (MoveJournal journal = MoveJournal.create(journalFile);
+             Checkpointer checkpointer = Checkpointer.create(game, directory)) {
+            game.setMoveJournal(journal);
+            game.startGame(4);
+            game.toggleFlag(new CellPosition(0, 0));
+            game.toggleFlag(new CellPosition(1, 1));
+            assertTrue(checkpointer.checkpoint());
+            checkpointer.awaitWritten();
+            assertTrue(game.undo());
+            assertTrue(game.undo());
+            assertFalse(game.getMineField().getCell(0, 0).isFlagged());
+            journal.sync();
+        }
+
+        MinesweeperGame recovered = Checkpointer.recover(directory, journalFile, null);
+        assertSameGame(game, recovered);
+        assertTrue(recovered.redo(), "История ходов восстановлена вместе с партией");
+        assertTrue(recovered.getMineField().getCell(0, 0).isFlagged());
+    }
+
+    @Test
+    @DisplayName("Ошибка записи манифеста не освобождает места, на которые ссылается действующий манифест")
+    void failedManifestWrite_keepsLastGoodCheckpoint() throws IOException {
+        Path journalFile = tempDir.resolve("game.journal");
+        Path directory = tempDir.resolve("cp");
+        Path savedManifest = tempDir.resolve("manifest.copy");
+        Path blocker = directory.resolve("manifest.tmp");
+        MinesweeperGame game = new MinesweeperGame(100, 100, 900, 4, null);
+        Random random = new Random(17);
+        try (MoveJournal journal = MoveJournal.create(journalFile);
+             Checkpointer checkpointer = Checkpointer.create(game, directory)) {
+            game.setMoveJournal(journal);
+            game.startGame(6);
+            playRandomly(game, random, 60);
+            checkpointer.checkpoint();
+            checkpointer.awaitWritten();
+            Files.copy(directory.resolve(Checkpointer.MANIFEST_FILE), savedManifest);
+
+            // Каталог на месте временного файла: страницы пишутся, а манифест — нет
+            Files.createDirectories(blocker.resolve("x"));
+            playRandomly(game, random, 60);
+            checkpointer.checkpoint();
+            assertThrows(IOException.class, checkpointer::awaitWritten);
+            assertEquals(1, checkpointer.completedCheckpoints());
+            Files.delete(blocker.resolve("x"));
+            Files.delete(blocker);
+
+            playRandomly(game, random, 60);
+            assertTrue(checkpointer.checkpoint());
+            checkpointer.awaitWritten();
+            assertEquals(2, checkpointer.completedCheckpoints());
+            journal.sync();
+        }
+        // Сбой перед подменой манифеста третьей точки: действует первая, и ее страницы должны быть целы
+        Files.copy(savedManifest, directory.resolve(Checkpointer.MANIFEST_FILE), StandardCopyOption.REPLACE_EXISTING);
+
+        assertSameGame(game, Checkpointer.recover(directory, journalFile, null));
+    }
+
+    @Test
+    @DisplayName("Поле, вернувшееся из пула тем же объектом, снова сохраняется целиком")
+    void recycledSameField_isCheckpointedAgain() throws IOException {
+        MinesweeperGame game = new MinesweeperGame(200, 150, 3000, 3, null);
+        game.startGame(11);
+        try (Checkpointer checkpointer = Checkpointer.create(game, tempDir.resolve("cp"))) {
+            assertTrue(checkpointer.checkpoint());
+            checkpointer.awaitWritten();
+
+            game.getMineField().detachListeners(); // Как при возврате поля в пул
+            game.toggleFlag(new CellPosition(130, 70));
+            assertTrue(checkpointer.checkpoint());
+            checkpointer.awaitWritten();
+        }
+        MinesweeperGame recovered = Checkpointer.recover(tempDir.resolve("cp"), null, null);
+        assertTrue(recovered.getMineField().getCell(130, 70).isFlagged());
+        assertSameGame(game, recovered);
+    }
+
+    @Test
+    @DisplayName("Для блочного хранилища страницы собираются не в потоке игры")
+    void cheaplyForkedStorage_isCopiedOffGameThread() throws IOException {
+        Thread gameThread = Thread.currentThread();
+        AtomicInteger gameThreadReads = new AtomicInteger();
+        ChunkedCellStorage storage = new ChunkedCellStorage(300, 300) {
+            @Override
+            public boolean isOpen(int row, int column) {
+                if (Thread.currentThread() == gameThread) {
+                    gameThreadReads.incrementAndGet();
+                }
+                return super.isOpen(row, column);
+            }
+        };
+        MinesweeperGame game = new MinesweeperGame(new MineField(storage, 9000), 9000, 3, null);
+        game.startGame(5);
+        playRandomly(game, new Random(3), 40);
+        try (Checkpointer checkpointer = Checkpointer.create(game, tempDir.resolve("cp"))) {
+            gameThreadReads.set(0);
+            assertTrue(checkpointer.checkpoint());
+            assertEquals(0, gameThreadReads.get());
+            checkpointer.awaitWritten();
+        }
+        assertSameGame(game, Checkpointer.recover(tempDir.resolve("cp"), null, null));
+    }
+}
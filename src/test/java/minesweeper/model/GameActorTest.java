@@ -0,0 +1,181 @@
+package minesweeper.model;
+
+import minesweeper.model.events.GameEvent;
+import minesweeper.model.events.GameEventBatch;
+import minesweeper.model.navigation.CellPosition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameActorTest {
+
+    @Test
+    @DisplayName("Команды нескольких отправителей применяются все и в порядке каждого отправителя")
+    void commandsFromManyProducers_applyInOrder() throws Exception {
+        MinesweeperGame game = new MinesweeperGame(8, 8, 0, 1, null);
+        game.startGame(1);
+        List<GameEventBatch> batches = new ArrayList<>();
+        int producers = 4;
+        int perProducer = 5001; // Нечетное число переключений: в конце флаг стоит
+        try (GameActor actor = new GameActor(game, 64, Thread.ofPlatform().factory())) {
+            actor.addBatchListener(batches::add);
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                CellPosition pos = new CellPosition(p, p);
+                threads.add(Thread.ofPlatform().start(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        while (!actor.toggleFlag(pos)) {
+                            Thread.onSpinWait(); // Очередь заполнена
+                        }
+                    }
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            CompletableFuture<Integer> flags = new CompletableFuture<>();
+            assertTrue(actor.execute(g -> {
+                int count = 0;
+                for (int p = 0; p < producers; p++) {
+                    count += g.getMineField().getCell(p, p).isFlagged() ? 1 : 0;
+                }
+                flags.complete(count);
+            }));
+            assertEquals(producers, flags.get(5, TimeUnit.SECONDS));
+        }
+
+        int commands = batches.stream().mapToInt(GameEventBatch::getCommandCount).sum();
+        assertEquals(producers * perProducer + 1, commands);
+        GameEventBatch first = batches.get(0);
+        assertTrue(first.getUpdatedCells().size() <= producers, "Изменения одной ячейки в пачке объединяются");
+        assertTrue(batches.stream().anyMatch(b -> b.getEventCount() > b.getUpdatedCells().size()),
+                "Под нагрузкой команды должны приходить пачками");
+    }
+
+    @Test
+    @DisplayName("Заполненная очередь не принимает команды, после разгрузки принимает снова")
+    void fullMailbox_rejectsCommands() throws Exception {
+        MinesweeperGame game = new MinesweeperGame(4, 4, 0, 1, null);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<GameEventBatch> batches = new ArrayList<>();
+        try (GameActor actor = new GameActor(game, 4, Thread.ofPlatform().factory())) {
+            actor.addBatchListener(batches::add);
+            assertTrue(actor.execute(g -> {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertTrue(actor.startGame());
+            for (int i = 0; i < 3; i++) {
+                assertTrue(actor.toggleFlag(new CellPosition(0, i)));
+            }
+            assertFalse(actor.toggleFlag(new CellPosition(1, 1)), "Очередь на 4 команды заполнена");
+            release.countDown();
+        }
+        assertFalse(game.getMineField().getCell(1, 1).isFlagged());
+        assertTrue(game.getMineField().getCell(0, 2).isFlagged());
+        assertEquals(5, batches.stream().mapToInt(GameEventBatch::getCommandCount).sum());
+        assertTrue(batches.stream().anyMatch(b -> b.contains(GameEvent.Type.GAME_STARTED) && b.isFieldUpdated()));
+        assertEquals(List.of(new CellPosition(0, 0), new CellPosition(0, 1), new CellPosition(0, 2)),
+                batches.stream().flatMap(b -> b.getUpdatedCells().stream()).toList());
+    }
+
+    @Test
+    @DisplayName("При открытии частями промежуточные результаты рассылаются сразу, посреди команды")
+    void progressiveReveal_publishesPartialBatches() throws Exception {
+        MinesweeperGame game = new MinesweeperGame(100, 100, 0, 1, null);
+        game.startGame(1);
+        game.setRevealSlice(1000, 0);
+        List<GameEventBatch> batches = new ArrayList<>();
+        try (GameActor actor = new GameActor(game)) {
+            actor.addBatchListener(batches::add);
+            assertTrue(actor.open(new CellPosition(50, 50)));
+        }
+        assertTrue(batches.size() > 1);
+        GameEventBatch first = batches.get(0);
+        assertTrue(first.contains(GameEvent.Type.REVEAL_PROGRESS));
+        assertEquals(0, first.getCommandCount(), "Команда еще выполняется");
+        GameEventBatch last = batches.get(batches.size() - 1);
+        assertEquals(1, last.getCommandCount());
+        assertTrue(last.contains(GameEvent.Type.GAME_OVER_WON));
+    }
+
+    @Test
+    @DisplayName("Части открытия, пришедшие чаще интервала, сливаются в одну промежуточную рассылку")
+    void progressiveReveal_coalescesSlicesWithinInterval() {
+        MinesweeperGame game = new MinesweeperGame(100, 100, 0, 1, null);
+        game.startGame(1);
+        game.setRevealSlice(100, 0);
+        List<GameEventBatch> batches = new ArrayList<>();
+        try (GameActor actor = new GameActor(game)) {
+            assertThrows(IllegalArgumentException.class, () -> actor.setProgressInterval(-1));
+            actor.setProgressInterval(TimeUnit.HOURS.toMicros(1));
+            actor.addBatchListener(batches::add);
+            assertTrue(actor.open(new CellPosition(50, 50)));
+        }
+        assertEquals(2, batches.size(), "Одна промежуточная сводка и итог команды");
+        assertTrue(batches.get(0).contains(GameEvent.Type.REVEAL_PROGRESS));
+        assertEquals(1, batches.get(1).getCommandCount());
+        assertTrue(batches.get(1).contains(GameEvent.Type.GAME_OVER_WON));
+    }
+
+    @Test
+    @DisplayName("Сбой слушателя или Error в команде передается обработчику потока, а актор продолжает работу")
+    void failingListenerAndError_doNotStopActor() throws Exception {
+        MinesweeperGame game = new MinesweeperGame(8, 8, 0, 1, null);
+        game.startGame(1);
+        List<Throwable> reported = new CopyOnWriteArrayList<>();
+        List<GameEventBatch> batches = new CopyOnWriteArrayList<>();
+        ThreadFactory factory = Thread.ofPlatform().uncaughtExceptionHandler((t, e) -> reported.add(e)).factory();
+        try (GameActor actor = new GameActor(game, 16, factory)) {
+            actor.addBatchListener(batch -> {
+                throw new IllegalArgumentException("слушатель");
+            });
+            actor.addBatchListener(batches::add);
+            assertTrue(actor.toggleFlag(new CellPosition(0, 0)));
+            assertTrue(actor.execute(g -> {
+                throw new AssertionError("команда");
+            }));
+            CompletableFuture<Boolean> flagged = new CompletableFuture<>();
+            assertTrue(actor.execute(g -> flagged.complete(g.getMineField().getCell(0, 0).isFlagged())));
+            assertTrue(flagged.get(5, TimeUnit.SECONDS));
+        }
+        assertFalse(batches.isEmpty(), "Остальные слушатели получают сводки");
+        assertTrue(reported.stream().anyMatch(e -> e instanceof IllegalArgumentException));
+        assertTrue(reported.stream().anyMatch(e -> e instanceof AssertionError));
+    }
+
+    @Test
+    @DisplayName("После завершения потока актора команды не принимаются")
+    void deadThread_rejectsCommands() throws Exception {
+        MinesweeperGame game = new MinesweeperGame(8, 8, 0, 1, null);
+        game.startGame(1);
+        ThreadFactory factory = Thread.ofPlatform().uncaughtExceptionHandler((t, e) -> {
+            throw new IllegalStateException("обработчик");
+        }).factory();
+        GameActor actor = new GameActor(game, 16, factory);
+        assertTrue(actor.execute(g -> {
+            throw new IllegalArgumentException("команда");
+        }));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (actor.toggleFlag(new CellPosition(0, 0))) {
+            assertTrue(System.nanoTime() < deadline, "Актор принимает команды после завершения потока");
+            Thread.sleep(1);
+        }
+        actor.close();
+    }
+}
@@ -0,0 +1,107 @@
+package minesweeper.model;
+
+import minesweeper.model.navigation.CellPosition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSaveFormatTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static void assertSameGame(MinesweeperGame expected, MinesweeperGame actual) {
+        assertEquals(expected.getGameState(), actual.getGameState());
+        assertEquals(expected.getPlayer().getLives(), actual.getPlayer().getLives());
+        assertEquals(expected.getSeed(), actual.getSeed());
+        assertEquals(expected.getGenerationMode(), actual.getGenerationMode());
+        MineField e = expected.getMineField();
+        MineField a = actual.getMineField();
+        assertEquals(e.getMineCount(), a.getMineCount());
+        assertEquals(e.getNumberOfOpenedCells(), a.getNumberOfOpenedCells());
+        for (int r = 0; r < e.getRows(); r++) {
+            for (int c = 0; c < e.getColumns(); c++) {
+                assertEquals(e.cellState(r, c), a.cellState(r, c), "Ячейка (" + r + ", " + c + ")");
+                assertEquals(e.getCell(r, c).getAdjacentMinesCount(), a.getCell(r, c).getAdjacentMinesCount());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Сохраненная партия загружается в том же состоянии и продолжается")
+    void saveAndLoad_roundTrip() throws IOException {
+        MinesweeperGame game = new MinesweeperGame(13, 17, 30, 3, null);
+        game.startGame(99);
+        Random random = new Random(4);
+        for (int i = 0; i < 40 && game.getGameState() == MinesweeperGame.GameState.PLAYING; i++) {
+            CellPosition pos = new CellPosition(random.nextInt(13), random.nextInt(17));
+            if (random.nextInt(4) == 0) {
+                game.toggleFlag(pos);
+            } else {
+                game.openCell(pos);
+            }
+        }
+
+        Path file = tempDir.resolve("game.sav");
+        GameSaveFormat.save(game, file);
+        MinesweeperGame loaded = GameSaveFormat.load(file);
+        assertSameGame(game, loaded);
+
+        if (loaded.getGameState() == MinesweeperGame.GameState.PLAYING) {
+            for (int r = 0; r < 13; r++) {
+                for (int c = 0; c < 17; c++) {
+                    if (!loaded.getMineField().getCell(r, c).isMine()) {
+                        loaded.openCell(new CellPosition(r, c));
+                    }
+                }
+            }
+            assertEquals(MinesweeperGame.GameState.WON, loaded.getGameState());
+        }
+    }
+
+    @Test
+    @DisplayName("Поле 1000×1000 сохраняется в несколько сотен килобайт")
+    void largeBoard_isCompact() throws IOException {
+        MinesweeperGame game = new MinesweeperGame(1000, 1000, 150_000, 1_000_000, null);
+        game.startGame(1);
+        Random random = new Random(8);
+        for (int i = 0; i < 2000; i++) {
+            game.openCell(new CellPosition(random.nextInt(1000), random.nextInt(1000)));
+            game.toggleFlag(new CellPosition(random.nextInt(1000), random.nextInt(1000)));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameSaveFormat.write(game, out);
+        assertTrue(out.size() < 300 * 1024, "Размер сохранения: " + out.size());
+
+        MinesweeperGame loaded = GameSaveFormat.read(ByteBuffer.wrap(out.toByteArray()), null);
+        assertSameGame(game, loaded);
+    }
+
+    @Test
+    @DisplayName("Поврежденное или чужое сохранение не загружается")
+    void corruptedData_isRejected() throws IOException {
+        MinesweeperGame game = new MinesweeperGame(5, 5, 3, 1, null);
+        game.startGame(7);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GameSaveFormat.write(game, out);
+        byte[] data = out.toByteArray();
+
+        byte[] damaged = data.clone();
+        damaged[GameSaveFormat.HEADER_SIZE] ^= 1;
+        assertThrows(IOException.class, () -> GameSaveFormat.read(ByteBuffer.wrap(damaged), null));
+
+        Path other = tempDir.resolve("other.bin");
+        Files.write(other, new byte[128]);
+        assertThrows(IOException.class, () -> GameSaveFormat.load(other));
+    }
+}
@@ -0,0 +1,52 @@
+package minesweeper.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HypergeometricTest {
+
+    @Test
+    @DisplayName("Вырожденные случаи возвращают единственно возможное значение")
+    void sample_degenerateCases() {
+        SplittableRandom random = new SplittableRandom(1);
+        assertEquals(0, Hypergeometric.sample(random, 100, 0, 50));
+        assertEquals(50, Hypergeometric.sample(random, 100, 100, 50));
+        assertEquals(30, Hypergeometric.sample(random, 100, 30, 100));
+        assertEquals(0, Hypergeometric.sample(random, 100, 30, 0));
+        assertEquals(5, Hypergeometric.sample(random, 10, 5, 10), "Выбрана вся совокупность");
+        long value = Hypergeometric.sample(random, 100, 90, 20);
+        assertTrue(value >= 10 && value <= 20, "Не меньше 20 - (100 - 90) и не больше 20");
+    }
+
+    @Test
+    @DisplayName("Выборки лежат в допустимых границах и имеют ожидаемое среднее")
+    void sample_staysInBoundsWithExpectedMean() {
+        SplittableRandom random = new SplittableRandom(7);
+        long population = 1_000_000;
+        long successes = 150_000;
+        long draws = 20_000;
+        double expectedMean = (double) draws * successes / population; // 3000
+        int samples = 2000;
+        double sum = 0;
+        for (int i = 0; i < samples; i++) {
+            long value = Hypergeometric.sample(random, population, successes, draws);
+            assertTrue(value >= 0 && value <= draws);
+            sum += value;
+        }
+        double mean = sum / samples;
+        // Стандартное отклонение одной выборки около 50, среднего по 2000 выборкам — около 1.1
+        assertEquals(expectedMean, mean, 6.0);
+    }
+
+    @Test
+    @DisplayName("Некорректные параметры отклоняются")
+    void sample_rejectsInvalidParameters() {
+        SplittableRandom random = new SplittableRandom(1);
+        assertThrows(IllegalArgumentException.class, () -> Hypergeometric.sample(random, 10, 11, 5));
+        assertThrows(IllegalArgumentException.class, () -> Hypergeometric.sample(random, 10, 5, 11));
+    }
+}
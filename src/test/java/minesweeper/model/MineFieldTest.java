@@ -1,6 +1,8 @@
 package minesweeper.model;
 
+import minesweeper.model.events.CellChangeListener;
 import minesweeper.model.navigation.CellPosition;
+import minesweeper.model.storage.ChunkedCellStorage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -8,6 +10,9 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -289,4 +294,206 @@ class MineFieldTest {
         assertEquals(7, boundary.size(), "Ячейка с миной не должна быть в списке для перемещения");
         assertFalse(boundary.contains(new CellPosition(0,0)));
     }
-}
\ No newline at end of file
+
+    private static int countMines(MineField mineField) {
+        int count = 0;
+        for (int r = 0; r < mineField.getRows(); r++) {
+            for (int c = 0; c < mineField.getColumns(); c++) {
+                if (mineField.getCell(r, c).isMine()) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Test
+    @DisplayName("placeMinesOnNewField размещает точное количество мин при высокой плотности")
+    void placeMinesOnNewField_highDensity_placesExactCount() {
+        MineField dense = new MineField(4, 4, 13);
+        dense.placeMinesOnNewField();
+        assertEquals(13, countMines(dense));
+        assertEquals(13, dense.getMineCount());
+    }
+
+    @Test
+    @DisplayName("reset сбрасывает ячейки на месте, не пересоздавая их")
+    void reset_clearsCellsInPlace() {
+        field.placeMinesOnNewField();
+        MineCell corner = field.getCell(0, 0);
+        corner.setOpen(true);
+        field.getCell(4, 4).toggleFlag();
+
+        field.reset(3);
+
+        assertSame(corner, field.getCell(0, 0), "Ячейки должны переиспользоваться");
+        assertEquals(0, countMines(field));
+        assertEquals(0, field.getNumberOfOpenedCells());
+        assertFalse(field.getCell(4, 4).isFlagged());
+        assertEquals(3, field.getMineCount());
+
+        field.placeMinesOnNewField();
+        assertEquals(3, countMines(field));
+    }
+
+    @Test
+    @DisplayName("reseed делает расстановку мин воспроизводимой")
+    void reseed_makesLayoutReproducible() {
+        MineField other = new MineField(ROWS, COLS, MINES);
+        field.reseed(42);
+        other.reseed(42);
+        field.placeMinesOnNewField();
+        other.placeMinesOnNewField();
+
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < COLS; c++) {
+                assertEquals(field.getCell(r, c).isMine(), other.getCell(r, c).isMine());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("MineFieldRecycler выдает сброшенное поле того же размера")
+    void recycler_reusesReleasedField() {
+        MineFieldRecycler recycler = new MineFieldRecycler(1);
+        field.placeMinesOnNewField();
+        recycler.release(field);
+        assertEquals(1, recycler.available(ROWS, COLS));
+
+        MineField reused = recycler.acquire(ROWS, COLS, 2);
+        assertSame(field, reused);
+        assertEquals(0, countMines(reused));
+        assertEquals(2, reused.getMineCount());
+
+        MineField fresh = recycler.acquire(ROWS, COLS, 2);
+        assertNotSame(field, fresh);
+    }
+
+    @Test
+    @DisplayName("Параллельная генерация полосами размещает точное количество мин и верные числа")
+    void placeMinesOnNewField_parallelStripes_matchesSequentialCounts() {
+        MineField large = new MineField(300, 200, 9000);
+        large.placeMinesOnNewField(MineField.GenerationMode.PARALLEL_STRIPES);
+        assertEquals(9000, countMines(large));
+        assertEquals(9000, large.getMineCount());
+
+        int[][] parallelCounts = new int[300][200];
+        for (int r = 0; r < 300; r++) {
+            for (int c = 0; c < 200; c++) {
+                parallelCounts[r][c] = large.getCell(r, c).getAdjacentMinesCount();
+            }
+        }
+        large.calculateAllAdjacentMines();
+        for (int r = 0; r < 300; r++) {
+            for (int c = 0; c < 200; c++) {
+                assertEquals(large.getCell(r, c).getAdjacentMinesCount(), parallelCounts[r][c],
+                        "Число соседей в (" + r + "," + c + ") должно совпадать с последовательным подсчетом");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Снимок не меняется при ходах на живом поле и читается из другого потока")
+    void snapshot_isIsolatedFromLiveField() throws Exception {
+        MineField live = new MineField(new ChunkedCellStorage(200, 200), 400);
+        live.reseed(9);
+        live.placeMinesOnNewField();
+        MineField snapshot = live.snapshot();
+        int[][] expected = new int[200][200];
+        for (int r = 0; r < 200; r++) {
+            for (int c = 0; c < 200; c++) {
+                expected[r][c] = snapshot.getCell(r, c).getAdjacentMinesCount();
+            }
+        }
+
+        Thread reader = new Thread(() -> {
+            for (int pass = 0; pass < 20; pass++) {
+                for (int r = 0; r < 200; r++) {
+                    for (int c = 0; c < 200; c++) {
+                        if (snapshot.getStorage().isOpen(r, c)
+                                || snapshot.getStorage().adjacentMines(r, c) != expected[r][c]) {
+                            throw new AssertionError("Снимок изменился в (" + r + "," + c + ")");
+                        }
+                    }
+                }
+            }
+        });
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        reader.setUncaughtExceptionHandler((t, e) -> failures.add(e));
+        reader.start();
+        for (int r = 0; r < 200; r += 3) {
+            for (int c = 0; c < 200; c += 7) {
+                live.openCellRecursive(new CellPosition(r, c));
+                live.relocateMine(new CellPosition(r, c), new CellPosition(199 - r, 199 - c));
+            }
+        }
+        reader.join();
+
+        assertTrue(failures.isEmpty(), () -> failures.get(0).toString());
+        assertTrue(live.getNumberOfOpenedCells() > 0);
+        assertEquals(0, snapshot.getNumberOfOpenedCells());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.openCellRecursive(new CellPosition(0, 0)));
+    }
+
+    @Test
+    @DisplayName("Копия поля по умолчанию независима от оригинала")
+    void fork_ofDefaultGrid_isIndependent() {
+        MineField field = new MineField(8, 8, 0);
+        field.getCell(3, 3).setMine(true);
+        field.calculateAllAdjacentMines();
+        MineField fork = field.fork();
+
+        assertFalse(fork.openCellRecursive(new CellPosition(0, 0)));
+        assertEquals(0, field.getNumberOfOpenedCells());
+        assertEquals(63, fork.getNumberOfOpenedCells());
+        assertEquals(1, fork.getCell(2, 2).getAdjacentMinesCount());
+    }
+
+    @Test
+    @DisplayName("Параллельное открытие большой области дает то же состояние, что и последовательное")
+    void openCellRecursive_parallel_matchesSequential() {
+        MineField sequential = MineField.forDensity(600, 600, 1000);
+        MineField parallel = MineField.forDensity(600, 600, 1000);
+        for (MineField f : List.of(sequential, parallel)) {
+            f.reseed(11);
+            f.placeMinesOnNewField();
+            for (int c = 100; c < 500; c++) {
+                f.toggleFlag(new CellPosition(300, c)); // Флаги останавливают заливку
+            }
+        }
+        int row = 0;
+        int column = 0;
+        while (sequential.getCell(row, column).getAdjacentMinesCount() != 0) {
+            column++;
+        }
+        AtomicInteger notified = new AtomicInteger();
+        parallel.addCellChangeListener(new CellChangeListener() {
+            @Override
+            public void cellChanged(int r, int c, int before, int after) {
+                notified.incrementAndGet();
+            }
+
+            @Override
+            public void fieldChanged() {
+            }
+        });
+
+        assertFalse(sequential.openCellRecursive(new CellPosition(row, column), null));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertFalse(parallel.openCellRecursive(new CellPosition(row, column), pool));
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(sequential.getNumberOfOpenedCells() > MineField.PARALLEL_REVEAL_THRESHOLD,
+                "Область должна быть достаточно большой для параллельного поиска");
+        assertEquals(sequential.getNumberOfOpenedCells(), parallel.getNumberOfOpenedCells());
+        assertEquals(parallel.getNumberOfOpenedCells(), notified.get(), "Каждая ячейка открыта ровно один раз");
+        for (int r = 0; r < 600; r++) {
+            for (int c = 0; c < 600; c++) {
+                assertEquals(sequential.getCell(r, c).isOpen(), parallel.getCell(r, c).isOpen(), "(" + r + ", " + c + ")");
+                assertEquals(sequential.getCell(r, c).isFlagged(), parallel.getCell(r, c).isFlagged(), "(" + r + ", " + c + ")");
+            }
+        }
+    }
+}
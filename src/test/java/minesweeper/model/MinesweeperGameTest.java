@@ -2,13 +2,18 @@ package minesweeper.model;
 
 import minesweeper.model.events.GameActionListener;
 import minesweeper.model.events.GameEvent;
+import minesweeper.model.events.GameEventBatch;
 import minesweeper.model.navigation.CellPosition;
+import minesweeper.model.storage.MineCellGrid;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -244,4 +249,256 @@ class MinesweeperGameTest {
         assertTrue(listener.hasEventOfType(GameEvent.Type.CELL_UPDATED));
         assertEquals(1, listener.receivedEvents.size());
     }
-}
\ No newline at end of file
+
+    /**
+     * Игра 3x3 с единственной миной в (0,0) и открытой ячейкой (1,1) с числом 1.
+     */
+    private MinesweeperGame gameWithCornerMine(int lives) {
+        MineField field = new MineField(3, 3, 1);
+        field.getCell(0, 0).setMine(true);
+        field.calculateAllAdjacentMines();
+        MinesweeperGame chordGame = new MinesweeperGame(field, 1, lives, null);
+        chordGame.restore(field, lives, MinesweeperGame.GameState.PLAYING, OptionalLong.empty());
+        chordGame.openCell(new CellPosition(1, 1));
+        return chordGame;
+    }
+
+    @Test
+    @DisplayName("chord при верных флагах открывает всех соседей одним ходом")
+    void chord_withMatchingFlags_opensNeighborsAsOneMove() {
+        game = gameWithCornerMine(1);
+        CellPosition center = new CellPosition(1, 1);
+        game.chord(center); // Флагов нет: аккорд невозможен
+        assertFalse(game.getMineField().getCell(0, 1).isOpen());
+
+        game.toggleFlag(new CellPosition(0, 0));
+        game.addGameActionListener(listener);
+        game.chord(center);
+
+        assertEquals(MinesweeperGame.GameState.WON, game.getGameState());
+        assertTrue(listener.hasEventOfType(GameEvent.Type.GAME_OVER_WON));
+        assertTrue(game.undo());
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 3; c++) {
+                assertEquals(r == 1 && c == 1, game.getMineField().getCell(r, c).isOpen(), "(" + r + ", " + c + ")");
+            }
+        }
+        assertEquals(MinesweeperGame.GameState.PLAYING, game.getGameState());
+    }
+
+    @Test
+    @DisplayName("chord при неверном флаге открывает мину")
+    void chord_withWrongFlag_hitsMine() {
+        game = gameWithCornerMine(1);
+        game.toggleFlag(new CellPosition(0, 1));
+        game.chord(new CellPosition(1, 1));
+
+        assertEquals(MinesweeperGame.GameState.LOST, game.getGameState());
+        assertTrue(game.getMineField().getCell(0, 0).isOpen());
+    }
+
+    @Test
+    @DisplayName("Повторный startGame сбрасывает прежнее поле на месте")
+    void startGame_again_reusesFieldInPlace() {
+        game = new MinesweeperGame(4, 4, 3, 1, null);
+        game.startGame();
+        MineField firstField = game.getMineField();
+        game.toggleFlag(new CellPosition(0, 0));
+
+        game.startGame();
+
+        assertSame(firstField, game.getMineField());
+        assertFalse(game.getMineField().getCell(0, 0).isFlagged());
+        assertEquals(3, game.getMineField().getMineCount());
+    }
+
+    @Test
+    @DisplayName("Открытие частями дает промежуточные события и то же итоговое поле, что открытие целиком")
+    void openCell_progressiveReveal_matchesAtomic() {
+        MinesweeperGame atomic = new MinesweeperGame(120, 120, 60, 3, null);
+        MinesweeperGame progressive = new MinesweeperGame(120, 120, 60, 3, null);
+        progressive.setRevealSlice(500, 0);
+        progressive.addGameActionListener(listener);
+        List<Long> openedAtProgress = new ArrayList<>();
+        progressive.addGameActionListener(event -> {
+            if (event.getType() == GameEvent.Type.REVEAL_PROGRESS) {
+                openedAtProgress.add(progressive.getMineField().getNumberOfOpenedCells());
+            }
+        });
+        atomic.startGame(3);
+        progressive.startGame(3);
+        CellPosition empty = null;
+        for (int i = 0; i < 120 * 120 && empty == null; i++) {
+            if (atomic.getMineField().getCell(i / 120, i % 120).getAdjacentMinesCount() == 0) {
+                empty = new CellPosition(i / 120, i % 120);
+            }
+        }
+        assertNotNull(empty);
+        listener.clearEvents();
+
+        atomic.openCell(empty);
+        progressive.openCell(empty);
+
+        long total = atomic.getMineField().getNumberOfOpenedCells();
+        assertTrue(total > 1000, "Область должна открыться не за одну часть");
+        assertFalse(openedAtProgress.isEmpty());
+        for (int i = 0; i < openedAtProgress.size(); i++) {
+            assertTrue(openedAtProgress.get(i) < total, "Промежуточный результат неполон");
+            assertTrue(i == 0 || openedAtProgress.get(i) > openedAtProgress.get(i - 1), "Область растет");
+        }
+        assertEquals(total, progressive.getMineField().getNumberOfOpenedCells());
+        for (int r = 0; r < 120; r++) {
+            for (int c = 0; c < 120; c++) {
+                assertEquals(atomic.getMineField().getCell(r, c).isOpen(), progressive.getMineField().getCell(r, c).isOpen());
+            }
+        }
+        assertEquals(atomic.getGameState(), progressive.getGameState());
+        assertEquals(GameEvent.Type.CELL_UPDATED, listener.receivedEvents.get(openedAtProgress.size()).getType(),
+                "После промежуточных событий ход завершается обычным CELL_UPDATED");
+        assertThrows(IllegalArgumentException.class, () -> progressive.setRevealSlice(-1, 0));
+    }
+
+    @Test
+    @DisplayName("Команда дает одну пачку со всеми событиями и прямоугольником измененных ячеек")
+    void batchListener_receivesOneBatchPerCommand() {
+        game = new MinesweeperGame(6, 8, 0, 1, null);
+        game.addGameActionListener(listener);
+        List<GameEventBatch> batches = new ArrayList<>();
+        game.addGameEventBatchListener(batches::add);
+
+        game.startGame(1);
+        assertEquals(1, batches.size());
+        assertTrue(batches.get(0).contains(GameEvent.Type.GAME_STARTED));
+        assertEquals(1, batches.get(0).getCommandCount());
+
+        game.toggleFlag(new CellPosition(5, 7));
+        game.toggleFlag(new CellPosition(5, 7));
+        assertEquals(3, batches.size());
+        assertEquals(new GameEventBatch.DirtyRegion(5, 7, 5, 7), batches.get(2).getDirtyRegion());
+
+        listener.clearEvents();
+        game.openCell(new CellPosition(2, 3));
+        assertEquals(4, batches.size());
+        GameEventBatch open = batches.get(3);
+        assertEquals(1, open.getCommandCount());
+        assertEquals(listener.receivedEvents.size(), open.getEventCount(), "Слушатели событий получают те же события");
+        assertTrue(open.contains(GameEvent.Type.CELL_UPDATED));
+        assertTrue(open.contains(GameEvent.Type.GAME_OVER_WON));
+        assertEquals(List.of(new CellPosition(2, 3)), open.getUpdatedCells());
+        assertEquals(new GameEventBatch.DirtyRegion(0, 0, 5, 7), open.getDirtyRegion(), "Заливка открыла все поле");
+
+        game.openCell(new CellPosition(0, 0)); // Игра окончена, команда ничего не меняет
+        assertEquals(5, batches.size());
+        assertEquals(0, batches.get(4).getEventCount());
+        assertNull(batches.get(4).getDirtyRegion());
+    }
+
+    @Test
+    @DisplayName("Слушатели, добавленные и удаленные во время рассылки, не ломают ее")
+    void listeners_modifiedDuringDispatch() {
+        game = new MinesweeperGame(3, 3, 0, 1, null);
+        List<GameEvent> late = new ArrayList<>();
+        GameActionListener lateListener = late::add;
+        List<GameEventBatch> batches = new ArrayList<>();
+        game.addGameActionListener(new GameActionListener() {
+            @Override
+            public void gameChanged(GameEvent event) {
+                game.addGameActionListener(lateListener);
+                game.removeGameActionListener(this);
+            }
+        });
+        game.addGameEventBatchListener(batch -> {
+            batches.add(batch);
+            game.addGameEventBatchListener(batches::add);
+        });
+
+        game.startGame(1);
+        assertTrue(late.isEmpty(), "Добавленный во время рассылки слушатель получает только следующие события");
+        assertEquals(1, batches.size());
+
+        game.openCell(new CellPosition(0, 0));
+        assertEquals(List.of(GameEvent.Type.CELL_UPDATED, GameEvent.Type.GAME_OVER_WON),
+                late.stream().map(GameEvent::getType).toList());
+        assertEquals(3, batches.size());
+        assertSame(batches.get(1), batches.get(2));
+    }
+
+    @Test
+    @DisplayName("Победа определяется по счетчику хранилища, даже если ячейки открыты напрямую через MineCell")
+    void win_countsCellsOpenedThroughMineCell() {
+        game = new MinesweeperGame(3, 3, 1, 1, null);
+        game.startGame(7);
+        MineField field = game.getMineField();
+        List<CellPosition> safe = new ArrayList<>();
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 3; c++) {
+                if (!field.getCell(r, c).isMine() && field.getCell(r, c).getAdjacentMinesCount() > 0) {
+                    safe.add(new CellPosition(r, c));
+                }
+            }
+        }
+        assertTrue(safe.size() >= 2);
+        game.openCell(safe.get(0));
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 3; c++) {
+                if (!field.getCell(r, c).isMine() && !safe.get(1).equals(new CellPosition(r, c))) {
+                    field.getCell(r, c).setOpen(true); // В обход методов поля
+                }
+            }
+        }
+        assertEquals(MinesweeperGame.GameState.PLAYING, game.getGameState());
+
+        game.openCell(safe.get(1));
+        assertEquals(MinesweeperGame.GameState.WON, game.getGameState());
+    }
+
+    @Test
+    @DisplayName("Большая область ищется в пуле, заданном игре, и открывается целиком")
+    void revealPool_isUsedForLargeAreas() {
+        AtomicInteger workers = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(2, p -> {
+            workers.incrementAndGet();
+            return ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+        }, null, false);
+        try {
+            game = new MinesweeperGame(600, 600, 0, 1, null);
+            game.startGame(1);
+            game.setRevealPool(pool);
+            game.openCell(new CellPosition(300, 300));
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(MinesweeperGame.GameState.WON, game.getGameState());
+        assertEquals(600L * 600, game.getMineField().getNumberOfOpenedCells());
+        assertTrue(workers.get() > 0, "Поиск должен идти в пуле игры");
+    }
+
+    @Test
+    @DisplayName("Проверка победы берет счетчик открытых ячеек и не просматривает поле")
+    void winCheck_doesNotScanBoard() {
+        AtomicInteger reads = new AtomicInteger();
+        MineCellGrid grid = new MineCellGrid(300, 300) {
+            @Override
+            public boolean isOpen(int row, int column) {
+                reads.incrementAndGet();
+                return super.isOpen(row, column);
+            }
+        };
+        game = new MinesweeperGame(new MineField(grid, 9000), 9000, 3, null);
+        game.startGame(3);
+        MineField field = game.getMineField();
+        CellPosition numbered = null;
+        for (int i = 0; i < 300 * 300 && numbered == null; i++) {
+            MineCell cell = field.getCell(i / 300, i % 300);
+            if (!cell.isMine() && cell.getAdjacentMinesCount() > 0) {
+                numbered = cell.getPosition();
+            }
+        }
+        assertNotNull(numbered);
+
+        reads.set(0);
+        game.openCell(numbered);
+        assertEquals(1, field.getNumberOfOpenedCells());
+        assertTrue(reads.get() < 100, "Ход прочитал " + reads.get() + " ячеек");
+    }
+}
@@ -0,0 +1,152 @@
+package minesweeper.model;
+
+import minesweeper.model.navigation.CellPosition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveHistoryTest {
+
+    @BeforeEach
+    void setUp() {
+        CellPosition.setVerticalRange(0, 19);
+        CellPosition.setHorizontalRange(0, 19);
+    }
+
+    @Test
+    @DisplayName("Отмена раскрытия пустой области закрывает все ячейки, повтор открывает их снова")
+    void undoRedo_floodFill() {
+        MinesweeperGame game = new MinesweeperGame(20, 20, 0, 1, null);
+        game.startGame();
+        assertFalse(game.canUndo());
+
+        game.openCell(new CellPosition(7, 7));
+        assertEquals(MinesweeperGame.GameState.WON, game.getGameState());
+        assertEquals(400, game.getMineField().getNumberOfOpenedCells());
+
+        assertTrue(game.undo());
+        assertEquals(MinesweeperGame.GameState.PLAYING, game.getGameState());
+        assertEquals(0, game.getMineField().getNumberOfOpenedCells());
+        assertFalse(game.getMineField().getCell(19, 19).isOpen());
+        assertTrue(game.canRedo());
+
+        assertTrue(game.redo());
+        assertEquals(MinesweeperGame.GameState.WON, game.getGameState());
+        assertEquals(400, game.getMineField().getNumberOfOpenedCells());
+        assertFalse(game.redo());
+    }
+
+    @Test
+    @DisplayName("Отмена подрыва на мине возвращает жизнь, счетчик мин и закрывает ячейку")
+    void undo_restoresLivesAndMineCount() {
+        MinesweeperGame game = new MinesweeperGame(2, 1, 1, 2, null);
+        game.startGame();
+        CellPosition minePos = game.getMineField().getCell(0, 0).isMine()
+                ? new CellPosition(0, 0) : new CellPosition(1, 0);
+        int mines = game.getMineField().getMineCount();
+
+        game.openCell(minePos);
+        assertEquals(1, game.getPlayer().getLives());
+        assertEquals(mines - 1, game.getMineField().getMineCount());
+
+        assertTrue(game.undo());
+        assertEquals(2, game.getPlayer().getLives());
+        assertEquals(mines, game.getMineField().getMineCount());
+        assertFalse(game.getMineField().getCell(minePos).isOpen());
+        assertTrue(game.getMineField().getCell(minePos).isMine());
+    }
+
+    @Test
+    @DisplayName("Отмена флага снимает его, новый ход отбрасывает отмененные ходы")
+    void undoFlag_andNewMoveTruncatesRedo() {
+        MinesweeperGame game = new MinesweeperGame(3, 3, 1, 1, null);
+        game.startGame();
+        CellPosition first = new CellPosition(0, 0);
+        CellPosition second = new CellPosition(2, 2);
+
+        game.toggleFlag(first);
+        assertTrue(game.undo());
+        assertFalse(game.getMineField().getCell(first).isFlagged());
+        assertTrue(game.canRedo());
+
+        game.toggleFlag(second);
+        assertFalse(game.canRedo());
+        assertTrue(game.undo());
+        assertFalse(game.getMineField().getCell(second).isFlagged());
+        assertFalse(game.canUndo());
+    }
+
+    @Test
+    @DisplayName("История ограниченной глубины вытесняет самые старые ходы")
+    void depthLimit_evictsOldestMoves() {
+        MinesweeperGame game = new MinesweeperGame(3, 3, 1, 1, null);
+        game.setHistoryDepth(2);
+        game.startGame();
+        game.toggleFlag(new CellPosition(0, 0));
+        game.toggleFlag(new CellPosition(0, 1));
+        game.toggleFlag(new CellPosition(0, 2));
+
+        assertTrue(game.undo());
+        assertTrue(game.undo());
+        assertFalse(game.undo());
+        assertTrue(game.getMineField().getCell(0, 0).isFlagged());
+        assertFalse(game.getMineField().getCell(0, 1).isFlagged());
+
+        game.setHistoryDepth(0);
+        game.toggleFlag(new CellPosition(1, 1));
+        assertFalse(game.canUndo());
+        assertThrows(IllegalArgumentException.class, () -> game.setHistoryDepth(-1));
+    }
+
+    @Test
+    @DisplayName("Изменение поля в обход ходов и перезапуск игры очищают историю")
+    void outsideChange_clearsHistory() {
+        MinesweeperGame game = new MinesweeperGame(3, 3, 1, 1, null);
+        game.startGame();
+        game.toggleFlag(new CellPosition(0, 0));
+        game.getMineField().toggleFlag(new CellPosition(1, 1));
+        assertFalse(game.canUndo());
+
+        game.toggleFlag(new CellPosition(0, 1));
+        game.startGame();
+        assertFalse(game.canUndo());
+    }
+
+    @Test
+    @DisplayName("Кольцо изменений сжимается после вытеснения большого хода и при очистке")
+    void changeRing_shrinksWhenSparse() {
+        MineField field = new MineField(20, 20, 0);
+        MoveHistory history = new MoveHistory(2);
+        MoveHistory.Scalars scalars = new MoveHistory.Scalars(1, 0, MinesweeperGame.GameState.PLAYING);
+
+        history.beginMove(field, scalars);
+        for (int i = 0; i < 1000; i++) {
+            field.toggleFlag(new CellPosition(i / 20 % 20, i % 20));
+        }
+        history.endMove(scalars);
+        assertEquals(1024, history.changeCapacity());
+
+        for (int c = 0; c < 2; c++) {
+            history.beginMove(field, scalars);
+            field.toggleFlag(new CellPosition(5, c));
+            history.endMove(scalars);
+        }
+        assertEquals(2, history.storedChanges());
+        assertEquals(64, history.changeCapacity());
+        boolean flagged = field.getCell(5, 1).isFlagged();
+        assertNotNull(history.undo());
+        assertNotEquals(flagged, field.getCell(5, 1).isFlagged());
+        assertNotNull(history.redo());
+
+        history.beginMove(field, scalars);
+        for (int i = 0; i < 300; i++) {
+            field.toggleFlag(new CellPosition(i / 20 % 20, i % 20));
+        }
+        history.endMove(scalars);
+        assertEquals(512, history.changeCapacity());
+        history.detach();
+        assertEquals(64, history.changeCapacity());
+    }
+}
@@ -0,0 +1,91 @@
+package minesweeper.model;
+
+import minesweeper.model.navigation.CellPosition;
+import minesweeper.model.storage.CellStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Открытие очень большой пустой области последовательно и в пуле из {@code threads} потоков
+ * (см. {@link MineField#openCellRecursive(CellPosition, ForkJoinPool)}). Не является тестом и не
+ * запускается при сборке; запуск: метод {@link #main(String[])} из IDE или после {@code mvn test-compile}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelRevealBenchmark {
+
+    @Param({"4000"})
+    int size;
+
+    @Param({"1", "8"})
+    int threads;
+
+    private MineField field;
+    private CellPosition emptyCell;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void createField() {
+        // Низкая плотность: одно открытие дает миллионы ячеек
+        field = MineField.forDensity(size, size, (int) ((long) size * size / 1000));
+        field.reseed(1);
+        field.placeMinesOnNewField();
+        int column = 0;
+        while (field.getCell(size / 2, column).getAdjacentMinesCount() != 0) {
+            column++;
+        }
+        emptyCell = new CellPosition(size / 2, column);
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdownPool() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Закрывает все ячейки перед каждым открытием, сохраняя мины и числа.
+     */
+    @Setup(Level.Invocation)
+    public void closeAllCells() {
+        CellStorage storage = field.getStorage();
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                storage.setOpen(r, c, false);
+            }
+        }
+    }
+
+    @Benchmark
+    public long reveal() {
+        field.openCellRecursive(emptyCell, pool);
+        return field.getNumberOfOpenedCells();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ParallelRevealBenchmark.class.getSimpleName()).build()).run();
+    }
+}
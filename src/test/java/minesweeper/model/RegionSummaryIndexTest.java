@@ -0,0 +1,113 @@
+package minesweeper.model;
+
+import minesweeper.model.navigation.CellPosition;
+import minesweeper.model.navigation.CellRange;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegionSummaryIndexTest {
+
+    /**
+     * Подсчитывает ячейки нужного вида в прямоугольнике перебором.
+     */
+    private static long bruteForce(MineField field, RegionSummaryIndex.Count kind, int top, int bottom, int left, int right) {
+        long count = 0;
+        for (int r = top; r <= bottom; r++) {
+            for (int c = left; c <= right; c++) {
+                MineCell cell = field.getCell(r, c);
+                boolean matches = switch (kind) {
+                    case CLOSED -> !cell.isOpen();
+                    case FLAGGED -> cell.isFlagged();
+                    case MINES -> cell.isMine();
+                    case HIDDEN_SAFE -> !cell.isOpen() && !cell.isMine();
+                    case FRONTIER -> !cell.isOpen() && hasOpenNeighbor(field, r, c);
+                };
+                if (matches) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static boolean hasOpenNeighbor(MineField field, int row, int column) {
+        for (int dr = -1; dr <= 1; dr++) {
+            for (int dc = -1; dc <= 1; dc++) {
+                MineCell neighbor = field.getCell(row + dr, column + dc);
+                if ((dr != 0 || dc != 0) && neighbor != null && neighbor.isOpen()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Test
+    @DisplayName("Счетчики индекса совпадают с перебором после открытий, флагов и перемещений мин")
+    void counts_matchBruteForce_afterMutations() {
+        MineField field = new MineField(70, 90, 600);
+        field.reseed(11);
+        field.placeMinesOnNewField();
+        RegionSummaryIndex index = field.getSummaryIndex();
+
+        Random random = new Random(5);
+        for (int i = 0; i < 300; i++) {
+            CellPosition pos = new CellPosition(random.nextInt(70), random.nextInt(90));
+            switch (random.nextInt(3)) {
+                case 0 -> field.openCellRecursive(pos);
+                case 1 -> field.toggleFlag(pos);
+                default -> {
+                    CellPosition to = new CellPosition(random.nextInt(70), random.nextInt(90));
+                    field.relocateMine(pos, to);
+                }
+            }
+        }
+
+        for (RegionSummaryIndex.Count kind : RegionSummaryIndex.Count.values()) {
+            assertEquals(bruteForce(field, kind, 0, 69, 0, 89), index.total(kind), kind.name());
+            for (int i = 0; i < 20; i++) {
+                int top = random.nextInt(70);
+                int left = random.nextInt(90);
+                int bottom = top + random.nextInt(70 - top);
+                int right = left + random.nextInt(90 - left);
+                assertEquals(bruteForce(field, kind, top, bottom, left, right),
+                        index.count(kind, new CellRange(top, bottom), new CellRange(left, right)), kind.name());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Поиск закрытых безопасных ячеек в прямоугольнике и пересборка после сброса")
+    void hasHiddenSafeCells_andRebuildAfterReset() {
+        MineField field = new MineField(40, 40, 0);
+        RegionSummaryIndex index = field.getSummaryIndex();
+        assertTrue(index.hasHiddenSafeCells(new CellRange(0, 39), new CellRange(0, 39)));
+
+        field.openCellRecursive(new CellPosition(0, 0)); // Мин нет, открывается все поле
+        assertFalse(index.hasHiddenSafeCells(new CellRange(0, 100), new CellRange(0, 100)));
+        assertEquals(0, index.total(RegionSummaryIndex.Count.CLOSED));
+
+        field.reset(5);
+        field.placeMinesOnNewField();
+        assertEquals(1600, index.total(RegionSummaryIndex.Count.CLOSED));
+        assertEquals(5, index.total(RegionSummaryIndex.Count.MINES));
+        assertEquals(0, index.total(RegionSummaryIndex.Count.FRONTIER));
+    }
+
+    @Test
+    @DisplayName("Уровни пирамиды сходятся к одному узлу на все поле")
+    void levels_coverWholeField() {
+        MineField field = new MineField(100, 300, 10);
+        RegionSummaryIndex index = field.getSummaryIndex();
+        int top = index.levels() - 1;
+        assertEquals(1, index.levelRows(top));
+        assertEquals(1, index.levelColumns(top));
+        assertEquals(7, index.levelRows(0));
+        assertEquals(19, index.levelColumns(0));
+        assertEquals(30_000, index.count(RegionSummaryIndex.Count.CLOSED, top, 0, 0));
+    }
+}
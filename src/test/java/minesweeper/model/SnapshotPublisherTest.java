@@ -0,0 +1,132 @@
+package minesweeper.model;
+
+import minesweeper.model.navigation.CellPosition;
+import minesweeper.model.navigation.CsrTopology;
+import minesweeper.model.storage.MineCellGrid;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotPublisherTest {
+
+    @Test
+    @DisplayName("После хода публикуется новый снимок, совпадающий с игрой; прежний снимок не меняется")
+    void move_publishesConsistentSnapshot() throws Exception {
+        MinesweeperGame game = new MinesweeperGame(12, 12, 10, 3, null);
+        game.startGame(5);
+        SnapshotPublisher snapshots = new SnapshotPublisher(game);
+        GameSnapshot before = snapshots.latest();
+        List<GameSnapshot> published = new CopyOnWriteArrayList<>();
+        snapshots.addSnapshotListener(published::add);
+
+        CompletableFuture<int[]> expected = new CompletableFuture<>();
+        try (GameActor actor = new GameActor(game)) {
+            actor.addBatchListener(snapshots);
+            CellPosition safe = null;
+            for (int i = 0; i < 144 && safe == null; i++) {
+                if (before.getAdjacentMinesCount(i / 12, i % 12) == 0) {
+                    safe = new CellPosition(i / 12, i % 12);
+                }
+            }
+            assertNotNull(safe);
+            assertTrue(actor.open(safe));
+            assertTrue(actor.toggleFlag(new CellPosition(11, 11)));
+            assertTrue(actor.execute(g -> {
+                int[] states = new int[144];
+                for (int i = 0; i < 144; i++) {
+                    states[i] = g.getMineField().cellState(i / 12, i % 12);
+                }
+                expected.complete(states);
+            }));
+        } // Закрытие дожидается публикации последней пачки
+
+        int[] states = expected.get(5, TimeUnit.SECONDS);
+        GameSnapshot after = snapshots.latest();
+        for (int i = 0; i < 144; i++) {
+            assertEquals(states[i], after.cellState(i / 12, i % 12), "Ячейка " + i);
+            assertFalse(before.isOpen(i / 12, i % 12), "Начальный снимок не должен меняться");
+        }
+        assertTrue(after.getVersion() > before.getVersion());
+        assertSame(after, published.get(published.size() - 1));
+        assertEquals(MinesweeperGame.GameState.PLAYING, after.getGameState());
+        assertEquals(3, after.getLives());
+        assertEquals(10 - (after.isFlagged(11, 11) ? 1 : 0), after.getRemainingMines());
+    }
+
+    @Test
+    @DisplayName("Снимки публикуются по возрастанию версий, пачки без изменений не публикуются")
+    void versions_increaseAndIdleBatchesAreSkipped() throws Exception {
+        MinesweeperGame game = new MinesweeperGame(6, 6, 0, 1, null);
+        game.startGame(1);
+        SnapshotPublisher snapshots = new SnapshotPublisher(game);
+        List<GameSnapshot> published = new CopyOnWriteArrayList<>();
+        snapshots.addSnapshotListener(published::add);
+        try (GameActor actor = new GameActor(game)) {
+            actor.addBatchListener(snapshots);
+            for (int i = 0; i < 50; i++) {
+                while (!actor.toggleFlag(new CellPosition(i % 6, 0))) {
+                    Thread.onSpinWait();
+                }
+            }
+            CompletableFuture<Void> idle = new CompletableFuture<>();
+            assertTrue(actor.execute(g -> idle.complete(null))); // Команда без событий
+            idle.get(5, TimeUnit.SECONDS);
+        }
+        assertFalse(published.isEmpty());
+        for (int i = 1; i < published.size(); i++) {
+            assertTrue(published.get(i).getVersion() > published.get(i - 1).getVersion());
+        }
+        assertEquals(published.get(published.size() - 1).getVersion(), snapshots.latest().getVersion());
+        assertEquals(published.size(), snapshots.latest().getVersion());
+    }
+
+    @Test
+    @DisplayName("Снимок из измененных блоков совпадает с полным снимком, в том числе после переноса мин")
+    void incrementalSnapshot_matchesFullCapture() {
+        MinesweeperGame game = new MinesweeperGame(150, 150, 2000, 1000, new RelocatingSaboteur());
+        game.startGame(7);
+        SnapshotPublisher snapshots = new SnapshotPublisher(game);
+        game.addGameEventBatchListener(snapshots);
+        Random random = new Random(11);
+        for (int move = 0; move < 300; move++) {
+            CellPosition pos = new CellPosition(random.nextInt(150), random.nextInt(150));
+            switch (random.nextInt(10)) {
+                case 0 -> game.undo();
+                case 1, 2 -> game.toggleFlag(pos);
+                case 3 -> game.chord(pos);
+                default -> game.openCell(pos);
+            }
+            if (game.getGameState() != MinesweeperGame.GameState.PLAYING) {
+                game.startGame(move);
+            }
+            GameSnapshot latest = snapshots.latest();
+            GameSnapshot full = GameSnapshot.capture(game, 0);
+            for (int r = 0; r < 150; r++) {
+                for (int c = 0; c < 150; c++) {
+                    assertEquals(full.cellState(r, c), latest.cellState(r, c), "Ячейка " + r + "," + c);
+                    assertEquals(full.getAdjacentMinesCount(r, c), latest.getAdjacentMinesCount(r, c));
+                }
+            }
+            assertEquals(full.getRemainingMines(), latest.getRemainingMines());
+            assertEquals(full.getLives(), latest.getLives());
+        }
+    }
+
+    @Test
+    @DisplayName("Снимок отвергает топологию, у ячеек которой соседей больше, чем помещается в байт ячейки")
+    void denseTopology_isRejected() {
+        CsrTopology.Builder hub = new CsrTopology.Builder(1, 40);
+        for (int c = 1; c <= GameSnapshot.MAX_ADJACENT + 1; c++) {
+            hub.connect(0, 0, 0, c);
+        }
+        MinesweeperGame game = new MinesweeperGame(new MineField(new MineCellGrid(1, 40), hub.build(), 0), 0, 1, null);
+        assertThrows(IllegalArgumentException.class, () -> GameSnapshot.capture(game, 0));
+    }
+}
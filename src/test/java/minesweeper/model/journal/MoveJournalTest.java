@@ -0,0 +1,237 @@
+package minesweeper.model.journal;
+
+import minesweeper.model.MineCell;
+import minesweeper.model.MineField;
+import minesweeper.model.MinesweeperGame;
+import minesweeper.model.RelocatingSaboteur;
+import minesweeper.model.navigation.CellPosition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static void assertSameGame(MinesweeperGame expected, MinesweeperGame actual) {
+        assertEquals(expected.getGameState(), actual.getGameState());
+        assertEquals(expected.getPlayer().getLives(), actual.getPlayer().getLives());
+        MineField expectedField = expected.getMineField();
+        MineField actualField = actual.getMineField();
+        assertEquals(expectedField.getMineCount(), actualField.getMineCount());
+        for (int r = 0; r < expectedField.getRows(); r++) {
+            for (int c = 0; c < expectedField.getColumns(); c++) {
+                MineCell e = expectedField.getCell(r, c);
+                MineCell a = actualField.getCell(r, c);
+                String where = "(" + r + ", " + c + ")";
+                assertEquals(e.isMine(), a.isMine(), "Мина " + where);
+                assertEquals(e.isOpen(), a.isOpen(), "Открыта " + where);
+                assertEquals(e.isFlagged(), a.isFlagged(), "Флаг " + where);
+            }
+        }
+    }
+
+    /**
+     * Играет случайными ходами, пока партия не закончится или не кончатся ходы.
+     */
+    private static void playRandomly(MinesweeperGame game, Random random, int moves) {
+        for (int i = 0; i < moves && game.getGameState() == MinesweeperGame.GameState.PLAYING; i++) {
+            CellPosition pos = new CellPosition(random.nextInt(12), random.nextInt(12));
+            switch (random.nextInt(6)) {
+                case 0 -> game.toggleFlag(pos);
+                case 1 -> game.undo();
+                case 2 -> game.redo();
+                default -> game.openCell(pos);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Партия с диверсантом, флагами, отменой и повтором восстанавливается по журналу")
+    void replay_restoresGameWithSaboteur() throws IOException {
+        Path file = tempDir.resolve("game.journal");
+        MinesweeperGame game = new MinesweeperGame(12, 12, 20, 3, new RelocatingSaboteur());
+        try (MoveJournal journal = MoveJournal.create(file)) {
+            game.setMoveJournal(journal);
+            game.startGame();
+            playRandomly(game, new Random(7), 200);
+            journal.sync();
+        }
+
+        int relocations = 0;
+        try (JournalReader reader = JournalReader.open(file)) {
+            while (reader.next()) {
+                if (reader.type() == JournalRecordType.MINE_RELOCATED) {
+                    relocations++;
+                }
+            }
+        }
+        assertTrue(relocations > 0, "Диверсант должен был переместить мины");
+
+        MinesweeperGame restored = JournalReplayer.replay(file);
+        assertNotNull(restored);
+        assertSameGame(game, restored);
+    }
+
+    @Test
+    @DisplayName("Читатель возвращает записи с координатами и параметрами партии")
+    void reader_decodesRecords() throws IOException {
+        Path file = tempDir.resolve("records.journal");
+        MinesweeperGame game = new MinesweeperGame(12, 12, 5, 2, null);
+        try (MoveJournal journal = MoveJournal.create(file)) {
+            game.setMoveJournal(journal);
+            game.startGame(42);
+            game.toggleFlag(new CellPosition(11, 3));
+            game.undo();
+        }
+
+        try (JournalReader reader = JournalReader.open(file)) {
+            assertTrue(reader.next());
+            assertEquals(JournalRecordType.GAME_STARTED, reader.type());
+            assertEquals(12, reader.rows());
+            assertEquals(12, reader.columns());
+            assertEquals(5, reader.mines());
+            assertEquals(2, reader.lives());
+            assertEquals(42, reader.seed());
+            assertEquals(MinesweeperGame.DEFAULT_HISTORY_DEPTH, reader.historyDepth());
+            assertFalse(reader.hasSaboteur());
+
+            assertTrue(reader.next());
+            assertEquals(JournalRecordType.FLAG_TOGGLED, reader.type());
+            assertEquals(11, reader.row());
+            assertEquals(3, reader.column());
+            long flagOffset = reader.endOffset();
+
+            assertTrue(reader.next());
+            assertEquals(JournalRecordType.MOVE_UNDONE, reader.type());
+            assertTrue(reader.endOffset() - flagOffset <= 4 + JournalFormat.CRC_SIZE, "Запись отмены должна занимать несколько байт");
+            assertTrue(reader.timeMicros() >= 0);
+            assertFalse(reader.next());
+            assertEquals(reader.endOffset(), reader.committedLength());
+        }
+    }
+
+    @Test
+    @DisplayName("Записи переходят через границы сегментов, журнал дописывается после повторного открытия")
+    void segmentsAndReopen() throws IOException {
+        Path file = tempDir.resolve("long.journal");
+        MinesweeperGame game = new MinesweeperGame(12, 12, 20, 3, null);
+        try (MoveJournal journal = MoveJournal.create(file, 4096, 1)) {
+            game.setMoveJournal(journal);
+            game.startGame(1);
+            for (int i = 0; i < 3000; i++) {
+                game.toggleFlag(new CellPosition(i % 12, (i / 12) % 12));
+            }
+            assertTrue(journal.size() > 2 * 4096);
+        }
+        try (MoveJournal journal = MoveJournal.open(file)) {
+            game.setMoveJournal(journal);
+            playRandomly(game, new Random(3), 100);
+        }
+
+        assertSameGame(game, JournalReplayer.replay(file));
+    }
+
+    @Test
+    @DisplayName("Недописанная запись без байта типа читается как конец журнала")
+    void tornRecord_isIgnored() throws IOException {
+        Path file = tempDir.resolve("torn.journal");
+        MinesweeperGame game = new MinesweeperGame(12, 12, 5, 2, null);
+        long end;
+        try (MoveJournal journal = MoveJournal.create(file)) {
+            game.setMoveJournal(journal);
+            game.startGame(5);
+            game.toggleFlag(new CellPosition(1, 1));
+            end = journal.size();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{5, 17}), end + 1); // Данные есть, байта типа нет
+        }
+
+        int records = 0;
+        try (JournalReader reader = JournalReader.open(file)) {
+            while (reader.next()) {
+                records++;
+            }
+            assertEquals(end, reader.endOffset());
+        }
+        assertEquals(2, records);
+    }
+
+    @Test
+    @DisplayName("Запись с неверной контрольной суммой читается как конец журнала")
+    void corruptedRecord_endsJournal() throws IOException {
+        Path file = tempDir.resolve("corrupted.journal");
+        MinesweeperGame game = new MinesweeperGame(12, 12, 5, 2, null);
+        try (MoveJournal journal = MoveJournal.create(file)) {
+            game.setMoveJournal(journal);
+            game.startGame(5);
+            game.toggleFlag(new CellPosition(1, 1));
+            game.toggleFlag(new CellPosition(2, 2));
+        }
+        long flagOffset;
+        try (JournalReader reader = JournalReader.open(file)) {
+            assertTrue(reader.next());
+            flagOffset = reader.endOffset();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer cell = ByteBuffer.allocate(1);
+            channel.read(cell, flagOffset + 2); // Байт данных записи после байта типа
+            cell.put(0, (byte) (cell.get(0) ^ 1)).rewind();
+            channel.write(cell, flagOffset + 2);
+        }
+
+        try (JournalReader reader = JournalReader.open(file)) {
+            assertTrue(reader.next());
+            assertFalse(reader.next());
+            assertEquals(flagOffset, reader.endOffset());
+        }
+    }
+
+    @Test
+    @DisplayName("Записи за зафиксированной длиной не читаются и затираются при повторном открытии")
+    void uncommittedTail_isDiscardedOnReopen() throws IOException {
+        Path file = tempDir.resolve("stale.journal");
+        MinesweeperGame game = new MinesweeperGame(12, 12, 5, 2, null);
+        long end;
+        try (MoveJournal journal = MoveJournal.create(file)) {
+            game.setMoveJournal(journal);
+            game.startGame(5);
+            game.toggleFlag(new CellPosition(1, 1));
+            end = journal.size();
+            game.toggleFlag(new CellPosition(2, 2));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            // Как после сбоя: вторая запись на месте, но длина в заголовке до нее не дошла
+            ByteBuffer header = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.write(header.putLong(0, end), JournalFormat.COMMITTED_OFFSET);
+        }
+
+        try (JournalReader reader = JournalReader.open(file)) {
+            assertTrue(reader.next());
+            assertTrue(reader.next());
+            assertFalse(reader.next());
+            assertEquals(end, reader.endOffset());
+        }
+
+        try (MoveJournal journal = MoveJournal.open(file)) {
+            assertEquals(end, journal.size());
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer tail = ByteBuffer.allocate(16);
+            channel.read(tail, end);
+            assertArrayEquals(new byte[16], tail.array(), "Хвост после последней целой записи должен быть затерт");
+        }
+    }
+}
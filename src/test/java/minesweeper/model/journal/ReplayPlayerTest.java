@@ -0,0 +1,137 @@
+package minesweeper.model.journal;
+
+import minesweeper.model.MineField;
+import minesweeper.model.MinesweeperGame;
+import minesweeper.model.RelocatingSaboteur;
+import minesweeper.model.navigation.CellPosition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayPlayerTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Состояние партии после шага: ячейки в виде строки и скалярные значения.
+     */
+    private record Frame(String cells, int lives, int mineCount, MinesweeperGame.GameState state) {
+    }
+
+    private static Frame frameOf(MinesweeperGame game) {
+        MineField field = game.getMineField();
+        StringBuilder cells = new StringBuilder();
+        for (int r = 0; r < field.getRows(); r++) {
+            for (int c = 0; c < field.getColumns(); c++) {
+                cells.append(field.getCell(r, c).isMine() ? 'M' : '.')
+                        .append(field.getCell(r, c).isOpen() ? 'O' : '.')
+                        .append(field.getCell(r, c).isFlagged() ? 'F' : '.');
+            }
+        }
+        return new Frame(cells.toString(), game.getPlayer().getLives(), field.getMineCount(), game.getGameState());
+    }
+
+    private static Frame frameOf(ReplayPlayer player) {
+        StringBuilder cells = new StringBuilder();
+        for (int r = 0; r < player.rows(); r++) {
+            for (int c = 0; c < player.columns(); c++) {
+                cells.append(player.isMine(r, c) ? 'M' : '.')
+                        .append(player.isOpen(r, c) ? 'O' : '.')
+                        .append(player.isFlagged(r, c) ? 'F' : '.');
+            }
+        }
+        return new Frame(cells.toString(), player.lives(), player.mineCount(), player.gameState());
+    }
+
+    /**
+     * Записывает партию в журнал и возвращает состояние после каждого записанного шага.
+     */
+    private List<Frame> recordGame(Path file) throws IOException {
+        List<Frame> frames = new ArrayList<>();
+        MinesweeperGame game = new MinesweeperGame(12, 12, 25, 5, new RelocatingSaboteur());
+        Random random = new Random(11);
+        try (MoveJournal journal = MoveJournal.create(file)) {
+            game.setMoveJournal(journal);
+            game.startGame();
+            frames.add(frameOf(game));
+            for (int i = 0; i < 300 && game.getGameState() == MinesweeperGame.GameState.PLAYING; i++) {
+                long size = journal.size();
+                CellPosition pos = new CellPosition(random.nextInt(12), random.nextInt(12));
+                switch (random.nextInt(6)) {
+                    case 0 -> game.toggleFlag(pos);
+                    case 1 -> game.undo();
+                    case 2 -> game.redo();
+                    default -> game.openCell(pos);
+                }
+                if (journal.size() != size) {
+                    frames.add(frameOf(game));
+                }
+            }
+        }
+        return frames;
+    }
+
+    @Test
+    @DisplayName("Переход к любому ходу дает то же состояние, что было в партии")
+    void seek_matchesRecordedFrames() throws IOException {
+        Path file = tempDir.resolve("game.journal");
+        List<Frame> frames = recordGame(file);
+        ReplayPlayer player = ReplayPlayer.load(file, 8);
+        assertEquals(frames.size() - 1, player.moveCount());
+        assertEquals(frames.size() / 8 + (frames.size() % 8 == 0 ? 0 : 1), player.keyframeCount());
+
+        assertEquals(frames.get(0), frameOf(player));
+        Random random = new Random(5);
+        for (int i = 0; i < 200; i++) {
+            int move = random.nextInt(player.moveCount() + 1);
+            player.seek(move);
+            assertEquals(move, player.position());
+            assertEquals(frames.get(move), frameOf(player), "Ход " + move);
+        }
+        assertThrows(IllegalArgumentException.class, () -> player.seek(player.moveCount() + 1));
+    }
+
+    @Test
+    @DisplayName("Пошаговое движение вперед и назад проходит все записанные состояния")
+    void stepping_forwardAndBack() throws IOException {
+        Path file = tempDir.resolve("steps.journal");
+        List<Frame> frames = recordGame(file);
+        ReplayPlayer player = ReplayPlayer.load(file);
+
+        for (int move = 1; move < frames.size(); move++) {
+            assertTrue(player.stepForward());
+            assertEquals(frames.get(move), frameOf(player));
+        }
+        assertFalse(player.stepForward());
+        for (int move = frames.size() - 2; move >= 0; move--) {
+            assertTrue(player.stepBack());
+            assertEquals(frames.get(move), frameOf(player));
+        }
+        assertFalse(player.stepBack());
+    }
+
+    @Test
+    @DisplayName("Быстрая перемотка показывает только каждый заданный кадр и останавливается в конце")
+    void fastForward_skipsIntermediateFrames() throws IOException {
+        Path file = tempDir.resolve("fast.journal");
+        List<Frame> frames = recordGame(file);
+        ReplayPlayer player = ReplayPlayer.load(file, 16);
+
+        List<Integer> shown = new ArrayList<>();
+        player.fastForward(Integer.MAX_VALUE, 10, () -> shown.add(player.position()));
+        assertEquals(player.moveCount(), player.position());
+        assertEquals((player.moveCount() + 9) / 10, shown.size());
+        assertEquals(10, shown.get(0));
+        assertEquals(frames.get(frames.size() - 1), frameOf(player));
+        assertTrue(player.snapshot().isMine(0, 0) == player.isMine(0, 0));
+    }
+}
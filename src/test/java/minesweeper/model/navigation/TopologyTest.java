@@ -0,0 +1,119 @@
+package minesweeper.model.navigation;
+
+import minesweeper.model.MineField;
+import minesweeper.model.storage.ChunkedCellStorage;
+import minesweeper.model.storage.MineCellGrid;
+import minesweeper.model.storage.PackedCellStorage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopologyTest {
+
+    private static Set<Long> neighborSet(Topology topology, int row, int column) {
+        int[] rows = new int[topology.maxDegree()];
+        int[] columns = new int[topology.maxDegree()];
+        int count = topology.neighbors(row, column, rows, columns);
+        Set<Long> result = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            assertTrue(result.add(((long) rows[i] << 32) | columns[i]), "Сосед повторяется");
+        }
+        return result;
+    }
+
+    /**
+     * Проверяет, что соседство симметрично и не выходит за пределы поля.
+     */
+    private static void assertSymmetric(Topology topology) {
+        for (int r = 0; r < topology.rows(); r++) {
+            for (int c = 0; c < topology.columns(); c++) {
+                for (long neighbor : neighborSet(topology, r, c)) {
+                    int nr = (int) (neighbor >>> 32);
+                    int nc = (int) neighbor;
+                    assertTrue(nr >= 0 && nr < topology.rows() && nc >= 0 && nc < topology.columns());
+                    assertTrue(neighborSet(topology, nr, nc).contains(((long) r << 32) | c),
+                            "Соседство несимметрично: (" + r + ", " + c + ") -> (" + nr + ", " + nc + ")");
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Прямоугольная топология: 8 соседей внутри, 3 в углу, 5 на краю")
+    void rectangular_degrees() {
+        Topology topology = Topology.rectangular(5, 6);
+        assertEquals(8, neighborSet(topology, 2, 3).size());
+        assertEquals(3, neighborSet(topology, 0, 0).size());
+        assertEquals(5, neighborSet(topology, 4, 3).size());
+        assertEquals(0, neighborSet(Topology.rectangular(1, 1), 0, 0).size());
+        assertSymmetric(topology);
+    }
+
+    @Test
+    @DisplayName("Тор: у угловой ячейки 8 соседей, включая противоположный угол")
+    void torus_wrapsAround() {
+        Topology topology = new TorusTopology(4, 5);
+        Set<Long> corner = neighborSet(topology, 0, 0);
+        assertEquals(8, corner.size());
+        assertTrue(corner.contains((3L << 32) | 4));
+        assertSymmetric(topology);
+        assertThrows(IllegalArgumentException.class, () -> new TorusTopology(2, 5));
+    }
+
+    @Test
+    @DisplayName("Шестиугольная сетка: 6 соседей внутри, соседство симметрично")
+    void hex_sixNeighbors() {
+        Topology topology = new HexTopology(6, 7);
+        assertEquals(6, neighborSet(topology, 2, 3).size());
+        assertEquals(6, neighborSet(topology, 3, 3).size());
+        assertSymmetric(topology);
+    }
+
+    @Test
+    @DisplayName("Компиляция в таблицы сохраняет соседство, построитель задает произвольные связи")
+    void csr_compileAndBuild() {
+        Topology hex = new HexTopology(5, 4);
+        CsrTopology compiled = CsrTopology.compile(hex);
+        for (int r = 0; r < 5; r++) {
+            for (int c = 0; c < 4; c++) {
+                assertEquals(neighborSet(hex, r, c), neighborSet(compiled, r, c));
+            }
+        }
+
+        CsrTopology custom = new CsrTopology.Builder(1, 4)
+                .connect(0, 0, 0, 3)
+                .connect(0, 3, 0, 0)
+                .connect(0, 1, 0, 1)
+                .build();
+        assertEquals(Set.of(3L), neighborSet(custom, 0, 0));
+        assertEquals(Set.of(), neighborSet(custom, 0, 1));
+        assertEquals(1, custom.maxDegree());
+        assertSymmetric(custom);
+    }
+
+    @Test
+    @DisplayName("Поле на торе считает мины через край и открывает пустую область целиком")
+    void mineField_onTorus() {
+        MineField field = new MineField(new MineCellGrid(5, 5), new TorusTopology(5, 5), 1);
+        field.getCell(0, 0).setMine(true);
+        field.calculateAllAdjacentMines();
+        assertEquals(1, field.getCell(4, 4).getAdjacentMinesCount());
+        assertEquals(0, field.getCell(2, 2).getAdjacentMinesCount());
+
+        assertFalse(field.openCellRecursive(new CellPosition(2, 2)));
+        assertEquals(24, field.getNumberOfOpenedCells());
+    }
+
+    @Test
+    @DisplayName("Хранилище с вычисляемыми соседями не принимает непрямоугольную топологию")
+    void derivedAdjacencyStorage_rejectsOtherTopology() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new MineField(new ChunkedCellStorage(5, 5), new HexTopology(5, 5), 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new MineField(new PackedCellStorage(5, 5), new HexTopology(5, 6), 1));
+    }
+}
@@ -0,0 +1,72 @@
+package minesweeper.model.nd;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NdMineFieldTest {
+
+    @Test
+    @DisplayName("Индекс и координаты взаимно обратны, у ячейки 3D-поля 26 соседей")
+    void shape_indexRoundTrip() {
+        BoardShape shape = new BoardShape(3, 4, 5);
+        assertEquals(60, shape.cellCount());
+        assertEquals(26, shape.neighborCount());
+        assertEquals(20, shape.stride(0));
+        int[] coordinates = new int[3];
+        for (int i = 0; i < shape.cellCount(); i++) {
+            assertEquals(i, shape.index(shape.coordinates(i, coordinates)));
+        }
+        int[] neighbors = new int[shape.neighborCount()];
+        assertEquals(26, shape.neighbors(shape.index(1, 2, 2), coordinates, neighbors));
+        assertEquals(7, shape.neighbors(shape.index(0, 0, 0), coordinates, neighbors));
+        assertThrows(IllegalArgumentException.class, () -> shape.index(3, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BoardShape(2, 2, 2, 2, 2, 2));
+    }
+
+    @Test
+    @DisplayName("Разделимые суммы по осям совпадают с перебором соседей в 3D и 4D")
+    void separableSums_matchNeighborEnumeration() {
+        for (BoardShape shape : new BoardShape[]{new BoardShape(7, 9, 6), new BoardShape(4, 5, 3, 6), new BoardShape(1, 13)}) {
+            NdMineField field = new NdMineField(shape, shape.cellCount() / 5);
+            field.reseed(3);
+            field.placeMines();
+
+            int[] coordinates = new int[shape.rank()];
+            int[] neighbors = new int[shape.neighborCount()];
+            int mines = 0;
+            for (int i = 0; i < shape.cellCount(); i++) {
+                if (field.isMine(i)) {
+                    mines++;
+                    assertEquals(-1, field.getAdjacentMines(i));
+                    continue;
+                }
+                int expected = 0;
+                int count = shape.neighbors(i, coordinates, neighbors);
+                for (int n = 0; n < count; n++) {
+                    if (field.isMine(neighbors[n])) {
+                        expected++;
+                    }
+                }
+                assertEquals(expected, field.getAdjacentMines(i), shape + " ячейка " + i);
+            }
+            assertEquals(shape.cellCount() / 5, mines);
+        }
+    }
+
+    @Test
+    @DisplayName("Открытие пустой ячейки раскрывает всю область в 3D и дает победу")
+    void open_floodsThreeDimensionalRegion() {
+        BoardShape shape = new BoardShape(10, 10, 10);
+        NdMineField field = new NdMineField(shape, 0);
+        field.placeMines();
+        field.setMine(shape.index(9, 9, 9), true);
+
+        assertFalse(field.open(shape.index(0, 0, 0)));
+        assertEquals(999, field.getNumberOfOpenedCells());
+        assertEquals(1, field.getAdjacentMines(shape.index(8, 8, 8)));
+        assertTrue(field.isCleared());
+        assertTrue(field.open(shape.index(9, 9, 9)));
+    }
+}
@@ -0,0 +1,135 @@
+package minesweeper.model.shared;
+
+import minesweeper.model.MineField;
+import minesweeper.model.navigation.CellPosition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Нагрузочная проверка совместных полей: много потоков на маленьком поле одновременно открывают
+ * и помечают одни и те же ячейки, после чего итог сверяется с тем, что сообщили сами вызовы.
+ */
+class SharedMineFieldStressTest {
+
+    private static MineField field(int rows, int columns, int mines, long seed) {
+        MineField field = MineField.forDensity(rows, columns, mines);
+        field.reseed(seed);
+        field.placeMinesOnNewField();
+        return field;
+    }
+
+    private static SharedMineField shared(String implementation, MineField field) {
+        return switch (implementation) {
+            case "striped" -> new StripedSharedMineField(field, 4);
+            case "lockFree" -> new LockFreeSharedMineField(field);
+            default -> throw new IllegalArgumentException(implementation);
+        };
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"striped", "lockFree"})
+    @DisplayName("Однопоточное открытие совпадает с обычным полем")
+    void open_matchesSequentialFloodFill(String implementation) {
+        MineField reference = field(200, 180, 600, 23);
+        SharedMineField shared = shared(implementation, field(200, 180, 600, 23));
+        SplittableRandom random = new SplittableRandom(4);
+        for (int i = 0; i < 40; i++) {
+            int r = random.nextInt(200);
+            int c = random.nextInt(180);
+            if (reference.getCell(r, c).isMine()) {
+                continue;
+            }
+            long before = reference.getNumberOfOpenedCells();
+            reference.openCellRecursive(new CellPosition(r, c));
+            assertEquals(reference.getNumberOfOpenedCells() - before, shared.open(r, c));
+        }
+        for (int r = 0; r < 200; r++) {
+            for (int c = 0; c < 180; c++) {
+                assertEquals(reference.getCell(r, c).isOpen(), shared.isOpen(r, c), "(" + r + ", " + c + ")");
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"striped", "lockFree"})
+    @DisplayName("Под сильной конкуренцией итоговые счетчики сходятся с тем, что сообщили вызовы")
+    void contendedTransitions_conserveCounts(String implementation) {
+        int rows = 24;
+        int columns = 24;
+        int threads = 8;
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+            for (int round = 0; round < 200; round++) {
+                SharedMineField shared = shared(implementation, field(rows, columns, 50, round));
+                AtomicIntegerArray toggles = new AtomicIntegerArray(rows * columns);
+                LongAdder reportedSafe = new LongAdder();
+                LongAdder reportedMines = new LongAdder();
+                CountDownLatch start = new CountDownLatch(1);
+                List<Thread> players = new ArrayList<>();
+                for (int p = 0; p < threads; p++) {
+                    SplittableRandom random = new SplittableRandom(round * 31L + p);
+                    players.add(Thread.ofPlatform().start(() -> {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        for (int i = 0; i < 400; i++) {
+                            int r = random.nextInt(rows);
+                            int c = random.nextInt(columns);
+                            if (random.nextInt(4) == 0) {
+                                if (shared.toggleFlag(r, c)) {
+                                    toggles.incrementAndGet(r * columns + c);
+                                }
+                            } else if (!shared.isMine(r, c) || random.nextInt(8) == 0) {
+                                int opened = shared.open(r, c);
+                                if (opened == SharedMineField.HIT_MINE) {
+                                    reportedMines.increment();
+                                } else {
+                                    reportedSafe.add(opened);
+                                }
+                            }
+                        }
+                    }));
+                }
+                start.countDown();
+                for (Thread player : players) {
+                    player.join();
+                }
+
+                long open = 0;
+                long openMines = 0;
+                long flags = 0;
+                for (int r = 0; r < rows; r++) {
+                    for (int c = 0; c < columns; c++) {
+                        boolean isOpen = shared.isOpen(r, c);
+                        boolean isFlagged = shared.isFlagged(r, c);
+                        String cell = "Раунд " + round + ", (" + r + ", " + c + ")";
+                        assertFalse(isOpen && isFlagged, cell + ": открыта и под флагом");
+                        // Флаг меняют только удачные переключения, а открытие возможно лишь без флага
+                        assertEquals(toggles.get(r * columns + c) % 2 == 1, isFlagged, cell);
+                        open += isOpen ? 1 : 0;
+                        openMines += isOpen && shared.isMine(r, c) ? 1 : 0;
+                        flags += isFlagged ? 1 : 0;
+                    }
+                }
+                assertEquals(open - openMines, reportedSafe.sum(), "Раунд " + round + ": безопасные ячейки открыты дважды или потеряны");
+                assertEquals(openMines, reportedMines.sum(), "Раунд " + round);
+                assertEquals(open, shared.openedCells(), "Раунд " + round);
+                assertEquals(openMines, shared.explosions(), "Раунд " + round);
+                assertEquals(flags, shared.flaggedCells(), "Раунд " + round);
+                assertEquals(open - openMines == (long) rows * columns - 50, shared.isCleared(), "Раунд " + round);
+            }
+        });
+    }
+}
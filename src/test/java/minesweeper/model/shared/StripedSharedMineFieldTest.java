@@ -0,0 +1,117 @@
+package minesweeper.model.shared;
+
+import minesweeper.model.MineField;
+import minesweeper.model.navigation.CellPosition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedSharedMineFieldTest {
+
+    private static MineField field(int rows, int columns, int mines, long seed) {
+        MineField field = MineField.forDensity(rows, columns, mines);
+        field.reseed(seed);
+        field.placeMinesOnNewField();
+        return field;
+    }
+
+    private static long countOpen(SharedMineField shared) {
+        long open = 0;
+        for (int r = 0; r < shared.rows(); r++) {
+            for (int c = 0; c < shared.columns(); c++) {
+                open += shared.isOpen(r, c) ? 1 : 0;
+            }
+        }
+        return open;
+    }
+
+    @Test
+    @DisplayName("Открытие через блоки дает ту же область, что и обычное поле")
+    void open_matchesSequentialFloodFill() {
+        MineField reference = field(300, 260, 900, 17);
+        SharedMineField shared = new StripedSharedMineField(field(300, 260, 900, 17), 4);
+        SplittableRandom random = new SplittableRandom(2);
+        for (int i = 0; i < 40; i++) {
+            int r = random.nextInt(300);
+            int c = random.nextInt(260);
+            if (reference.getCell(r, c).isMine()) {
+                continue;
+            }
+            long before = reference.getNumberOfOpenedCells();
+            reference.openCellRecursive(new CellPosition(r, c));
+            assertEquals(reference.getNumberOfOpenedCells() - before, shared.open(r, c));
+        }
+        for (int r = 0; r < 300; r++) {
+            for (int c = 0; c < 260; c++) {
+                assertEquals(reference.getCell(r, c).isOpen(), shared.isOpen(r, c), "(" + r + ", " + c + ")");
+            }
+        }
+        assertEquals(reference.getNumberOfOpenedCells(), shared.openedCells());
+    }
+
+    @Test
+    @DisplayName("Одновременные ходы многих игроков: каждая ячейка открыта один раз, поле расчищается")
+    void concurrentPlayers_openEachCellOnce() {
+        int rows = 512;
+        int columns = 512;
+        SharedMineField shared = new StripedSharedMineField(field(rows, columns, 400, 5), 16);
+        LongAdder reported = new LongAdder();
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            List<Thread> players = new ArrayList<>();
+            for (int p = 0; p < 8; p++) {
+                SplittableRandom random = new SplittableRandom(p);
+                players.add(Thread.ofPlatform().start(() -> {
+                    // Каждый игрок обходит все поле со своего места, так что области постоянно пересекаются
+                    int start = random.nextInt(rows * columns);
+                    for (int i = 0; i < rows * columns; i++) {
+                        int cell = (start + i) % (rows * columns);
+                        int r = cell / columns;
+                        int c = cell % columns;
+                        if (!shared.isMine(r, c)) {
+                            reported.add(shared.open(r, c));
+                        }
+                    }
+                }));
+            }
+            for (Thread player : players) {
+                player.join();
+            }
+        });
+        long safeCells = (long) rows * columns - 400;
+        assertEquals(safeCells, reported.sum(), "Сумма открытых игроками ячеек");
+        assertEquals(safeCells, shared.openedCells());
+        assertEquals(safeCells, countOpen(shared));
+        assertTrue(shared.isCleared());
+        assertEquals(0, shared.explosions());
+    }
+
+    @Test
+    @DisplayName("Флаг не дает открыть ячейку и учитывается в счетчике; мина засчитывается как подрыв")
+    void flagsAndMines() {
+        MineField source = field(64, 64, 300, 9);
+        SharedMineField shared = new StripedSharedMineField(source);
+        int mineRow = -1;
+        int mineColumn = -1;
+        for (int i = 0; i < 64 * 64 && mineRow < 0; i++) {
+            if (source.getCell(i / 64, i % 64).isMine()) {
+                mineRow = i / 64;
+                mineColumn = i % 64;
+            }
+        }
+        assertTrue(shared.toggleFlag(mineRow, mineColumn));
+        assertEquals(0, shared.open(mineRow, mineColumn));
+        assertEquals(1, shared.flaggedCells());
+        assertTrue(shared.toggleFlag(mineRow, mineColumn));
+        assertEquals(0, shared.flaggedCells());
+        assertEquals(SharedMineField.HIT_MINE, shared.open(mineRow, mineColumn));
+        assertEquals(1, shared.explosions());
+        assertFalse(shared.toggleFlag(mineRow, mineColumn), "Открытую ячейку пометить нельзя");
+    }
+}
@@ -0,0 +1,95 @@
+package minesweeper.model.storage;
+
+import minesweeper.model.MineField;
+import minesweeper.model.navigation.CellPosition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение построчной ({@link PackedCellStorage}) и плиточной ({@link TiledCellStorage})
+ * раскладок ячеек на заливке при открытии, полном подсчете соседей и поиске границы
+ * открытой области. Не является тестом и не запускается при сборке;
+ * запуск: метод {@link #main(String[])} из IDE или после {@code mvn test-compile}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CellLayoutBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int size;
+
+    @Param({"ROW_MAJOR", "TILED"})
+    String layout;
+
+    private MineField field;
+    private CellPosition emptyCell;
+
+    @Setup(Level.Trial)
+    public void createField() {
+        CellStorage storage = layout.equals("TILED") ? new TiledCellStorage(size, size) : new PackedCellStorage(size, size);
+        // Низкая плотность, чтобы открытие давало большую заливку
+        field = new MineField(storage, (int) ((long) size * size / 100));
+        field.reseed(1);
+        field.placeMinesOnNewField();
+        int row = size / 2;
+        int column = 0;
+        while (field.getCell(row, column).getAdjacentMinesCount() != 0) {
+            column++;
+        }
+        emptyCell = new CellPosition(row, column);
+    }
+
+    /**
+     * Закрывает все ячейки перед каждым открытием, сохраняя мины и числа.
+     */
+    @Setup(Level.Invocation)
+    public void closeAllCells() {
+        CellStorage storage = field.getStorage();
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                storage.setOpen(r, c, false);
+            }
+        }
+    }
+
+    @Benchmark
+    public long floodFill() {
+        field.openCellRecursive(emptyCell);
+        return field.getNumberOfOpenedCells();
+    }
+
+    @Benchmark
+    public MineField adjacency() {
+        field.calculateAllAdjacentMines();
+        return field;
+    }
+
+    @Benchmark
+    public int frontierScan() {
+        field.openCellRecursive(emptyCell);
+        return field.getBoundaryCellsForRelocation().size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CellLayoutBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,98 @@
+package minesweeper.model.storage;
+
+import minesweeper.model.MineField;
+import minesweeper.model.navigation.CellPosition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedCellStorageTest {
+
+    @Test
+    @DisplayName("Новое хранилище не выделяет ни одного блока, чтение их тоже не выделяет")
+    void newStorage_hasNoMaterializedChunks() {
+        ChunkedCellStorage storage = new ChunkedCellStorage(1000, 100_000);
+        assertEquals(0, storage.materializedChunkCount());
+        assertFalse(storage.isOpen(999, 99_999));
+        assertFalse(storage.isMine(500, 500));
+        storage.setOpen(10, 10, false); // Запись нуля в нетронутый блок
+        assertEquals(0, storage.materializedChunkCount());
+    }
+
+    @Test
+    @DisplayName("Запись выделяет только затронутый блок")
+    void write_materializesOnlyTouchedChunk() {
+        ChunkedCellStorage storage = new ChunkedCellStorage(1000, 100_000);
+        storage.setFlagged(70, 130, true);
+        assertEquals(1, storage.materializedChunkCount());
+        assertTrue(storage.isFlagged(70, 130));
+        assertFalse(storage.isFlagged(70, 131));
+
+        storage.setOpen(70, 130, true);
+        assertTrue(storage.isOpen(70, 130));
+        assertFalse(storage.isFlagged(70, 130), "Открытие снимает флаг");
+        assertEquals(1, storage.countOpen());
+
+        storage.clear();
+        assertEquals(0, storage.materializedChunkCount());
+        assertEquals(0, storage.countOpen());
+    }
+
+    @Test
+    @DisplayName("Соседние мины считаются через границы блоков")
+    void adjacentMines_acrossChunkEdges() {
+        ChunkedCellStorage storage = new ChunkedCellStorage(200, 200);
+        storage.setMine(63, 63, true);
+        storage.setMine(64, 64, true);
+        storage.setMine(63, 65, true);
+        assertEquals(2, storage.adjacentMines(64, 63));
+        assertEquals(3, storage.adjacentMines(63, 64));
+        assertEquals(-1, storage.adjacentMines(64, 64));
+        assertEquals(3, storage.materializedChunkCount());
+    }
+
+    @Test
+    @DisplayName("Игровое поле на блочном хранилище выделяет память лишь под мины и открытую область")
+    void mineField_onChunkedStorage_staysSparse() {
+        ChunkedCellStorage storage = new ChunkedCellStorage(2048, 2048);
+        MineField field = new MineField(storage, 10);
+        field.placeMinesOnNewField(MineField.GenerationMode.PARALLEL_STRIPES);
+        assertEquals(10, field.getActiveMines().size());
+        assertTrue(storage.materializedChunkCount() <= 10);
+
+        int row = 0;
+        while (field.getCell(row, 0).getAdjacentMinesCount() != 0) {
+            row++;
+        }
+        assertFalse(field.openCellRecursive(new CellPosition(row, 0)));
+        assertTrue(field.getNumberOfOpenedCells() > 2048 * 2000, "Почти пустое поле открывается целиком");
+        assertEquals(field.getNumberOfOpenedCells(), storage.countOpen());
+    }
+
+    @Test
+    @DisplayName("Снимок разделяет блоки, а живое хранилище копирует только тронутый блок")
+    void snapshot_sharesChunksUntilWrite() {
+        ChunkedCellStorage live = new ChunkedCellStorage(256, 256);
+        for (int r = 0; r < 256; r += 64) {
+            live.setFlagged(r, r, true);
+        }
+        ChunkedCellStorage fork = live.fork();
+        assertEquals(4, live.sharedChunkCount(fork));
+
+        live.setOpen(0, 1, true);
+        live.setFlagged(0, 0, false);
+        assertEquals(3, live.sharedChunkCount(fork), "Скопирован только измененный блок");
+        assertTrue(fork.isFlagged(0, 0));
+        assertFalse(fork.isOpen(0, 1));
+        assertEquals(0, fork.countOpen());
+
+        fork.setMine(64, 64, true);
+        assertFalse(live.isMine(64, 64), "Запись в копию не видна в оригинале");
+        assertEquals(2, live.sharedChunkCount(fork));
+
+        CellStorage snapshot = live.snapshot();
+        assertTrue(snapshot.isOpen(0, 1));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.setOpen(5, 5, true));
+    }
+}
@@ -0,0 +1,93 @@
+package minesweeper.model.storage;
+
+import minesweeper.model.MineField;
+import minesweeper.model.navigation.CellPosition;
+import minesweeper.model.navigation.CsrTopology;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedCellStorageTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Новый файл поля имеет размер заголовка плюс байт на ячейку")
+    void create_sizesFileOneBytePerCell() throws IOException {
+        Path file = tempDir.resolve("field.bin");
+        try (MappedCellStorage storage = MappedCellStorage.create(file, 300, 200)) {
+            assertEquals(300, storage.rows());
+            assertEquals(200, storage.columns());
+            assertFalse(storage.isOpen(299, 199));
+            assertEquals(0, storage.adjacentMines(0, 0));
+        }
+        assertEquals(MappedCellStorage.HEADER_SIZE + 300 * 200, Files.size(file));
+    }
+
+    @Test
+    @DisplayName("Игровое поле работает поверх файла, а состояние сохраняется при повторном открытии")
+    void mineField_onMappedStorage_survivesReopen() throws IOException {
+        Path file = tempDir.resolve("field.bin");
+        CellPosition minePos = new CellPosition(0, 0);
+        CellPosition target = new CellPosition(9, 9);
+        try (MappedCellStorage storage = MappedCellStorage.create(file, 10, 10)) {
+            MineField field = new MineField(storage, 1);
+            field.getCell(minePos).setMine(true);
+            field.calculateAllAdjacentMines();
+            assertEquals(1, field.getCell(1, 1).getAdjacentMinesCount());
+            assertEquals(-1, field.getCell(minePos).getAdjacentMinesCount());
+
+            assertTrue(field.relocateMine(minePos, target));
+            assertEquals(0, field.getCell(1, 1).getAdjacentMinesCount());
+            assertEquals(1, field.getCell(8, 8).getAdjacentMinesCount());
+
+            assertFalse(field.openCellRecursive(new CellPosition(0, 0)));
+            field.getCell(9, 9).toggleFlag();
+            assertEquals(99, field.getNumberOfOpenedCells(), "Открывается все, кроме мины");
+        }
+
+        try (MappedCellStorage reopened = MappedCellStorage.open(file)) {
+            MineField field = new MineField(reopened, 1);
+            assertEquals(99, field.getNumberOfOpenedCells());
+            assertTrue(field.getCell(target).isMine());
+            assertTrue(field.getCell(target).isFlagged());
+            assertEquals(1, field.getCell(8, 8).getAdjacentMinesCount());
+
+            field.reset(1);
+            assertEquals(0, field.getNumberOfOpenedCells());
+            assertFalse(field.getCell(target).isMine());
+        }
+    }
+
+    @Test
+    @DisplayName("Открытие файла другого формата завершается ошибкой")
+    void open_rejectsForeignFile() throws IOException {
+        Path file = tempDir.resolve("foreign.bin");
+        Files.write(file, new byte[128]);
+        assertThrows(IOException.class, () -> MappedCellStorage.open(file));
+    }
+
+    @Test
+    @DisplayName("Топология с соседями сверх 15 отклоняется, а не искажает счетчики")
+    void topologyWithTooManyNeighbors_isRejected() throws IOException {
+        CsrTopology.Builder hub = new CsrTopology.Builder(1, 20);
+        for (int c = 1; c <= 15; c++) {
+            hub.connect(0, 0, 0, c);
+        }
+        try (MappedCellStorage storage = MappedCellStorage.create(tempDir.resolve("hub.cells"), 1, 20)) {
+            MineField field = new MineField(storage, hub.build(), 0);
+            assertEquals(15, field.getTopology().maxDegree());
+
+            hub.connect(0, 0, 0, 16);
+            CsrTopology dense = hub.build();
+            assertThrows(IllegalArgumentException.class, () -> new MineField(storage, dense, 0));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package minesweeper.model.storage;
+
+import minesweeper.model.MineField;
+import minesweeper.model.navigation.CellPosition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProceduralCellStorageTest {
+
+    @Test
+    @DisplayName("Расстановка мин определяется только зерном")
+    void layout_dependsOnlyOnSeed() {
+        ProceduralCellStorage first = new ProceduralCellStorage(50, 50, 0.2, 123);
+        ProceduralCellStorage second = new ProceduralCellStorage(50, 50, 0.2, 123);
+        ProceduralCellStorage other = new ProceduralCellStorage(50, 50, 0.2, 124);
+        int differences = 0;
+        int mines = 0;
+        for (int r = 0; r < 50; r++) {
+            for (int c = 0; c < 50; c++) {
+                assertEquals(first.isMine(r, c), second.isMine(r, c));
+                if (first.isMine(r, c) != other.isMine(r, c)) differences++;
+                if (first.isMine(r, c)) mines++;
+            }
+        }
+        assertTrue(differences > 0, "Другое зерно должно давать другую расстановку");
+        assertEquals(500, mines, 100, "Количество мин должно быть близко к плотности");
+        assertEquals(0, first.touchedCellCount(), "Чтение не должно ничего сохранять");
+    }
+
+    @Test
+    @DisplayName("Количество соседних мин вычисляется по хешу")
+    void adjacentMines_matchesNeighbors() {
+        ProceduralCellStorage storage = new ProceduralCellStorage(20, 20, 0.3, 7);
+        for (int r = 0; r < 20; r++) {
+            for (int c = 0; c < 20; c++) {
+                int expected = 0;
+                for (int dr = -1; dr <= 1; dr++) {
+                    for (int dc = -1; dc <= 1; dc++) {
+                        int nr = r + dr;
+                        int nc = c + dc;
+                        if ((dr != 0 || dc != 0) && nr >= 0 && nr < 20 && nc >= 0 && nc < 20 && storage.isMine(nr, nc)) {
+                            expected++;
+                        }
+                    }
+                }
+                assertEquals(storage.isMine(r, c) ? -1 : expected, storage.adjacentMines(r, c));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Явно перемещенная мина переопределяет хеш, а совпадающее с хешем значение не хранится")
+    void setMine_overridesGeneratedLayout() {
+        ProceduralCellStorage storage = new ProceduralCellStorage(10, 10, 0.5, 99);
+        boolean generated = storage.isMine(3, 3);
+        storage.setMine(3, 3, !generated);
+        assertEquals(!generated, storage.isMine(3, 3));
+        assertEquals(1, storage.touchedCellCount());
+
+        storage.setMine(3, 3, generated);
+        assertEquals(generated, storage.isMine(3, 3));
+        assertEquals(0, storage.touchedCellCount());
+    }
+
+    @Test
+    @DisplayName("Открытие на огромном поле хранит только исследованную область")
+    void openCell_onHugeBoard_storesOnlyExploredArea() {
+        ProceduralCellStorage storage = new ProceduralCellStorage(1_000_000, 1_000_000, 0.1, 2024);
+        MineField field = new MineField(storage, 0);
+        field.placeMinesOnNewField(); // Ничего не делает: мины задает хранилище
+
+        int row = 500_000;
+        int column = 500_000;
+        while (storage.adjacentMines(row, column) != 0) {
+            column++;
+        }
+        assertFalse(field.openCellRecursive(new CellPosition(row, column)));
+
+        long opened = field.getNumberOfOpenedCells();
+        assertTrue(opened > 1, "Пустая ячейка должна открыть соседей");
+        assertEquals(opened, storage.touchedCellCount());
+        assertTrue(field.getCell(row, column).isOpen());
+        assertEquals(0, field.getCell(row, column).getAdjacentMinesCount());
+    }
+
+    @Test
+    @DisplayName("При низкой плотности пустые ячейки образуют бесконечный кластер, и открытие останавливается на ограничении")
+    void openCell_atPercolatingDensity_stopsAtRevealLimit() {
+        ProceduralCellStorage storage = new ProceduralCellStorage(1_000_000, 1_000_000, 0.05, 2024, 200_000);
+        MineField field = new MineField(storage, 0);
+
+        int row = 500_000;
+        int column = 500_000;
+        while (storage.adjacentMines(row, column) != 0) {
+            column++;
+        }
+        CellPosition empty = new CellPosition(row, column);
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> assertFalse(field.openCellRecursive(empty)));
+
+        long opened = field.getNumberOfOpenedCells();
+        assertTrue(opened >= storage.revealLimit(), "Заливка должна дойти до ограничения");
+        assertTrue(opened <= storage.revealLimit() + field.getTopology().maxDegree(), "Открыто " + opened);
+        assertEquals(opened, storage.touchedCellCount());
+    }
+
+    @Test
+    @DisplayName("Снятие открытия и флага освобождает блок, копия не зависит от оригинала")
+    void touchedCells_areForgottenAndForkIsIndependent() {
+        ProceduralCellStorage storage = new ProceduralCellStorage(1000, 1000, 0.2, 5);
+        storage.setOpen(10, 10, true);
+        storage.setFlagged(700, 900, true);
+        ProceduralCellStorage fork = storage.fork();
+        storage.setOpen(10, 10, false);
+        storage.setFlagged(700, 900, false);
+
+        assertEquals(0, storage.touchedCellCount());
+        assertEquals(0, storage.countOpen());
+        assertFalse(storage.isFlagged(700, 900));
+        assertEquals(2, fork.touchedCellCount());
+        assertTrue(fork.isOpen(10, 10));
+        assertTrue(fork.isFlagged(700, 900));
+        assertEquals(1, fork.countOpen());
+    }
+}
@@ -0,0 +1,110 @@
+package minesweeper.model.storage;
+
+import minesweeper.model.MineField;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoaringMineSetTest {
+
+    @Test
+    @DisplayName("Множество совпадает с эталонным при переходах между массивом, битовой картой и отрезками")
+    void matchesReference_acrossContainerKinds() {
+        RoaringMineSet set = new RoaringMineSet(1L << 20);
+        TreeSet<Long> reference = new TreeSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) { // Блок 0 станет битовой картой, остальные — массивами
+            long index = i % 2 == 0 ? random.nextInt(1 << 16) : random.nextInt(1 << 20);
+            assertEquals(reference.add(index), set.add(index));
+        }
+        for (long i = 300_000; i < 310_000; i++) { // Сплошной участок для отрезков
+            assertEquals(reference.add(i), set.add(i));
+        }
+        set.optimize();
+        for (int i = 0; i < 15_000; i++) {
+            long index = random.nextInt(1 << 20);
+            assertEquals(reference.remove(index), set.remove(index));
+        }
+        assertEquals(reference.size(), set.cardinality());
+
+        for (int i = 0; i < 5_000; i++) {
+            long index = random.nextInt(1 << 20);
+            assertEquals(reference.contains(index), set.contains(index));
+            long to = Math.min(1 << 20, index + random.nextInt(200_000));
+            assertEquals(reference.subSet(index, to).size(), set.rangeCardinality(index, to));
+        }
+        List<Long> iterated = new ArrayList<>();
+        set.forEach(iterated::add);
+        assertEquals(new ArrayList<>(reference), iterated);
+    }
+
+    @Test
+    @DisplayName("Подсчет в отрезке по списку отрезков совпадает с эталонным, в том числе на границах блока")
+    void rangeCardinality_overRuns() {
+        RoaringMineSet set = new RoaringMineSet(1L << 18);
+        TreeSet<Long> reference = new TreeSet<>();
+        for (long i = 0; i < 1L << 18; i++) {
+            if ((i & 63) < 40) { // 1024 отрезка на блок: дешевле битовой карты
+                set.add(i);
+                reference.add(i);
+            }
+        }
+        set.optimize();
+        assertTrue(set.sizeInBytes() < 4 * 8192, "Блоки должны храниться отрезками");
+
+        Random random = new Random(11);
+        for (int i = 0; i < 5_000; i++) {
+            long from = random.nextInt(1 << 18);
+            long to = Math.min(1 << 18, from + random.nextInt(i % 2 == 0 ? 100 : 100_000));
+            assertEquals(reference.subSet(from, to).size(), set.rangeCardinality(from, to));
+        }
+        assertEquals(0, set.rangeCardinality(40, 64));
+        assertEquals(1, set.rangeCardinality(39, 41));
+        assertEquals(40, set.rangeCardinality((1 << 16) - 64, 1 << 16));
+        assertEquals(0, set.rangeCardinality(100, 100));
+    }
+
+    @Test
+    @DisplayName("Память слоя мин растет с количеством мин, а не с площадью")
+    void memory_scalesWithMineCount() {
+        SparseMineCellStorage storage = new SparseMineCellStorage(50_000, 50_000);
+        MineField field = new MineField(storage, 1000);
+        field.placeMinesOnNewField();
+        storage.compactMines();
+
+        assertEquals(1000, storage.mineCount());
+        assertTrue(storage.mineLayerBytes() < 400_000,
+                "2.5 млрд ячеек не должны требовать больше каталога и пары байтов на мину");
+    }
+
+    @Test
+    @DisplayName("Соседние мины считаются по слою мин, в том числе через границы блоков множества")
+    void adjacentMines_derivedFromMineSet() {
+        SparseMineCellStorage storage = new SparseMineCellStorage(3, 65_536);
+        storage.setMine(0, 65_535, true);
+        storage.setMine(1, 0, true);
+        storage.setMine(2, 1, true);
+        assertEquals(1, storage.adjacentMines(0, 65_534));
+        assertEquals(2, storage.adjacentMines(1, 1));
+        assertEquals(-1, storage.adjacentMines(1, 0));
+
+        storage.setOpen(1, 1, true);
+        assertTrue(storage.isOpen(1, 1));
+        assertEquals(1, storage.countOpen());
+    }
+
+    @Test
+    @DisplayName("Выбор хранилища зависит от плотности мин")
+    void forDensity_choosesStorageByDensity() {
+        assertInstanceOf(SparseMineCellStorage.class, CellStorages.forDensity(10_000, 10_000, 1000));
+        assertInstanceOf(PackedCellStorage.class, CellStorages.forDensity(10_000, 10_000, 20_000_000));
+        assertInstanceOf(PackedCellStorage.class, CellStorages.forDensity(16, 16, 1));
+        assertThrows(IllegalArgumentException.class, () -> CellStorages.forDensity(10, 10, 101));
+    }
+}
@@ -0,0 +1,61 @@
+package minesweeper.model.storage;
+
+import minesweeper.model.MineField;
+import minesweeper.model.navigation.CellPosition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TiledCellStorageTest {
+
+    @Test
+    @DisplayName("Каждая ячейка получает собственный байт, включая края неполных плиток")
+    void index_isUniqueForEveryCell() {
+        TiledCellStorage storage = new TiledCellStorage(13, 21);
+        for (int r = 0; r < 13; r++) {
+            for (int c = 0; c < 21; c++) {
+                storage.setAdjacentMines(r, c, (r * 21 + c) % 9);
+            }
+        }
+        for (int r = 0; r < 13; r++) {
+            for (int c = 0; c < 21; c++) {
+                assertEquals((r * 21 + c) % 9, storage.adjacentMines(r, c), "Ячейка (" + r + "," + c + ")");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Плиточная и построчная раскладки дают одинаковый результат игры")
+    void tiledAndRowMajor_produceSameGame() {
+        MineField tiled = new MineField(new TiledCellStorage(37, 45), 200);
+        MineField packed = new MineField(new PackedCellStorage(37, 45), 200);
+        tiled.reseed(5);
+        packed.reseed(5);
+        tiled.placeMinesOnNewField();
+        packed.placeMinesOnNewField();
+
+        CellPosition start = null;
+        for (int r = 0; r < 37 && start == null; r++) {
+            for (int c = 0; c < 45; c++) {
+                if (packed.getCell(r, c).getAdjacentMinesCount() == 0) {
+                    start = new CellPosition(r, c);
+                    break;
+                }
+            }
+        }
+        assertNotNull(start);
+        tiled.openCellRecursive(start);
+        packed.openCellRecursive(start);
+
+        assertEquals(packed.getNumberOfOpenedCells(), tiled.getNumberOfOpenedCells());
+        for (int r = 0; r < 37; r++) {
+            for (int c = 0; c < 45; c++) {
+                assertEquals(packed.getCell(r, c).isMine(), tiled.getCell(r, c).isMine());
+                assertEquals(packed.getCell(r, c).isOpen(), tiled.getCell(r, c).isOpen());
+                assertEquals(packed.getCell(r, c).getAdjacentMinesCount(), tiled.getCell(r, c).getAdjacentMinesCount());
+            }
+        }
+        assertEquals(packed.getBoundaryCellsForRelocation(), tiled.getBoundaryCellsForRelocation());
+    }
+}
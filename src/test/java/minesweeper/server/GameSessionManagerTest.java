@@ -0,0 +1,121 @@
+package minesweeper.server;
+
+import minesweeper.model.MinesweeperGame;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSessionManagerTest {
+
+    @Test
+    @DisplayName("Команды одной сессии из разных потоков выполняются по одной и все применяются")
+    void commandsFromManyThreads_areSerialized() throws Exception {
+        try (GameSessionManager manager = new GameSessionManager()) {
+            GameSession session = manager.create(16, 16, 0, 3);
+            // 8 потоков по 1001 раз переключают флаг каждый в своей ячейке: в итоге флаги стоят везде
+            try (ExecutorService producers = Executors.newFixedThreadPool(8)) {
+                for (int t = 0; t < 8; t++) {
+                    int column = t;
+                    producers.execute(() -> {
+                        CompletableFuture<MoveResult> last = null;
+                        for (int i = 0; i < 1001; i++) {
+                            while ((last = session.toggleFlag(0, column)).isCompletedExceptionally()) {
+                                Thread.onSpinWait(); // Очередь переполнена, повторяем
+                            }
+                        }
+                        last.join();
+                    });
+                }
+            }
+            int flags = session.inspect(game -> {
+                int count = 0;
+                for (int c = 0; c < 16; c++) {
+                    count += game.getMineField().getCell(0, c).isFlagged() ? 1 : 0;
+                }
+                return count;
+            }).get();
+            assertEquals(8, flags);
+            assertEquals(8 * 1001 + 1, manager.processedCommands());
+        }
+    }
+
+    @Test
+    @DisplayName("Переполненная очередь отклоняет команды, слишком большое поле не создается")
+    void limits_areEnforced() throws Exception {
+        GameSessionManager.Limits limits = new GameSessionManager.Limits(100, 4, 8, Duration.ofMinutes(1));
+        try (GameSessionManager manager = new GameSessionManager(limits)) {
+            assertThrows(IllegalArgumentException.class, () -> manager.create(11, 10, 5, 3));
+            GameSession session = manager.create(10, 10, 5, 3);
+
+            CountDownLatch release = new CountDownLatch(1);
+            CompletableFuture<Boolean> blocker = session.inspect(game -> {
+                try {
+                    return release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            while (session.pendingCommands() != 0) {
+                Thread.onSpinWait(); // Ждем, пока блокирующая команда начнет выполняться
+            }
+            List<CompletableFuture<MoveResult>> queued = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                queued.add(session.toggleFlag(0, i));
+            }
+            CompletableFuture<MoveResult> overflow = session.toggleFlag(1, 1);
+            ExecutionException e = assertThrows(ExecutionException.class, overflow::get);
+            assertInstanceOf(RejectedExecutionException.class, e.getCause());
+
+            release.countDown();
+            assertTrue(blocker.get());
+            for (CompletableFuture<MoveResult> future : queued) {
+                assertEquals(MinesweeperGame.GameState.PLAYING, future.get().state());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Простаивающие сессии удаляются и больше не принимают команды")
+    void idleSessions_expire() throws Exception {
+        GameSessionManager.Limits limits = new GameSessionManager.Limits(100, 4, 8, Duration.ofMillis(50));
+        try (GameSessionManager manager = new GameSessionManager(limits)) {
+            GameSession session = manager.create(10, 10, 5, 3);
+            session.open(0, 0).get();
+            assertSame(session, manager.get(session.id()));
+
+            Thread.sleep(60);
+            manager.expireIdle();
+            assertNull(manager.get(session.id()));
+            assertEquals(0, manager.size());
+            assertTrue(session.isClosed());
+            assertThrows(ExecutionException.class, () -> session.open(1, 1).get());
+        }
+    }
+
+    @Test
+    @DisplayName("Error в команде передается вызывающему и не останавливает сессию")
+    void errorInCommand_doesNotWedgeSession() throws Exception {
+        try (GameSessionManager manager = new GameSessionManager()) {
+            GameSession session = manager.create(8, 8, 0, 3);
+            CompletableFuture<Object> failed = session.inspect(game -> {
+                throw new AssertionError("сбой");
+            });
+            ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(AssertionError.class, e.getCause());
+
+            assertEquals(MinesweeperGame.GameState.PLAYING, session.inspect(MinesweeperGame::getGameState).get(5, TimeUnit.SECONDS));
+        }
+    }
+}